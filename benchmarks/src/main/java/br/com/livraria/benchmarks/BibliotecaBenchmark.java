@@ -0,0 +1,68 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas da Biblioteca sobre catálogos de 1K, 100K e 1M livros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BibliotecaBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int tamanho;
+
+    Biblioteca biblioteca;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        biblioteca = Catalogos.criar(tamanho, 42);
+        biblioteca.configurarCacheBuscas(0, Duration.ZERO); // termos constantes: sem isso, as buscas medem acertos do cache
+        // ~10% do catálogo emprestado, para que a lista de disponíveis não seja o catálogo inteiro
+        LocalDate hoje = LocalDate.now();
+        for (int id = 1, emprestimo = 1; id <= tamanho; id += 10) {
+            biblioteca.emprestarLivro(emprestimo++, id, "Cliente " + id, hoje);
+        }
+    }
+
+    @Benchmark
+    public Optional<Livro> buscarLivroPorId() {
+        return biblioteca.buscarLivroPorId(1 + ThreadLocalRandom.current().nextInt(tamanho));
+    }
+
+    /** Termo seletivo (combinação rara de palavras). */
+    @Benchmark
+    public List<Livro> buscarLivrosPorTituloSeletivo() {
+        return biblioteca.buscarLivrosPorTitulo("labirinto esquecido");
+    }
+
+    /** Termo curto e frequente: pior caso (muitos candidatos). */
+    @Benchmark
+    public List<Livro> buscarLivrosPorTituloFrequente() {
+        return biblioteca.buscarLivrosPorTitulo("casa");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Livro> listarLivrosDisponiveis() {
+        return biblioteca.listarLivrosDisponiveis();
+    }
+
+    @Benchmark
+    public int contarLivrosDisponiveis() {
+        return biblioteca.contarLivrosDisponiveis();
+    }
+}
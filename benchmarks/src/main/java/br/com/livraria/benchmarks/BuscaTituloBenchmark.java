@@ -0,0 +1,55 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+import br.com.livraria.model.NormalizadorTexto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca por título sem o cache de buscas (cada chamada vai ao índice de trigramas),
+ * num catálogo de 100K livros: termo com acento, o mesmo termo sem acento e um termo
+ * digitado com maiúsculas e espaços nas pontas; e só a normalização desse termo.
+ * Rode com {@code -prof gc} para ver a alocação por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class BuscaTituloBenchmark {
+
+    Biblioteca biblioteca;
+
+    @Setup(Level.Trial)
+    public void montar() {
+        biblioteca = Catalogos.criar(100_000, 42);
+        biblioteca.configurarCacheBuscas(0, Duration.ZERO);
+    }
+
+    @Benchmark
+    public List<Livro> comAcento() {
+        return biblioteca.buscarLivrosPorTitulo("memória");
+    }
+
+    /** Antes da normalização compartilhada, não encontrava nada. */
+    @Benchmark
+    public List<Livro> semAcento() {
+        return biblioteca.buscarLivrosPorTitulo("memoria");
+    }
+
+    @Benchmark
+    public List<Livro> digitado() {
+        return biblioteca.buscarLivrosPorTitulo("  Labirinto Esquecido ");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String chaveDoTermo() {
+        return NormalizadorTexto.chave("  Labirinto Esquecido ");
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code adicionarLivro} (incluindo a verificação de id duplicado) sobre catálogos
+ * de 1K, 100K e 1M livros. O catálogo é remontado a cada iteração para que o
+ * tamanho medido não se afaste do parâmetro.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CadastroBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int tamanho;
+
+    Biblioteca biblioteca;
+    Autor autor;
+    int proximoId;
+
+    @Setup(Level.Iteration)
+    public void montar() {
+        biblioteca = Catalogos.criar(tamanho, 42);
+        autor = biblioteca.buscarAutorPorId(1).orElseThrow();
+        proximoId = tamanho + 1;
+    }
+
+    @Benchmark
+    public Livro adicionarLivro() {
+        Livro livro = new Livro(proximoId++, "Novo título de teste", autor);
+        biblioteca.adicionarLivro(livro);
+        return livro;
+    }
+
+    /** Caminho de rejeição: id já cadastrado. */
+    @Benchmark
+    public boolean adicionarLivroDuplicado() {
+        try {
+            biblioteca.adicionarLivro(new Livro(1 + (proximoId++ % tamanho), "Duplicado", autor));
+            return true;
+        } catch (IllegalArgumentException esperado) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.api.ServidorApi;
+import br.com.livraria.model.Biblioteca;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Gerador de carga para a API HTTP: mantém até {@code concorrencia} requisições em voo
+ * (assíncronas, sem uma thread por requisição no cliente) e no fim informa vazão,
+ * latências (p50/p99/p99.9/máx.) e a contagem por código de status.
+ *
+ * Mistura: 80% consulta de livro por id, 10% busca por título e 10% empréstimo seguido
+ * de devolução. Empréstimos de livros já emprestados voltam 409, o que é esperado.
+ *
+ * Uso: {@code java -cp benchmarks/target/benchmarks.jar br.com.livraria.benchmarks.CargaApi
+ * [requisicoes] [concorrencia] [url]}. Sem url, sobe um servidor local com um catálogo
+ * sintético de 10.000 livros.
+ */
+public final class CargaApi {
+
+    private static final int LIVROS = 10_000;
+
+    private CargaApi() { }
+
+    public static void main(String[] args) throws Exception {
+        int requisicoes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int concorrencia = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        ServidorApi servidor = null;
+        String base;
+        if (args.length > 2) {
+            base = args[2].endsWith("/") ? args[2].substring(0, args[2].length() - 1) : args[2];
+        } else {
+            Biblioteca biblioteca = Catalogos.criar(LIVROS, 42);
+            servidor = new ServidorApi(biblioteca, 0);
+            base = "http://localhost:" + servidor.getPorta();
+            System.out.printf("Servidor local na porta %d (%s)%n", servidor.getPorta(),
+                    servidor.isThreadsVirtuais() ? "threads virtuais" : "pool de threads");
+        }
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        Semaphore emVoo = new Semaphore(concorrencia);
+        CountDownLatch fim = new CountDownLatch(requisicoes);
+        long[] latencias = new long[requisicoes];
+        AtomicLongArray porStatus = new AtomicLongArray(600);
+        AtomicInteger falhas = new AtomicInteger();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < requisicoes; i++) {
+            emVoo.acquire();
+            int indice = i;
+            HttpRequest requisicao = sortear(base, i, aleatorio);
+            long t0 = System.nanoTime();
+            cliente.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                    .thenCompose(r -> {
+                        // o empréstimo é devolvido na sequência para não esgotar o acervo
+                        if (r.statusCode() == 201 && requisicao.method().equals("POST")) {
+                            HttpRequest devolucao = HttpRequest.newBuilder(
+                                            URI.create(base + "/emprestimos/" + (indice + 1) + "/devolucao"))
+                                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+                            return cliente.sendAsync(devolucao, HttpResponse.BodyHandlers.discarding());
+                        }
+                        return CompletableFuture.completedFuture(r);
+                    })
+                    .whenComplete((r, erro) -> {
+                        latencias[indice] = System.nanoTime() - t0;
+                        if (erro != null) falhas.incrementAndGet();
+                        else porStatus.incrementAndGet(r.statusCode());
+                        emVoo.release();
+                        fim.countDown();
+                    });
+        }
+        fim.await();
+        long duracao = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        System.out.printf("%d requisições, até %d em voo, em %.2f s: %.0f req/s%n",
+                requisicoes, concorrencia, duracao / 1e9, requisicoes / (duracao / 1e9));
+        System.out.printf("latência (ms): p50=%.2f p99=%.2f p99.9=%.2f máx=%.2f%n",
+                percentil(latencias, 0.50), percentil(latencias, 0.99), percentil(latencias, 0.999),
+                latencias[latencias.length - 1] / 1e6);
+        StringBuilder status = new StringBuilder("status:");
+        for (int s = 0; s < porStatus.length(); s++) {
+            if (porStatus.get(s) > 0) status.append(' ').append(s).append('=').append(porStatus.get(s));
+        }
+        if (falhas.get() > 0) status.append(" falhas de conexão=").append(falhas.get());
+        System.out.println(status);
+        if (servidor != null) servidor.close();
+    }
+
+    private static HttpRequest sortear(String base, int i, SplittableRandom aleatorio) {
+        int sorteio = aleatorio.nextInt(10);
+        int livroId = 1 + aleatorio.nextInt(LIVROS);
+        if (sorteio < 8) {
+            return HttpRequest.newBuilder(URI.create(base + "/livros/" + livroId)).GET().build();
+        }
+        if (sorteio == 8) {
+            return HttpRequest.newBuilder(URI.create(base + "/livros?titulo=casa&limite=10")).GET().build();
+        }
+        String corpo = "{\"id\":" + (i + 1) + ",\"livroId\":" + livroId + ",\"cliente\":\"Cliente " + (i % 500) + "\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/emprestimos"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo)).build();
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int i = (int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1);
+        return ordenadas[Math.max(0, i)] / 1e6;
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.geracao.GeradorDados;
+import br.com.livraria.model.Biblioteca;
+
+/**
+ * Monta catálogos determinísticos para os benchmarks com o {@link GeradorDados}:
+ * um autor para cada 20 livros e nenhum empréstimo.
+ */
+final class Catalogos {
+
+    private Catalogos() { }
+
+    static Biblioteca criar(int tamanho, long semente) {
+        Biblioteca biblioteca = new Biblioteca(false);
+        new GeradorDados(semente, Math.max(1, tamanho / 20), tamanho, 0).gerar(biblioteca);
+        return biblioteca;
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga mista de empréstimo/devolução por vários balcões simultâneos: cada operação
+ * tenta emprestar um livro sorteado e o devolve em seguida. Livros disputados geram
+ * a rejeição normal ({@link IllegalStateException}), que também é medida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class EmprestimoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int tamanho;
+
+    Biblioteca biblioteca;
+    final AtomicInteger proximoEmprestimo = new AtomicInteger();
+    final LocalDate hoje = LocalDate.now();
+
+    // o histórico de empréstimos cresce a cada operação: remonta por iteração para limitar a memória
+    @Setup(Level.Iteration)
+    public void montar() {
+        biblioteca = Catalogos.criar(tamanho, 42);
+        proximoEmprestimo.set(0);
+    }
+
+    @Benchmark
+    public boolean emprestarEDevolver() {
+        int livroId = 1 + ThreadLocalRandom.current().nextInt(tamanho);
+        try {
+            Emprestimo e = biblioteca.emprestarLivro(proximoEmprestimo.incrementAndGet(), livroId, "Cliente", hoje);
+            biblioteca.devolverLivro(e.getId(), hoje);
+            return true;
+        } catch (IllegalStateException livroJaEmprestado) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão por item de empréstimo + devolução: {@value #LOTE} chamadas avulsas contra um
+ * {@link Biblioteca#emprestarLivros lote} e um {@link Biblioteca#devolverLivros lote} de
+ * {@value #LOTE} livros distintos (ids da sequência nos dois casos).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EmprestimoLoteBenchmark {
+
+    static final int LOTE = 16;
+    static final int LIVROS = 100_000;
+
+    Biblioteca biblioteca;
+    final int[] livroIds = new int[LOTE];
+    final int[] emprestimoIds = new int[LOTE];
+    final LocalDate hoje = LocalDate.now();
+
+    // o histórico cresce a cada operação: remonta por iteração para limitar a memória
+    @Setup(Level.Iteration)
+    public void montar() {
+        biblioteca = Catalogos.criar(LIVROS, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void sortear() {
+        int primeiro = 1 + ThreadLocalRandom.current().nextInt(LIVROS - LOTE);
+        for (int i = 0; i < LOTE; i++) livroIds[i] = primeiro + i;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int avulsos() {
+        for (int i = 0; i < LOTE; i++) {
+            emprestimoIds[i] = biblioteca.emprestarLivroComNovoId(livroIds[i], "Cliente", hoje).getId();
+        }
+        for (int i = 0; i < LOTE; i++) biblioteca.devolverLivro(emprestimoIds[i], hoje);
+        return emprestimoIds[LOTE - 1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int emLote() {
+        List<Emprestimo> lote = biblioteca.emprestarLivros(livroIds, "Cliente", hoje);
+        for (int i = 0; i < LOTE; i++) emprestimoIds[i] = lote.get(i).getId();
+        biblioteca.devolverLivros(emprestimoIds, hoje);
+        return emprestimoIds[LOTE - 1];
+    }
+}
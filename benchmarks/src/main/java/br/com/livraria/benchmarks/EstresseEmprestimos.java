@@ -0,0 +1,118 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Teste de estresse do empréstimo concorrente: várias threads disputam
+ * {@link Biblioteca#emprestarLivro(int, int, String, LocalDate)} e
+ * {@link Biblioteca#devolverLivro} nos mesmos poucos livros, e nenhum livro pode ter
+ * mais empréstimos em aberto que exemplares.
+ *
+ * Cada thread conta, por livro, os empréstimos que recebeu e ainda não começou a
+ * devolver (soma logo depois do empréstimo, subtrai logo antes da devolução). Essa
+ * conta nunca passa dos empréstimos realmente em aberto, então vê-la passar dos
+ * exemplares prova um empréstimo em dobro. Ao fim, com tudo devolvido, cada livro
+ * precisa ter todos os exemplares disponíveis e nenhum empréstimo em aberto.
+ *
+ * Uso: {@code java -cp benchmarks/target/benchmarks.jar br.com.livraria.benchmarks.EstresseEmprestimos
+ * [threads] [operacoes por thread] [livros] [exemplares]} (padrão: 8, 200.000, 4 e 2).
+ * Termina com código 1 se alguma verificação falhar.
+ */
+public final class EstresseEmprestimos {
+
+    private EstresseEmprestimos() { }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int livros = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int exemplares = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        Biblioteca biblioteca = new Biblioteca(false);
+        Autor autor = new Autor(1, "Autor", LocalDate.of(1900, 1, 1));
+        biblioteca.adicionarAutor(autor);
+        for (int id = 1; id <= livros; id++) biblioteca.adicionarLivro(new Livro(id, "Livro " + id, autor, exemplares));
+
+        AtomicIntegerArray emMaos = new AtomicIntegerArray(livros + 1);   // por livro, a conta descrita acima
+        AtomicInteger proximoId = new AtomicInteger();
+        AtomicLong emprestados = new AtomicLong();
+        AtomicLong recusados = new AtomicLong();
+        AtomicLong violacoes = new AtomicLong();
+        LocalDate hoje = LocalDate.of(2024, 1, 1);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        Thread[] trabalhadores = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            String cliente = "Cliente " + t;
+            trabalhadores[t] = new Thread(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                ArrayDeque<Emprestimo> abertos = new ArrayDeque<>();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operacoes; i++) {
+                    // segura até dois empréstimos antes de devolver, para a disputa pelos exemplares ser real
+                    if (abertos.size() < 2 && (abertos.isEmpty() || aleatorio.nextBoolean())) {
+                        int livroId = 1 + aleatorio.nextInt(livros);
+                        try {
+                            Emprestimo e = biblioteca.emprestarLivro(proximoId.incrementAndGet(), livroId, cliente, hoje);
+                            if (emMaos.incrementAndGet(livroId) > exemplares) violacoes.incrementAndGet();
+                            abertos.add(e);
+                            emprestados.incrementAndGet();
+                        } catch (IllegalStateException semExemplar) {
+                            recusados.incrementAndGet();
+                        }
+                    } else {
+                        Emprestimo e = abertos.poll();
+                        emMaos.decrementAndGet(e.getLivro().getId());
+                        biblioteca.devolverLivro(e.getId(), hoje);
+                    }
+                }
+                for (Emprestimo e : abertos) {
+                    emMaos.decrementAndGet(e.getLivro().getId());
+                    biblioteca.devolverLivro(e.getId(), hoje);
+                }
+            }, "estresse-" + t);
+            trabalhadores[t].start();
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : trabalhadores) t.join();
+        long duracao = System.nanoTime() - inicio;
+
+        int falhas = 0;
+        if (violacoes.get() > 0) {
+            System.out.printf("❌ %,d vezes um livro teve mais empréstimos em aberto que exemplares.%n", violacoes.get());
+            falhas++;
+        }
+        for (int id = 1; id <= livros; id++) {
+            Livro livro = biblioteca.buscarLivroPorId(id).orElseThrow();
+            if (livro.getExemplaresDisponiveis() != exemplares) {
+                System.out.printf("❌ Livro id=%d terminou com %d de %d exemplares disponíveis.%n",
+                        id, livro.getExemplaresDisponiveis(), exemplares);
+                falhas++;
+            }
+        }
+        if (biblioteca.contarEmprestimosEmAberto() != 0) {
+            System.out.printf("❌ %d empréstimos ficaram em aberto.%n", biblioteca.contarEmprestimosEmAberto());
+            falhas++;
+        }
+        System.out.printf("%d threads, %d livros com %d exemplares: %,d empréstimos, %,d recusas por falta de exemplar, %d ms%n",
+                threads, livros, exemplares, emprestados.get(), recusados.get(), duracao / 1_000_000);
+        if (falhas > 0) System.exit(1);
+        System.out.println("✅ Nenhum empréstimo em dobro.");
+    }
+}
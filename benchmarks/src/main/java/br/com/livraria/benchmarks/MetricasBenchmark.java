@@ -0,0 +1,67 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.metricas.Metricas;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Custo das métricas: as mesmas operações com elas desativadas e ativadas,
+ * sobre um catálogo de 100 mil livros. A diferença entre os dois valores de
+ * {@code ativas} é a sobrecarga por chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MetricasBenchmark {
+
+    private static final int TAMANHO = 100_000;
+
+    @Param({"false", "true"})
+    boolean ativas;
+
+    Biblioteca biblioteca;
+    final AtomicInteger proximoEmprestimo = new AtomicInteger();
+    final LocalDate hoje = LocalDate.now();
+
+    @Setup(Level.Trial)
+    public void montar() {
+        biblioteca = Catalogos.criar(TAMANHO, 42);
+        biblioteca.setMetricas(ativas ? new Metricas() : Metricas.DESATIVADAS);
+        biblioteca.configurarCacheBuscas(0, Duration.ZERO); // o termo é sempre o mesmo: mede o índice, não o cache
+    }
+
+    @Benchmark
+    public Optional<Livro> buscarLivroPorId() {
+        return biblioteca.buscarLivroPorId(1 + ThreadLocalRandom.current().nextInt(TAMANHO));
+    }
+
+    @Benchmark
+    public List<Livro> buscarLivrosPorTitulo() {
+        return biblioteca.buscarLivrosPorTitulo("labirinto esquecido");
+    }
+
+    @Benchmark
+    public boolean emprestarEDevolver() {
+        int livroId = 1 + ThreadLocalRandom.current().nextInt(TAMANHO);
+        try {
+            Emprestimo e = biblioteca.emprestarLivro(proximoEmprestimo.incrementAndGet(), livroId, "Cliente", hoje);
+            biblioteca.devolverLivro(e.getId(), hoje);
+            return true;
+        } catch (IllegalStateException livroJaEmprestado) {
+            return false;
+        }
+    }
+}
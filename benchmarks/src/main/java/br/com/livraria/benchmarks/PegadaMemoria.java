@@ -0,0 +1,67 @@
+package br.com.livraria.benchmarks;
+
+import br.com.livraria.geracao.GeradorDados;
+import br.com.livraria.model.Biblioteca;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Relatório de ocupação do heap: gera uma massa com o {@link GeradorDados} em etapas
+ * (catálogo, depois empréstimos) e mede o heap vivo depois de uma coleta completa ao
+ * fim de cada uma, dividindo a diferença pela quantidade de registros da etapa.
+ *
+ * Uso: {@code java -Xmx2g -cp benchmarks/target/benchmarks.jar br.com.livraria.benchmarks.PegadaMemoria
+ * [livros] [emprestimos]} (padrão: 100.000 livros e 2.000.000 de empréstimos). Para ver
+ * o peso de cada classe, rode com {@code jmap -histo:live <pid>} na pausa final
+ * ({@code -Dpausa=true}).
+ */
+public final class PegadaMemoria {
+
+    private PegadaMemoria() { }
+
+    public static void main(String[] args) throws Exception {
+        int livros = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int emprestimos = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int autores = Math.max(1, livros / 20);
+
+        long vazio = heapVivo();
+        Biblioteca catalogo = new Biblioteca(false);
+        new GeradorDados(42, autores, livros, 0).gerar(catalogo);
+        long comCatalogo = heapVivo();
+        catalogo = null;
+
+        long antes = heapVivo();
+        Biblioteca biblioteca = new Biblioteca(false);
+        long inicio = System.nanoTime();
+        new GeradorDados(42, autores, livros, emprestimos).gerar(biblioteca);
+        long duracao = System.nanoTime() - inicio;
+        long depois = heapVivo();
+        long porEmprestimos = depois - antes - (comCatalogo - vazio);
+
+        System.out.printf("Catálogo: %,d autores e %,d livros = %,d KB (%.1f bytes por livro, autores incluídos)%n",
+                autores, livros, (comCatalogo - vazio) / 1024, (double) (comCatalogo - vazio) / livros);
+        System.out.printf("Empréstimos: %,d (%,d em aberto) = %,d KB (%.1f bytes por empréstimo)%n",
+                emprestimos, biblioteca.contarEmprestimosEmAberto(), porEmprestimos / 1024,
+                (double) porEmprestimos / Math.max(1, emprestimos));
+        System.out.printf("Heap vivo total: %,d KB; geração em %d ms%n", (depois - vazio) / 1024, duracao / 1_000_000);
+        if (Boolean.getBoolean("pausa")) {
+            System.out.println("Pausado (Enter encerra).");
+            System.in.read();
+        }
+    }
+
+    // heap ocupado depois de coletas completas seguidas, até estabilizar
+    private static long heapVivo() throws InterruptedException {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long anterior = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            long usado = memoria.getHeapMemoryUsage().getUsed();
+            if (Math.abs(anterior - usado) < 64 * 1024) return usado;
+            anterior = usado;
+        }
+        return anterior;
+    }
+}
@@ -1,19 +1,134 @@
 package br.com.livraria;
 
+import br.com.livraria.agendamento.AgendadorAtrasos;
+import br.com.livraria.agendamento.AgendadorReservas;
+import br.com.livraria.analise.PainelEmprestimos;
+import br.com.livraria.api.ServidorApi;
+import br.com.livraria.console.ExecutorLote;
+import br.com.livraria.console.Listagens;
+import br.com.livraria.console.SaidaPaginada;
+import br.com.livraria.geracao.GeradorDados;
+import br.com.livraria.importacao.ImportadorCatalogo;
+import br.com.livraria.importacao.ResultadoImportacao;
+import br.com.livraria.metricas.Metricas;
 import br.com.livraria.model.*;
+import br.com.livraria.persistencia.AgendadorInstantaneos;
+import br.com.livraria.persistencia.DiarioBiblioteca;
+import br.com.livraria.persistencia.Instantaneo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
-import java.util.Comparator;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 public class Main {
-    public static void main(String[] args) {
-        Biblioteca biblioteca = new Biblioteca();
+    public static void main(String[] args) throws IOException {
+        // -Dlivraria.diario=arquivo ativa a persistência: o estado é reconstruído do diário ao iniciar;
+        // -Dlivraria.instantaneo=arquivo acrescenta instantâneos periódicos para acelerar o reinício
+        String caminhoDiario = System.getProperty("livraria.diario");
+        String caminhoInstantaneo = System.getProperty("livraria.instantaneo");
+        DiarioBiblioteca diario = null;
+        AgendadorInstantaneos agendador = null;
+        Biblioteca biblioteca;
+        if (caminhoDiario == null) {
+            biblioteca = new Biblioteca(false);
+            popular(biblioteca);
+        } else {
+            diario = DiarioBiblioteca.abrir(Path.of(caminhoDiario), DiarioBiblioteca.Durabilidade.SINCRONA);
+            biblioteca = new Biblioteca(false);
+            long inicio = System.nanoTime();
+            long registros;
+            if (caminhoInstantaneo != null && Files.exists(Path.of(caminhoInstantaneo))) {
+                try (Instantaneo instantaneo = Instantaneo.abrir(Path.of(caminhoInstantaneo))) {
+                    registros = diario.reproduzir(biblioteca, instantaneo);
+                }
+            } else {
+                registros = diario.reproduzir(biblioteca);
+            }
+            biblioteca.adicionarOuvinte(diario);
+            if (biblioteca.getLivros().isEmpty() && biblioteca.getAutores().isEmpty()) {
+                popular(biblioteca); // primeiro uso: dados iniciais também vão para o diário
+            }
+            System.out.printf("💾 Diário %s: %d registros reproduzidos em %d ms%n",
+                    caminhoDiario, registros, (System.nanoTime() - inicio) / 1_000_000);
+            if (caminhoInstantaneo != null) {
+                Duration intervalo = Duration.ofSeconds(Long.getLong("livraria.instantaneo.segundos", 300));
+                agendador = new AgendadorInstantaneos(biblioteca, diario, Path.of(caminhoInstantaneo), intervalo);
+            }
+        }
+        // latências e falhas por operação (opção 15); a carga inicial fica de fora
+        biblioteca.setMetricas(new Metricas());
+        // -Dlivraria.cache.buscas=N termos no cache de buscas por título (0 desliga), válidos por -Dlivraria.cache.buscas.segundos
+        biblioteca.configurarCacheBuscas(Integer.getInteger("livraria.cache.buscas", Biblioteca.CAPACIDADE_CACHE_BUSCAS),
+                Duration.ofSeconds(Long.getLong("livraria.cache.buscas.segundos", Biblioteca.VALIDADE_CACHE_BUSCAS.toSeconds())));
+        // reservas separadas e não retiradas no prazo liberam o exemplar para a próxima da fila
+        AgendadorReservas agendadorReservas = new AgendadorReservas(biblioteca, Duration.ofHours(1));
+        // empréstimos vencidos são avisados na saída de erros, uma vez cada; -Dlivraria.atrasos.minutos ajusta o ciclo
+        AgendadorAtrasos agendadorAtrasos = new AgendadorAtrasos(biblioteca, Main::avisarAtraso,
+                Duration.ofMinutes(Long.getLong("livraria.atrasos.minutos", 60)));
+
+        // -Dlivraria.servidor.porta=8080 serve a API HTTP/JSON no lugar do menu, até o processo ser encerrado
+        String porta = System.getProperty("livraria.servidor.porta");
+        if (porta != null) {
+            ServidorApi servidor = new ServidorApi(biblioteca, Integer.parseInt(porta));
+            final DiarioBiblioteca diarioAberto = diario;
+            final AgendadorInstantaneos agendadorAberto = agendador;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                servidor.close();
+                agendadorReservas.close();
+                agendadorAtrasos.close();
+                if (agendadorAberto != null) agendadorAberto.close();
+                try {
+                    if (diarioAberto != null) diarioAberto.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Erro ao fechar o diário: " + e.getMessage());
+                }
+                System.out.println("Servidor encerrado. 👋");
+            }));
+            System.out.printf("🌐 API HTTP em http://localhost:%d/ (%s)%n", servidor.getPorta(),
+                    servidor.isThreadsVirtuais() ? "threads virtuais" : "pool de threads");
+            return;
+        }
+
+        // -Dlivraria.lote=arquivo (ou "-" para a entrada padrão) executa os comandos do arquivo no lugar do menu
+        String lote = System.getProperty("livraria.lote");
+        if (lote != null) {
+            SaidaPaginada saida = new SaidaPaginada(System.out, SaidaPaginada.charsetDoConsole());
+            ExecutorLote.Resumo resumo;
+            try (BufferedReader entrada = lote.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, SaidaPaginada.charsetDoConsole()))
+                    : Files.newBufferedReader(Path.of(lote))) {
+                resumo = new ExecutorLote(biblioteca, saida).executar(entrada);
+            } finally {
+                agendadorReservas.close();
+                agendadorAtrasos.close();
+                if (agendador != null) agendador.close();
+                if (diario != null) diario.close();
+            }
+            // o resumo vai para a saída de erros para não se misturar ao resultado redirecionado
+            System.err.printf("📜 Lote: %d comando(s), %d com erro, em %d ms%n",
+                    resumo.comandos(), resumo.erros(), resumo.duracaoNanos() / 1_000_000);
+            if (resumo.erros() > 0) System.exit(1);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         int opcao;
+        // listagens longas pausam a cada página no terminal (-Dlivraria.pagina=0 desliga); redirecionadas, não
+        int linhasPorPagina = Integer.getInteger("livraria.pagina", System.console() != null ? 40 : 0);
+        SaidaPaginada saida = new SaidaPaginada(System.out, SaidaPaginada.charsetDoConsole(), linhasPorPagina, () -> {
+            System.out.print("-- Enter: próxima página | q: parar -- ");
+            return scanner.hasNextLine() && !scanner.nextLine().trim().equalsIgnoreCase("q");
+        });
 
         System.out.println("=== Sistema de Livraria ===");
+        PainelEmprestimos painel = null;
 
         do {
             System.out.println("\nEscolha uma opção:");
@@ -26,6 +141,14 @@ public class Main {
             System.out.println("7 - Emprestar um livro");
             System.out.println("8 - Devolver um livro");
             System.out.println("9 - Ver empréstimos");
+            System.out.println("10 - Importar livros de arquivo CSV/TSV");
+            System.out.println("11 - Empréstimos de um cliente");
+            System.out.println("12 - Ver empréstimos atrasados");
+            System.out.println("13 - Reservar um livro");
+            System.out.println("14 - Retirar livro reservado");
+            System.out.println("15 - Ver métricas de desempenho");
+            System.out.println("16 - Livros de um autor");
+            System.out.println("17 - Relatório de empréstimos");
             System.out.println("0 - Sair");
             System.out.print("Opção: ");
 
@@ -65,17 +188,17 @@ public class Main {
                             break;
                         }
 
-                        System.out.println("\nSelecione o autor pelo ID:");
-                        biblioteca.getAutores().forEach(a ->
-                                System.out.println(a.getId() + " - " + a.getNome())
-                        );
+                        Listagens.autores(biblioteca, saida);
                         System.out.print("ID do autor: ");
                         int idAutorLivro = lerInteiro(scanner);
 
                         Autor autor = biblioteca.buscarAutorPorId(idAutorLivro)
                                 .orElseThrow(() -> new NoSuchElementException("Autor não encontrado."));
 
-                        Livro livro = new Livro(idLivro, titulo, autor);
+                        System.out.print("Quantidade de exemplares: ");
+                        int exemplares = lerInteiro(scanner);
+
+                        Livro livro = new Livro(idLivro, titulo, autor, exemplares);
                         biblioteca.adicionarLivro(livro);
                         System.out.println("✅ Livro cadastrado!");
                     } catch (IllegalArgumentException e) {
@@ -87,62 +210,20 @@ public class Main {
                     }
                 }
 
-                case 3 -> { // ver autores
-                    System.out.println("\n👤 Autores cadastrados:");
-                    biblioteca.getAutores().stream()
-                            .sorted(Comparator.comparing(Autor::getNome))
-                            .forEach(a ->
-                                    System.out.println(a.getId() + " - " + a.getNome() +
-                                            " (nasc. " + a.getDataNascimento() + ")")
-                            );
-                }
+                case 3 -> Listagens.autores(biblioteca, saida); // ver autores
 
-                case 4 -> { // livros disponíveis
-                    System.out.println("\n📚 Livros disponíveis:");
-                    biblioteca.listarLivrosDisponiveis().stream()
-                            .sorted(Comparator.comparing(Livro::getTitulo))
-                            .forEach(l -> System.out.println(l.getId() + " - " + l.getTitulo() +
-                                    " (" + l.getAutor().getNome() + ")"));
-                }
+                case 4 -> Listagens.livros(biblioteca, saida, "\n📚 Livros disponíveis:", true, false); // livros disponíveis
 
-                case 5 -> { // todos os livros
-                    System.out.println("\n📖 Todos os livros cadastrados:");
-                    biblioteca.getLivros().stream()
-                            .sorted(Comparator.comparing(Livro::getTitulo))
-                            .forEach(l -> System.out.println(l.getId() + " - " + l.getTitulo() +
-                                    " (" + l.getAutor().getNome() + ") - " +
-                                    (l.isDisponivel() ? "Disponível" : "Emprestado")));
-                }
+                case 5 -> Listagens.livros(biblioteca, saida, "\n📖 Todos os livros cadastrados:", false, true); // todos os livros
 
                 case 6 -> { // buscar por título
                     System.out.print("Digite parte do título para buscar: ");
-                    String termo = scanner.nextLine();
-                    var encontrados = biblioteca.buscarLivrosPorTitulo(termo).stream()
-                            .sorted(Comparator.comparing(Livro::getTitulo))
-                            .toList();
-
-                    System.out.println("\n🔎 Resultado da busca por \"" + termo + "\":");
-                    if (encontrados.isEmpty()) {
-                        System.out.println("Nenhum livro encontrado.");
-                    } else {
-                        encontrados.forEach(l -> System.out.println(
-                                l.getId() + " - " + l.getTitulo() +
-                                        " (" + l.getAutor().getNome() + ") - " +
-                                        (l.isDisponivel() ? "Disponível" : "Emprestado")
-                        ));
-                    }
+                    Listagens.busca(biblioteca, saida, scanner.nextLine());
                 }
 
                 case 7 -> { // emprestar
-                    var disponiveis = biblioteca.listarLivrosDisponiveis();
-                    System.out.println("\n📚 Livros disponíveis para empréstimo:");
-                    if (disponiveis.isEmpty()) {
-                        System.out.println("Nenhum livro disponível no momento.");
-                        break;
-                    }
-                    disponiveis.forEach(l -> System.out.println(
-                            l.getId() + " - " + l.getTitulo() + " (" + l.getAutor().getNome() + ")"
-                    ));
+                    Listagens.livros(biblioteca, saida, "\n📚 Livros disponíveis para empréstimo:", true, false);
+                    if (biblioteca.contarLivrosDisponiveis() == 0) break;
 
                     System.out.print("Digite o ID do livro para emprestar: ");
                     int livroId = lerInteiro(scanner);
@@ -152,8 +233,7 @@ public class Main {
 
                     try {
                         // agora o retorno do método é usado corretamente
-                        Emprestimo novoEmprestimo = biblioteca.emprestarLivro(
-                                biblioteca.getEmprestimos().size() + 1,
+                        Emprestimo novoEmprestimo = biblioteca.emprestarLivroComNovoId(
                                 livroId,
                                 nomeCliente,
                                 LocalDate.now()
@@ -163,6 +243,7 @@ public class Main {
                         System.out.println("📘 Livro: " + novoEmprestimo.getLivro().getTitulo());
                         System.out.println("👤 Cliente: " + novoEmprestimo.getNomeCliente());
                         System.out.println("📅 Data do Empréstimo: " + novoEmprestimo.getDataEmprestimo());
+                        System.out.println("⏳ Devolver até: " + novoEmprestimo.getDataPrevistaDevolucao());
                         System.out.println("🔖 Status: " + (novoEmprestimo.isDevolvido() ? "Devolvido" : "Em aberto"));
 
                     } catch (Exception e) {
@@ -171,22 +252,8 @@ public class Main {
                 }
 
                 case 8 -> { // devolver
-                    System.out.println("\n📋 Empréstimos em aberto:");
-                    var emAberto = biblioteca.getEmprestimos().stream()
-                            .filter(e -> !e.isDevolvido())
-                            .toList();
-
-                    if (emAberto.isEmpty()) {
-                        System.out.println("Nenhum empréstimo em aberto para devolver.");
-                        break;
-                    }
-
-                    emAberto.forEach(e -> System.out.println(
-                            "ID " + e.getId() +
-                                    " | Livro: " + e.getLivro().getTitulo() +
-                                    " | Cliente: " + e.getNomeCliente() +
-                                    " | Empréstimo: " + e.getDataEmprestimo()
-                    ));
+                    Listagens.emprestimosEmAberto(biblioteca, saida);
+                    if (biblioteca.contarEmprestimosEmAberto() == 0) break;
 
                     System.out.print("Digite o ID do empréstimo para devolver: ");
                     int emprestimoId = lerInteiro(scanner);
@@ -211,23 +278,108 @@ public class Main {
                 }
 
 
-                case 9 -> { // ver empréstimos
-                    System.out.println("\n🗂️ Empréstimos:");
-                    if (biblioteca.getEmprestimos().isEmpty()) {
-                        System.out.println("Nenhum empréstimo encontrado.");
-                    } else {
-                        biblioteca.getEmprestimos().forEach(e -> {
-                            String status = e.isDevolvido()
-                                    ? "DEVOLVIDO em " + e.getDataDevolucao()
-                                    : "ABERTO";
-                            System.out.println(
-                                    "ID " + e.getId() +
-                                            " | Livro: " + e.getLivro().getTitulo() +
-                                            " | Cliente: " + e.getNomeCliente() +
-                                            " | Empréstimo: " + e.getDataEmprestimo() +
-                                            " | Status: " + status
-                            );
-                        });
+                case 9 -> Listagens.emprestimos(biblioteca, saida); // ver empréstimos
+
+                case 10 -> { // importar catálogo
+                    System.out.print("Caminho do arquivo (colunas id, titulo, autorId[, exemplares]): ");
+                    String caminho = scanner.nextLine().trim();
+                    try {
+                        ResultadoImportacao resultado = new ImportadorCatalogo(biblioteca).importar(Path.of(caminho));
+                        System.out.println("\n📥 Importação concluída!");
+                        System.out.println("✅ Importados: " + resultado.getImportados());
+                        System.out.println("⚠️ Rejeitados: " + resultado.getRejeitados());
+                        System.out.printf("⏱️ %d ms (%.0f linhas/s)%n",
+                                resultado.getDuracaoNanos() / 1_000_000, resultado.linhasPorSegundo());
+                        resultado.getErros().stream().limit(20).forEach(e -> System.out.println("   " + e));
+                    } catch (Exception e) {
+                        System.out.println("⚠️ Erro: " + e.getMessage());
+                    }
+                }
+
+                case 11 -> { // empréstimos do cliente
+                    System.out.print("Nome do cliente: ");
+                    Listagens.emprestimosDoCliente(biblioteca, saida, scanner.nextLine());
+                }
+
+                case 12 -> Listagens.atrasados(biblioteca, saida, LocalDate.now()); // atrasados
+
+                case 13 -> { // reservar
+                    try {
+                        System.out.print("Digite o ID do livro para reservar: ");
+                        int livroId = lerInteiro(scanner);
+                        System.out.print("Digite o nome do cliente: ");
+                        String nomeCliente = scanner.nextLine();
+
+                        Reserva reserva = biblioteca.reservarLivro(livroId, nomeCliente, LocalDate.now());
+                        System.out.println("\n✅ Reserva id=" + reserva.getId() + " registrada!");
+                        if (reserva.getSituacao() == Reserva.Situacao.SEPARADA) {
+                            System.out.println("📦 Exemplar separado: retire até " + reserva.getPrazoRetirada() + " (opção 14).");
+                        } else {
+                            long naFrente = biblioteca.listarReservas(livroId).stream()
+                                    .filter(r -> r.getSituacao() == Reserva.Situacao.AGUARDANDO)
+                                    .takeWhile(r -> r.getId() != reserva.getId())
+                                    .count();
+                            System.out.println("⏳ Aguardando devolução (" + naFrente + " reserva(s) na frente).");
+                        }
+                    } catch (Exception e) {
+                        System.out.println("⚠️ Erro: " + e.getMessage());
+                    }
+                }
+
+                case 14 -> { // retirar reserva
+                    try {
+                        System.out.print("Digite o ID da reserva: ");
+                        int reservaId = lerInteiro(scanner);
+                        Emprestimo emprestimo = biblioteca.retirarReserva(reservaId, LocalDate.now());
+                        System.out.println("\n✅ Reserva retirada! Empréstimo id=" + emprestimo.getId());
+                        System.out.println("📘 Livro: " + emprestimo.getLivro().getTitulo());
+                        System.out.println("👤 Cliente: " + emprestimo.getNomeCliente());
+                        System.out.println("⏳ Devolver até: " + emprestimo.getDataPrevistaDevolucao());
+                    } catch (Exception e) {
+                        System.out.println("⚠️ Erro: " + e.getMessage());
+                    }
+                }
+
+                case 15 -> { // métricas
+                    Metricas metricas = biblioteca.getMetricas();
+                    System.out.println("\n📊 Métricas das operações:");
+                    System.out.print(metricas.formatarTexto());
+                    Listagens.cacheBuscas(biblioteca, saida);
+                    System.out.print("Exportar no formato Prometheus para o arquivo (Enter para pular): ");
+                    String caminho = scanner.nextLine().trim();
+                    if (!caminho.isEmpty()) {
+                        try {
+                            metricas.exportarPrometheus(Path.of(caminho));
+                            System.out.println("✅ Métricas exportadas para " + caminho);
+                        } catch (Exception e) {
+                            System.out.println("⚠️ Erro: " + e.getMessage());
+                        }
+                    }
+                }
+
+                case 16 -> { // livros de um autor
+                    try {
+                        System.out.print("Início do nome do autor (Enter para todos): ");
+                        Listagens.autoresPorPrefixo(biblioteca, saida, scanner.nextLine(), 50);
+                        System.out.print("ID do autor: ");
+                        int autorId = lerInteiro(scanner);
+                        Listagens.livrosDoAutor(biblioteca, saida, autorId, false);
+                    } catch (Exception e) {
+                        System.out.println("⚠️ " + e.getMessage());
+                    }
+                }
+
+                case 17 -> { // relatório de empréstimos
+                    System.out.print("Mês (yyyy-MM, Enter para todo o histórico): ");
+                    String mes = scanner.nextLine().trim();
+                    try {
+                        // a primeira consulta soma o histórico; depois o painel acompanha cada empréstimo
+                        if (painel == null) painel = PainelEmprestimos.acompanhar(biblioteca);
+                        Listagens.relatorio(painel, saida, mes.isEmpty() ? null : YearMonth.parse(mes), 10);
+                    } catch (DateTimeParseException e) {
+                        System.out.println("⚠️ Mês inválido. Use yyyy-MM.");
+                    } catch (Exception e) {
+                        System.out.println("⚠️ " + e.getMessage());
                     }
                 }
 
@@ -239,6 +391,35 @@ public class Main {
         } while (opcao != 0);
 
         scanner.close();
+        if (painel != null) painel.close();
+        agendadorReservas.close();
+        agendadorAtrasos.close();
+        if (agendador != null) agendador.close();
+        if (diario != null) diario.close();
+    }
+
+    /**
+     * Dados iniciais de uma biblioteca vazia: os cinco livros de exemplo ou, com
+     * -Dlivraria.gerar=autores,livros,emprestimos (e -Dlivraria.semente), uma massa sintética.
+     */
+    private static void popular(Biblioteca biblioteca) {
+        String especificacao = System.getProperty("livraria.gerar");
+        if (especificacao == null) {
+            biblioteca.inicializarDados();
+            return;
+        }
+        long inicio = System.nanoTime();
+        GeradorDados.deEspecificacao(especificacao, Long.getLong("livraria.semente", 42), LocalDate.now())
+                .gerar(biblioteca);
+        System.out.printf("🧪 Massa sintética gerada (%d autores, %d livros, %d empréstimos) em %d ms%n",
+                biblioteca.getAutores().size(), biblioteca.getLivros().size(), biblioteca.getEmprestimos().size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // chamado pela thread do AgendadorAtrasos: a saída de erros não se mistura ao menu nem ao resultado do lote
+    private static void avisarAtraso(Emprestimo e) {
+        System.err.printf("⏰ Empréstimo id=%d atrasado: \"%s\" com %s, devolução prevista para %s%n",
+                e.getId(), e.getLivro().getTitulo(), e.getNomeCliente(), e.getDataPrevistaDevolucao());
     }
 
     private static int lerInteiro(Scanner scanner) {
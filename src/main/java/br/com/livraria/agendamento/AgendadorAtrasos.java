@@ -0,0 +1,96 @@
+package br.com.livraria.agendamento;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Verifica periodicamente, em segundo plano, os empréstimos que passaram do prazo
+ * e avisa {@code aoAtrasar} uma vez por empréstimo, no primeiro ciclo de um novo dia
+ * em que ele aparece atrasado (uma prorrogação pode fazê-lo atrasar de novo).
+ *
+ * Cada ciclo consulta {@link Biblioteca#listarEmprestimosAtrasados}, que percorre só
+ * o topo da fila de vencimentos: o custo depende de quantos estão atrasados, não do
+ * histórico de empréstimos. Se {@code aoAtrasar} falhar no meio de um ciclo, o próximo
+ * avisa só os que ficaram faltando.
+ */
+public class AgendadorAtrasos implements Closeable {
+
+    private final Biblioteca biblioteca;
+    private final Consumer<Emprestimo> aoAtrasar;
+    private final Clock relogio;
+    private final ScheduledExecutorService executor;
+    private LocalDate ultimoDia;                // último dia verificado por inteiro (só a thread do agendador)
+    private final Map<Integer, LocalDate> avisados = new HashMap<>(); // id -> vencimento avisado (idem)
+    private volatile RuntimeException ultimaFalha;
+
+    public AgendadorAtrasos(Biblioteca biblioteca, Consumer<Emprestimo> aoAtrasar, Duration intervalo) {
+        this(biblioteca, aoAtrasar, intervalo, Clock.systemDefaultZone());
+    }
+
+    public AgendadorAtrasos(Biblioteca biblioteca, Consumer<Emprestimo> aoAtrasar, Duration intervalo, Clock relogio) {
+        if (intervalo.isZero() || intervalo.isNegative()) {
+            throw new IllegalArgumentException("intervalo deve ser positivo.");
+        }
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.aoAtrasar = Objects.requireNonNull(aoAtrasar, "aoAtrasar é obrigatório.");
+        this.relogio = Objects.requireNonNull(relogio, "relogio é obrigatório.");
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "atrasos");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = intervalo.toMillis();
+        executor.scheduleWithFixedDelay(this::verificar, 0, ms, TimeUnit.MILLISECONDS);
+    }
+
+    private void verificar() {
+        try {
+            LocalDate hoje = LocalDate.now(relogio);
+            if (hoje.equals(ultimoDia)) return;
+            List<Emprestimo> atrasados = biblioteca.listarEmprestimosAtrasados(hoje);
+            for (Emprestimo e : atrasados) {
+                // já avisado com este vencimento (num ciclo anterior ou antes de uma falha neste)
+                if (e.getDataPrevistaDevolucao().equals(avisados.get(e.getId()))) continue;
+                aoAtrasar.accept(e);
+                avisados.put(e.getId(), e.getDataPrevistaDevolucao());
+            }
+            // devolvidos ou prorrogados saem; o mapa fica do tamanho da lista de atrasados
+            Map<Integer, LocalDate> aindaAtrasados = new HashMap<>();
+            for (Emprestimo e : atrasados) aindaAtrasados.put(e.getId(), avisados.get(e.getId()));
+            avisados.clear();
+            avisados.putAll(aindaAtrasados);
+            ultimoDia = hoje;
+            ultimaFalha = null;
+        } catch (RuntimeException e) {
+            ultimaFalha = e; // tenta de novo no próximo ciclo
+        }
+    }
+
+    /** Erro do último ciclo (ex.: lançado por {@code aoAtrasar}), ou {@code null} se ele teve sucesso. */
+    public RuntimeException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
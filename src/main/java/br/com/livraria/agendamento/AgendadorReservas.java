@@ -0,0 +1,74 @@
+package br.com.livraria.agendamento;
+
+import br.com.livraria.model.Biblioteca;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expira periodicamente, em segundo plano, as reservas com exemplar separado que não
+ * foram retiradas no prazo ({@link Biblioteca#expirarReservas}), liberando o exemplar
+ * para a próxima reserva da fila.
+ */
+public class AgendadorReservas implements Closeable {
+
+    private final Biblioteca biblioteca;
+    private final Clock relogio;
+    private final ScheduledExecutorService executor;
+    private volatile long expiradas;
+    private volatile RuntimeException ultimaFalha;
+
+    public AgendadorReservas(Biblioteca biblioteca, Duration intervalo) {
+        this(biblioteca, intervalo, Clock.systemDefaultZone());
+    }
+
+    public AgendadorReservas(Biblioteca biblioteca, Duration intervalo, Clock relogio) {
+        if (intervalo.isZero() || intervalo.isNegative()) {
+            throw new IllegalArgumentException("intervalo deve ser positivo.");
+        }
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.relogio = Objects.requireNonNull(relogio, "relogio é obrigatório.");
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reservas");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = intervalo.toMillis();
+        executor.scheduleWithFixedDelay(this::expirar, 0, ms, TimeUnit.MILLISECONDS);
+    }
+
+    private void expirar() {
+        try {
+            expiradas += biblioteca.expirarReservas(LocalDate.now(relogio));
+            ultimaFalha = null;
+        } catch (RuntimeException e) {
+            ultimaFalha = e; // tenta de novo no próximo ciclo
+        }
+    }
+
+    /** Total de reservas expiradas por este agendador. */
+    public long getExpiradas() {
+        return expiradas;
+    }
+
+    /** Erro do último ciclo, ou {@code null} se ele teve sucesso. */
+    public RuntimeException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
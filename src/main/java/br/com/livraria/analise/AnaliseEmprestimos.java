@@ -0,0 +1,238 @@
+package br.com.livraria.analise;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Relatórios calculados sobre todo o histórico de empréstimos: mais emprestados
+ * (no total ou por mês), autores mais emprestados, duração dos empréstimos e
+ * utilização de cada livro numa janela de datas.
+ *
+ * Cada relatório é uma varredura fork/join das colunas do histórico
+ * ({@link Biblioteca#percorrerEmprestimos}): o histórico é dividido em trechos, cada
+ * trecho soma em acumuladores primitivos próprios ({@link ContagemInt}, sem objeto
+ * por empréstimo) e os acumuladores são combinados dois a dois. Nada é bloqueado:
+ * o resultado cobre os empréstimos publicados quando o relatório começou, com as
+ * devoluções que a varredura já encontrou.
+ *
+ * Para painéis consultados a todo momento, {@link PainelEmprestimos} mantém os
+ * mesmos agregados atualizados a cada empréstimo, sem varrer de novo.
+ */
+public final class AnaliseEmprestimos {
+
+    /** Menor trecho que vale a pena separar numa tarefa. */
+    private static final int TRECHO_MINIMO = 1 << 15;
+    /** Trechos por thread do pool, para equilibrar a carga sem multiplicar acumuladores. */
+    private static final int TRECHOS_POR_THREAD = 4;
+
+    private final Biblioteca biblioteca;
+    private final ForkJoinPool pool;
+
+    public AnaliseEmprestimos(Biblioteca biblioteca) {
+        this(biblioteca, ForkJoinPool.commonPool());
+    }
+
+    public AnaliseEmprestimos(Biblioteca biblioteca, ForkJoinPool pool) {
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.pool = Objects.requireNonNull(pool, "pool é obrigatório.");
+    }
+
+    // ---------- Relatórios ----------
+    /** Os livros mais emprestados no mês (todo o histórico se {@code mes} for nulo). */
+    public List<Classificacao<Livro>> maisEmprestados(YearMonth mes, int limite) {
+        validarLimite(limite);
+        int de = mes == null ? Integer.MIN_VALUE : (int) mes.atDay(1).toEpochDay();
+        int ate = mes == null ? Integer.MAX_VALUE : (int) mes.atEndOfMonth().toEpochDay();
+        ContagemLivros c = varrer(() -> new ContagemLivros(de, ate), ContagemLivros::combinar);
+        return livros(biblioteca, c.porLivro.maiores(limite));
+    }
+
+    /** Para cada mês com empréstimos, em ordem, os {@code limite} livros mais emprestados nele. */
+    public SortedMap<YearMonth, List<Classificacao<Livro>>> maisEmprestadosPorMes(int limite) {
+        validarLimite(limite);
+        Totais t = varrer(Totais::new, Totais::combinar);
+        return porMes(biblioteca, t.livrosPorMes, limite);
+    }
+
+    /** Os autores com mais empréstimos somando os livros de cada um (pelo autor atual do livro). */
+    public List<Classificacao<Autor>> autoresMaisEmprestados(int limite) {
+        validarLimite(limite);
+        ContagemLivros c = varrer(() -> new ContagemLivros(Integer.MIN_VALUE, Integer.MAX_VALUE), ContagemLivros::combinar);
+        return autores(biblioteca, c.porLivro, limite);
+    }
+
+    public DuracaoEmprestimos duracao() {
+        return varrer(Duracoes::new, Duracoes::combinar).resultado();
+    }
+
+    /**
+     * Os {@code limite} livros mais ocupados entre {@code inicio} e {@code fim} (inclusive):
+     * dias em que cada exemplar esteve emprestado, sobre exemplares × dias da janela.
+     * Empréstimos em aberto contam até o fim da janela.
+     */
+    public List<UtilizacaoLivro> utilizacao(LocalDate inicio, LocalDate fim, int limite) {
+        Objects.requireNonNull(inicio, "inicio é obrigatório.");
+        Objects.requireNonNull(fim, "fim é obrigatório.");
+        if (fim.isBefore(inicio)) throw new IllegalArgumentException("fim não pode ser anterior ao início.");
+        validarLimite(limite);
+        int de = Math.toIntExact(inicio.toEpochDay());
+        int ate = Math.toIntExact(fim.toEpochDay()) + 1;
+        Ocupacao o = varrer(() -> new Ocupacao(de, ate), Ocupacao::combinar);
+
+        long diasJanela = ate - de;
+        List<UtilizacaoLivro> resultado = new ArrayList<>(o.diasPorLivro.tamanho());
+        o.diasPorLivro.paraCada((livroId, dias) -> biblioteca.buscarLivroPorId(livroId).ifPresent(l ->
+                resultado.add(new UtilizacaoLivro(l, dias, (double) dias / (diasJanela * Math.max(1, l.getExemplares()))))));
+        resultado.sort((a, b) -> a.taxa() != b.taxa()
+                ? Double.compare(b.taxa(), a.taxa())
+                : Integer.compare(a.livro().getId(), b.livro().getId()));
+        return List.copyOf(resultado.subList(0, Math.min(limite, resultado.size())));
+    }
+
+    // ---------- Varredura paralela ----------
+    private <A extends Biblioteca.LeitorEmprestimos> A varrer(Supplier<A> novo, BinaryOperator<A> combinar) {
+        return varrer(pool, biblioteca, biblioteca.getEmprestimos().size(), novo, combinar);
+    }
+
+    /** Varre {@code [0, n)} em trechos paralelos, um acumulador novo por trecho, combinados no fim. */
+    static <A extends Biblioteca.LeitorEmprestimos> A varrer(ForkJoinPool pool, Biblioteca biblioteca, int n,
+                                                             Supplier<A> novo, BinaryOperator<A> combinar) {
+        int trechos = (int) Math.min((long) pool.getParallelism() * TRECHOS_POR_THREAD, n / TRECHO_MINIMO + 1);
+        int limiar = Math.max(1, (n + trechos - 1) / trechos);
+        return pool.invoke(new Varredura<>(biblioteca, 0, n, limiar, novo, combinar));
+    }
+
+    @SuppressWarnings("serial") // ForkJoinTask é Serializable, mas a varredura nunca é serializada
+    private static final class Varredura<A extends Biblioteca.LeitorEmprestimos> extends RecursiveTask<A> {
+        private final Biblioteca biblioteca;
+        private final int de, ate, limiar;
+        private final Supplier<A> novo;
+        private final BinaryOperator<A> combinar;
+
+        Varredura(Biblioteca biblioteca, int de, int ate, int limiar, Supplier<A> novo, BinaryOperator<A> combinar) {
+            this.biblioteca = biblioteca;
+            this.de = de;
+            this.ate = ate;
+            this.limiar = limiar;
+            this.novo = novo;
+            this.combinar = combinar;
+        }
+
+        @Override
+        protected A compute() {
+            if (ate - de <= limiar) {
+                A acumulador = novo.get();
+                biblioteca.percorrerEmprestimos(de, ate, acumulador);
+                return acumulador;
+            }
+            int meio = (de + ate) >>> 1;
+            Varredura<A> esquerda = new Varredura<>(biblioteca, de, meio, limiar, novo, combinar);
+            esquerda.fork();
+            A direita = new Varredura<>(biblioteca, meio, ate, limiar, novo, combinar).compute();
+            return combinar.apply(esquerda.join(), direita);
+        }
+    }
+
+    /** Empréstimos por livro com data de retirada em {@code [de, ate]}. */
+    private static final class ContagemLivros implements Biblioteca.LeitorEmprestimos {
+        final ContagemInt porLivro = new ContagemInt();
+        private final int de, ate;
+
+        ContagemLivros(int de, int ate) {
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        public void ler(int posicao, Livro livro, int diaEmprestimo, int diaPrevisto, int diaDevolucao) {
+            if (diaEmprestimo >= de && diaEmprestimo <= ate) porLivro.somar(livro.getId(), 1);
+        }
+
+        ContagemLivros combinar(ContagemLivros outra) {
+            porLivro.somarTodas(outra.porLivro);
+            return this;
+        }
+    }
+
+    /** Dias-exemplar emprestados por livro dentro de {@code [de, ate)}. */
+    private static final class Ocupacao implements Biblioteca.LeitorEmprestimos {
+        final ContagemInt diasPorLivro = new ContagemInt();
+        private final int de, ate;
+
+        Ocupacao(int de, int ate) {
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        public void ler(int posicao, Livro livro, int diaEmprestimo, int diaPrevisto, int diaDevolucao) {
+            int inicio = Math.max(de, diaEmprestimo);
+            int fim = diaDevolucao == EM_ABERTO ? ate : Math.min(ate, diaDevolucao);
+            if (fim > inicio) diasPorLivro.somar(livro.getId(), fim - inicio);
+        }
+
+        Ocupacao combinar(Ocupacao outra) {
+            diasPorLivro.somarTodas(outra.diasPorLivro);
+            return this;
+        }
+    }
+
+    // ---------- Montagem dos resultados (compartilhada com o painel) ----------
+    static void validarLimite(int limite) {
+        if (limite <= 0) throw new IllegalArgumentException("limite deve ser positivo.");
+    }
+
+    static List<Classificacao<Livro>> livros(Biblioteca biblioteca, long[] maiores) {
+        List<Classificacao<Livro>> resultado = new ArrayList<>(maiores.length);
+        for (long item : maiores) {
+            Optional<Livro> livro = biblioteca.buscarLivroPorId(ContagemInt.chave(item));
+            livro.ifPresent(l -> resultado.add(new Classificacao<>(l, ContagemInt.quantidade(item))));
+        }
+        return Collections.unmodifiableList(resultado);
+    }
+
+    static SortedMap<YearMonth, List<Classificacao<Livro>>> porMes(Biblioteca biblioteca,
+                                                                   Map<Integer, long[]> maioresPorMes) {
+        SortedMap<YearMonth, List<Classificacao<Livro>>> resultado = new TreeMap<>();
+        maioresPorMes.forEach((mes, maiores) -> resultado.put(Totais.anoMes(mes), livros(biblioteca, maiores)));
+        return Collections.unmodifiableSortedMap(resultado);
+    }
+
+    private static SortedMap<YearMonth, List<Classificacao<Livro>>> porMes(Biblioteca biblioteca,
+                                                                           TreeMap<Integer, ContagemInt> livrosPorMes,
+                                                                           int limite) {
+        Map<Integer, long[]> maiores = new TreeMap<>();
+        livrosPorMes.forEach((mes, contagem) -> maiores.put(mes, contagem.maiores(limite)));
+        return porMes(biblioteca, maiores);
+    }
+
+    /** Soma as contagens por livro no autor atual de cada livro e devolve os maiores. */
+    static List<Classificacao<Autor>> autores(Biblioteca biblioteca, ContagemInt porLivro, int limite) {
+        ContagemInt porAutor = new ContagemInt();
+        porLivro.paraCada((livroId, quantidade) -> biblioteca.buscarLivroPorId(livroId)
+                .ifPresent(l -> porAutor.somar(l.getAutor().getId(), quantidade)));
+        long[] maiores = porAutor.maiores(limite);
+        List<Classificacao<Autor>> resultado = new ArrayList<>(maiores.length);
+        for (long item : maiores) {
+            biblioteca.buscarAutorPorId(ContagemInt.chave(item))
+                    .ifPresent(a -> resultado.add(new Classificacao<>(a, ContagemInt.quantidade(item))));
+        }
+        return Collections.unmodifiableList(resultado);
+    }
+}
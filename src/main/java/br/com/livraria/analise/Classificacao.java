@@ -0,0 +1,4 @@
+package br.com.livraria.analise;
+
+/** Um item de ranking (livro, autor...) e quantos empréstimos ele teve. */
+public record Classificacao<T>(T item, long emprestimos) { }
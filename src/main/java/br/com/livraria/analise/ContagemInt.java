@@ -0,0 +1,179 @@
+package br.com.livraria.analise;
+
+import java.util.Arrays;
+
+/**
+ * Contadores por chave {@code int} (id de livro, de autor, mês...) em endereçamento
+ * aberto com arrays primitivos: somar não cria objeto nem faz boxing. Sem
+ * sincronização; cada trecho de uma varredura paralela usa a sua e elas são somadas no fim.
+ */
+final class ContagemInt {
+
+    /** Chave reservada para posição vazia. */
+    private static final int VAZIA = Integer.MIN_VALUE;
+    private static final float FATOR_CARGA = 0.6f;
+
+    /** Recebe cada par chave/quantidade de {@link #paraCada}. */
+    @FunctionalInterface
+    interface Par {
+        void aceitar(int chave, long quantidade);
+    }
+
+    private int[] chaves;
+    private long[] valores;
+    private int tamanho;
+    private int limite;
+
+    ContagemInt() {
+        this(16);
+    }
+
+    ContagemInt(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(16, (int) (capacidadeEsperada / FATOR_CARGA)) - 1) << 1;
+        alocar(capacidade);
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        Arrays.fill(chaves, VAZIA);
+        valores = new long[capacidade];
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    void somar(int chave, long quantidade) {
+        if (chave == VAZIA) throw new IllegalArgumentException("chave reservada: " + chave);
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = chaves[i]) != VAZIA) {
+            if (k == chave) {
+                valores[i] += quantidade;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = quantidade;
+        if (++tamanho > limite) redimensionar();
+    }
+
+    long obter(int chave) {
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = chaves[i]) != VAZIA) {
+            if (k == chave) return valores[i];
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    void somarTodas(ContagemInt outra) {
+        int[] ks = outra.chaves;
+        long[] vs = outra.valores;
+        for (int j = 0; j < ks.length; j++) {
+            if (ks[j] != VAZIA) somar(ks[j], vs[j]);
+        }
+    }
+
+    void paraCada(Par par) {
+        for (int j = 0; j < chaves.length; j++) {
+            if (chaves[j] != VAZIA) par.aceitar(chaves[j], valores[j]);
+        }
+    }
+
+    ContagemInt copia() {
+        ContagemInt c = new ContagemInt();
+        c.chaves = chaves.clone();
+        c.valores = valores.clone();
+        c.tamanho = tamanho;
+        c.limite = limite;
+        return c;
+    }
+
+    /**
+     * As {@code limite} maiores quantidades, em ordem decrescente (empate: menor chave
+     * primeiro), num heap mínimo de primitivos: O(n log limite). Cada item vem
+     * codificado como {@code quantidade << 32 | ~chave}; ver {@link #chave} e {@link #quantidade}.
+     */
+    long[] maiores(int limite) {
+        long[] heap = new long[Math.min(limite, tamanho)];
+        int n = 0;
+        for (int j = 0; j < chaves.length; j++) {
+            if (chaves[j] == VAZIA) continue;
+            long item = (valores[j] << 32) | (~chaves[j] & 0xFFFFFFFFL);
+            if (n < heap.length) {
+                heap[n] = item;
+                subir(heap, n++);
+            } else if (n > 0 && item > heap[0]) {
+                heap[0] = item;
+                descer(heap, n);
+            }
+        }
+        // esvazia o heap do menor para o maior, preenchendo de trás para frente
+        for (int fim = n - 1; fim > 0; fim--) {
+            long menor = heap[0];
+            heap[0] = heap[fim];
+            descer(heap, fim);
+            heap[fim] = menor;
+        }
+        return heap;
+    }
+
+    static int chave(long item) {
+        return ~(int) item;
+    }
+
+    static long quantidade(long item) {
+        return item >>> 32;
+    }
+
+    private static void subir(long[] heap, int i) {
+        long x = heap[i];
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (heap[pai] <= x) break;
+            heap[i] = heap[pai];
+            i = pai;
+        }
+        heap[i] = x;
+    }
+
+    private static void descer(long[] heap, int n) {
+        long x = heap[0];
+        int i = 0;
+        while (true) {
+            int f = 2 * i + 1;
+            if (f >= n) break;
+            if (f + 1 < n && heap[f + 1] < heap[f]) f++;
+            if (heap[f] >= x) break;
+            heap[i] = heap[f];
+            i = f;
+        }
+        heap[i] = x;
+    }
+
+    private void redimensionar() {
+        int[] ks = chaves;
+        long[] vs = valores;
+        alocar(ks.length << 1);
+        int mascara = chaves.length - 1;
+        for (int j = 0; j < ks.length; j++) {
+            int k = ks[j];
+            if (k == VAZIA) continue;
+            int i = espalhar(k) & mascara;
+            while (chaves[i] != VAZIA) i = (i + 1) & mascara;
+            chaves[i] = k;
+            valores[i] = vs[j];
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.livraria.analise;
+
+/**
+ * Duração dos empréstimos já devolvidos, em dias (da retirada à devolução).
+ * {@code comAtraso} conta os devolvidos depois da data prevista.
+ */
+public record DuracaoEmprestimos(long devolvidos, double mediaDias, int maximoDias, long comAtraso) { }
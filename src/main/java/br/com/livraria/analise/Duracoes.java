@@ -0,0 +1,38 @@
+package br.com.livraria.analise;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+
+/** Soma das durações dos empréstimos devolvidos, em acumuladores primitivos. */
+final class Duracoes implements Biblioteca.LeitorEmprestimos {
+
+    private long devolvidos;
+    private long somaDias;
+    private int maximoDias;
+    private long comAtraso;
+
+    @Override
+    public void ler(int posicao, Livro livro, int diaEmprestimo, int diaPrevisto, int diaDevolucao) {
+        if (diaDevolucao != EM_ABERTO) somar(diaEmprestimo, diaPrevisto, diaDevolucao);
+    }
+
+    void somar(int diaEmprestimo, int diaPrevisto, int diaDevolucao) {
+        int dias = diaDevolucao - diaEmprestimo;
+        devolvidos++;
+        somaDias += dias;
+        if (dias > maximoDias) maximoDias = dias;
+        if (diaDevolucao > diaPrevisto) comAtraso++;
+    }
+
+    Duracoes combinar(Duracoes outra) {
+        devolvidos += outra.devolvidos;
+        somaDias += outra.somaDias;
+        maximoDias = Math.max(maximoDias, outra.maximoDias);
+        comAtraso += outra.comAtraso;
+        return this;
+    }
+
+    DuracaoEmprestimos resultado() {
+        return new DuracaoEmprestimos(devolvidos, devolvidos == 0 ? 0 : (double) somaDias / devolvidos, maximoDias, comAtraso);
+    }
+}
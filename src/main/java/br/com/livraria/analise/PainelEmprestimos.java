@@ -0,0 +1,151 @@
+package br.com.livraria.analise;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+import br.com.livraria.model.OuvinteBiblioteca;
+
+import java.io.Closeable;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Os agregados de {@link AnaliseEmprestimos} mantidos em dia a cada empréstimo e
+ * devolução, para painéis consultados a todo momento: as consultas custam o tamanho
+ * do resultado (e do mês pedido), não o do histórico.
+ *
+ * {@link #acompanhar} inscreve o painel como ouvinte e soma o histórico existente
+ * numa varredura paralela, sem parar o movimento:
+ * <ul>
+ *   <li>a inscrição acontece dentro de {@link Biblioteca#marcar}, então os empréstimos
+ *       até o marco entram pela varredura e os seguintes, só pelo ouvinte;</li>
+ *   <li>uma devolução de empréstimo anterior ao marco pode acontecer durante a
+ *       varredura: quem a vê primeiro (varredura ou ouvinte) marca a posição num
+ *       bit por empréstimo, e só esse a conta.</li>
+ * </ul>
+ *
+ * Inscreva o painel depois dos demais ouvintes (diário...): se um ouvinte posterior
+ * falhar, a biblioteca desfaz a operação que o painel já contou.
+ */
+public final class PainelEmprestimos implements OuvinteBiblioteca, Closeable {
+
+    private final Biblioteca biblioteca;
+    private final Totais totais = new Totais();   // protegido por this
+    // definidos antes da inscrição como ouvinte (publicados por ela)
+    private int marco;
+    private AtomicLongArray reivindicadas;
+
+    private PainelEmprestimos(Biblioteca biblioteca) {
+        this.biblioteca = biblioteca;
+    }
+
+    public static PainelEmprestimos acompanhar(Biblioteca biblioteca) {
+        return acompanhar(biblioteca, ForkJoinPool.commonPool());
+    }
+
+    public static PainelEmprestimos acompanhar(Biblioteca biblioteca, ForkJoinPool pool) {
+        Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        Objects.requireNonNull(pool, "pool é obrigatório.");
+        PainelEmprestimos painel = new PainelEmprestimos(biblioteca);
+        biblioteca.marcar(() -> {
+            int n = biblioteca.getEmprestimos().size();
+            painel.marco = n;
+            painel.reivindicadas = new AtomicLongArray((n + 63) >>> 6);
+            biblioteca.adicionarOuvinte(painel);
+            return n;
+        });
+        try {
+            Totais semente = AnaliseEmprestimos.varrer(pool, biblioteca, painel.marco,
+                    () -> new Totais(painel.reivindicadas), Totais::combinar);
+            synchronized (painel) {
+                painel.totais.combinar(semente);
+            }
+        } catch (RuntimeException e) {
+            biblioteca.removerOuvinte(painel);
+            throw e;
+        }
+        return painel;
+    }
+
+    // ---------- Ouvinte ----------
+    @Override
+    public synchronized void aoEmprestar(Emprestimo emprestimo) {
+        totais.emprestimo(emprestimo.getLivro().getId(), Math.toIntExact(emprestimo.getDataEmprestimo().toEpochDay()));
+    }
+
+    @Override
+    public void aoDevolver(Emprestimo emprestimo) {
+        if (emprestimo.getPosicao() < marco && !Totais.reivindicar(reivindicadas, emprestimo.getPosicao())) {
+            return; // a semente já contou
+        }
+        int diaEmprestimo = Math.toIntExact(emprestimo.getDataEmprestimo().toEpochDay());
+        int diaPrevisto = Math.toIntExact(emprestimo.getDataPrevistaDevolucao().toEpochDay());
+        int diaDevolucao = Math.toIntExact(emprestimo.getDataDevolucao().toEpochDay());
+        synchronized (this) {
+            totais.duracoes.somar(diaEmprestimo, diaPrevisto, diaDevolucao);
+        }
+    }
+
+    // ---------- Consultas ----------
+    /** Os livros mais emprestados no mês (todo o histórico se {@code mes} for nulo). */
+    public List<Classificacao<Livro>> maisEmprestados(YearMonth mes, int limite) {
+        AnaliseEmprestimos.validarLimite(limite);
+        long[] maiores;
+        synchronized (this) {
+            ContagemInt contagem = mes == null ? totais.porLivro : totais.livrosPorMes.get(Totais.mes(mes));
+            maiores = contagem == null ? new long[0] : contagem.maiores(limite);
+        }
+        return AnaliseEmprestimos.livros(biblioteca, maiores);
+    }
+
+    /** Para cada mês com empréstimos, em ordem, os {@code limite} livros mais emprestados nele. */
+    public SortedMap<YearMonth, List<Classificacao<Livro>>> maisEmprestadosPorMes(int limite) {
+        AnaliseEmprestimos.validarLimite(limite);
+        Map<Integer, long[]> maiores = new TreeMap<>();
+        synchronized (this) {
+            totais.livrosPorMes.forEach((mes, contagem) -> maiores.put(mes, contagem.maiores(limite)));
+        }
+        return AnaliseEmprestimos.porMes(biblioteca, maiores);
+    }
+
+    /** Total de empréstimos de cada mês, em ordem. */
+    public SortedMap<YearMonth, Long> emprestimosPorMes() {
+        SortedMap<YearMonth, Long> resultado = new TreeMap<>();
+        synchronized (this) {
+            totais.livrosPorMes.forEach((mes, contagem) -> {
+                long[] total = new long[1];
+                contagem.paraCada((livroId, quantidade) -> total[0] += quantidade);
+                resultado.put(Totais.anoMes(mes), total[0]);
+            });
+        }
+        return Collections.unmodifiableSortedMap(resultado);
+    }
+
+    /** Os autores com mais empréstimos somando os livros de cada um (pelo autor atual do livro). */
+    public List<Classificacao<Autor>> autoresMaisEmprestados(int limite) {
+        AnaliseEmprestimos.validarLimite(limite);
+        ContagemInt porLivro;
+        synchronized (this) {
+            porLivro = totais.porLivro.copia();
+        }
+        return AnaliseEmprestimos.autores(biblioteca, porLivro, limite);
+    }
+
+    public synchronized DuracaoEmprestimos duracao() {
+        return totais.duracoes.resultado();
+    }
+
+    /** Deixa de acompanhar a biblioteca; as consultas passam a devolver os últimos totais. */
+    @Override
+    public void close() {
+        biblioteca.removerOuvinte(this);
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.livraria.analise;
+
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Os agregados de {@link PainelEmprestimos}: empréstimos por livro, por mês e livro,
+ * e as durações dos devolvidos. Serve tanto de acumulador de uma varredura paralela
+ * (um por trecho, somados no fim) quanto de total incremental, atualizado a cada
+ * empréstimo e devolução.
+ *
+ * Meses são {@code ano * 12 + (mês - 1)}, calculados do dia sem criar {@link java.time.LocalDate}.
+ */
+final class Totais implements Biblioteca.LeitorEmprestimos {
+
+    final ContagemInt porLivro = new ContagemInt();
+    final TreeMap<Integer, ContagemInt> livrosPorMes = new TreeMap<>();
+    final Duracoes duracoes = new Duracoes();
+
+    /** Na semente do painel: devoluções que só contam se ainda não foram reivindicadas por um ouvinte. */
+    private final AtomicLongArray reivindicadas;
+
+    // empréstimos vêm quase em ordem de data: evita buscar o mês no TreeMap a cada um
+    private int ultimoMes = Integer.MIN_VALUE;
+    private ContagemInt doUltimoMes;
+
+    Totais() {
+        this(null);
+    }
+
+    Totais(AtomicLongArray reivindicadas) {
+        this.reivindicadas = reivindicadas;
+    }
+
+    @Override
+    public void ler(int posicao, Livro livro, int diaEmprestimo, int diaPrevisto, int diaDevolucao) {
+        emprestimo(livro.getId(), diaEmprestimo);
+        if (diaDevolucao != EM_ABERTO && (reivindicadas == null || reivindicar(reivindicadas, posicao))) {
+            duracoes.somar(diaEmprestimo, diaPrevisto, diaDevolucao);
+        }
+    }
+
+    void emprestimo(int livroId, int diaEmprestimo) {
+        porLivro.somar(livroId, 1);
+        int mes = mes(diaEmprestimo);
+        if (mes != ultimoMes) {
+            doUltimoMes = livrosPorMes.computeIfAbsent(mes, m -> new ContagemInt());
+            ultimoMes = mes;
+        }
+        doUltimoMes.somar(livroId, 1);
+    }
+
+    Totais combinar(Totais outros) {
+        porLivro.somarTodas(outros.porLivro);
+        for (Map.Entry<Integer, ContagemInt> e : outros.livrosPorMes.entrySet()) {
+            ContagemInt meu = livrosPorMes.get(e.getKey());
+            if (meu == null) livrosPorMes.put(e.getKey(), e.getValue());
+            else meu.somarTodas(e.getValue());
+        }
+        ultimoMes = Integer.MIN_VALUE; // o ContagemInt em cache pode ter sido o de outros
+        duracoes.combinar(outros.duracoes);
+        return this;
+    }
+
+    /**
+     * Marca a devolução da {@code posicao} como contada; {@code false} se já estava.
+     * Decide quem conta uma devolução concorrente com a semente: a varredura ou o ouvinte.
+     */
+    static boolean reivindicar(AtomicLongArray bits, int posicao) {
+        int i = posicao >>> 6;
+        long bit = 1L << posicao;
+        long atual;
+        do {
+            atual = bits.get(i);
+            if ((atual & bit) != 0) return false;
+        } while (!bits.compareAndSet(i, atual, atual | bit));
+        return true;
+    }
+
+    // ---------- Meses ----------
+    /** {@code ano * 12 + (mês - 1)} do dia desde a época (algoritmo civil de Howard Hinnant). */
+    static int mes(int diaEpoca) {
+        int z = diaEpoca + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int ano = yoe + era * 400 + (mes <= 2 ? 1 : 0);
+        return ano * 12 + mes - 1;
+    }
+
+    static int mes(YearMonth anoMes) {
+        return anoMes.getYear() * 12 + anoMes.getMonthValue() - 1;
+    }
+
+    static YearMonth anoMes(int mes) {
+        return YearMonth.of(Math.floorDiv(mes, 12), Math.floorMod(mes, 12) + 1);
+    }
+}
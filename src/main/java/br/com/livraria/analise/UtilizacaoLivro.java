@@ -0,0 +1,9 @@
+package br.com.livraria.analise;
+
+import br.com.livraria.model.Livro;
+
+/**
+ * Ocupação de um livro numa janela de datas: dias-exemplar emprestados e a fração
+ * disso sobre todos os exemplares durante a janela inteira (0 a 1).
+ */
+public record UtilizacaoLivro(Livro livro, long diasEmprestado, double taxa) { }
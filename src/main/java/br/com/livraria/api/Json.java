@@ -0,0 +1,200 @@
+package br.com.livraria.api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON mínimo para a API, sem dependências externas: escrita de objetos e arrays
+ * via {@link Escritor} e leitura de objetos planos (texto, número, booleano, null)
+ * nos corpos das requisições.
+ */
+final class Json {
+
+    private Json() { }
+
+    // ---------- Escrita ----------
+    static final class Escritor {
+        private final StringBuilder sb = new StringBuilder(256);
+        private boolean precisaVirgula;
+
+        Escritor inicioObjeto() { valorInicio(); sb.append('{'); precisaVirgula = false; return this; }
+        Escritor fimObjeto() { sb.append('}'); precisaVirgula = true; return this; }
+        Escritor inicioArray() { valorInicio(); sb.append('['); precisaVirgula = false; return this; }
+        Escritor fimArray() { sb.append(']'); precisaVirgula = true; return this; }
+
+        Escritor campo(String nome) {
+            if (precisaVirgula) sb.append(',');
+            texto(nome);
+            sb.append(':');
+            precisaVirgula = false;
+            return this;
+        }
+
+        Escritor campo(String nome, String valor) { return campo(nome).valor(valor); }
+        Escritor campo(String nome, long valor) { return campo(nome).valor(valor); }
+        Escritor campo(String nome, boolean valor) { return campo(nome).valor(valor); }
+        Escritor campo(String nome, double valor) { return campo(nome).valor(valor); }
+        Escritor campo(String nome, Object valor) { return campo(nome).valor(valor == null ? null : valor.toString()); }
+
+        Escritor valor(String v) {
+            valorInicio();
+            if (v == null) sb.append("null"); else texto(v);
+            precisaVirgula = true;
+            return this;
+        }
+
+        Escritor valor(long v) { valorInicio(); sb.append(v); precisaVirgula = true; return this; }
+        Escritor valor(boolean v) { valorInicio(); sb.append(v); precisaVirgula = true; return this; }
+
+        // JSON não tem NaN nem infinito
+        Escritor valor(double v) {
+            valorInicio();
+            if (Double.isFinite(v)) sb.append(v); else sb.append("null");
+            precisaVirgula = true;
+            return this;
+        }
+
+        private void valorInicio() {
+            if (precisaVirgula) sb.append(',');
+        }
+
+        private void texto(String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c)); else sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
+    // ---------- Leitura ----------
+    /**
+     * Lê um objeto JSON plano. Números viram {@code Long} ou {@code Double} e arrays de
+     * valores simples, {@code List}; objetos aninhados e arrays de arrays não são aceitos.
+     *
+     * @throws IllegalArgumentException se o texto não for um objeto válido
+     */
+    static Map<String, Object> lerObjeto(String json) {
+        Leitor l = new Leitor(json);
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        l.esperar('{');
+        if (!l.consumir('}')) {
+            do {
+                String chave = l.texto();
+                l.esperar(':');
+                resultado.put(chave, l.valor());
+            } while (l.consumir(','));
+            l.esperar('}');
+        }
+        l.pularEspacos();
+        if (l.i != json.length()) throw new IllegalArgumentException("JSON inválido: conteúdo após o objeto.");
+        return resultado;
+    }
+
+    private static final class Leitor {
+        private final String s;
+        private int i;
+
+        Leitor(String s) {
+            this.s = s;
+        }
+
+        void pularEspacos() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        boolean consumir(char c) {
+            pularEspacos();
+            if (i < s.length() && s.charAt(i) == c) {
+                i++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperar(char c) {
+            if (!consumir(c)) throw new IllegalArgumentException("JSON inválido: esperado '" + c + "' na posição " + i + ".");
+        }
+
+        Object valor() {
+            pularEspacos();
+            if (i < s.length() && s.charAt(i) == '[') {
+                i++;
+                List<Object> itens = new ArrayList<>();
+                if (!consumir(']')) {
+                    do {
+                        itens.add(simples());
+                    } while (consumir(','));
+                    esperar(']');
+                }
+                return itens;
+            }
+            return simples();
+        }
+
+        Object simples() {
+            pularEspacos();
+            if (i >= s.length()) throw new IllegalArgumentException("JSON inválido: valor ausente.");
+            char c = s.charAt(i);
+            if (c == '"') return texto();
+            if (s.startsWith("true", i)) { i += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", i)) { i += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", i)) { i += 4; return null; }
+            int inicio = i;
+            while (i < s.length() && "+-0123456789.eE".indexOf(s.charAt(i)) >= 0) i++;
+            String numero = s.substring(inicio, i);
+            try {
+                return numero.contains(".") || numero.contains("e") || numero.contains("E")
+                        ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("JSON inválido: valor não suportado na posição " + inicio + ".");
+            }
+        }
+
+        String texto() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (i >= s.length()) throw new IllegalArgumentException("JSON inválido: texto sem fechamento.");
+                char c = s.charAt(i++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (i >= s.length()) throw new IllegalArgumentException("JSON inválido: escape incompleto.");
+                char e = s.charAt(i++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (i + 4 > s.length()) throw new IllegalArgumentException("JSON inválido: escape incompleto.");
+                        sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                        i += 4;
+                    }
+                    default -> sb.append(e); // \" \\ \/
+                }
+            }
+        }
+    }
+}
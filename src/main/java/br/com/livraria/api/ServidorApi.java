@@ -0,0 +1,795 @@
+package br.com.livraria.api;
+
+import br.com.livraria.analise.AnaliseEmprestimos;
+import br.com.livraria.analise.Classificacao;
+import br.com.livraria.analise.DuracaoEmprestimos;
+import br.com.livraria.analise.PainelEmprestimos;
+import br.com.livraria.analise.UtilizacaoLivro;
+import br.com.livraria.eventos.EventoBiblioteca;
+import br.com.livraria.eventos.FluxoEventos;
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+import br.com.livraria.model.Reserva;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API HTTP/JSON embutida sobre uma {@link Biblioteca}, usando o servidor HTTP do próprio JDK
+ * ({@code com.sun.net.httpserver}).
+ *
+ * Cada requisição é atendida em uma thread virtual própria quando o JDK as oferece (21+);
+ * em JDKs anteriores cai para um pool fixo de threads de plataforma. A biblioteca já é segura
+ * para acesso concorrente, então os handlers apenas traduzem HTTP para chamadas do modelo.
+ *
+ * <pre>
+ * GET    /livros?titulo=&amp;disponiveis=&amp;limite=    GET  /livros/{id}         POST /livros
+ * GET    /livros?deslocamento=  ou  ?apos=&amp;aposId=  (em ordem de título; com disponiveis=true,
+ *        deslocamento até {@value #DESLOCAMENTO_MAXIMO_DISPONIVEIS})
+ * GET    /livros/{id}/reservas
+ * GET    /autores?deslocamento=  ou  ?apos=&amp;aposId=   GET  /autores/{id}        POST /autores
+ * GET    /autores?prefixo=&amp;limite=                 GET  /autores/{id}/livros?disponiveis=
+ * POST   /emprestimos                              GET  /emprestimos/{id}
+ * POST   /emprestimos/lote                         POST /emprestimos/devolucoes
+ * POST   /emprestimos/{id}/devolucao               POST /emprestimos/{id}/prorrogacao
+ * GET    /emprestimos/atrasados?data=
+ * GET    /clientes/{nome}/emprestimos?abertos=
+ * POST   /reservas                                 GET  /reservas/{id}
+ * POST   /reservas/{id}/retirada                   DELETE /reservas/{id}
+ * GET    /relatorios/emprestimos?mes=&amp;limite=       GET  /relatorios/utilizacao?inicio=&amp;fim=&amp;limite=
+ * GET    /eventos?desde=&amp;limite=&amp;espera=        (fluxo de alterações)
+ * GET    /metricas   (formato de texto do Prometheus)
+ * </pre>
+ *
+ * Sem {@code id} (ou {@code emprestimoId}, na retirada de reserva), o empréstimo recebe
+ * o próximo id da sequência da biblioteca. {@code /emprestimos/lote}
+ * ({@code {"livroIds": [...], "cliente": ...}}) e {@code /emprestimos/devolucoes}
+ * ({@code {"ids": [...]}}) valem para todos os itens ou para nenhum.
+ *
+ * {@code /relatorios/emprestimos} lê um {@link PainelEmprestimos}, inscrito na primeira
+ * consulta e atualizado a cada empréstimo desde então; {@code /relatorios/utilizacao}
+ * varre o histórico a cada chamada ({@link AnaliseEmprestimos}).
+ *
+ * {@code /eventos} lê um {@link FluxoEventos}, também inscrito na primeira consulta:
+ * devolve até {@code limite} eventos a partir da sequência {@code desde} e a
+ * {@code proxima} a pedir, esperando até {@code espera} ms (no máximo
+ * {@value #ESPERA_MAXIMA_EVENTOS_MS}) se ainda não houver nenhum. Se os eventos pedidos já
+ * saíram do anel, a resposta é 409 e o cliente precisa recarregar o estado. Sem threads
+ * virtuais, cada espera ocupa uma thread do pool: no máximo metade delas fica esperando
+ * em {@code /eventos}, e a consulta com {@code espera} além disso responde 503 na hora.
+ *
+ * Erros seguem as exceções do modelo: {@link IllegalArgumentException} vira 400,
+ * {@link NoSuchElementException} 404 e {@link IllegalStateException} 409, sempre com
+ * corpo {@code {"erro": "..."}}.
+ */
+public class ServidorApi implements Closeable {
+
+    /** Limite padrão de itens em listagens do catálogo ({@code ?limite=} muda). */
+    public static final int LIMITE_PADRAO = 100;
+    /** Limite padrão de itens em cada ranking dos relatórios. */
+    public static final int LIMITE_RELATORIO = 10;
+    /**
+     * Maior {@code ?deslocamento=} aceito em {@code /livros?disponiveis=true}: a contagem
+     * dos disponíveis varre desde o primeiro título; além disso, use {@code ?apos=}.
+     */
+    public static final int DESLOCAMENTO_MAXIMO_DISPONIVEIS = 10_000;
+    /** Maior espera aceita em {@code /eventos?espera=}, em milissegundos. */
+    public static final long ESPERA_MAXIMA_EVENTOS_MS = 30_000;
+
+    private static final int FILA_CONEXOES = 4096;
+    private static final int THREADS_SEM_VIRTUAIS = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+    private static final int TAMANHO_MAXIMO_CORPO = 64 * 1024;
+
+    static {
+        // o servidor do JDK grava cabeçalhos e corpo em escritas separadas: com o algoritmo de Nagle,
+        // a segunda espera o ACK atrasado do cliente (~40 ms por resposta em conexões persistentes)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Biblioteca biblioteca;
+    private final Clock relogio;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final Semaphore esperasEventos;   // vagas para consultas a /eventos que podem esperar
+    private final AnaliseEmprestimos analise;
+    private volatile PainelEmprestimos painel;
+    private volatile FluxoEventos fluxo;
+
+    public ServidorApi(Biblioteca biblioteca, int porta) throws IOException {
+        this(biblioteca, new InetSocketAddress(porta), Clock.systemDefaultZone());
+    }
+
+    public ServidorApi(Biblioteca biblioteca, InetSocketAddress endereco, Clock relogio) throws IOException {
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.relogio = Objects.requireNonNull(relogio, "relogio é obrigatório.");
+        this.analise = new AnaliseEmprestimos(biblioteca);
+        this.servidor = HttpServer.create(Objects.requireNonNull(endereco, "endereco é obrigatório."), FILA_CONEXOES);
+        this.executor = criarExecutor();
+        this.esperasEventos = new Semaphore(isThreadsVirtuais() ? Integer.MAX_VALUE : THREADS_SEM_VIRTUAIS / 2);
+        servidor.setExecutor(executor);
+        servidor.createContext("/", this::atender);
+        servidor.start();
+    }
+
+    /** Porta efetivamente em uso (útil quando criado com a porta 0). */
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    /** {@code true} se as requisições são atendidas em threads virtuais. */
+    public boolean isThreadsVirtuais() {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(1);
+        executor.shutdown();
+        FluxoEventos f = fluxo;
+        if (f != null) f.close(); // acorda quem ainda espera em /eventos
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PainelEmprestimos p = painel;
+        if (p != null) p.close();
+    }
+
+    // thread virtual por requisição no JDK 21+; o código continua compilando para 17
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            return Executors.newFixedThreadPool(THREADS_SEM_VIRTUAIS, r -> {
+                Thread t = new Thread(r, "api-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // ---------- Roteamento ----------
+    private void atender(HttpExchange troca) throws IOException {
+        try (troca) {
+            int status;
+            String corpo;
+            String tipo = JSON;
+            try {
+                String[] partes = segmentos(troca.getRequestURI().getRawPath());
+                Map<String, String> consulta = consulta(troca.getRequestURI().getRawQuery());
+                Resposta r = rotear(troca.getRequestMethod(), partes, consulta, troca);
+                status = r.status;
+                corpo = r.corpo;
+                tipo = r.tipo;
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                corpo = erro(e.getMessage());
+            } catch (NoSuchElementException e) {
+                status = 404;
+                corpo = erro(e.getMessage());
+            } catch (IllegalStateException e) {
+                status = 409;
+                corpo = erro(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                corpo = erro("Erro interno: " + e);
+            }
+            byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", tipo);
+            troca.sendResponseHeaders(status, bytes.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(bytes);
+            }
+        }
+    }
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    private record Resposta(int status, String corpo, String tipo) { }
+
+    private static Resposta ok(Json.Escritor json) {
+        return new Resposta(200, json.toString(), JSON);
+    }
+
+    private static Resposta criado(Json.Escritor json) {
+        return new Resposta(201, json.toString(), JSON);
+    }
+
+    private static final Resposta SEM_ROTA = new Resposta(404, erro("Rota não encontrada."), JSON);
+    private static final Resposta METODO_NAO_PERMITIDO = new Resposta(405, erro("Método não permitido."), JSON);
+
+    private Resposta rotear(String metodo, String[] p, Map<String, String> q, HttpExchange troca) throws IOException {
+        if (p.length == 0) return SEM_ROTA;
+        boolean get = metodo.equals("GET");
+        boolean post = metodo.equals("POST");
+        switch (p[0]) {
+            case "livros" -> {
+                if (p.length == 1) {
+                    if (get) return ok(listarLivros(q));
+                    if (post) return criado(cadastrarLivro(corpo(troca)));
+                } else if (p.length == 2 && get) {
+                    return ok(livro(new Json.Escritor(), livroPorId(id(p[1]))));
+                } else if (p.length == 3 && p[2].equals("reservas") && get) {
+                    return ok(reservas(biblioteca.listarReservas(id(p[1]))));
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "autores" -> {
+                if (p.length == 1) {
+                    if (get) return ok(listarAutores(q));
+                    if (post) return criado(cadastrarAutor(corpo(troca)));
+                } else if (p.length == 2 && get) {
+                    int id = id(p[1]);
+                    return ok(autor(new Json.Escritor(), biblioteca.buscarAutorPorId(id)
+                            .orElseThrow(() -> new NoSuchElementException("Autor id=" + id + " não encontrado."))));
+                } else if (p.length == 3 && p[2].equals("livros") && get) {
+                    int id = id(p[1]);
+                    return ok(livros(Boolean.parseBoolean(q.get("disponiveis"))
+                            ? biblioteca.listarLivrosDisponiveisDoAutor(id)
+                            : biblioteca.listarLivrosDoAutor(id)));
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "emprestimos" -> {
+                if (p.length == 1) {
+                    if (post) return criado(emprestar(corpo(troca)));
+                } else if (p.length == 2 && p[1].equals("atrasados")) {
+                    if (get) return ok(emprestimos(biblioteca.listarEmprestimosAtrasados(data(q.get("data")))));
+                } else if (p.length == 2 && p[1].equals("lote")) {
+                    if (post) return criado(emprestarLote(corpo(troca)));
+                } else if (p.length == 2 && p[1].equals("devolucoes")) {
+                    if (post) return ok(devolverLote(corpo(troca)));
+                } else if (p.length == 2) {
+                    if (get) return ok(emprestimo(new Json.Escritor(), emprestimoPorId(id(p[1]))));
+                } else if (p.length == 3 && p[2].equals("devolucao")) {
+                    if (post) return ok(devolver(id(p[1]), corpo(troca)));
+                } else if (p.length == 3 && p[2].equals("prorrogacao")) {
+                    if (post) return ok(prorrogar(id(p[1]), corpo(troca)));
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "clientes" -> {
+                if (p.length == 3 && p[2].equals("emprestimos")) {
+                    if (get) {
+                        boolean abertos = Boolean.parseBoolean(q.get("abertos"));
+                        return ok(emprestimos(abertos
+                                ? biblioteca.buscarEmprestimosEmAbertoPorCliente(p[1])
+                                : biblioteca.buscarEmprestimosPorCliente(p[1])));
+                    }
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "reservas" -> {
+                if (p.length == 1) {
+                    if (post) return criado(reservar(corpo(troca)));
+                } else if (p.length == 2) {
+                    int id = id(p[1]);
+                    if (get) return ok(reserva(new Json.Escritor(), reservaPorId(id)));
+                    if (metodo.equals("DELETE")) {
+                        Reserva reserva = reservaPorId(id); // depois de cancelada, sai das reservas ativas
+                        biblioteca.cancelarReserva(id, LocalDate.now(relogio));
+                        return ok(reserva(new Json.Escritor(), reserva));
+                    }
+                } else if (p.length == 3 && p[2].equals("retirada")) {
+                    if (post) return criado(retirarReserva(id(p[1]), corpo(troca)));
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "relatorios" -> {
+                if (p.length == 2 && p[1].equals("emprestimos")) {
+                    if (get) return ok(relatorioEmprestimos(q));
+                } else if (p.length == 2 && p[1].equals("utilizacao")) {
+                    if (get) return ok(relatorioUtilizacao(q));
+                } else {
+                    return SEM_ROTA;
+                }
+            }
+            case "eventos" -> {
+                if (p.length != 1) return SEM_ROTA;
+                if (get) return eventos(q);
+            }
+            case "metricas" -> {
+                if (p.length != 1) return SEM_ROTA;
+                if (get) {
+                    return new Resposta(200, biblioteca.getMetricas().formatarPrometheus()
+                            + prometheus(biblioteca.getEstatisticasCacheBuscas()), PROMETHEUS);
+                }
+            }
+            default -> {
+                return SEM_ROTA;
+            }
+        }
+        return METODO_NAO_PERMITIDO;
+    }
+
+    // ---------- Catálogo ----------
+    // sem 'titulo', lista em ordem de título: ?deslocamento= ou, para páginas distantes, ?apos=<título>&aposId=<id>
+    private Json.Escritor listarLivros(Map<String, String> q) {
+        String titulo = q.get("titulo");
+        boolean disponiveis = Boolean.parseBoolean(q.get("disponiveis"));
+        int limite = limite(q);
+        List<Livro> livros;
+        if (titulo != null) {
+            livros = biblioteca.buscarLivrosPorTitulo(titulo);
+        } else if (q.containsKey("apos")) {
+            int aposId = id(q.getOrDefault("aposId", "0"));
+            livros = disponiveis ? biblioteca.listarLivrosDisponiveisPorTituloApos(q.get("apos"), aposId, limite)
+                    : biblioteca.listarLivrosPorTituloApos(q.get("apos"), aposId, limite);
+        } else {
+            int deslocamento = deslocamento(q);
+            if (disponiveis && deslocamento > DESLOCAMENTO_MAXIMO_DISPONIVEIS) {
+                throw new IllegalArgumentException("deslocamento acima de " + DESLOCAMENTO_MAXIMO_DISPONIVEIS
+                        + " com disponiveis=true; continue com ?apos=<título>&aposId=<id> do último livro recebido.");
+            }
+            livros = disponiveis ? biblioteca.listarLivrosDisponiveisPorTitulo(deslocamento, limite)
+                    : biblioteca.listarLivrosPorTitulo(deslocamento, limite);
+        }
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        int n = 0;
+        for (Livro l : livros) {
+            if (n == limite) break;
+            if (disponiveis && !l.isDisponivel()) continue;
+            livro(json, l);
+            n++;
+        }
+        return json.fimArray();
+    }
+
+    private Json.Escritor cadastrarLivro(Map<String, Object> corpo) {
+        int autorId = inteiro(corpo, "autorId");
+        Autor autor = biblioteca.buscarAutorPorId(autorId)
+                .orElseThrow(() -> new IllegalArgumentException("Autor id=" + autorId + " não cadastrado."));
+        Livro livro = corpo.get("exemplares") == null
+                ? new Livro(inteiro(corpo, "id"), texto(corpo, "titulo"), autor)
+                : new Livro(inteiro(corpo, "id"), texto(corpo, "titulo"), autor, inteiro(corpo, "exemplares"));
+        biblioteca.adicionarLivro(livro);
+        return livro(new Json.Escritor(), livro);
+    }
+
+    private Json.Escritor listarAutores(Map<String, String> q) {
+        int limite = limite(q);
+        List<Autor> autores = q.containsKey("prefixo") ? biblioteca.buscarAutoresPorPrefixo(q.get("prefixo"), limite)
+                : q.containsKey("apos")
+                ? biblioteca.listarAutoresPorNomeApos(q.get("apos"), id(q.getOrDefault("aposId", "0")), limite)
+                : biblioteca.listarAutoresPorNome(deslocamento(q), limite);
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (Autor a : autores) autor(json, a);
+        return json.fimArray();
+    }
+
+    private static Json.Escritor livros(List<Livro> lista) {
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (Livro l : lista) livro(json, l);
+        return json.fimArray();
+    }
+
+    private Json.Escritor cadastrarAutor(Map<String, Object> corpo) {
+        Object nascimento = corpo.get("dataNascimento");
+        Autor autor = new Autor(inteiro(corpo, "id"), texto(corpo, "nome"),
+                nascimento == null ? null : data(nascimento.toString()));
+        biblioteca.adicionarAutor(autor);
+        return autor(new Json.Escritor(), autor);
+    }
+
+    // ---------- Empréstimos ----------
+    private Json.Escritor emprestar(Map<String, Object> corpo) {
+        LocalDate data = dataOuHoje(corpo, "data");
+        LocalDate prevista = dataPrevista(corpo, data);
+        int livroId = inteiro(corpo, "livroId");
+        String cliente = texto(corpo, "cliente");
+        Emprestimo e = corpo.get("id") == null
+                ? biblioteca.emprestarLivroComNovoId(livroId, cliente, data, prevista)
+                : biblioteca.emprestarLivro(inteiro(corpo, "id"), livroId, cliente, data, prevista);
+        return emprestimo(new Json.Escritor(), e);
+    }
+
+    private Json.Escritor emprestarLote(Map<String, Object> corpo) {
+        LocalDate data = dataOuHoje(corpo, "data");
+        return emprestimos(biblioteca.emprestarLivros(inteiros(corpo, "livroIds"), texto(corpo, "cliente"), data,
+                dataPrevista(corpo, data)));
+    }
+
+    private Json.Escritor devolver(int id, Map<String, Object> corpo) {
+        biblioteca.devolverLivro(id, dataOuHoje(corpo, "data"));
+        return emprestimo(new Json.Escritor(), emprestimoPorId(id));
+    }
+
+    private Json.Escritor devolverLote(Map<String, Object> corpo) {
+        int[] ids = inteiros(corpo, "ids");
+        biblioteca.devolverLivros(ids, dataOuHoje(corpo, "data"));
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (int id : ids) emprestimo(json, emprestimoPorId(id));
+        return json.fimArray();
+    }
+
+    private LocalDate dataPrevista(Map<String, Object> corpo, LocalDate dataEmprestimo) {
+        Object prevista = corpo.get("dataPrevista");
+        return prevista == null ? dataEmprestimo.plusDays(Emprestimo.PRAZO_PADRAO_DIAS) : data(prevista.toString());
+    }
+
+    private Json.Escritor prorrogar(int id, Map<String, Object> corpo) {
+        biblioteca.prorrogarEmprestimo(id, data(texto(corpo, "dataPrevista")));
+        return emprestimo(new Json.Escritor(), emprestimoPorId(id));
+    }
+
+    // ---------- Reservas ----------
+    private Json.Escritor reservar(Map<String, Object> corpo) {
+        Reserva r = biblioteca.reservarLivro(inteiro(corpo, "livroId"), texto(corpo, "cliente"), dataOuHoje(corpo, "data"));
+        return reserva(new Json.Escritor(), r);
+    }
+
+    private Json.Escritor retirarReserva(int id, Map<String, Object> corpo) {
+        LocalDate data = dataOuHoje(corpo, "data");
+        Emprestimo e = corpo.get("emprestimoId") == null
+                ? biblioteca.retirarReserva(id, data)
+                : biblioteca.retirarReserva(id, inteiro(corpo, "emprestimoId"), data);
+        return emprestimo(new Json.Escritor(), e);
+    }
+
+    // ---------- Relatórios ----------
+    private Json.Escritor relatorioEmprestimos(Map<String, String> q) {
+        PainelEmprestimos painel = painel();
+        int limite = q.containsKey("limite") ? limite(q) : LIMITE_RELATORIO;
+        YearMonth mes = mes(q.get("mes"));
+        DuracaoEmprestimos d = painel.duracao();
+        Json.Escritor json = new Json.Escritor().inicioObjeto().campo("mes", mes);
+        json.campo("duracao").inicioObjeto()
+                .campo("devolvidos", d.devolvidos())
+                .campo("mediaDias", d.mediaDias())
+                .campo("maximoDias", d.maximoDias())
+                .campo("comAtraso", d.comAtraso())
+                .fimObjeto();
+        json.campo("livros").inicioArray();
+        for (Classificacao<Livro> c : painel.maisEmprestados(mes, limite)) {
+            json.inicioObjeto().campo("id", c.item().getId()).campo("titulo", c.item().getTitulo())
+                    .campo("emprestimos", c.emprestimos()).fimObjeto();
+        }
+        json.fimArray().campo("autores").inicioArray();
+        for (Classificacao<Autor> c : painel.autoresMaisEmprestados(limite)) {
+            json.inicioObjeto().campo("id", c.item().getId()).campo("nome", c.item().getNome())
+                    .campo("emprestimos", c.emprestimos()).fimObjeto();
+        }
+        json.fimArray().campo("porMes").inicioObjeto();
+        painel.emprestimosPorMes().forEach((m, total) -> json.campo(m.toString(), total.longValue()));
+        return json.fimObjeto().fimObjeto();
+    }
+
+    private Json.Escritor relatorioUtilizacao(Map<String, String> q) {
+        LocalDate fim = data(q.get("fim"));
+        LocalDate inicio = q.containsKey("inicio") ? data(q.get("inicio")) : fim.minusDays(29);
+        int limite = q.containsKey("limite") ? limite(q) : LIMITE_RELATORIO;
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (UtilizacaoLivro u : analise.utilizacao(inicio, fim, limite)) {
+            json.inicioObjeto()
+                    .campo("id", u.livro().getId())
+                    .campo("titulo", u.livro().getTitulo())
+                    .campo("exemplares", u.livro().getExemplares())
+                    .campo("diasEmprestado", u.diasEmprestado())
+                    .campo("taxa", u.taxa())
+                    .fimObjeto();
+        }
+        return json.fimArray();
+    }
+
+    // inscrito na primeira consulta: a semente varre o histórico uma vez
+    private PainelEmprestimos painel() {
+        PainelEmprestimos p = painel;
+        if (p == null) {
+            synchronized (this) {
+                p = painel;
+                if (p == null) painel = p = PainelEmprestimos.acompanhar(biblioteca);
+            }
+        }
+        return p;
+    }
+
+    // ---------- Fluxo de alterações ----------
+    private Resposta eventos(Map<String, String> q) {
+        FluxoEventos f = fluxo();
+        int limite = limite(q);
+        if (limite == 0) throw new IllegalArgumentException("limite deve ser positivo.");
+        long espera = q.containsKey("espera") ? numero(q.get("espera")) : 0;
+        if (espera < 0 || espera > ESPERA_MAXIMA_EVENTOS_MS) {
+            throw new IllegalArgumentException("espera deve estar entre 0 e " + ESPERA_MAXIMA_EVENTOS_MS + " ms.");
+        }
+        FluxoEventos.Assinatura a = q.containsKey("desde")
+                ? f.assinar(numero(q.get("desde")), FluxoEventos.Politica.FALHAR)
+                : f.assinar(FluxoEventos.Politica.FALHAR);
+        List<EventoBiblioteca> lidos = a.ler(limite, Duration.ZERO);
+        if (lidos.isEmpty() && espera > 0) {
+            // só quem de fato vai esperar ocupa uma vaga
+            if (!esperasEventos.tryAcquire()) {
+                return new Resposta(503, erro("Muitas consultas esperando eventos; tente de novo em instantes."), JSON);
+            }
+            try {
+                lidos = a.ler(limite, Duration.ofMillis(espera));
+            } finally {
+                esperasEventos.release();
+            }
+        }
+        Json.Escritor json = new Json.Escritor().inicioObjeto().campo("proxima", a.getProxima());
+        json.campo("eventos").inicioArray();
+        for (EventoBiblioteca e : lidos) evento(json, e);
+        return ok(json.fimArray().fimObjeto());
+    }
+
+    // inscrito na primeira consulta: a sequência começa nela
+    private FluxoEventos fluxo() {
+        FluxoEventos f = fluxo;
+        if (f == null) {
+            synchronized (this) {
+                f = fluxo;
+                if (f == null) fluxo = f = FluxoEventos.acompanhar(biblioteca);
+            }
+        }
+        return f;
+    }
+
+    // ---------- Representação ----------
+    // contadores do cache de buscas no mesmo formato de /metricas
+    private static String prometheus(Biblioteca.EstatisticasCacheBuscas c) {
+        return "# HELP livraria_cache_buscas_total Consultas ao cache de buscas por título, por resultado.\n"
+                + "# TYPE livraria_cache_buscas_total counter\n"
+                + "livraria_cache_buscas_total{resultado=\"acerto\"} " + c.acertos() + "\n"
+                + "livraria_cache_buscas_total{resultado=\"falta\"} " + c.faltas() + "\n"
+                + "# HELP livraria_cache_buscas_remocoes_total Entradas removidas do cache de buscas, por motivo.\n"
+                + "# TYPE livraria_cache_buscas_remocoes_total counter\n"
+                + "livraria_cache_buscas_remocoes_total{motivo=\"expirada\"} " + c.expiradas() + "\n"
+                + "livraria_cache_buscas_remocoes_total{motivo=\"despejo\"} " + c.despejos() + "\n"
+                + "livraria_cache_buscas_remocoes_total{motivo=\"invalidacao\"} " + c.invalidacoes() + "\n"
+                + "# HELP livraria_cache_buscas_entradas Termos no cache de buscas.\n"
+                + "# TYPE livraria_cache_buscas_entradas gauge\n"
+                + "livraria_cache_buscas_entradas " + c.entradas() + "\n";
+    }
+
+    private static Json.Escritor livro(Json.Escritor json, Livro l) {
+        return json.inicioObjeto()
+                .campo("id", l.getId())
+                .campo("titulo", l.getTitulo())
+                .campo("autorId", l.getAutor().getId())
+                .campo("autor", l.getAutor().getNome())
+                .campo("exemplares", l.getExemplares())
+                .campo("exemplaresDisponiveis", l.getExemplaresDisponiveis())
+                .campo("disponivel", l.isDisponivel())
+                .fimObjeto();
+    }
+
+    private static Json.Escritor autor(Json.Escritor json, Autor a) {
+        return json.inicioObjeto()
+                .campo("id", a.getId())
+                .campo("nome", a.getNome())
+                .campo("dataNascimento", a.getDataNascimento())
+                .fimObjeto();
+    }
+
+    private static Json.Escritor emprestimo(Json.Escritor json, Emprestimo e) {
+        return json.inicioObjeto()
+                .campo("id", e.getId())
+                .campo("livroId", e.getLivro().getId())
+                .campo("titulo", e.getLivro().getTitulo())
+                .campo("cliente", e.getNomeCliente())
+                .campo("dataEmprestimo", e.getDataEmprestimo())
+                .campo("dataPrevista", e.getDataPrevistaDevolucao())
+                .campo("dataDevolucao", e.getDataDevolucao())
+                .campo("devolvido", e.isDevolvido())
+                .fimObjeto();
+    }
+
+    private static Json.Escritor emprestimos(List<Emprestimo> lista) {
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (Emprestimo e : lista) emprestimo(json, e);
+        return json.fimArray();
+    }
+
+    private static Json.Escritor evento(Json.Escritor json, EventoBiblioteca evento) {
+        json.inicioObjeto().campo("sequencia", evento.sequencia()).campo("tipo", evento.tipo());
+        if (evento instanceof EventoBiblioteca.AutorAdicionado e) {
+            json.campo("autorId", e.autorId()).campo("nome", e.nome()).campo("dataNascimento", e.dataNascimento());
+        } else if (evento instanceof EventoBiblioteca.NomeAutorAlterado e) {
+            json.campo("autorId", e.autorId()).campo("nome", e.nome());
+        } else if (evento instanceof EventoBiblioteca.LivroAdicionado e) {
+            json.campo("livroId", e.livroId()).campo("titulo", e.titulo()).campo("autorId", e.autorId())
+                    .campo("exemplares", e.exemplares());
+        } else if (evento instanceof EventoBiblioteca.TituloAlterado e) {
+            json.campo("livroId", e.livroId()).campo("titulo", e.titulo());
+        } else if (evento instanceof EventoBiblioteca.AutorAlterado e) {
+            json.campo("livroId", e.livroId()).campo("autorId", e.autorId());
+        } else if (evento instanceof EventoBiblioteca.LivroEmprestado e) {
+            json.campo("emprestimoId", e.emprestimoId()).campo("livroId", e.livroId()).campo("cliente", e.cliente())
+                    .campo("dataEmprestimo", e.dataEmprestimo()).campo("dataPrevista", e.dataPrevista());
+        } else if (evento instanceof EventoBiblioteca.LivroDevolvido e) {
+            json.campo("emprestimoId", e.emprestimoId()).campo("livroId", e.livroId())
+                    .campo("dataDevolucao", e.dataDevolucao());
+        } else if (evento instanceof EventoBiblioteca.PrazoAlterado e) {
+            json.campo("emprestimoId", e.emprestimoId()).campo("dataPrevista", e.dataPrevista());
+        } else if (evento instanceof EventoBiblioteca.ClienteRenomeado e) {
+            json.campo("emprestimoId", e.emprestimoId()).campo("cliente", e.cliente());
+        }
+        return json.fimObjeto();
+    }
+
+    private static Json.Escritor reserva(Json.Escritor json, Reserva r) {
+        return json.inicioObjeto()
+                .campo("id", r.getId())
+                .campo("livroId", r.getLivro().getId())
+                .campo("cliente", r.getNomeCliente())
+                .campo("dataReserva", r.getDataReserva())
+                .campo("situacao", r.getSituacao())
+                .campo("prazoRetirada", r.getPrazoRetirada())
+                .fimObjeto();
+    }
+
+    private static Json.Escritor reservas(List<Reserva> lista) {
+        Json.Escritor json = new Json.Escritor().inicioArray();
+        for (Reserva r : lista) reserva(json, r);
+        return json.fimArray();
+    }
+
+    private static String erro(String mensagem) {
+        return new Json.Escritor().inicioObjeto().campo("erro", mensagem).fimObjeto().toString();
+    }
+
+    // ---------- Auxiliares ----------
+    private Livro livroPorId(int id) {
+        return biblioteca.buscarLivroPorId(id)
+                .orElseThrow(() -> new NoSuchElementException("Livro id=" + id + " não encontrado."));
+    }
+
+    private Emprestimo emprestimoPorId(int id) {
+        return biblioteca.buscarEmprestimoPorId(id)
+                .orElseThrow(() -> new NoSuchElementException("Empréstimo id=" + id + " não encontrado."));
+    }
+
+    private Reserva reservaPorId(int id) {
+        return biblioteca.buscarReservaPorId(id)
+                .orElseThrow(() -> new NoSuchElementException("Reserva id=" + id + " não encontrada."));
+    }
+
+    private static Map<String, Object> corpo(HttpExchange troca) throws IOException {
+        try (InputStream entrada = troca.getRequestBody()) {
+            byte[] bytes = entrada.readNBytes(TAMANHO_MAXIMO_CORPO + 1);
+            if (bytes.length > TAMANHO_MAXIMO_CORPO) {
+                throw new IllegalArgumentException("Corpo da requisição excede " + TAMANHO_MAXIMO_CORPO + " bytes.");
+            }
+            String texto = new String(bytes, StandardCharsets.UTF_8);
+            return texto.isBlank() ? Map.of() : Json.lerObjeto(texto);
+        }
+    }
+
+    private static String[] segmentos(String caminho) {
+        String[] brutos = caminho.split("/");
+        int n = 0;
+        for (String s : brutos) if (!s.isEmpty()) n++;
+        String[] partes = new String[n];
+        int i = 0;
+        for (String s : brutos) if (!s.isEmpty()) partes[i++] = URLDecoder.decode(s, StandardCharsets.UTF_8);
+        return partes;
+    }
+
+    private static Map<String, String> consulta(String bruta) {
+        if (bruta == null || bruta.isEmpty()) return Map.of();
+        Map<String, String> parametros = new HashMap<>();
+        for (String par : bruta.split("&")) {
+            int igual = par.indexOf('=');
+            String chave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(chave, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static int id(String segmento) {
+        try {
+            return Integer.parseInt(segmento);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id inválido: " + segmento);
+        }
+    }
+
+    private static long numero(String s) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inválido: " + s);
+        }
+    }
+
+    private static int limite(Map<String, String> q) {
+        String s = q.get("limite");
+        if (s == null) return LIMITE_PADRAO;
+        int limite = id(s);
+        if (limite < 0) throw new IllegalArgumentException("limite não pode ser negativo.");
+        return limite;
+    }
+
+    private static int deslocamento(Map<String, String> q) {
+        String s = q.get("deslocamento");
+        return s == null ? 0 : id(s); // negativo: a biblioteca rejeita (400)
+    }
+
+    private static int inteiro(Map<String, Object> corpo, String campo) {
+        Object v = corpo.get(campo);
+        if (!(v instanceof Long n) || n < Integer.MIN_VALUE || n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Campo '" + campo + "' deve ser um número inteiro.");
+        }
+        return n.intValue();
+    }
+
+    private static int[] inteiros(Map<String, Object> corpo, String campo) {
+        if (!(corpo.get(campo) instanceof List<?> lista)) {
+            throw new IllegalArgumentException("Campo '" + campo + "' deve ser uma lista de números inteiros.");
+        }
+        int[] resultado = new int[lista.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            if (!(lista.get(i) instanceof Long n) || n < Integer.MIN_VALUE || n > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Campo '" + campo + "' deve ser uma lista de números inteiros.");
+            }
+            resultado[i] = n.intValue();
+        }
+        return resultado;
+    }
+
+    private static String texto(Map<String, Object> corpo, String campo) {
+        Object v = corpo.get(campo);
+        if (!(v instanceof String s)) throw new IllegalArgumentException("Campo '" + campo + "' deve ser um texto.");
+        return s;
+    }
+
+    private LocalDate dataOuHoje(Map<String, Object> corpo, String campo) {
+        Object v = corpo.get(campo);
+        return v == null ? LocalDate.now(relogio) : data(v.toString());
+    }
+
+    private static YearMonth mes(String s) {
+        if (s == null) return null;
+        try {
+            return YearMonth.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Mês inválido (use yyyy-MM): " + s);
+        }
+    }
+
+    private LocalDate data(String s) {
+        if (s == null) return LocalDate.now(relogio);
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida (use yyyy-MM-dd): " + s);
+        }
+    }
+}
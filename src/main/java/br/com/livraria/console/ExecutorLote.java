@@ -0,0 +1,242 @@
+package br.com.livraria.console;
+
+import br.com.livraria.analise.PainelEmprestimos;
+import br.com.livraria.importacao.ImportadorCatalogo;
+import br.com.livraria.importacao.ResultadoImportacao;
+import br.com.livraria.metricas.Metricas;
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+import br.com.livraria.model.Reserva;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Modo lote: executa comandos de um arquivo ou da entrada padrão, um por linha,
+ * sem menu e sem pausas, com as mesmas operações e listagens do menu.
+ *
+ * O comando vem primeiro e os argumentos depois do espaço, separados por ';'
+ * (títulos e nomes podem ter espaços e vírgulas). Linhas vazias e as que começam
+ * com '#' são ignoradas. Um comando que falha é informado com o número da linha
+ * e a execução continua.
+ *
+ * <pre>
+ * autor 10;Machado de Assis;1839-06-21     livro 100;Dom Casmurro;10[;exemplares]
+ * autores | livros | disponiveis           buscar casmurro
+ * livros-autor 10[;disponiveis]            buscar-autor machado
+ * emprestar 100[,101...];Maria da Silva   devolver 1[,2...]
+ * reservar 100;João                        retirar 1
+ * emprestimos | atrasados                  cliente Maria da Silva
+ * importar catalogo.csv                    metricas [arquivo.prom]
+ * relatorio [yyyy-MM]
+ * </pre>
+ *
+ * Vários ids separados por vírgula em {@code emprestar} e {@code devolver} viram um
+ * lote: todos ou nenhum.
+ */
+public final class ExecutorLote {
+
+    /** Totais da execução. */
+    public record Resumo(int comandos, int erros, long duracaoNanos) { }
+
+    private static final int LIMITE_AUTORES = 100;
+    private static final int LIMITE_RELATORIO = 10;
+
+    private final Biblioteca biblioteca;
+    private final SaidaPaginada saida;
+    private PainelEmprestimos painel;   // inscrito no primeiro 'relatorio'
+
+    public ExecutorLote(Biblioteca biblioteca, SaidaPaginada saida) {
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.saida = Objects.requireNonNull(saida, "saida é obrigatória.");
+    }
+
+    public Resumo executar(BufferedReader entrada) throws IOException {
+        long inicio = System.nanoTime();
+        int comandos = 0;
+        int erros = 0;
+        int numero = 0;
+        String linha;
+        while ((linha = entrada.readLine()) != null) {
+            numero++;
+            linha = linha.strip();
+            if (linha.isEmpty() || linha.startsWith("#")) continue;
+            comandos++;
+            int espaco = linha.indexOf(' ');
+            String comando = espaco < 0 ? linha : linha.substring(0, espaco);
+            String argumentos = espaco < 0 ? "" : linha.substring(espaco + 1).strip();
+            try {
+                executar(comando, argumentos);
+            } catch (RuntimeException e) {
+                erros++;
+                saida.iniciar();
+                saida.linha().append("⚠️ Linha ").append(numero).append(" (").append(comando).append("): ")
+                        .append(e.getMessage());
+                saida.emitir();
+            }
+        }
+        saida.flush();
+        return new Resumo(comandos, erros, System.nanoTime() - inicio);
+    }
+
+    private void executar(String comando, String argumentos) {
+        String[] a = argumentos.isEmpty() ? new String[0] : argumentos.split(";", -1);
+        for (int i = 0; i < a.length; i++) a[i] = a[i].strip();
+        LocalDate hoje = LocalDate.now();
+        switch (comando) {
+            case "autor" -> {
+                exigir(a, 3, "autor id;nome;yyyy-MM-dd");
+                biblioteca.adicionarAutor(new Autor(inteiro(a[0]), a[1], data(a[2])));
+                confirmar("✅ Autor ", a[0], " cadastrado.");
+            }
+            case "livro" -> {
+                exigir(a, 3, "livro id;titulo;autorId[;exemplares]");
+                Autor autor = biblioteca.buscarAutorPorId(inteiro(a[2]))
+                        .orElseThrow(() -> new NoSuchElementException("Autor não encontrado."));
+                int exemplares = a.length > 3 ? inteiro(a[3]) : 1;
+                biblioteca.adicionarLivro(new Livro(inteiro(a[0]), a[1], autor, exemplares));
+                confirmar("✅ Livro ", a[0], " cadastrado.");
+            }
+            case "autores" -> Listagens.autores(biblioteca, saida);
+            case "livros" -> Listagens.livros(biblioteca, saida, "\n📖 Todos os livros cadastrados:", false, true);
+            case "disponiveis" -> Listagens.livros(biblioteca, saida, "\n📚 Livros disponíveis:", true, false);
+            case "buscar" -> Listagens.busca(biblioteca, saida, argumentos);
+            case "livros-autor" -> {
+                exigir(a, 1, "livros-autor autorId[;disponiveis]");
+                Listagens.livrosDoAutor(biblioteca, saida, inteiro(a[0]), a.length > 1 && a[1].equals("disponiveis"));
+            }
+            case "buscar-autor" -> Listagens.autoresPorPrefixo(biblioteca, saida, argumentos, LIMITE_AUTORES);
+            case "emprestar" -> {
+                exigir(a, 2, "emprestar livroId[,livroId...];cliente");
+                int[] livroIds = inteiros(a[0]);
+                if (livroIds.length == 1) {
+                    Emprestimo e = biblioteca.emprestarLivroComNovoId(livroIds[0], a[1], hoje);
+                    confirmar("✅ Empréstimo ", String.valueOf(e.getId()), " registrado, devolver até " + e.getDataPrevistaDevolucao() + ".");
+                } else {
+                    List<Emprestimo> lote = biblioteca.emprestarLivros(livroIds, a[1], hoje);
+                    confirmar("✅ Empréstimos ", lote.get(0).getId() + " a " + lote.get(lote.size() - 1).getId(),
+                            " registrados, devolver até " + lote.get(0).getDataPrevistaDevolucao() + ".");
+                }
+            }
+            case "devolver" -> {
+                exigir(a, 1, "devolver emprestimoId[,emprestimoId...]");
+                int[] emprestimoIds = inteiros(a[0]);
+                if (emprestimoIds.length == 1) {
+                    biblioteca.devolverLivro(emprestimoIds[0], hoje);
+                    confirmar("✅ Empréstimo ", a[0], " devolvido.");
+                } else {
+                    biblioteca.devolverLivros(emprestimoIds, hoje);
+                    confirmar("✅ Empréstimos ", a[0], " devolvidos.");
+                }
+            }
+            case "reservar" -> {
+                exigir(a, 2, "reservar livroId;cliente");
+                Reserva r = biblioteca.reservarLivro(inteiro(a[0]), a[1], hoje);
+                confirmar("✅ Reserva ", String.valueOf(r.getId()), r.getSituacao() == Reserva.Situacao.SEPARADA
+                        ? " separada, retirar até " + r.getPrazoRetirada() + "." : " aguardando devolução.");
+            }
+            case "retirar" -> {
+                exigir(a, 1, "retirar reservaId");
+                Emprestimo e = biblioteca.retirarReserva(inteiro(a[0]), hoje);
+                confirmar("✅ Reserva ", a[0], " retirada: empréstimo " + e.getId() + ".");
+            }
+            case "emprestimos" -> Listagens.emprestimos(biblioteca, saida);
+            case "atrasados" -> Listagens.atrasados(biblioteca, saida, hoje);
+            case "cliente" -> Listagens.emprestimosDoCliente(biblioteca, saida, argumentos);
+            case "relatorio" -> {
+                YearMonth mes = argumentos.isEmpty() ? null : mes(argumentos);
+                if (painel == null) painel = PainelEmprestimos.acompanhar(biblioteca);
+                Listagens.relatorio(painel, saida, mes, LIMITE_RELATORIO);
+            }
+            case "importar" -> {
+                exigir(a, 1, "importar arquivo");
+                importar(Path.of(argumentos));
+            }
+            case "metricas" -> {
+                Metricas metricas = biblioteca.getMetricas();
+                saida.iniciar();
+                saida.emitir(metricas.formatarTexto().stripTrailing());
+                Listagens.cacheBuscas(biblioteca, saida);
+                if (!argumentos.isEmpty()) {
+                    exportar(metricas, Path.of(argumentos));
+                    confirmar("✅ Métricas exportadas para ", argumentos, "");
+                }
+                saida.flush();
+            }
+            default -> throw new IllegalArgumentException("Comando desconhecido.");
+        }
+    }
+
+    private void importar(Path arquivo) {
+        try {
+            ResultadoImportacao resultado = new ImportadorCatalogo(biblioteca).importar(arquivo);
+            saida.iniciar();
+            saida.linha().append("📥 ").append(arquivo).append(": ").append(resultado.getImportados())
+                    .append(" importados, ").append(resultado.getRejeitados()).append(" rejeitados em ")
+                    .append(resultado.getDuracaoNanos() / 1_000_000).append(" ms");
+            saida.emitir();
+            resultado.getErros().stream().limit(20).forEach(e -> saida.emitir("   " + e));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + arquivo + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void exportar(Metricas metricas, Path arquivo) {
+        try {
+            metricas.exportarPrometheus(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + arquivo + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void confirmar(String inicio, String id, String fim) {
+        saida.iniciar();
+        saida.linha().append(inicio).append(id).append(fim);
+        saida.emitir();
+    }
+
+    private static void exigir(String[] argumentos, int minimo, String uso) {
+        if (argumentos.length < minimo) throw new IllegalArgumentException("Uso: " + uso);
+    }
+
+    private static int inteiro(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inválido: '" + s + "'.");
+        }
+    }
+
+    private static int[] inteiros(String s) {
+        String[] partes = s.split(",");
+        int[] resultado = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) resultado[i] = inteiro(partes[i].strip());
+        return resultado;
+    }
+
+    private static LocalDate data(String s) {
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida (use yyyy-MM-dd): '" + s + "'.");
+        }
+    }
+
+    private static YearMonth mes(String s) {
+        try {
+            return YearMonth.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Mês inválido (use yyyy-MM): '" + s + "'.");
+        }
+    }
+}
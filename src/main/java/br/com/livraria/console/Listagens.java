@@ -0,0 +1,256 @@
+package br.com.livraria.console;
+
+import br.com.livraria.analise.Classificacao;
+import br.com.livraria.analise.DuracaoEmprestimos;
+import br.com.livraria.analise.PainelEmprestimos;
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Listagens do menu e do modo lote, escritas numa {@link SaidaPaginada}.
+ *
+ * Livros e autores são lidos do índice ordenado da {@link Biblioteca} uma página
+ * de {@value #TAMANHO_PAGINA} por vez (paginação por chave), então a memória usada
+ * não cresce com o catálogo e uma listagem interrompida não busca o resto.
+ * Empréstimos são percorridos na visão somente leitura da biblioteca, sem cópia.
+ */
+public final class Listagens {
+
+    static final int TAMANHO_PAGINA = 500;
+
+    private Listagens() { }
+
+    public static void autores(Biblioteca biblioteca, SaidaPaginada saida) {
+        saida.iniciar();
+        saida.emitir("\n👤 Autores cadastrados:");
+        List<Autor> pagina = biblioteca.listarAutoresPorNomeApos(null, 0, TAMANHO_PAGINA);
+        while (!pagina.isEmpty() && !saida.interrompida()) {
+            for (Autor a : pagina) {
+                StringBuilder sb = saida.linha().append(a.getId()).append(" - ").append(a.getNome()).append(" (nasc. ");
+                data(sb, a.getDataNascimento()).append(')');
+                saida.emitir();
+            }
+            Autor ultimo = pagina.get(pagina.size() - 1);
+            pagina = biblioteca.listarAutoresPorNomeApos(ultimo.getNome(), ultimo.getId(), TAMANHO_PAGINA);
+        }
+        saida.flush();
+    }
+
+    /** Autores cujo nome começa com {@code prefixo}, em ordem de nome (até {@code limite}). */
+    public static void autoresPorPrefixo(Biblioteca biblioteca, SaidaPaginada saida, String prefixo, int limite) {
+        List<Autor> encontrados = biblioteca.buscarAutoresPorPrefixo(prefixo, limite);
+        saida.iniciar();
+        saida.linha().append("\n👤 Autores começando com \"").append(prefixo.trim()).append("\":");
+        saida.emitir();
+        if (encontrados.isEmpty()) saida.emitir("Nenhum autor encontrado.");
+        for (int i = 0; i < encontrados.size() && !saida.interrompida(); i++) {
+            Autor a = encontrados.get(i);
+            saida.linha().append(a.getId()).append(" - ").append(a.getNome());
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    /** Livros do autor em ordem de cadastro, com a situação de cada um. */
+    public static void livrosDoAutor(Biblioteca biblioteca, SaidaPaginada saida, int autorId, boolean soDisponiveis) {
+        List<Livro> livros = soDisponiveis ? biblioteca.listarLivrosDisponiveisDoAutor(autorId)
+                : biblioteca.listarLivrosDoAutor(autorId);
+        saida.iniciar();
+        saida.linha().append("\n📚 Livros ").append(soDisponiveis ? "disponíveis " : "").append("do autor ").append(autorId)
+                .append(" (").append(livros.size()).append("):");
+        saida.emitir();
+        if (livros.isEmpty()) saida.emitir("Nenhum livro encontrado.");
+        for (int i = 0; i < livros.size() && !saida.interrompida(); i++) livro(saida, livros.get(i), true);
+        saida.flush();
+    }
+
+    /** Livros em ordem de título; {@code comSituacao} acrescenta disponível/emprestado. */
+    public static void livros(Biblioteca biblioteca, SaidaPaginada saida, String titulo,
+                              boolean soDisponiveis, boolean comSituacao) {
+        saida.iniciar();
+        saida.emitir(titulo);
+        List<Livro> pagina = soDisponiveis
+                ? biblioteca.listarLivrosDisponiveisPorTituloApos(null, 0, TAMANHO_PAGINA)
+                : biblioteca.listarLivrosPorTituloApos(null, 0, TAMANHO_PAGINA);
+        if (pagina.isEmpty()) saida.emitir(soDisponiveis ? "Nenhum livro disponível no momento." : "Nenhum livro cadastrado.");
+        while (!pagina.isEmpty() && !saida.interrompida()) {
+            for (Livro l : pagina) livro(saida, l, comSituacao);
+            Livro ultimo = pagina.get(pagina.size() - 1);
+            pagina = soDisponiveis
+                    ? biblioteca.listarLivrosDisponiveisPorTituloApos(ultimo.getTitulo(), ultimo.getId(), TAMANHO_PAGINA)
+                    : biblioteca.listarLivrosPorTituloApos(ultimo.getTitulo(), ultimo.getId(), TAMANHO_PAGINA);
+        }
+        saida.flush();
+    }
+
+    public static void busca(Biblioteca biblioteca, SaidaPaginada saida, String termo) {
+        List<Livro> encontrados = biblioteca.buscarLivrosPorTitulo(termo).stream()
+                .sorted(Biblioteca.ORDEM_TITULO) // só os encontrados, não o catálogo
+                .toList();
+        saida.iniciar();
+        saida.linha().append("\n🔎 Resultado da busca por \"").append(termo).append("\":");
+        saida.emitir();
+        if (encontrados.isEmpty()) saida.emitir("Nenhum livro encontrado.");
+        for (int i = 0; i < encontrados.size() && !saida.interrompida(); i++) livro(saida, encontrados.get(i), true);
+        saida.flush();
+    }
+
+    /** Todos os empréstimos, em ordem de registro. */
+    public static void emprestimos(Biblioteca biblioteca, SaidaPaginada saida) {
+        saida.iniciar();
+        saida.emitir("\n🗂️ Empréstimos:");
+        List<Emprestimo> emprestimos = biblioteca.getEmprestimos();
+        if (emprestimos.isEmpty()) saida.emitir("Nenhum empréstimo encontrado.");
+        for (int i = 0; i < emprestimos.size() && !saida.interrompida(); i++) {
+            Emprestimo e = emprestimos.get(i);
+            StringBuilder sb = emprestimo(saida, e).append(" | Cliente: ").append(e.getNomeCliente())
+                    .append(" | Empréstimo: ");
+            data(sb, e.getDataEmprestimo()).append(" | Status: ");
+            if (e.isDevolvido()) data(sb.append("DEVOLVIDO em "), e.getDataDevolucao());
+            else sb.append("ABERTO");
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    /** Empréstimos ainda não devolvidos (lista da devolução, opção 8). */
+    public static void emprestimosEmAberto(Biblioteca biblioteca, SaidaPaginada saida) {
+        saida.iniciar();
+        saida.emitir("\n📋 Empréstimos em aberto:");
+        List<Emprestimo> emprestimos = biblioteca.getEmprestimos();
+        if (biblioteca.contarEmprestimosEmAberto() == 0) saida.emitir("Nenhum empréstimo em aberto para devolver.");
+        for (int i = 0; i < emprestimos.size() && !saida.interrompida(); i++) {
+            Emprestimo e = emprestimos.get(i);
+            if (e.isDevolvido()) continue;
+            data(emprestimo(saida, e).append(" | Cliente: ").append(e.getNomeCliente())
+                    .append(" | Empréstimo: "), e.getDataEmprestimo());
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    public static void emprestimosDoCliente(Biblioteca biblioteca, SaidaPaginada saida, String nomeCliente) {
+        List<Emprestimo> emMaos = biblioteca.buscarEmprestimosEmAbertoPorCliente(nomeCliente);
+        List<Emprestimo> historico = biblioteca.buscarEmprestimosPorCliente(nomeCliente);
+        saida.iniciar();
+        saida.linha().append("\n👤 Cliente \"").append(nomeCliente.trim()).append("\": ").append(historico.size())
+                .append(" empréstimo(s) no histórico, ").append(emMaos.size()).append(" em aberto");
+        saida.emitir();
+        if (emMaos.isEmpty()) saida.emitir("Nenhum livro em mãos.");
+        for (int i = 0; i < emMaos.size() && !saida.interrompida(); i++) {
+            Emprestimo e = emMaos.get(i);
+            data(emprestimo(saida, e).append(" | Empréstimo: "), e.getDataEmprestimo());
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    public static void atrasados(Biblioteca biblioteca, SaidaPaginada saida, LocalDate hoje) {
+        List<Emprestimo> atrasados = biblioteca.listarEmprestimosAtrasados(hoje);
+        saida.iniciar();
+        saida.linha().append("\n⏰ Empréstimos atrasados em ").append(hoje).append(':');
+        saida.emitir();
+        if (atrasados.isEmpty()) saida.emitir("Nenhum empréstimo atrasado.");
+        for (int i = 0; i < atrasados.size() && !saida.interrompida(); i++) {
+            Emprestimo e = atrasados.get(i);
+            data(emprestimo(saida, e).append(" | Cliente: ").append(e.getNomeCliente())
+                    .append(" | Previsto: "), e.getDataPrevistaDevolucao())
+                    .append(" | ").append(ChronoUnit.DAYS.between(e.getDataPrevistaDevolucao(), hoje))
+                    .append(" dia(s) de atraso");
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    /**
+     * Painel de empréstimos: duração média, livros e autores mais emprestados (no mês,
+     * ou em todo o histórico se {@code mes} for nulo) e o total de cada mês.
+     */
+    public static void relatorio(PainelEmprestimos painel, SaidaPaginada saida, YearMonth mes, int limite) {
+        DuracaoEmprestimos d = painel.duracao();
+        saida.iniciar();
+        saida.linha().append("\n📈 Relatório de empréstimos").append(mes == null ? "" : " de " + mes).append(':');
+        saida.emitir();
+        saida.linha().append("Devolvidos: ").append(d.devolvidos())
+                .append(" | Duração média: ").append(String.format(Locale.ROOT, "%.1f", d.mediaDias()))
+                .append(" dia(s) | Máxima: ").append(d.maximoDias()).append(" | Com atraso: ").append(d.comAtraso());
+        saida.emitir();
+        saida.emitir("\n📚 Livros mais emprestados:");
+        List<Classificacao<Livro>> livros = painel.maisEmprestados(mes, limite);
+        if (livros.isEmpty()) saida.emitir("Nenhum empréstimo no período.");
+        for (int i = 0; i < livros.size() && !saida.interrompida(); i++) {
+            Classificacao<Livro> c = livros.get(i);
+            saida.linha().append(i + 1).append(". ").append(c.item().getTitulo()).append(" (")
+                    .append(c.item().getAutor().getNome()).append(") - ").append(c.emprestimos());
+            saida.emitir();
+        }
+        saida.emitir("\n👤 Autores mais emprestados (todo o histórico):");
+        List<Classificacao<Autor>> autores = painel.autoresMaisEmprestados(limite);
+        for (int i = 0; i < autores.size() && !saida.interrompida(); i++) {
+            Classificacao<Autor> c = autores.get(i);
+            saida.linha().append(i + 1).append(". ").append(c.item().getNome()).append(" - ").append(c.emprestimos());
+            saida.emitir();
+        }
+        saida.emitir("\n🗓️ Empréstimos por mês:");
+        for (Map.Entry<YearMonth, Long> e : painel.emprestimosPorMes().entrySet()) {
+            if (saida.interrompida()) break;
+            saida.linha().append(e.getKey()).append(": ").append(e.getValue());
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    /** Uma linha com os acertos e faltas do cache de buscas por título. */
+    public static void cacheBuscas(Biblioteca biblioteca, SaidaPaginada saida) {
+        Biblioteca.EstatisticasCacheBuscas c = biblioteca.getEstatisticasCacheBuscas();
+        saida.iniciar();
+        if (c.capacidade() == 0) {
+            saida.emitir("🗂️ Cache de buscas desativado.");
+        } else {
+            saida.linha().append("🗂️ Cache de buscas: ").append(c.acertos()).append(" acertos, ").append(c.faltas())
+                    .append(" faltas (").append(String.format(Locale.ROOT, "%.1f", c.taxaAcertos() * 100))
+                    .append("% de acertos), ").append(c.expiradas()).append(" expiradas, ").append(c.despejos())
+                    .append(" despejos, ").append(c.invalidacoes()).append(" invalidações; ").append(c.entradas())
+                    .append('/').append(c.capacidade()).append(" termos");
+            saida.emitir();
+        }
+        saida.flush();
+    }
+
+    private static void livro(SaidaPaginada saida, Livro l, boolean comSituacao) {
+        StringBuilder sb = saida.linha().append(l.getId()).append(" - ").append(l.getTitulo())
+                .append(" (").append(l.getAutor().getNome()).append(')');
+        if (comSituacao) situacao(sb.append(" - "), l);
+        saida.emitir();
+    }
+
+    private static StringBuilder emprestimo(SaidaPaginada saida, Emprestimo e) {
+        return saida.linha().append("ID ").append(e.getId()).append(" | Livro: ").append(e.getLivro().getTitulo());
+    }
+
+    // yyyy-MM-dd como LocalDate.toString, sem a String intermediária
+    static StringBuilder data(StringBuilder sb, LocalDate d) {
+        int ano = d.getYear();
+        if (ano < 1000 || ano > 9999) return sb.append(d);
+        int mes = d.getMonthValue();
+        int dia = d.getDayOfMonth();
+        return sb.append(ano).append(mes < 10 ? "-0" : "-").append(mes).append(dia < 10 ? "-0" : "-").append(dia);
+    }
+
+    static StringBuilder situacao(StringBuilder sb, Livro l) {
+        if (l.getExemplares() == 1) return sb.append(l.isDisponivel() ? "Disponível" : "Emprestado");
+        return l.isDisponivel()
+                ? sb.append("Disponível (").append(l.getExemplaresDisponiveis()).append(" de ")
+                    .append(l.getExemplares()).append(" exemplares)")
+                : sb.append("Emprestado (").append(l.getExemplares()).append(" exemplares)");
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.livraria.console;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Saída de listagens para o console: as linhas são montadas num único
+ * {@link StringBuilder} reaproveitado e escritas num buffer de 64 KB, em vez de
+ * uma String concatenada e um {@code System.out.println} (com flush) por linha.
+ *
+ * Com {@code linhasPorPagina > 0}, a cada página cheia o buffer é descarregado e,
+ * antes da próxima linha, {@code continuar} é consultado; se ele responder falso, a listagem corrente é
+ * interrompida: as próximas linhas são descartadas e {@link #interrompida()}
+ * avisa quem itera para não buscar mais páginas. {@link #iniciar()} começa uma
+ * nova listagem.
+ *
+ * Quem também escreve no {@code System.out} deve chamar {@link #flush()} antes.
+ */
+public final class SaidaPaginada implements Flushable {
+
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final Writer destino;
+    private StringBuilder linha = new StringBuilder(256);
+    private char[] caracteres = new char[256];
+    private final int linhasPorPagina;
+    private final BooleanSupplier continuar;
+    private int linhasNaPagina;
+    private boolean interrompida;
+
+    /** Sem paginação: tudo segue direto para o destino (modo lote, saída redirecionada). */
+    public SaidaPaginada(OutputStream destino, Charset charset) {
+        this(destino, charset, 0, () -> true);
+    }
+
+    public SaidaPaginada(OutputStream destino, Charset charset, int linhasPorPagina, BooleanSupplier continuar) {
+        if (linhasPorPagina < 0) throw new IllegalArgumentException("linhasPorPagina não pode ser negativo.");
+        this.destino = new BufferedWriter(new OutputStreamWriter(Objects.requireNonNull(destino, "destino é obrigatório."),
+                Objects.requireNonNull(charset, "charset é obrigatório.")), TAMANHO_BUFFER);
+        this.linhasPorPagina = linhasPorPagina;
+        this.continuar = Objects.requireNonNull(continuar, "continuar é obrigatório.");
+    }
+
+    /** Codificação do {@code System.out}: a do terminal, se a JVM a informar, ou a padrão. */
+    public static Charset charsetDoConsole() {
+        String nome = System.getProperty("stdout.encoding", System.getProperty("sun.stdout.encoding"));
+        return nome != null && Charset.isSupported(nome) ? Charset.forName(nome) : Charset.defaultCharset();
+    }
+
+    /** Começa uma nova listagem: zera a contagem da página e a interrupção. */
+    public void iniciar() {
+        linhasNaPagina = 0;
+        interrompida = false;
+    }
+
+    /** O builder da próxima linha, já vazio. Só vale até o próximo {@link #emitir()}. */
+    public StringBuilder linha() {
+        linha.setLength(0);
+        return linha;
+    }
+
+    /** Escreve a linha montada em {@link #linha()}. */
+    public void emitir() {
+        if (interrompida) return;
+        int n = linha.length();
+        if (caracteres.length < n) caracteres = new char[Math.max(n, caracteres.length * 2)];
+        linha.getChars(0, n, caracteres, 0);
+        escrever(caracteres, n, null);
+        // um caractere fora do Latin-1 (emoji, travessão) converte o builder para UTF-16 de vez,
+        // e todas as linhas seguintes custariam o dobro: nesse caso, recomeça com um builder novo
+        for (int i = 0; i < n; i++) {
+            if (caracteres[i] > 0xFF) {
+                linha = new StringBuilder(256);
+                break;
+            }
+        }
+    }
+
+    /** Linhas fixas (títulos, avisos) vão direto, sem passar pelo builder. */
+    public void emitir(String texto) {
+        if (!interrompida) escrever(null, 0, texto);
+    }
+
+    // a pausa fica para quando vier a linha seguinte: uma listagem que termina
+    // exatamente no fim da página não pergunta nada
+    private void escrever(char[] cs, int n, String texto) {
+        if (linhasPorPagina > 0 && linhasNaPagina == linhasPorPagina) {
+            flush();
+            linhasNaPagina = 0;
+            interrompida = !continuar.getAsBoolean();
+            if (interrompida) return;
+        }
+        try {
+            if (texto != null) destino.write(texto); else destino.write(cs, 0, n);
+            destino.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        linhasNaPagina++;
+    }
+
+    /** Verdadeiro se o usuário parou a listagem corrente numa pausa de página. */
+    public boolean interrompida() {
+        return interrompida;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            destino.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
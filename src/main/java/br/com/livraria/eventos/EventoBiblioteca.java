@@ -0,0 +1,76 @@
+package br.com.livraria.eventos;
+
+import java.time.LocalDate;
+
+/**
+ * Uma mutação da biblioteca publicada no {@link FluxoEventos}, com o número de
+ * sequência que ela recebeu lá. Os eventos são cópias imutáveis dos dados no momento
+ * da operação (ids, título, datas), não referências aos objetos do modelo.
+ */
+public sealed interface EventoBiblioteca {
+
+    enum Tipo {
+        AUTOR_ADICIONADO,
+        NOME_AUTOR_ALTERADO,
+        LIVRO_ADICIONADO,
+        TITULO_ALTERADO,
+        AUTOR_ALTERADO,
+        LIVRO_EMPRESTADO,
+        LIVRO_DEVOLVIDO,
+        PRAZO_ALTERADO,
+        CLIENTE_RENOMEADO
+    }
+
+    /** Posição no fluxo: 1, 2, 3... na ordem em que as operações foram aplicadas. */
+    long sequencia();
+
+    Tipo tipo();
+
+    record AutorAdicionado(long sequencia, int autorId, String nome, LocalDate dataNascimento) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.AUTOR_ADICIONADO; }
+    }
+
+    record NomeAutorAlterado(long sequencia, int autorId, String nome) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.NOME_AUTOR_ALTERADO; }
+    }
+
+    record LivroAdicionado(long sequencia, int livroId, String titulo, int autorId, int exemplares) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.LIVRO_ADICIONADO; }
+    }
+
+    record TituloAlterado(long sequencia, int livroId, String titulo) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.TITULO_ALTERADO; }
+    }
+
+    /** O livro passou para outro autor cadastrado. */
+    record AutorAlterado(long sequencia, int livroId, int autorId) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.AUTOR_ALTERADO; }
+    }
+
+    record LivroEmprestado(long sequencia, int emprestimoId, int livroId, String cliente,
+                           LocalDate dataEmprestimo, LocalDate dataPrevista) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.LIVRO_EMPRESTADO; }
+    }
+
+    record LivroDevolvido(long sequencia, int emprestimoId, int livroId, LocalDate dataDevolucao) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.LIVRO_DEVOLVIDO; }
+    }
+
+    record PrazoAlterado(long sequencia, int emprestimoId, LocalDate dataPrevista) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.PRAZO_ALTERADO; }
+    }
+
+    /** O empréstimo passou a ser do cliente com este nome. */
+    record ClienteRenomeado(long sequencia, int emprestimoId, String cliente) implements EventoBiblioteca {
+        @Override
+        public Tipo tipo() { return Tipo.CLIENTE_RENOMEADO; }
+    }
+}
@@ -0,0 +1,309 @@
+package br.com.livraria.eventos;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+import br.com.livraria.model.OuvinteBiblioteca;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fluxo de alterações da biblioteca para consumidores incrementais (busca, relatórios,
+ * um terminal réplica): em vez de reler e comparar {@code getLivros()} e
+ * {@code getEmprestimos()}, cada consumidor {@link #assinar assina} o fluxo e lê os
+ * {@link EventoBiblioteca eventos} a partir de onde parou.
+ *
+ * Os eventos ficam num anel de tamanho fixo, sem bloqueio: quem publica (a thread da
+ * operação, como ouvinte da biblioteca) reserva a sequência num contador atômico e
+ * grava a posição {@code sequencia % capacidade} com compare-and-set. Ninguém espera
+ * por consumidor: o anel sempre sobrescreve o evento mais antigo, e cada
+ * {@link Assinatura} guarda o próprio cursor. Quem ficar mais de {@code capacidade}
+ * eventos para trás perde os sobrescritos e segue a sua {@link Politica}.
+ *
+ * Recebe as operações concluídas depois de {@link #acompanhar}. Inscreva o fluxo
+ * depois dos demais ouvintes (diário...): se um ouvinte posterior falhar, a biblioteca
+ * desfaz uma operação que o fluxo já publicou.
+ */
+public final class FluxoEventos implements OuvinteBiblioteca, Closeable {
+
+    /** Eventos guardados por padrão: o quanto um consumidor pode atrasar sem perder nada. */
+    public static final int CAPACIDADE_PADRAO = 1 << 16;
+
+    /** O que uma assinatura faz ao descobrir que eventos dela foram sobrescritos. */
+    public enum Politica {
+        /** {@link Assinatura#ler} lança {@link IllegalStateException}; o cursor fica onde estava (ressincronize). */
+        FALHAR,
+        /** Pula para o evento mais antigo ainda guardado. */
+        MAIS_ANTIGO,
+        /** Descarta o atraso todo e segue a partir do próximo evento. */
+        MAIS_RECENTE
+    }
+
+    private final Biblioteca biblioteca;
+    private final AtomicReferenceArray<EventoBiblioteca> anel;
+    private final int mascara;
+    private final AtomicLong ultima = new AtomicLong();     // última sequência reservada
+    private final Set<Thread> aguardando = ConcurrentHashMap.newKeySet();
+    private volatile boolean fechado;
+
+    private FluxoEventos(Biblioteca biblioteca, int capacidade) {
+        this.biblioteca = biblioteca;
+        int potencia = Integer.highestOneBit(capacidade);
+        if (potencia < capacidade) potencia <<= 1;
+        this.anel = new AtomicReferenceArray<>(potencia);
+        this.mascara = potencia - 1;
+    }
+
+    public static FluxoEventos acompanhar(Biblioteca biblioteca) {
+        return acompanhar(biblioteca, CAPACIDADE_PADRAO);
+    }
+
+    /** @param capacidade eventos guardados (arredondada para a próxima potência de dois) */
+    public static FluxoEventos acompanhar(Biblioteca biblioteca, int capacidade) {
+        Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        if (capacidade <= 0 || capacidade > 1 << 30) throw new IllegalArgumentException("capacidade deve estar entre 1 e 2^30.");
+        FluxoEventos fluxo = new FluxoEventos(biblioteca, capacidade);
+        biblioteca.adicionarOuvinte(fluxo);
+        return fluxo;
+    }
+
+    // ---------- Consulta ----------
+    public int getCapacidade() {
+        return anel.length();
+    }
+
+    /** Sequência do último evento publicado (ou em publicação); 0 se nenhum. */
+    public long ultimaSequencia() {
+        return ultima.get();
+    }
+
+    /** Sequência do evento mais antigo ainda guardado no anel. */
+    public long sequenciaMaisAntiga() {
+        return Math.max(1, ultima.get() - anel.length() + 1);
+    }
+
+    // ---------- Assinaturas ----------
+    /** Assina a partir do próximo evento. */
+    public Assinatura assinar(Politica politica) {
+        return new Assinatura(ultima.get() + 1, politica);
+    }
+
+    /**
+     * Retoma a partir do evento {@code aPartirDe} (a última sequência vista + 1). Se ele
+     * já foi sobrescrito, a primeira leitura aplica a {@code politica}.
+     */
+    public Assinatura assinar(long aPartirDe, Politica politica) {
+        long proxima = ultima.get() + 1;
+        if (aPartirDe < 1 || aPartirDe > proxima) {
+            throw new IllegalArgumentException("aPartirDe deve estar entre 1 e " + proxima + ".");
+        }
+        return new Assinatura(aPartirDe, politica);
+    }
+
+    /**
+     * Cursor de um consumidor. Cada assinatura é lida por uma thread de cada vez;
+     * consumidores diferentes usam assinaturas diferentes e não se afetam.
+     */
+    public final class Assinatura {
+        private final Politica politica;
+        private long proxima;
+        private long perdidos;
+
+        private Assinatura(long proxima, Politica politica) {
+            this.politica = Objects.requireNonNull(politica, "politica é obrigatória.");
+            this.proxima = proxima;
+        }
+
+        /** Sequência do próximo evento a ler (para retomar depois com {@link FluxoEventos#assinar(long, Politica)}). */
+        public long getProxima() {
+            return proxima;
+        }
+
+        /** Eventos pulados por terem sido sobrescritos antes da leitura. */
+        public long getPerdidos() {
+            return perdidos;
+        }
+
+        public Politica getPolitica() {
+            return politica;
+        }
+
+        /** Até {@code maximo} eventos já publicados, em ordem, sem esperar (lista vazia se não houver). */
+        public List<EventoBiblioteca> ler(int maximo) {
+            if (maximo <= 0) throw new IllegalArgumentException("maximo deve ser positivo.");
+            List<EventoBiblioteca> lidos = null;
+            int n = 0;
+            while (n < maximo) {
+                long s = proxima;
+                long reservada = ultima.get();
+                if (s > reservada) break;
+                long antiga = reservada - anel.length() + 1;
+                if (s < antiga) {
+                    if (n > 0) break; // entrega o que já leu; o salto fica para a próxima leitura
+                    sobrescritos(s, antiga, reservada);
+                    continue;
+                }
+                EventoBiblioteca e = anel.get((int) (s & mascara));
+                if (e == null || e.sequencia() < s) break;  // reservado, ainda sendo gravado
+                if (e.sequencia() > s) continue;             // sobrescrito agora há pouco: reavalia
+                if (lidos == null) lidos = new ArrayList<>(Math.min(maximo, 64));
+                lidos.add(e);
+                n++;
+                proxima = s + 1;
+            }
+            return lidos == null ? List.of() : Collections.unmodifiableList(lidos);
+        }
+
+        /**
+         * Como {@link #ler(int)}, mas espera até {@code espera} pelo primeiro evento.
+         * Devolve lista vazia se o tempo acabar, o fluxo for fechado ou a thread, interrompida.
+         */
+        public List<EventoBiblioteca> ler(int maximo, Duration espera) {
+            List<EventoBiblioteca> lidos = ler(maximo);
+            if (!lidos.isEmpty() || espera.isZero() || espera.isNegative()) return lidos;
+            long limite = System.nanoTime() + espera.toNanos();
+            Thread atual = Thread.currentThread();
+            aguardando.add(atual);
+            try {
+                while (true) {
+                    lidos = ler(maximo); // de novo depois de se registrar: um evento publicado antes não acorda ninguém
+                    long resta = limite - System.nanoTime();
+                    if (!lidos.isEmpty() || resta <= 0 || fechado || atual.isInterrupted()) return lidos;
+                    LockSupport.parkNanos(FluxoEventos.this, resta);
+                }
+            } finally {
+                aguardando.remove(atual);
+            }
+        }
+
+        private void sobrescritos(long s, long antiga, long reservada) {
+            switch (politica) {
+                case FALHAR -> throw new IllegalStateException("Eventos a partir de " + s
+                        + " já foram sobrescritos; o mais antigo guardado é " + antiga + ".");
+                case MAIS_ANTIGO -> {
+                    perdidos += antiga - s;
+                    proxima = antiga;
+                }
+                case MAIS_RECENTE -> {
+                    perdidos += reservada + 1 - s;
+                    proxima = reservada + 1;
+                }
+            }
+        }
+    }
+
+    // ---------- Ouvinte ----------
+    @Override
+    public void aoAdicionarAutor(Autor autor) {
+        publicar(new EventoBiblioteca.AutorAdicionado(reservar(1), autor.getId(), autor.getNome(), autor.getDataNascimento()));
+    }
+
+    @Override
+    public void aoAlterarNomeAutor(Autor autor) {
+        publicar(new EventoBiblioteca.NomeAutorAlterado(reservar(1), autor.getId(), autor.getNome()));
+    }
+
+    @Override
+    public void aoAdicionarLivro(Livro livro) {
+        publicar(new EventoBiblioteca.LivroAdicionado(reservar(1), livro.getId(), livro.getTitulo(),
+                livro.getAutor().getId(), livro.getExemplares()));
+    }
+
+    @Override
+    public void aoAlterarTitulo(Livro livro) {
+        publicar(new EventoBiblioteca.TituloAlterado(reservar(1), livro.getId(), livro.getTitulo()));
+    }
+
+    @Override
+    public void aoAlterarAutor(Livro livro) {
+        publicar(new EventoBiblioteca.AutorAlterado(reservar(1), livro.getId(), livro.getAutor().getId()));
+    }
+
+    @Override
+    public void aoEmprestar(Emprestimo e) {
+        publicar(emprestado(reservar(1), e));
+    }
+
+    // um lote reserva as sequências de uma vez: os eventos dele ficam contíguos no fluxo
+    @Override
+    public void aoEmprestarLote(List<Emprestimo> lote) {
+        long s = reservar(lote.size());
+        for (Emprestimo e : lote) gravar(emprestado(s++, e));
+        acordar();
+    }
+
+    @Override
+    public void aoDevolver(Emprestimo e) {
+        publicar(devolvido(reservar(1), e));
+    }
+
+    @Override
+    public void aoDevolverLote(List<Emprestimo> lote) {
+        long s = reservar(lote.size());
+        for (Emprestimo e : lote) gravar(devolvido(s++, e));
+        acordar();
+    }
+
+    @Override
+    public void aoProrrogar(Emprestimo e) {
+        publicar(new EventoBiblioteca.PrazoAlterado(reservar(1), e.getId(), e.getDataPrevistaDevolucao()));
+    }
+
+    @Override
+    public void aoRenomearCliente(Emprestimo e) {
+        publicar(new EventoBiblioteca.ClienteRenomeado(reservar(1), e.getId(), e.getNomeCliente()));
+    }
+
+    private static EventoBiblioteca emprestado(long sequencia, Emprestimo e) {
+        return new EventoBiblioteca.LivroEmprestado(sequencia, e.getId(), e.getLivro().getId(), e.getNomeCliente(),
+                e.getDataEmprestimo(), e.getDataPrevistaDevolucao());
+    }
+
+    private static EventoBiblioteca devolvido(long sequencia, Emprestimo e) {
+        return new EventoBiblioteca.LivroDevolvido(sequencia, e.getId(), e.getLivro().getId(), e.getDataDevolucao());
+    }
+
+    // ---------- Anel ----------
+    private long reservar(int quantidade) {
+        return ultima.getAndAdd(quantidade) + 1;
+    }
+
+    private void publicar(EventoBiblioteca evento) {
+        gravar(evento);
+        acordar();
+    }
+
+    private void gravar(EventoBiblioteca evento) {
+        int i = (int) (evento.sequencia() & mascara);
+        EventoBiblioteca atual;
+        do {
+            atual = anel.get(i);
+            // um produtor que demorou a gravar pode ter sido ultrapassado por uma volta inteira do anel
+            if (atual != null && atual.sequencia() > evento.sequencia()) return;
+        } while (!anel.compareAndSet(i, atual, evento));
+    }
+
+    private void acordar() {
+        if (aguardando.isEmpty()) return;
+        for (Thread t : aguardando) LockSupport.unpark(t);
+    }
+
+    /** Deixa de acompanhar a biblioteca; as assinaturas ainda leem o que ficou no anel. */
+    @Override
+    public void close() {
+        biblioteca.removerOuvinte(this);
+        fechado = true;
+        acordar();
+    }
+}
@@ -0,0 +1,6 @@
+package br.com.livraria.filiais;
+
+import br.com.livraria.model.Livro;
+
+/** Um livro encontrado numa consulta da {@link RedeBibliotecas}, com a filial dona dele. */
+public record LivroNaFilial(String filial, Livro livro) { }
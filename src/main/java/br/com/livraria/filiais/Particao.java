@@ -0,0 +1,57 @@
+package br.com.livraria.filiais;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Uma filial da {@link RedeBibliotecas}: dona dos próprios livros e empréstimos.
+ *
+ * A rede só conversa com as filiais por esta interface. Os pedidos levam só ids,
+ * textos, números e datas; cada filial monta os próprios objetos (o livro, por exemplo,
+ * ligado ao autor cadastrado nela). As respostas são objetos do modelo que a rede só lê:
+ * {@link ParticaoLocal} entrega os da própria biblioteca, e uma filial em outro processo
+ * (ex.: pela API HTTP) entregaria cópias.
+ */
+public interface Particao {
+
+    /** Nome da filial, único na rede. */
+    String getNome();
+
+    /** Ver {@link br.com.livraria.model.Biblioteca#configurarSequenciaEmprestimos}. */
+    void configurarSequenciaEmprestimos(int primeiro, int passo);
+
+    // ---------- Catálogo ----------
+    /** Cadastra o autor na filial, que cria o próprio {@link Autor}. */
+    void adicionarAutor(int id, String nome, LocalDate dataNascimento);
+
+    Optional<Autor> buscarAutorPorId(int id);
+
+    /** Cadastra o livro na filial, ligado ao autor {@code autorId} já cadastrado nela. */
+    void adicionarLivro(int id, String titulo, int autorId, int exemplares);
+
+    Optional<Livro> buscarLivroPorId(int id);
+
+    List<Livro> buscarLivrosPorTitulo(String termo);
+
+    List<Livro> listarLivrosDisponiveisPorTitulo(int deslocamento, int limite);
+
+    List<Livro> listarLivrosDisponiveisPorTituloApos(String titulo, int livroId, int limite);
+
+    int contarLivrosDisponiveis();
+
+    // ---------- Empréstimos (ids gerados pela sequência da filial) ----------
+    Emprestimo emprestarLivro(int livroId, String nomeCliente, LocalDate dataEmprestimo);
+
+    List<Emprestimo> emprestarLivros(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo);
+
+    void devolverLivro(int emprestimoId, LocalDate dataDevolucao);
+
+    void devolverLivros(int[] emprestimoIds, LocalDate dataDevolucao);
+
+    Optional<Emprestimo> buscarEmprestimoPorId(int id);
+}
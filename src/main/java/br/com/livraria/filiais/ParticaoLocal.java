@@ -0,0 +1,117 @@
+package br.com.livraria.filiais;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Filial atendida por uma {@link Biblioteca} na mesma JVM. Cada uma tem os próprios
+ * locks, índices e histórico, então filiais diferentes não disputam nada entre si.
+ */
+public final class ParticaoLocal implements Particao {
+
+    private final String nome;
+    private final Biblioteca biblioteca;
+
+    public ParticaoLocal(String nome) {
+        this(nome, new Biblioteca(false));
+    }
+
+    /** Para uma biblioteca já montada (ex.: reproduzida do diário da filial). */
+    public ParticaoLocal(String nome, Biblioteca biblioteca) {
+        if (nome == null || nome.isBlank()) throw new IllegalArgumentException("nome é obrigatório.");
+        this.nome = nome;
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+    }
+
+    @Override
+    public String getNome() {
+        return nome;
+    }
+
+    /** A biblioteca da filial (ouvintes, diário, métricas, relatórios). */
+    public Biblioteca getBiblioteca() {
+        return biblioteca;
+    }
+
+    @Override
+    public void configurarSequenciaEmprestimos(int primeiro, int passo) {
+        biblioteca.configurarSequenciaEmprestimos(primeiro, passo);
+    }
+
+    // ---------- Catálogo ----------
+    @Override
+    public void adicionarAutor(int id, String nome, LocalDate dataNascimento) {
+        biblioteca.adicionarAutor(new Autor(id, nome, dataNascimento));
+    }
+
+    @Override
+    public Optional<Autor> buscarAutorPorId(int id) {
+        return biblioteca.buscarAutorPorId(id);
+    }
+
+    @Override
+    public void adicionarLivro(int id, String titulo, int autorId, int exemplares) {
+        Autor autor = biblioteca.buscarAutorPorId(autorId)
+                .orElseThrow(() -> new NoSuchElementException("Autor id=" + autorId + " não encontrado."));
+        biblioteca.adicionarLivro(new Livro(id, titulo, autor, exemplares));
+    }
+
+    @Override
+    public Optional<Livro> buscarLivroPorId(int id) {
+        return biblioteca.buscarLivroPorId(id);
+    }
+
+    @Override
+    public List<Livro> buscarLivrosPorTitulo(String termo) {
+        return biblioteca.buscarLivrosPorTitulo(termo);
+    }
+
+    @Override
+    public List<Livro> listarLivrosDisponiveisPorTitulo(int deslocamento, int limite) {
+        return biblioteca.listarLivrosDisponiveisPorTitulo(deslocamento, limite);
+    }
+
+    @Override
+    public List<Livro> listarLivrosDisponiveisPorTituloApos(String titulo, int livroId, int limite) {
+        return biblioteca.listarLivrosDisponiveisPorTituloApos(titulo, livroId, limite);
+    }
+
+    @Override
+    public int contarLivrosDisponiveis() {
+        return biblioteca.contarLivrosDisponiveis();
+    }
+
+    // ---------- Empréstimos ----------
+    @Override
+    public Emprestimo emprestarLivro(int livroId, String nomeCliente, LocalDate dataEmprestimo) {
+        return biblioteca.emprestarLivroComNovoId(livroId, nomeCliente, dataEmprestimo);
+    }
+
+    @Override
+    public List<Emprestimo> emprestarLivros(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo) {
+        return biblioteca.emprestarLivros(livroIds, nomeCliente, dataEmprestimo);
+    }
+
+    @Override
+    public void devolverLivro(int emprestimoId, LocalDate dataDevolucao) {
+        biblioteca.devolverLivro(emprestimoId, dataDevolucao);
+    }
+
+    @Override
+    public void devolverLivros(int[] emprestimoIds, LocalDate dataDevolucao) {
+        biblioteca.devolverLivros(emprestimoIds, dataDevolucao);
+    }
+
+    @Override
+    public Optional<Emprestimo> buscarEmprestimoPorId(int id) {
+        return biblioteca.buscarEmprestimoPorId(id);
+    }
+}
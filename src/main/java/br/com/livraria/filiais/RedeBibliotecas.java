@@ -0,0 +1,291 @@
+package br.com.livraria.filiais;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Várias filiais, cada uma uma {@link Particao} dona dos próprios livros e empréstimos,
+ * vistas como um só acervo.
+ *
+ * <ul>
+ *   <li>Livros: o id é único na rede e a filial dona é lembrada no cadastro (ou
+ *       descoberta na primeira consulta, para filiais que já vieram com livros).</li>
+ *   <li>Empréstimos: a filial de índice {@code i} gera só ids com
+ *       {@code (id - 1) % filiais == i}, então devolver não precisa de tabela nenhuma.
+ *       A ordem das filiais faz parte da rede: monte-a sempre na mesma ordem.</li>
+ *   <li>Autores são cadastrados em todas as filiais, cada uma com o próprio {@link Autor};
+ *       o livro é montado na filial dona, ligado ao autor dela.</li>
+ *   <li>Buscas e listagens de disponíveis consultam as filiais em paralelo (a última na
+ *       própria thread) e intercalam os resultados já ordenados por título
+ *       ({@link Biblioteca#ORDEM_TITULO}).</li>
+ * </ul>
+ *
+ * Lotes de empréstimo ou devolução são tudo-ou-nada dentro de uma filial, então
+ * precisam ser todos da mesma filial.
+ */
+public final class RedeBibliotecas {
+
+    private final List<Particao> particoes;
+    private final Map<String, Particao> porNome = new HashMap<>();
+    private final Executor executor;
+    private final Map<Integer, Particao> donoLivro = new ConcurrentHashMap<>();
+
+    public RedeBibliotecas(List<? extends Particao> particoes) {
+        this(particoes, ForkJoinPool.commonPool());
+    }
+
+    public RedeBibliotecas(List<? extends Particao> particoes, Executor executor) {
+        Objects.requireNonNull(particoes, "particoes é obrigatório.");
+        if (particoes.isEmpty()) throw new IllegalArgumentException("A rede precisa de ao menos uma filial.");
+        this.particoes = List.copyOf(particoes);
+        this.executor = Objects.requireNonNull(executor, "executor é obrigatório.");
+        for (Particao p : this.particoes) {
+            if (porNome.putIfAbsent(p.getNome(), p) != null) {
+                throw new IllegalArgumentException("Filial repetida: " + p.getNome());
+            }
+        }
+        int n = this.particoes.size();
+        for (int i = 0; i < n; i++) this.particoes.get(i).configurarSequenciaEmprestimos(i + 1, n);
+    }
+
+    /** Rede de filiais locais novas (uma {@link Biblioteca} vazia por nome). */
+    public static RedeBibliotecas locais(String... filiais) {
+        List<Particao> particoes = new ArrayList<>(filiais.length);
+        for (String nome : filiais) particoes.add(new ParticaoLocal(nome));
+        return new RedeBibliotecas(particoes);
+    }
+
+    public List<String> getFiliais() {
+        List<String> nomes = new ArrayList<>(particoes.size());
+        for (Particao p : particoes) nomes.add(p.getNome());
+        return Collections.unmodifiableList(nomes);
+    }
+
+    public Particao getFilial(String nome) {
+        Particao p = porNome.get(nome);
+        if (p == null) throw new NoSuchElementException("Filial " + nome + " não encontrada.");
+        return p;
+    }
+
+    // ---------- Cadastro ----------
+    /** Cadastra o autor em todas as filiais (cada uma cria o seu). */
+    public void adicionarAutor(int id, String nome, LocalDate dataNascimento) {
+        for (Optional<Autor> existente : emTodas(p -> p.buscarAutorPorId(id))) {
+            if (existente.isPresent()) throw new IllegalArgumentException("Já existe autor com id=" + id);
+        }
+        for (Particao p : particoes) p.adicionarAutor(id, nome, dataNascimento);
+    }
+
+    /**
+     * Cadastra o livro na filial, ligado ao autor {@code autorId} cadastrado nela; o id
+     * do livro não pode existir em nenhuma filial.
+     */
+    public void adicionarLivro(String filial, int id, String titulo, int autorId, int exemplares) {
+        Particao dona = getFilial(filial);
+        // reserva o id na rede antes de conferir as filiais: dois cadastros do mesmo id não passam juntos
+        if (donoLivro.putIfAbsent(id, dona) != null) {
+            throw new IllegalArgumentException("Já existe livro com id=" + id);
+        }
+        try {
+            for (Optional<Livro> existente : emTodas(p -> p.buscarLivroPorId(id))) {
+                if (existente.isPresent()) throw new IllegalArgumentException("Já existe livro com id=" + id);
+            }
+            dona.adicionarLivro(id, titulo, autorId, exemplares);
+        } catch (RuntimeException e) {
+            donoLivro.remove(id, dona);
+            throw e;
+        }
+    }
+
+    // ---------- Consultas ----------
+    public Optional<LivroNaFilial> buscarLivroPorId(int livroId) {
+        Particao dona = donoDoLivro(livroId);
+        return dona == null ? Optional.empty()
+                : dona.buscarLivroPorId(livroId).map(l -> new LivroNaFilial(dona.getNome(), l));
+    }
+
+    /** Livros de todas as filiais com o termo no título, em ordem de título. */
+    public List<LivroNaFilial> buscarLivrosPorTitulo(String termo) {
+        return intercalar(emTodas(p -> ordenados(p, p.buscarLivrosPorTitulo(termo))), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Página dos livros disponíveis de todas as filiais em ordem de título. Cada filial
+     * devolve {@code deslocamento + limite} livros, varrendo também os indisponíveis que
+     * estiverem antes deles ({@link Biblioteca#listarLivrosDisponiveisPorTitulo}): só para
+     * as primeiras páginas. Para continuar a partir daí, use
+     * {@link #listarLivrosDisponiveisPorTituloApos} com o último livro recebido.
+     */
+    public List<LivroNaFilial> listarLivrosDisponiveisPorTitulo(int deslocamento, int limite) {
+        if (deslocamento < 0) throw new IllegalArgumentException("deslocamento não pode ser negativo.");
+        if (limite < 0) throw new IllegalArgumentException("limite não pode ser negativo.");
+        int porFilial = (int) Math.min(Integer.MAX_VALUE, (long) deslocamento + limite);
+        return intercalar(emTodas(p -> daFilial(p, p.listarLivrosDisponiveisPorTitulo(0, porFilial))), deslocamento, limite);
+    }
+
+    /** Próxima página de disponíveis depois do livro ({@code titulo}, {@code livroId}), em todas as filiais. */
+    public List<LivroNaFilial> listarLivrosDisponiveisPorTituloApos(String titulo, int livroId, int limite) {
+        if (limite < 0) throw new IllegalArgumentException("limite não pode ser negativo.");
+        return intercalar(emTodas(p -> daFilial(p, p.listarLivrosDisponiveisPorTituloApos(titulo, livroId, limite))),
+                0, limite);
+    }
+
+    public int contarLivrosDisponiveis() {
+        int total = 0;
+        for (int n : emTodas(Particao::contarLivrosDisponiveis)) total += n;
+        return total;
+    }
+
+    // ---------- Empréstimos ----------
+    /** Empresta na filial dona do livro; o id do empréstimo identifica a filial. */
+    public Emprestimo emprestarLivro(int livroId, String nomeCliente, LocalDate dataEmprestimo) {
+        return filialDoLivro(livroId).emprestarLivro(livroId, nomeCliente, dataEmprestimo);
+    }
+
+    /** Lote tudo-ou-nada: todos os livros precisam ser da mesma filial. */
+    public List<Emprestimo> emprestarLivros(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo) {
+        Objects.requireNonNull(livroIds, "livroIds é obrigatório.");
+        if (livroIds.length == 0) throw new IllegalArgumentException("O lote deve ter ao menos um livro.");
+        Particao dona = filialDoLivro(livroIds[0]);
+        for (int livroId : livroIds) {
+            if (filialDoLivro(livroId) != dona) {
+                throw new IllegalArgumentException("Os livros do lote precisam ser da mesma filial.");
+            }
+        }
+        return dona.emprestarLivros(livroIds, nomeCliente, dataEmprestimo);
+    }
+
+    public void devolverLivro(int emprestimoId, LocalDate dataDevolucao) {
+        particaoDoEmprestimo(emprestimoId).devolverLivro(emprestimoId, dataDevolucao);
+    }
+
+    /** Lote tudo-ou-nada: todos os empréstimos precisam ser da mesma filial. */
+    public void devolverLivros(int[] emprestimoIds, LocalDate dataDevolucao) {
+        Objects.requireNonNull(emprestimoIds, "emprestimoIds é obrigatório.");
+        if (emprestimoIds.length == 0) throw new IllegalArgumentException("O lote deve ter ao menos um empréstimo.");
+        Particao dona = particaoDoEmprestimo(emprestimoIds[0]);
+        for (int id : emprestimoIds) {
+            if (particaoDoEmprestimo(id) != dona) {
+                throw new IllegalArgumentException("Os empréstimos do lote precisam ser da mesma filial.");
+            }
+        }
+        dona.devolverLivros(emprestimoIds, dataDevolucao);
+    }
+
+    public Optional<Emprestimo> buscarEmprestimoPorId(int emprestimoId) {
+        return particaoDoEmprestimo(emprestimoId).buscarEmprestimoPorId(emprestimoId);
+    }
+
+    /** A filial que gerou o empréstimo (pelo resto do id), exista ele ou não. */
+    public String filialDoEmprestimo(int emprestimoId) {
+        return particaoDoEmprestimo(emprestimoId).getNome();
+    }
+
+    // ---------- Roteamento ----------
+    private Particao filialDoLivro(int livroId) {
+        Particao dona = donoDoLivro(livroId);
+        if (dona == null) throw new NoSuchElementException("Livro id=" + livroId + " não encontrado.");
+        return dona;
+    }
+
+    // livros cadastrados por fora da rede (filial restaurada de um diário) são procurados uma vez
+    private Particao donoDoLivro(int livroId) {
+        Particao dona = donoLivro.get(livroId);
+        if (dona != null) return dona;
+        List<Boolean> tem = emTodas(p -> p.buscarLivroPorId(livroId).isPresent());
+        for (int i = 0; i < tem.size(); i++) {
+            if (tem.get(i)) {
+                Particao encontrada = particoes.get(i);
+                Particao anterior = donoLivro.putIfAbsent(livroId, encontrada);
+                return anterior != null ? anterior : encontrada;
+            }
+        }
+        return null;
+    }
+
+    private Particao particaoDoEmprestimo(int emprestimoId) {
+        return particoes.get(Math.floorMod(emprestimoId - 1, particoes.size()));
+    }
+
+    // ---------- Consulta em paralelo e intercalação ----------
+    /** Uma consulta por filial, em paralelo; os resultados vêm na ordem das filiais. */
+    private <T> List<T> emTodas(Function<Particao, T> consulta) {
+        int n = particoes.size();
+        List<CompletableFuture<T>> futuros = new ArrayList<>(n - 1);
+        for (int i = 0; i < n - 1; i++) {
+            Particao p = particoes.get(i);
+            futuros.add(CompletableFuture.supplyAsync(() -> consulta.apply(p), executor));
+        }
+        T ultima = consulta.apply(particoes.get(n - 1));
+        List<T> resultados = new ArrayList<>(n);
+        for (CompletableFuture<T> f : futuros) resultados.add(juntar(f));
+        resultados.add(ultima);
+        return resultados;
+    }
+
+    private static <T> T juntar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;   // a exceção da filial, como numa chamada direta
+            if (e.getCause() instanceof Error erro) throw erro;
+            throw e;
+        }
+    }
+
+    // a busca por título devolve na ordem do catálogo: cada filial ordena a sua parte na própria tarefa
+    private static List<LivroNaFilial> ordenados(Particao p, List<Livro> livros) {
+        List<Livro> copia = new ArrayList<>(livros);
+        copia.sort(Biblioteca.ORDEM_TITULO);
+        return daFilial(p, copia);
+    }
+
+    private static List<LivroNaFilial> daFilial(Particao p, List<Livro> livros) {
+        List<LivroNaFilial> resultado = new ArrayList<>(livros.size());
+        for (Livro l : livros) resultado.add(new LivroNaFilial(p.getNome(), l));
+        return resultado;
+    }
+
+    /** Intercala listas já ordenadas por título, pulando {@code deslocamento} e parando em {@code limite}. */
+    private static List<LivroNaFilial> intercalar(List<List<LivroNaFilial>> listas, int deslocamento, int limite) {
+        PriorityQueue<int[]> frente = new PriorityQueue<>(Math.max(1, listas.size()), (a, b) ->
+                Biblioteca.ORDEM_TITULO.compare(listas.get(a[0]).get(a[1]).livro(), listas.get(b[0]).get(b[1]).livro()));
+        long total = 0;
+        for (int i = 0; i < listas.size(); i++) {
+            total += listas.get(i).size();
+            if (!listas.get(i).isEmpty()) frente.add(new int[]{i, 0});
+        }
+        List<LivroNaFilial> resultado = new ArrayList<>((int) Math.min(limite, Math.max(0, total - deslocamento)));
+        int pular = deslocamento;
+        while (!frente.isEmpty() && resultado.size() < limite) {
+            int[] cursor = frente.poll();
+            List<LivroNaFilial> lista = listas.get(cursor[0]);
+            if (pular > 0) {
+                pular--;
+            } else {
+                resultado.add(lista.get(cursor[1]));
+            }
+            if (++cursor[1] < lista.size()) frente.add(cursor);
+        }
+        return Collections.unmodifiableList(resultado);
+    }
+}
@@ -0,0 +1,319 @@
+package br.com.livraria.geracao;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Emprestimo;
+import br.com.livraria.model.Livro;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Gerador determinístico de massas de dados para testes de carga: a mesma
+ * semente produz sempre os mesmos autores, livros e empréstimos.
+ *
+ * <ul>
+ *   <li>autores (ids 1..autores) com nomes e sobrenomes brasileiros e nascimento entre 1800 e 1990;</li>
+ *   <li>livros (ids 1..livros) com títulos montados de padrões comuns em português
+ *       ("A Casa do Rio", "Memórias de Helena", ...); poucos autores concentram muitos livros;</li>
+ *   <li>empréstimos (ids 1..emprestimos) em ordem cronológica até {@code dataFinal}, com
+ *       popularidade de Zipf: poucos livros e poucos clientes concentram a maior parte do movimento.
+ *       Empréstimos com mais de {@value #PRAZO_DEVOLUCAO_DIAS} dias ficam devolvidos; os recentes, em aberto.</li>
+ * </ul>
+ *
+ * Os dados são enviados direto à {@link Biblioteca} à medida que são gerados (livros em
+ * lotes de {@value #TAMANHO_LOTE}), sem listas intermediárias do tamanho da massa.
+ */
+public class GeradorDados {
+
+    public static final int TAMANHO_LOTE = 2_000;
+    public static final int PRAZO_DEVOLUCAO_DIAS = 21;
+    public static final int PERIODO_EMPRESTIMOS_DIAS = 3 * 365;
+    public static final double EXPOENTE_ZIPF = 1.0;
+
+    // ---------- Vocabulário ----------
+    private static final String[] NOMES = {
+            "Ana", "Maria", "João", "José", "Antônio", "Francisco", "Carlos", "Paulo", "Pedro", "Lucas",
+            "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Daniel", "Marcelo", "Bruno", "Eduardo", "Felipe",
+            "Raimundo", "Rodrigo", "Manoel", "Mateus", "André", "Fernando", "Fábio", "Leonardo", "Gustavo", "Guilherme",
+            "Francisca", "Antônia", "Adriana", "Juliana", "Márcia", "Fernanda", "Patrícia", "Aline", "Sandra", "Camila",
+            "Amanda", "Bruna", "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa", "Mariana", "Gabriela", "Beatriz",
+            "Helena", "Cecília", "Clarice", "Raquel", "Lígia", "Rachel", "Conceição", "Graça", "Tereza", "Joaquim"
+    };
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+            "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas",
+            "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira", "Araújo", "Azevedo", "Queiroz", "Meireles", "Bandeira",
+            "Amado", "Veríssimo", "Lispector", "Drummond", "Guimarães", "Rosa", "Assis", "Lobato", "Castro", "Cunha"
+    };
+    private static final String[] CONECTIVOS = {"da", "de", "do", "dos"};
+
+    private static final String[] SUBSTANTIVOS_M = {
+            "rio", "mar", "sertão", "tempo", "caminho", "vento", "fogo", "sonho", "coração", "menino",
+            "segredo", "silêncio", "retrato", "jardim", "sol", "céu", "amor", "destino", "espelho", "navio",
+            "homem", "livro", "quarto", "inverno", "verão", "deserto", "labirinto", "anjo", "diabo", "cavaleiro"
+    };
+    private static final String[] SUBSTANTIVOS_F = {
+            "casa", "noite", "estrela", "cidade", "terra", "vida", "história", "sombra", "luz", "guerra",
+            "viagem", "ilha", "montanha", "canção", "carta", "janela", "porta", "lua", "chuva", "memória",
+            "mulher", "menina", "paixão", "saudade", "fazenda", "rua", "floresta", "hora", "pedra", "madrugada"
+    };
+    private static final String[] ADJETIVOS = { // forma masculina; o feminino troca o "o" final por "a"
+            "perdido", "antigo", "escuro", "secreto", "último", "eterno", "silencioso", "amargo", "claro", "distante",
+            "esquecido", "proibido", "sagrado", "vermelho", "branco", "azul", "quieto", "profundo", "estranho", "pequeno"
+    };
+
+    private final long semente;
+    private final int autores;
+    private final int livros;
+    private final int emprestimos;
+    private final LocalDate dataFinal;
+
+    public GeradorDados(long semente, int autores, int livros, int emprestimos) {
+        this(semente, autores, livros, emprestimos, LocalDate.of(2024, 12, 31));
+    }
+
+    /**
+     * @param dataFinal data do último empréstimo gerado; o histórico cobre os
+     *                  {@value #PERIODO_EMPRESTIMOS_DIAS} dias anteriores.
+     */
+    public GeradorDados(long semente, int autores, int livros, int emprestimos, LocalDate dataFinal) {
+        if (autores < 0 || livros < 0 || emprestimos < 0) {
+            throw new IllegalArgumentException("quantidades não podem ser negativas.");
+        }
+        if (livros > 0 && autores == 0) throw new IllegalArgumentException("livros exigem ao menos um autor.");
+        if (emprestimos > 0 && livros == 0) throw new IllegalArgumentException("empréstimos exigem ao menos um livro.");
+        if (dataFinal == null) throw new IllegalArgumentException("dataFinal é obrigatória.");
+        this.semente = semente;
+        this.autores = autores;
+        this.livros = livros;
+        this.emprestimos = emprestimos;
+        this.dataFinal = dataFinal;
+    }
+
+    /**
+     * Lê uma especificação {@code autores,livros,emprestimos} (ex.: {@code 5000,100000,1000000}).
+     */
+    public static GeradorDados deEspecificacao(String especificacao, long semente, LocalDate dataFinal) {
+        String[] partes = especificacao.split(",");
+        if (partes.length != 3) {
+            throw new IllegalArgumentException("Use autores,livros,emprestimos (ex.: 5000,100000,1000000).");
+        }
+        try {
+            return new GeradorDados(semente, Integer.parseInt(partes[0].trim()),
+                    Integer.parseInt(partes[1].trim()), Integer.parseInt(partes[2].trim()), dataFinal);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Quantidade inválida: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gera os dados na biblioteca informada. Os ids começam em 1, então ela deve estar
+     * vazia (ids repetidos são rejeitados pela própria {@link Biblioteca}).
+     */
+    public void gerar(Biblioteca biblioteca) {
+        gerarAutores(biblioteca);
+        gerarLivros(biblioteca);
+        gerarEmprestimos(biblioteca);
+    }
+
+    // ---------- Autores ----------
+    private void gerarAutores(Biblioteca biblioteca) {
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        LocalDate inicio = LocalDate.of(1800, 1, 1);
+        int diasNascimento = 190 * 365;
+        for (int id = 1; id <= autores; id++) {
+            biblioteca.adicionarAutor(new Autor(id, nomePessoa(aleatorio), inicio.plusDays(aleatorio.nextInt(diasNascimento))));
+        }
+    }
+
+    // ---------- Livros ----------
+    private void gerarLivros(Biblioteca biblioteca) {
+        if (livros == 0) return;
+        SplittableRandom aleatorio = new SplittableRandom(semente ^ 0x9E3779B97F4A7C15L);
+        Zipf autorPopular = new Zipf(autores, EXPOENTE_ZIPF);
+        List<Livro> lote = new ArrayList<>(TAMANHO_LOTE);
+        Autor autorAnterior = null;
+        for (int id = 1; id <= livros; id++) {
+            int autorId = 1 + embaralhar(autorPopular.amostra(aleatorio) - 1, autores);
+            if (autorAnterior == null || autorAnterior.getId() != autorId) {
+                autorAnterior = biblioteca.buscarAutorPorId(autorId)
+                        .orElseThrow(() -> new IllegalStateException("Autor id=" + autorId + " não foi gerado."));
+            }
+            lote.add(new Livro(id, titulo(aleatorio), autorAnterior));
+            if (lote.size() == TAMANHO_LOTE || id == livros) {
+                biblioteca.adicionarLivros(lote, (livro, falha) -> { throw falha; });
+                lote.clear();
+            }
+        }
+    }
+
+    // ---------- Empréstimos ----------
+    private void gerarEmprestimos(Biblioteca biblioteca) {
+        if (emprestimos == 0) return;
+        SplittableRandom aleatorio = new SplittableRandom(semente ^ 0xC2B2AE3D27D4EB4FL);
+        int clientes = Math.max(1, emprestimos / 10);
+        Zipf livroPopular = new Zipf(livros, EXPOENTE_ZIPF);
+        Zipf clienteFrequente = new Zipf(clientes, EXPOENTE_ZIPF);
+        int[] emprestimoAberto = new int[livros]; // posição do livro -> id do empréstimo em aberto (0 = nenhum)
+        LocalDate inicio = dataFinal.minusDays(PERIODO_EMPRESTIMOS_DIAS);
+
+        for (int id = 1; id <= emprestimos; id++) {
+            LocalDate data = inicio.plusDays((long) (id - 1) * PERIODO_EMPRESTIMOS_DIAS / emprestimos);
+            int posicao = embaralhar(livroPopular.amostra(aleatorio) - 1, livros);
+            if (emprestimoAberto[posicao] != 0) {
+                biblioteca.devolverLivro(emprestimoAberto[posicao], data); // livro procurado: volta e sai de novo
+            }
+            int cliente = embaralhar(clienteFrequente.amostra(aleatorio) - 1, clientes);
+            biblioteca.emprestarLivro(id, posicao + 1, nomeCliente(cliente), data);
+            emprestimoAberto[posicao] = id;
+        }
+
+        LocalDate limite = dataFinal.minusDays(PRAZO_DEVOLUCAO_DIAS);
+        for (int emprestimoId : emprestimoAberto) {
+            if (emprestimoId == 0) continue;
+            Emprestimo e = biblioteca.buscarEmprestimoPorId(emprestimoId).orElseThrow();
+            if (e.getDataEmprestimo().isBefore(limite)) {
+                biblioteca.devolverLivro(emprestimoId, e.getDataEmprestimo().plusDays(1 + aleatorio.nextInt(PRAZO_DEVOLUCAO_DIAS)));
+            }
+        }
+    }
+
+    // ---------- Nomes e títulos ----------
+    private static String nomePessoa(SplittableRandom aleatorio) {
+        StringBuilder sb = new StringBuilder(32);
+        sb.append(escolher(NOMES, aleatorio)).append(' ');
+        if (aleatorio.nextInt(4) == 0) sb.append(escolher(CONECTIVOS, aleatorio)).append(' ');
+        String sobrenome = escolher(SOBRENOMES, aleatorio);
+        sb.append(sobrenome);
+        String segundo = escolher(SOBRENOMES, aleatorio);
+        if (aleatorio.nextBoolean() && !segundo.equals(sobrenome)) sb.append(' ').append(segundo);
+        return sb.toString();
+    }
+
+    /** Nome do cliente {@code indice}, derivado só da semente e do índice (sem tabela de clientes). */
+    private String nomeCliente(int indice) {
+        return nomePessoa(new SplittableRandom(semente * 31 + indice));
+    }
+
+    private static String titulo(SplittableRandom aleatorio) {
+        String s;
+        switch (aleatorio.nextInt(6)) {
+            case 0 -> s = artigoESubstantivo(aleatorio) + " " + contracaoESubstantivo(aleatorio);  // A Casa do Rio
+            case 1 -> {                                                                             // O Segredo Perdido
+                boolean feminino = aleatorio.nextBoolean();
+                s = (feminino ? "a " : "o ") + escolher(feminino ? SUBSTANTIVOS_F : SUBSTANTIVOS_M, aleatorio)
+                        + " " + adjetivo(aleatorio, feminino);
+            }
+            case 2 -> s = "memórias de " + escolher(NOMES, aleatorio);                                // Memórias de Helena
+            case 3 -> s = escolher(SUBSTANTIVOS_F, aleatorio) + " e " + escolher(SUBSTANTIVOS_M, aleatorio); // Terra e Mar
+            case 4 -> s = artigoESubstantivo(aleatorio) + " de " + escolher(NOMES, aleatorio);       // A Carta de Pedro
+            default -> s = escolher(SUBSTANTIVOS_M, aleatorio) + " " + contracaoESubstantivo(aleatorio); // Sonho da Noite
+        }
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static String artigoESubstantivo(SplittableRandom aleatorio) {
+        return aleatorio.nextBoolean()
+                ? "a " + escolher(SUBSTANTIVOS_F, aleatorio)
+                : "o " + escolher(SUBSTANTIVOS_M, aleatorio);
+    }
+
+    private static String contracaoESubstantivo(SplittableRandom aleatorio) {
+        return aleatorio.nextBoolean()
+                ? "da " + escolher(SUBSTANTIVOS_F, aleatorio)
+                : "do " + escolher(SUBSTANTIVOS_M, aleatorio);
+    }
+
+    private static String adjetivo(SplittableRandom aleatorio, boolean feminino) {
+        String a = escolher(ADJETIVOS, aleatorio);
+        return feminino && a.endsWith("o") ? a.substring(0, a.length() - 1) + "a" : a;
+    }
+
+    /** Sorteio com viés para o início da lista: algumas palavras são bem mais comuns que outras. */
+    private static String escolher(String[] opcoes, SplittableRandom aleatorio) {
+        double u = aleatorio.nextDouble();
+        return opcoes[(int) (u * u * opcoes.length)];
+    }
+
+    /**
+     * Bijeção de [0, n) usada para espalhar os mais populares pelos ids
+     * (senão os ids 1, 2, 3... seriam sempre os campeões).
+     */
+    private static int embaralhar(int ordem, int n) {
+        long multiplicador = 1_000_003L;
+        while (mdc(multiplicador, n) != 1) multiplicador += 2; // multiplicação mod n só é bijeção com coprimos
+        return (int) ((ordem * multiplicador + 7919) % n);
+    }
+
+    private static long mdc(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Amostragem de Zipf em [1, n] por rejeição-inversão (Hörmann e Derflinger, 1996):
+     * O(1) por amostra e sem tabela, mesmo para milhões de elementos.
+     */
+    private static final class Zipf {
+        private final int n;
+        private final double expoente;
+        private final double hIntegralX1;
+        private final double hIntegralN;
+        private final double s;
+
+        Zipf(int n, double expoente) {
+            this.n = n;
+            this.expoente = expoente;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralN = hIntegral(n + 0.5);
+            this.s = 2 - hIntegralInversa(hIntegral(2.5) - h(2));
+        }
+
+        int amostra(SplittableRandom aleatorio) {
+            while (true) {
+                double u = hIntegralN + aleatorio.nextDouble() * (hIntegralX1 - hIntegralN);
+                double x = hIntegralInversa(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > n) {
+                    k = n;
+                }
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) return k;
+            }
+        }
+
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return auxiliar2((1 - expoente) * logX) * logX;
+        }
+
+        private double h(double x) {
+            return Math.exp(-expoente * Math.log(x));
+        }
+
+        private double hIntegralInversa(double x) {
+            double t = x * (1 - expoente);
+            if (t < -1) t = -1;
+            return Math.exp(auxiliar1(t) * x);
+        }
+
+        /** log(1 + x) / x, estável perto de zero. */
+        private static double auxiliar1(double x) {
+            return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        /** (e^x - 1) / x, estável perto de zero. */
+        private static double auxiliar2(double x) {
+            return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package br.com.livraria.importacao;
+
+import br.com.livraria.model.Autor;
+import br.com.livraria.model.Biblioteca;
+import br.com.livraria.model.Livro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importação em lote de catálogos de livros em CSV ou TSV, com colunas
+ * {@code id, titulo, autorId} e, opcionalmente, {@code exemplares} (padrão 1;
+ * cabeçalho opcional; no CSV, campos entre aspas podem conter vírgulas e aspas duplicadas).
+ *
+ * O arquivo é lido em blocos terminados em quebra de linha; cada bloco é
+ * analisado em paralelo (conversão dos campos, resolução dos autores por id uma
+ * vez por bloco e as validações do construtor de {@link Livro}), e os blocos
+ * são cadastrados em ordem, em lotes, via {@link Biblioteca#adicionarLivros}.
+ * No máximo {@code 2 × threads} blocos ficam em memória, qualquer que seja o
+ * tamanho do arquivo. Erros de linha são coletados sem abortar a importação.
+ */
+public class ImportadorCatalogo {
+
+    public static final int TAMANHO_BLOCO_PADRAO = 4 << 20;
+    public static final int TAMANHO_LOTE = 2_000;
+    public static final int MAXIMO_ERROS_GUARDADOS = 1_000;
+    private static final int MAXIMO_COLUNAS = 4;
+
+    private final Biblioteca biblioteca;
+    private final int threads;
+    private final int tamanhoBloco;
+
+    public ImportadorCatalogo(Biblioteca biblioteca) {
+        this(biblioteca, Runtime.getRuntime().availableProcessors(), TAMANHO_BLOCO_PADRAO);
+    }
+
+    public ImportadorCatalogo(Biblioteca biblioteca, int threads, int tamanhoBloco) {
+        if (threads <= 0) throw new IllegalArgumentException("threads deve ser positivo.");
+        if (tamanhoBloco < 1024) throw new IllegalArgumentException("tamanhoBloco deve ser de pelo menos 1 KB.");
+        this.biblioteca = Objects.requireNonNull(biblioteca, "biblioteca é obrigatória.");
+        this.threads = threads;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /** Importa o arquivo; o separador é tabulação para {@code .tsv} e vírgula nos demais casos. */
+    public ResultadoImportacao importar(Path arquivo) throws IOException {
+        char separador = arquivo.getFileName().toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        return importar(arquivo, separador);
+    }
+
+    public ResultadoImportacao importar(Path arquivo, char separador) throws IOException {
+        long inicio = System.nanoTime();
+        Consolidacao consolidacao = new Consolidacao();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "importacao");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<Bloco>> pendentes = new ArrayDeque<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            byte[] buffer = new byte[tamanhoBloco];
+            int ocupado = 0;
+            boolean primeiro = true;
+            boolean fim = false;
+            while (!fim) {
+                if (ocupado == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length << 1); // linha maior que o bloco
+                int lidos = canal.read(ByteBuffer.wrap(buffer, ocupado, buffer.length - ocupado));
+                if (lidos < 0) {
+                    fim = true;
+                } else {
+                    ocupado += lidos;
+                }
+                int corte = fim ? ocupado : ultimaQuebra(buffer, ocupado);
+                if (corte <= 0) continue;
+
+                byte[] bloco = Arrays.copyOf(buffer, corte);
+                boolean primeiroBloco = primeiro;
+                pendentes.add(executor.submit(() -> analisar(bloco, separador, primeiroBloco)));
+                primeiro = false;
+                System.arraycopy(buffer, corte, buffer, 0, ocupado - corte);
+                ocupado -= corte;
+                if (buffer.length > tamanhoBloco && ocupado < tamanhoBloco) buffer = Arrays.copyOf(buffer, tamanhoBloco);
+
+                while (pendentes.size() >= 2 * threads) {
+                    consolidacao.cadastrar(aguardar(pendentes.poll()));
+                }
+            }
+            while (!pendentes.isEmpty()) {
+                consolidacao.cadastrar(aguardar(pendentes.poll()));
+            }
+        } finally {
+            pendentes.forEach(f -> f.cancel(true));
+            executor.shutdownNow();
+        }
+        return new ResultadoImportacao(consolidacao.linhas, consolidacao.importados, consolidacao.rejeitados,
+                consolidacao.erros, System.nanoTime() - inicio);
+    }
+
+    private static int ultimaQuebra(byte[] buffer, int ocupado) {
+        for (int i = ocupado - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') return i + 1;
+        }
+        return 0;
+    }
+
+    private static Bloco aguardar(Future<Bloco> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importação interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao analisar bloco do arquivo.", e.getCause());
+        }
+    }
+
+    // ---------- Cadastro em ordem (thread que lê o arquivo) ----------
+    private final class Consolidacao {
+        long linhas;
+        long importados;
+        long rejeitados;
+        final List<ResultadoImportacao.Erro> erros = new ArrayList<>();
+
+        void cadastrar(Bloco bloco) {
+            for (Bloco.ErroLocal e : bloco.erros) {
+                registrarErro(linhas + e.linha(), e.mensagem());
+            }
+            int n = bloco.livros.size();
+            for (int de = 0; de < n; de += TAMANHO_LOTE) {
+                int ate = Math.min(n, de + TAMANHO_LOTE);
+                List<Livro> lote = bloco.livros.subList(de, ate);
+                int[] cursor = {de};
+                importados += biblioteca.adicionarLivros(lote, (livro, falha) -> {
+                    while (bloco.livros.get(cursor[0]) != livro) cursor[0]++; // falhas chegam em ordem
+                    registrarErro(linhas + bloco.linhaDoLivro[cursor[0]], falha.getMessage());
+                });
+            }
+            linhas += bloco.linhas;
+        }
+
+        void registrarErro(long linha, String mensagem) {
+            rejeitados++;
+            if (erros.size() < MAXIMO_ERROS_GUARDADOS) erros.add(new ResultadoImportacao.Erro(linha, mensagem));
+        }
+    }
+
+    // ---------- Análise de um bloco (em paralelo) ----------
+    private static final class Bloco {
+        record ErroLocal(int linha, String mensagem) { }
+
+        final List<Livro> livros = new ArrayList<>();
+        int[] linhaDoLivro = new int[1024];
+        final List<ErroLocal> erros = new ArrayList<>();
+        int linhas;
+    }
+
+    private Bloco analisar(byte[] dados, char separador, boolean primeiroBloco) {
+        Bloco bloco = new Bloco();
+        Map<Integer, Autor> autores = new HashMap<>(); // cada autor é resolvido uma vez por bloco
+        int[] campos = new int[2 * MAXIMO_COLUNAS];     // início/fim de cada campo
+        int i = 0;
+        if (primeiroBloco && dados.length >= 3 && (dados[0] & 0xFF) == 0xEF
+                && (dados[1] & 0xFF) == 0xBB && (dados[2] & 0xFF) == 0xBF) {
+            i = 3; // BOM UTF-8
+        }
+        while (i < dados.length) {
+            int fimLinha = i;
+            while (fimLinha < dados.length && dados[fimLinha] != '\n') fimLinha++;
+            int proxima = fimLinha + 1;
+            if (fimLinha > i && dados[fimLinha - 1] == '\r') fimLinha--;
+            int linha = ++bloco.linhas;
+
+            if (fimLinha > i) {
+                try {
+                    int n = separar(dados, i, fimLinha, separador, campos);
+                    if (n < 3 || n > MAXIMO_COLUNAS) {
+                        throw new IllegalArgumentException("esperadas 3 ou 4 colunas (id, titulo, autorId[, exemplares]), encontradas " + n + ".");
+                    }
+                    if (primeiroBloco && linha == 1 && !numerico(dados, campos[0], campos[1])) {
+                        i = proxima;
+                        continue; // cabeçalho
+                    }
+                    int id = inteiro(dados, campos[0], campos[1], "id");
+                    String titulo = texto(dados, campos[2], campos[3], separador);
+                    int autorId = inteiro(dados, campos[4], campos[5], "autorId");
+                    Autor autor = autores.computeIfAbsent(autorId, a -> biblioteca.buscarAutorPorId(a).orElse(null));
+                    if (autor == null) throw new IllegalArgumentException("Autor id=" + autorId + " não encontrado.");
+                    int exemplares = n == 4 ? inteiro(dados, campos[6], campos[7], "exemplares") : 1;
+                    Livro livro = new Livro(id, titulo, autor, exemplares); // validações do modelo
+                    if (bloco.livros.size() == bloco.linhaDoLivro.length) {
+                        bloco.linhaDoLivro = Arrays.copyOf(bloco.linhaDoLivro, bloco.linhaDoLivro.length << 1);
+                    }
+                    bloco.linhaDoLivro[bloco.livros.size()] = linha;
+                    bloco.livros.add(livro);
+                } catch (IllegalArgumentException e) {
+                    bloco.erros.add(new Bloco.ErroLocal(linha, e.getMessage()));
+                }
+            }
+            i = proxima;
+        }
+        return bloco;
+    }
+
+    /**
+     * Separa os campos da linha em {@code campos} (pares início/fim, no máximo {@link #MAXIMO_COLUNAS}) e
+     * devolve quantos campos a linha tem. Aspas delimitadoras ficam de fora do intervalo.
+     */
+    private static int separar(byte[] d, int inicio, int fim, char separador, int[] campos) {
+        int n = 0;
+        int i = inicio;
+        while (true) {
+            int ini;
+            int f;
+            if (separador == ',' && i < fim && d[i] == '"') {
+                ini = i + 1;
+                int j = ini;
+                while (j < fim && !(d[j] == '"' && (j + 1 >= fim || d[j + 1] != '"'))) {
+                    j += d[j] == '"' ? 2 : 1;
+                }
+                if (j >= fim) throw new IllegalArgumentException("aspas sem fechamento.");
+                f = j;
+                i = j + 1;
+                if (i < fim && d[i] != separador) throw new IllegalArgumentException("conteúdo após aspas de fechamento.");
+            } else {
+                ini = i;
+                while (i < fim && d[i] != separador) i++;
+                f = i;
+            }
+            if (n < MAXIMO_COLUNAS) {
+                campos[2 * n] = ini;
+                campos[2 * n + 1] = f;
+            }
+            n++;
+            if (i >= fim) return n;
+            i++; // pula o separador
+        }
+    }
+
+    private static boolean numerico(byte[] d, int inicio, int fim) {
+        while (inicio < fim && d[inicio] == ' ') inicio++;
+        return inicio < fim && d[inicio] >= '0' && d[inicio] <= '9';
+    }
+
+    private static int inteiro(byte[] d, int inicio, int fim, String coluna) {
+        while (inicio < fim && d[inicio] == ' ') inicio++;
+        while (fim > inicio && d[fim - 1] == ' ') fim--;
+        if (inicio == fim) throw new IllegalArgumentException(coluna + " vazio.");
+        long v = 0;
+        for (int i = inicio; i < fim; i++) {
+            int c = d[i] - '0';
+            if (c < 0 || c > 9 || (v = v * 10 + c) > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(coluna + " inválido: '" + new String(d, inicio, fim - inicio, StandardCharsets.UTF_8) + "'.");
+            }
+        }
+        return (int) v;
+    }
+
+    private static String texto(byte[] d, int inicio, int fim, char separador) {
+        String s = new String(d, inicio, fim - inicio, StandardCharsets.UTF_8);
+        boolean entreAspas = separador == ',' && inicio > 0 && d[inicio - 1] == '"';
+        return entreAspas && s.indexOf('"') >= 0 ? s.replace("\"\"", "\"") : s;
+    }
+}
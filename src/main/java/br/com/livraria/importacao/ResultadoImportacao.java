@@ -0,0 +1,55 @@
+package br.com.livraria.importacao;
+
+import java.util.List;
+
+/**
+ * Resumo de uma importação em lote: contagens, amostra dos erros por linha e vazão.
+ * Só os primeiros {@link ImportadorCatalogo#MAXIMO_ERROS_GUARDADOS} erros são guardados;
+ * {@link #getRejeitados()} conta todos.
+ */
+public class ResultadoImportacao {
+
+    /** Erro de uma linha do arquivo (a numeração começa em 1 e inclui o cabeçalho). */
+    public record Erro(long linha, String mensagem) {
+        @Override
+        public String toString() {
+            return "linha " + linha + ": " + mensagem;
+        }
+    }
+
+    private final long linhasLidas;
+    private final long importados;
+    private final long rejeitados;
+    private final List<Erro> erros;
+    private final long duracaoNanos;
+
+    ResultadoImportacao(long linhasLidas, long importados, long rejeitados, List<Erro> erros, long duracaoNanos) {
+        this.linhasLidas = linhasLidas;
+        this.importados = importados;
+        this.rejeitados = rejeitados;
+        this.erros = List.copyOf(erros);
+        this.duracaoNanos = duracaoNanos;
+    }
+
+    public long getLinhasLidas() { return linhasLidas; }
+    public long getImportados() { return importados; }
+    public long getRejeitados() { return rejeitados; }
+    public List<Erro> getErros() { return erros; }
+    public long getDuracaoNanos() { return duracaoNanos; }
+
+    /** Vazão da importação (linhas de dados processadas por segundo). */
+    public double linhasPorSegundo() {
+        return duracaoNanos == 0 ? 0 : (importados + rejeitados) * 1e9 / duracaoNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoImportacao{" +
+                "linhasLidas=" + linhasLidas +
+                ", importados=" + importados +
+                ", rejeitados=" + rejeitados +
+                ", duracaoMs=" + duracaoNanos / 1_000_000 +
+                ", linhasPorSegundo=" + Math.round(linhasPorSegundo()) +
+                '}';
+    }
+}
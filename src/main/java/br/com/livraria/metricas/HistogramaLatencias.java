@@ -0,0 +1,82 @@
+package br.com.livraria.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em faixas log-lineares (no estilo do HdrHistogram): cada
+ * potência de dois é dividida em {@value #SUBFAIXAS} faixas iguais, o que dá erro
+ * relativo de no máximo ~3% em qualquer escala, de nanossegundos a minutos, com
+ * tamanho fixo.
+ *
+ * {@link #registrar} não aloca nem bloqueia: incrementa uma posição de um array
+ * atômico. Os percentis são calculados só na leitura, sobre uma cópia das contagens
+ * (leituras concorrentes com registros podem ficar levemente defasadas).
+ */
+public final class HistogramaLatencias {
+
+    private static final int BITS_SUBFAIXA = 5;
+    static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+    private static final int EXPOENTE_MAXIMO = 40;             // 2^41 ns ≈ 36 min; acima disso, satura
+    private static final int FAIXAS = (EXPOENTE_MAXIMO - BITS_SUBFAIXA + 2) * SUBFAIXAS;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+    private final LongAdder somaNanos = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        contagens.incrementAndGet(faixa(nanos));
+        somaNanos.add(nanos);
+        long m = maximo.get();
+        while (nanos > m && !maximo.compareAndSet(m, nanos)) m = maximo.get();
+    }
+
+    // valores abaixo de SUBFAIXAS são exatos; acima, os BITS_SUBFAIXA bits depois do mais alto escolhem a subfaixa
+    static int faixa(long valor) {
+        if (valor < SUBFAIXAS) return (int) valor;
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        if (expoente > EXPOENTE_MAXIMO) return FAIXAS - 1;
+        int sub = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + sub;
+    }
+
+    /** Maior valor que cai na faixa (o percentil informado nunca subestima a latência). */
+    static long limiteSuperior(int faixa) {
+        if (faixa < SUBFAIXAS) return faixa;
+        int expoente = faixa / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long inicio = (long) (SUBFAIXAS + faixa % SUBFAIXAS) << (expoente - BITS_SUBFAIXA);
+        return inicio + (1L << (expoente - BITS_SUBFAIXA)) - 1;
+    }
+
+    /** Resumo com contagem, soma, máximo e percentis p50/p99/p99.9 (em nanossegundos). */
+    public Resumo resumir() {
+        long[] c = new long[FAIXAS];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            c[i] = contagens.get(i);
+            total += c[i];
+        }
+        long max = maximo.get();
+        return new Resumo(total, somaNanos.sum(), max,
+                percentil(c, total, 0.50, max), percentil(c, total, 0.99, max), percentil(c, total, 0.999, max));
+    }
+
+    private static long percentil(long[] contagens, long total, double p, long maximo) {
+        if (total == 0) return 0;
+        long alvo = Math.max(1, (long) Math.ceil(p * total));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) return Math.min(limiteSuperior(i), maximo);
+        }
+        return maximo;
+    }
+
+    public record Resumo(long contagem, long somaNanos, long maximoNanos, long p50Nanos, long p99Nanos, long p999Nanos) {
+        public double mediaNanos() {
+            return contagem == 0 ? 0 : (double) somaNanos / contagem;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package br.com.livraria.metricas;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas das operações da biblioteca: por {@link Operacao}, a quantidade de chamadas
+ * e um {@link HistogramaLatencias}, e as falhas contadas por tipo de exceção.
+ *
+ * O caminho quente não aloca: {@link #iniciar} lê o relógio e {@link #registrar} grava
+ * no histograma da operação. Com {@link #DESATIVADAS} as duas chamadas não fazem nada
+ * além de testar um campo final.
+ *
+ * Uso típico:
+ * <pre>
+ * long inicio = metricas.iniciar();
+ * try {
+ *     ...
+ * } catch (RuntimeException e) {
+ *     metricas.falhou(Operacao.EMPRESTAR, e);
+ *     throw e;
+ * } finally {
+ *     metricas.registrar(Operacao.EMPRESTAR, inicio);
+ * }
+ * </pre>
+ */
+public final class Metricas {
+
+    private static final Operacao[] OPERACOES = Operacao.values();
+
+    /** Instância que não mede nada (padrão da biblioteca). */
+    public static final Metricas DESATIVADAS = new Metricas(false);
+
+    private final boolean ativas;
+    private final HistogramaLatencias[] latencias = new HistogramaLatencias[OPERACOES.length];
+    @SuppressWarnings({"unchecked", "rawtypes"}) // array genérico: não há new Map<...>[n]
+    private final Map<Class<?>, LongAdder>[] falhas = new Map[OPERACOES.length];
+
+    public Metricas() {
+        this(true);
+    }
+
+    private Metricas(boolean ativas) {
+        this.ativas = ativas;
+        if (ativas) {
+            for (int i = 0; i < OPERACOES.length; i++) {
+                latencias[i] = new HistogramaLatencias();
+                falhas[i] = new ConcurrentHashMap<>();
+            }
+        }
+    }
+
+    public boolean isAtivas() {
+        return ativas;
+    }
+
+    /** Marca o início de uma operação (0 quando desativadas). */
+    public long iniciar() {
+        return ativas ? System.nanoTime() : 0;
+    }
+
+    /** Conta a chamada e registra sua latência, tenha ela falhado ou não. */
+    public void registrar(Operacao operacao, long inicio) {
+        if (!ativas) return;
+        latencias[operacao.ordinal()].registrar(System.nanoTime() - inicio);
+    }
+
+    /** Conta uma falha da operação pelo tipo da exceção (a latência continua com {@link #registrar}). */
+    public void falhou(Operacao operacao, RuntimeException erro) {
+        if (!ativas) return;
+        Map<Class<?>, LongAdder> porTipo = falhas[operacao.ordinal()];
+        LongAdder contador = porTipo.get(erro.getClass());
+        if (contador == null) contador = porTipo.computeIfAbsent(erro.getClass(), c -> new LongAdder());
+        contador.increment();
+    }
+
+    public HistogramaLatencias.Resumo resumo(Operacao operacao) {
+        return ativas ? latencias[operacao.ordinal()].resumir() : new HistogramaLatencias.Resumo(0, 0, 0, 0, 0, 0);
+    }
+
+    /** Falhas da operação por nome simples da exceção, em ordem alfabética. */
+    public Map<String, Long> falhas(Operacao operacao) {
+        Map<String, Long> resultado = new TreeMap<>();
+        if (ativas) falhas[operacao.ordinal()].forEach((tipo, n) -> resultado.merge(tipo.getSimpleName(), n.sum(), Long::sum));
+        return resultado;
+    }
+
+    // ---------- Exportação ----------
+    /** Tabela legível das operações já chamadas, com latências em microssegundos. */
+    public String formatarTexto() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-34s %10s %7s %10s %10s %10s %10s %10s%n",
+                "operação", "chamadas", "erros", "média µs", "p50 µs", "p99 µs", "p99.9 µs", "máx µs"));
+        for (Operacao op : OPERACOES) {
+            HistogramaLatencias.Resumo r = resumo(op);
+            if (r.contagem() == 0) continue;
+            Map<String, Long> erros = falhas(op);
+            long totalErros = erros.values().stream().mapToLong(Long::longValue).sum();
+            sb.append(String.format(Locale.ROOT, "%-34s %10d %7d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    op.getRotulo(), r.contagem(), totalErros, r.mediaNanos() / 1e3,
+                    r.p50Nanos() / 1e3, r.p99Nanos() / 1e3, r.p999Nanos() / 1e3, r.maximoNanos() / 1e3));
+            erros.forEach((tipo, n) -> sb.append("    ").append(tipo).append(": ").append(n).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    /** Todas as métricas no formato de texto do Prometheus (latências em segundos, como summary). */
+    public String formatarPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP livraria_operacao_segundos Latência das operações da biblioteca.\n");
+        sb.append("# TYPE livraria_operacao_segundos summary\n");
+        for (Operacao op : OPERACOES) {
+            HistogramaLatencias.Resumo r = resumo(op);
+            String rotulo = "operacao=\"" + op.getRotulo() + "\"";
+            quantil(sb, rotulo, "0.5", r.p50Nanos());
+            quantil(sb, rotulo, "0.99", r.p99Nanos());
+            quantil(sb, rotulo, "0.999", r.p999Nanos());
+            sb.append("livraria_operacao_segundos_sum{").append(rotulo).append("} ").append(segundos(r.somaNanos())).append('\n');
+            sb.append("livraria_operacao_segundos_count{").append(rotulo).append("} ").append(r.contagem()).append('\n');
+        }
+        sb.append("# HELP livraria_operacao_erros_total Falhas das operações da biblioteca, por tipo de exceção.\n");
+        sb.append("# TYPE livraria_operacao_erros_total counter\n");
+        for (Operacao op : OPERACOES) {
+            falhas(op).forEach((tipo, n) -> sb.append("livraria_operacao_erros_total{operacao=\"").append(op.getRotulo())
+                    .append("\",excecao=\"").append(tipo).append("\"} ").append(n).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    /** Grava {@link #formatarPrometheus()} em {@code arquivo}, trocando-o de uma vez (quem lê nunca vê um arquivo pela metade). */
+    public void exportarPrometheus(Path arquivo) throws IOException {
+        Path absoluto = arquivo.toAbsolutePath();
+        Path temporario = absoluto.resolveSibling(absoluto.getFileName() + ".tmp");
+        Files.writeString(temporario, formatarPrometheus(), StandardCharsets.UTF_8);
+        Files.move(temporario, absoluto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void quantil(StringBuilder sb, String rotulo, String quantil, long nanos) {
+        sb.append("livraria_operacao_segundos{").append(rotulo).append(",quantile=\"").append(quantil).append("\"} ")
+                .append(segundos(nanos)).append('\n');
+    }
+
+    private static String segundos(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.livraria.metricas;
+
+import java.util.Locale;
+
+/** Operações da {@link br.com.livraria.model.Biblioteca} com métricas próprias. */
+public enum Operacao {
+    ADICIONAR_AUTOR,
+    ADICIONAR_LIVRO,
+    ADICIONAR_LIVROS,
+    ALTERAR_TITULO,
+    ALTERAR_NOME_AUTOR,
+    ALTERAR_AUTOR,
+    BUSCAR_AUTOR_POR_ID,
+    BUSCAR_LIVRO_POR_ID,
+    BUSCAR_EMPRESTIMO_POR_ID,
+    BUSCAR_LIVROS_POR_TITULO,
+    LISTAR_LIVROS_DISPONIVEIS,
+    LISTAR_LIVROS_POR_TITULO,
+    LISTAR_AUTORES_POR_NOME,
+    LISTAR_LIVROS_DO_AUTOR,
+    LISTAR_LIVROS_DISPONIVEIS_DO_AUTOR,
+    BUSCAR_AUTORES_POR_PREFIXO,
+    EMPRESTIMOS_POR_CLIENTE,
+    EMPRESTIMOS_EM_ABERTO_POR_CLIENTE,
+    EMPRESTAR,
+    EMPRESTAR_LOTE,
+    DEVOLVER,
+    DEVOLVER_LOTE,
+    PRORROGAR,
+    RENOMEAR_CLIENTE,
+    LISTAR_ATRASADOS,
+    RESERVAR,
+    RETIRAR_RESERVA,
+    CANCELAR_RESERVA,
+    BUSCAR_RESERVA_POR_ID,
+    LISTAR_RESERVAS,
+    EXPIRAR_RESERVAS;
+
+    private final String rotulo = name().toLowerCase(Locale.ROOT);
+
+    /** Nome em minúsculas, usado no texto e como rótulo no formato Prometheus. */
+    public String getRotulo() {
+        return rotulo;
+    }
+}
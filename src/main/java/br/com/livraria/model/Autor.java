@@ -1,6 +1,7 @@
 package br.com.livraria.model;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -10,9 +11,16 @@ import java.util.Objects;
 public class Autor {
 
     private final int id;               // Identificador único (imutável após criação)
-    private String nome;                // Nome completo do autor
+    private volatile String nome;       // Nome completo do autor
     private LocalDate dataNascimento;   // Data de nascimento do autor
 
+    private Biblioteca biblioteca;      // Biblioteca onde está cadastrado (null se avulso)
+    String nomeIndexado;                // Nome no índice ordenado (guardado pelo lock do catálogo)
+    private int[] livros = SEM_LIVROS;  // Posições dos livros na biblioteca, crescentes (ordem de cadastro)
+    private int quantidadeLivros;       // (ambos guardados pelo lock do catálogo)
+
+    private static final int[] SEM_LIVROS = new int[0];
+
     public Autor(int id, String nome, LocalDate dataNascimento) {
         if (id <= 0) {
             throw new IllegalArgumentException("id deve ser positivo.");
@@ -40,7 +48,64 @@ public class Autor {
         if (nome == null || nome.isBlank()) {
             throw new IllegalArgumentException("nome é obrigatório.");
         }
+        String anterior = this.nome;
         this.nome = nome.trim();
+        if (biblioteca != null) {
+            try {
+                biblioteca.nomeAutorAlterado(this);
+            } catch (RuntimeException e) {
+                this.nome = anterior;
+                throw e;
+            }
+        }
+    }
+
+    // ---------- Vínculo com a biblioteca (mantém o índice de nomes atualizado) ----------
+    void vincular(Biblioteca biblioteca) {
+        if (this.biblioteca != null) {
+            throw new IllegalStateException("Autor id=" + id + " já está cadastrado em uma biblioteca.");
+        }
+        this.biblioteca = biblioteca;
+    }
+
+    boolean estaVinculado() {
+        return biblioteca != null;
+    }
+
+    // ---------- Livros do autor (índice autor → livros, mantido pela biblioteca) ----------
+    /** Um livro trocado de autor entra na sua posição, não no fim: a ordem segue a do cadastro. */
+    void anexarLivro(int posicao) {
+        if (quantidadeLivros == livros.length) {
+            livros = Arrays.copyOf(livros, Math.max(4, quantidadeLivros * 2));
+        }
+        int i = quantidadeLivros;
+        if (i > 0 && livros[i - 1] > posicao) {
+            i = -Arrays.binarySearch(livros, 0, quantidadeLivros, posicao) - 1;
+            System.arraycopy(livros, i, livros, i + 1, quantidadeLivros - i);
+        }
+        livros[i] = posicao;
+        quantidadeLivros++;
+    }
+
+    /** Retira o livro mantendo a ordem de cadastro dos demais. */
+    void removerLivro(int posicao) {
+        for (int i = quantidadeLivros - 1; i >= 0; i--) {
+            if (livros[i] == posicao) {
+                System.arraycopy(livros, i + 1, livros, i, quantidadeLivros - i - 1);
+                quantidadeLivros--;
+                return;
+            }
+        }
+    }
+
+    /** Quantidade de livros; lida sem o lock do catálogo, serve só como estimativa. */
+    int quantidadeLivros() {
+        return quantidadeLivros;
+    }
+
+    /** Cópia das posições dos livros, em ordem de cadastro. */
+    int[] posicoesLivros() {
+        return Arrays.copyOf(livros, quantidadeLivros);
     }
 
     public LocalDate getDataNascimento() {
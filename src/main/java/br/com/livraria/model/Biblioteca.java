@@ -1,24 +1,98 @@
 package br.com.livraria.model;
 
+import br.com.livraria.metricas.Metricas;
+import br.com.livraria.metricas.Operacao;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
 /**
  * Representa a biblioteca, com listas de autores, livros e empréstimos.
  * Oferece operações para cadastro, busca, empréstimo e devolução.
+ *
+ * É segura para uso por várias threads (vários balcões atendendo ao mesmo tempo):
+ * <ul>
+ *   <li>o cadastro (autores, livros, troca de título) é serializado pelo lock do catálogo;</li>
+ *   <li>empréstimo e devolução são atômicos por livro, via compare-and-set no
+ *       contador de exemplares disponíveis, sem lock global;</li>
+ *   <li>as leituras ({@code getLivros}, buscas por id) não bloqueiam e enxergam um
+ *       instantâneo consistente; a busca por título usa leitura otimista, e os termos
+ *       repetidos saem de um cache invalidado a cada cadastro ou troca de título.</li>
+ * </ul>
  */
 public class Biblioteca {
 
-    private final List<Livro> livros = new ArrayList<>();
-    private final List<Autor> autores = new ArrayList<>();
-    private final List<Emprestimo> emprestimos = new ArrayList<>();
+    private final ListaAnexavel<Livro> livros = new ListaAnexavel<>();
+    private final ListaAnexavel<Autor> autores = new ListaAnexavel<>();
+    private final HistoricoEmprestimos emprestimos = new HistoricoEmprestimos(); // em colunas, sem um objeto por empréstimo
+
+    // ---------- Controle de concorrência ----------
+    private final StampedLock catalogo = new StampedLock();     // escritas em livros/autores/índices
+    private final Object registroEmprestimos = new Object();    // anexação de empréstimos
+    // sequência de ids de empréstimo (com registroEmprestimos): o próximo a gerar e o passo entre eles
+    private long proximoEmprestimoId = 1;
+    private int passoEmprestimoId = 1;
+
+    // ---------- Índices de chave primária (id -> objeto), sincronizados com as listas ----------
+    private final MapaInt<Livro> livrosPorId = new MapaInt<>();
+    private final MapaInt<Autor> autoresPorId = new MapaInt<>();
+    private final MapaPosicoes emprestimosPorId = new MapaPosicoes();   // id -> posição no histórico
+
+    // ---------- Índice invertido de trigramas dos títulos, e o cache dos termos repetidos ----------
+    private final IndiceTrigramas indiceTitulos = new IndiceTrigramas();
+    public static final int CAPACIDADE_CACHE_BUSCAS = 1024;
+    public static final Duration VALIDADE_CACHE_BUSCAS = Duration.ofMinutes(10);
+    private volatile CacheBuscas cacheBuscas = new CacheBuscas(CAPACIDADE_CACHE_BUSCAS, VALIDADE_CACHE_BUSCAS);
+
+    // ---------- Índices ordenados (título dos livros, nome dos autores) para listagens paginadas ----------
+    private final IndiceOrdenado<Livro> livrosPorTitulo = new IndiceOrdenado<>();
+    private final IndiceOrdenado<Autor> autoresPorNome = new IndiceOrdenado<>();
+
+    // ---------- Índice cliente -> empréstimos (histórico e em aberto) ----------
+    private final IndiceClientes indiceClientes = new IndiceClientes(this);
+
+    // ---------- Empréstimos em aberto por data prevista de devolução ----------
+    private final FilaVencimentos vencimentos = new FilaVencimentos();
+
+    // ---------- Reservas (as filas ficam em cada Livro) ----------
+    public static final int PRAZO_RETIRADA_RESERVA_DIAS = 3;
+    private final Map<Integer, Reserva> reservasPorId = new ConcurrentHashMap<>(); // só as ativas
+    private final AtomicInteger proximaReserva = new AtomicInteger();
+    // reservas com exemplar separado, por prazo de retirada (as já concluídas são descartadas ao sair)
+    private final PriorityQueue<Reserva> reservasSeparadas = new PriorityQueue<>(
+            Comparator.comparing(Reserva::getPrazoRetirada).thenComparingInt(Reserva::getId));
+
+    // ---------- Posições dos livros disponíveis (atualizado a cada empréstimo/devolução) ----------
+    private final ConjuntoBits disponiveis = new ConjuntoBits();
+
+    // ---------- Ouvintes de mutações (ex.: diário de persistência) ----------
+    private final List<OuvinteBiblioteca> ouvintes = new CopyOnWriteArrayList<>();
+
+    // ---------- Métricas por operação (desativadas por padrão) ----------
+    private volatile Metricas metricas = Metricas.DESATIVADAS;
 
     // ---------- CONSTRUTOR: inicializa com alguns dados ----------
     public Biblioteca() {
-        inicializarDados();
+        this(true);
     }
 
-    private void inicializarDados() {
+    /**
+     * @param comDadosIniciais {@code false} cria a biblioteca vazia (ex.: para
+     *                         reconstruí-la a partir do diário).
+     */
+    public Biblioteca(boolean comDadosIniciais) {
+        if (comDadosIniciais) inicializarDados();
+    }
+
+    public void inicializarDados() {
         // ---------- AUTORES ----------
         Autor machado = new Autor(1, "Machado de Assis", LocalDate.of(1839, 6, 21));
         Autor clarice = new Autor(2, "Clarice Lispector", LocalDate.of(1920, 12, 10));
@@ -26,7 +100,7 @@ public class Biblioteca {
         Autor graciliano = new Autor(4, "Graciliano Ramos", LocalDate.of(1892, 10, 27));
         Autor jane = new Autor(5, "Jane Austen", LocalDate.of(1775, 12, 16));
 
-        autores.addAll(List.of(machado, clarice, jorge, graciliano, jane));
+        List.of(machado, clarice, jorge, graciliano, jane).forEach(this::adicionarAutor);
 
         // ---------- LIVROS ----------
         Livro domCasmurro = new Livro(1, "Dom Casmurro", machado);
@@ -35,97 +109,1366 @@ public class Biblioteca {
         Livro vidasSecas = new Livro(4, "Vidas Secas", graciliano);
         Livro orgulhoPreconceito = new Livro(5, "Orgulho e Preconceito", jane);
 
-        livros.addAll(List.of(domCasmurro, horaEstrela, gabriela, vidasSecas, orgulhoPreconceito));
+        List.of(domCasmurro, horaEstrela, gabriela, vidasSecas, orgulhoPreconceito).forEach(this::adicionarLivro);
     }
 
     // ---------- Acesso seguro às listas (somente leitura) ----------
     public List<Livro> getLivros() {
-        return Collections.unmodifiableList(livros);
+        return livros.instantaneo();
     }
 
     public List<Autor> getAutores() {
-        return Collections.unmodifiableList(autores);
+        return autores.instantaneo();
     }
 
     public List<Emprestimo> getEmprestimos() {
-        return Collections.unmodifiableList(emprestimos);
+        return emprestimos.instantaneo();
+    }
+
+    /**
+     * Recebe os empréstimos de {@link #percorrerEmprestimos} como primitivos, direto das
+     * colunas do histórico, sem criar um {@link Emprestimo} por registro. Datas em dias
+     * desde a época ({@link LocalDate#toEpochDay()}).
+     */
+    @FunctionalInterface
+    public interface LeitorEmprestimos {
+        /** {@code diaDevolucao} de um empréstimo ainda em aberto. */
+        int EM_ABERTO = Integer.MIN_VALUE;
+
+        void ler(int posicao, Livro livro, int diaEmprestimo, int diaPrevisto, int diaDevolucao);
+    }
+
+    /**
+     * Entrega a {@code leitor} os empréstimos nas posições {@code [de, ate)} de
+     * {@link #getEmprestimos()}, em ordem, sem locks: trechos disjuntos podem ser lidos
+     * em paralelo. A devolução é lida com semântica volatile.
+     */
+    public void percorrerEmprestimos(int de, int ate, LeitorEmprestimos leitor) {
+        emprestimos.percorrer(de, ate, Objects.requireNonNull(leitor, "leitor é obrigatório."));
+    }
+
+    // ---------- Ouvintes ----------
+    public void adicionarOuvinte(OuvinteBiblioteca ouvinte) {
+        ouvintes.add(Objects.requireNonNull(ouvinte, "ouvinte é obrigatório."));
+    }
+
+    public void removerOuvinte(OuvinteBiblioteca ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    // ---------- Métricas ----------
+    /** Passa a medir as operações em {@code metricas} ({@link Metricas#DESATIVADAS} desliga). */
+    public void setMetricas(Metricas metricas) {
+        this.metricas = Objects.requireNonNull(metricas, "metricas é obrigatório.");
+    }
+
+    public Metricas getMetricas() {
+        return metricas;
+    }
+
+    // ---------- Sequência de ids de empréstimo ----------
+    /**
+     * Faz a sequência gerar só ids {@code primeiro}, {@code primeiro + passo},
+     * {@code primeiro + 2 * passo}... (a partir do primeiro maior que os já usados). Em
+     * bibliotecas particionadas, cada partição usa um {@code primeiro} diferente com o
+     * mesmo passo, e o id de um empréstimo indica a partição dona dele.
+     */
+    public void configurarSequenciaEmprestimos(int primeiro, int passo) {
+        if (passo <= 0) throw new IllegalArgumentException("passo deve ser positivo.");
+        if (primeiro <= 0 || primeiro > passo) throw new IllegalArgumentException("primeiro deve estar entre 1 e o passo.");
+        synchronized (registroEmprestimos) {
+            proximoEmprestimoId += Math.floorMod(primeiro - proximoEmprestimoId, passo);
+            passoEmprestimoId = passo;
+        }
+    }
+
+    // ---------- Cache de buscas por título ----------
+    /** Acertos e faltas (inclui as expiradas) do cache de {@link #buscarLivrosPorTitulo}. */
+    public record EstatisticasCacheBuscas(long acertos, long faltas, long expiradas, long despejos,
+                                          long invalidacoes, int entradas, int capacidade) {
+        public double taxaAcertos() {
+            long total = acertos + faltas;
+            return total == 0 ? 0 : (double) acertos / total;
+        }
+    }
+
+    /**
+     * Troca o cache de {@link #buscarLivrosPorTitulo} por um vazio com até {@code capacidade}
+     * termos, cada resultado válido por {@code validade}; capacidade 0 desliga o cache.
+     */
+    public void configurarCacheBuscas(int capacidade, Duration validade) {
+        CacheBuscas novo = capacidade == 0 ? CacheBuscas.DESATIVADO
+                : new CacheBuscas(capacidade, Objects.requireNonNull(validade, "validade é obrigatória."));
+        long stamp = catalogo.writeLock(); // nenhuma invalidação se perde entre o cache antigo e o novo
+        try {
+            cacheBuscas = novo;
+        } finally {
+            catalogo.unlockWrite(stamp);
+        }
+    }
+
+    public EstatisticasCacheBuscas getEstatisticasCacheBuscas() {
+        return cacheBuscas.estatisticas();
+    }
+
+    /**
+     * Tamanhos das listas capturados junto com uma marca externa (ex.: posição do diário).
+     * Toda mutação registrada antes da marca está dentro desses prefixos.
+     */
+    public record Marco(int autores, int livros, int emprestimos, long posicao) { }
+
+    /**
+     * Suspende por instantes o cadastro e o registro de empréstimos para capturar,
+     * de forma consistente, os tamanhos das listas e o valor de {@code marcador}.
+     * O custo é O(1): serve de ponto de partida para instantâneos gravados sem parar o movimento.
+     */
+    public Marco marcar(LongSupplier marcador) {
+        long stamp = catalogo.writeLock();
+        try {
+            synchronized (registroEmprestimos) {
+                return new Marco(autores.tamanho(), livros.tamanho(), emprestimos.tamanho(), marcador.getAsLong());
+            }
+        } finally {
+            catalogo.unlockWrite(stamp);
+        }
     }
 
     // ---------- Cadastro ----------
     public void adicionarAutor(Autor autor) {
-        Objects.requireNonNull(autor, "autor é obrigatório.");
-        if (autores.stream().anyMatch(a -> a.getId() == autor.getId())) {
-            throw new IllegalArgumentException("Já existe autor com id=" + autor.getId());
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Objects.requireNonNull(autor, "autor é obrigatório.");
+            long stamp = catalogo.writeLock();
+            try {
+                if (autoresPorId.contem(autor.getId())) {
+                    throw new IllegalArgumentException("Já existe autor com id=" + autor.getId());
+                }
+                if (autor.estaVinculado()) {
+                    throw new IllegalStateException("Autor id=" + autor.getId() + " já está cadastrado em uma biblioteca.");
+                }
+                for (OuvinteBiblioteca o : ouvintes) o.aoAdicionarAutor(autor);
+                autor.vincular(this);
+                autor.nomeIndexado = autor.getNome();
+                autoresPorNome.inserir(autor.nomeIndexado, autor.getId(), autor);
+                autoresPorId.inserirSeAusente(autor.getId(), autor);
+                autores.anexar(autor);
+            } finally {
+                catalogo.unlockWrite(stamp);
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ADICIONAR_AUTOR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ADICIONAR_AUTOR, inicio);
         }
-        autores.add(autor);
     }
 
     public void adicionarLivro(Livro livro) {
-        Objects.requireNonNull(livro, "livro é obrigatório.");
-        if (livros.stream().anyMatch(l -> l.getId() == livro.getId())) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Objects.requireNonNull(livro, "livro é obrigatório.");
+            long stamp = catalogo.writeLock();
+            try {
+                cadastrarLivro(livro);
+            } finally {
+                catalogo.unlockWrite(stamp);
+            }
+            disponibilidadeAlterada(livro);
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ADICIONAR_LIVRO, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ADICIONAR_LIVRO, inicio);
+        }
+    }
+
+    /**
+     * Cadastra vários livros com uma única aquisição do lock do catálogo (importação em lote).
+     * A falha de um livro (id duplicado, autor não cadastrado...) é entregue a {@code aoFalhar}
+     * e não interrompe os demais. Se {@code aoFalhar} lançar, o lote para ali e a exceção
+     * sobe; os livros cadastrados antes dela continuam cadastrados.
+     *
+     * @return quantidade de livros cadastrados
+     */
+    public int adicionarLivros(List<Livro> lote, BiConsumer<Livro, RuntimeException> aoFalhar) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Objects.requireNonNull(lote, "lote é obrigatório.");
+            Objects.requireNonNull(aoFalhar, "aoFalhar é obrigatório.");
+            Livro[] cadastrados = new Livro[lote.size()];
+            int n = 0;
+            long stamp = catalogo.writeLock();
+            try {
+                for (Livro livro : lote) {
+                    try {
+                        cadastrarLivro(Objects.requireNonNull(livro, "livro é obrigatório."));
+                        cadastrados[n++] = livro;
+                    } catch (RuntimeException e) {
+                        aoFalhar.accept(livro, e);
+                    }
+                }
+            } finally {
+                catalogo.unlockWrite(stamp);
+                // também quando aoFalhar interrompe o lote: os já cadastrados precisam entrar nos disponíveis
+                for (int i = 0; i < n; i++) disponibilidadeAlterada(cadastrados[i]);
+                if (n > 0) concluirOperacao();
+            }
+            return n;
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ADICIONAR_LIVROS, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ADICIONAR_LIVROS, inicio);
+        }
+    }
+
+    // chamado com o lock do catálogo
+    private void cadastrarLivro(Livro livro) {
+        if (livrosPorId.contem(livro.getId())) {
             throw new IllegalArgumentException("Já existe livro com id=" + livro.getId());
         }
-        if (autores.stream().noneMatch(a -> a.getId() == livro.getAutor().getId())) {
+        Autor autor = autorRegistrado(livro);
+        if (livro.estaVinculado()) {
+            throw new IllegalStateException("Livro id=" + livro.getId() + " já está cadastrado em uma biblioteca.");
+        }
+        for (OuvinteBiblioteca o : ouvintes) o.aoAdicionarLivro(livro);
+        livro.vincular(this, livros.tamanho());
+        livro.tituloIndexado = livro.getTitulo();
+        livro.chaveTitulo = NormalizadorTexto.chave(livro.tituloIndexado);
+        indiceTitulos.indexar(livro.getPosicao(), livro.chaveTitulo);
+        cacheBuscas.invalidar(null, livro.chaveTitulo);
+        livrosPorTitulo.inserir(livro.tituloIndexado, livro.getId(), livro);
+        livrosPorId.inserirSeAusente(livro.getId(), livro);
+        livros.anexar(livro);
+        autor.anexarLivro(livro.getPosicao());
+        livro.autorIndexado = autor;
+    }
+
+    // o autor cadastrado com o id do autor do livro (pode ser outra instância igual)
+    private Autor autorRegistrado(Livro livro) {
+        Autor autor = autoresPorId.buscar(livro.getAutor().getId());
+        if (autor == null) {
             throw new IllegalStateException("Autor do livro não está cadastrado na biblioteca.");
         }
-        livros.add(livro);
+        return autor;
     }
 
     // ---------- Busca utilitária ----------
     public Optional<Autor> buscarAutorPorId(int id) {
-        return autores.stream().filter(a -> a.getId() == id).findFirst();
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return Optional.ofNullable(autoresPorId.buscar(id));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_AUTOR_POR_ID, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_AUTOR_POR_ID, inicio);
+        }
     }
 
     public Optional<Livro> buscarLivroPorId(int id) {
-        return livros.stream().filter(l -> l.getId() == id).findFirst();
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return Optional.ofNullable(livrosPorId.buscar(id));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_LIVRO_POR_ID, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_LIVRO_POR_ID, inicio);
+        }
     }
 
     public Optional<Emprestimo> buscarEmprestimoPorId(int id) {
-        return emprestimos.stream().filter(e -> e.getId() == id).findFirst();
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            int posicao = emprestimosPorId.buscar(id);
+            return posicao == MapaPosicoes.AUSENTE ? Optional.empty() : Optional.of(emprestimos.obter(posicao));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_EMPRESTIMO_POR_ID, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_EMPRESTIMO_POR_ID, inicio);
+        }
     }
 
+    private Livro livroExistente(int livroId) {
+        Livro livro = livrosPorId.buscar(livroId);
+        if (livro == null) throw new NoSuchElementException("Livro id=" + livroId + " não encontrado.");
+        return livro;
+    }
+
+    private Emprestimo emprestimoExistente(int emprestimoId) {
+        int posicao = emprestimosPorId.buscar(emprestimoId);
+        if (posicao == MapaPosicoes.AUSENTE) throw new NoSuchElementException("Empréstimo id=" + emprestimoId + " não encontrado.");
+        return emprestimos.obter(posicao);
+    }
+
+    private Autor autorExistente(int autorId) {
+        Autor autor = autoresPorId.buscar(autorId);
+        if (autor == null) throw new NoSuchElementException("Autor id=" + autorId + " não encontrado.");
+        return autor;
+    }
+
+    private Reserva reservaAtiva(int reservaId) {
+        Reserva reserva = reservasPorId.get(reservaId);
+        if (reserva == null) throw new NoSuchElementException("Reserva id=" + reservaId + " não encontrada.");
+        return reserva;
+    }
+
+    /** Livros cujo título contém o termo, sem diferenciar maiúsculas e acentos ("mae" acha "Mãe"). */
     public List<Livro> buscarLivrosPorTitulo(String termo) {
-        if (termo == null || termo.isBlank()) return List.of();
-        String t = termo.trim().toLowerCase();
-        return livros.stream()
-                .filter(l -> l.getTitulo().toLowerCase().contains(t))
-                .toList(); // ✅ retorna lista imutável
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            if (termo == null || termo.isBlank()) return List.of();
+            String t = NormalizadorTexto.chave(termo);
+            CacheBuscas cache = cacheBuscas;
+            List<Livro> guardados = cache.obter(t);
+            if (guardados != null) return guardados;
+            long geracao = cache.geracao(); // lida antes da busca: descarta o resultado se o catálogo mudar no meio
+            List<Livro> encontrados = livrosNasPosicoes(buscarPosicoesPorTitulo(t)); // ✅ retorna lista imutável
+            cache.guardar(t, encontrados, geracao);
+            return encontrados;
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_LIVROS_POR_TITULO, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_LIVROS_POR_TITULO, inicio);
+        }
+    }
+
+    // leitura otimista: só toma o lock de leitura se um cadastro ocorrer durante a busca
+    private int[] buscarPosicoesPorTitulo(String chaveTermo) {
+        long stamp = catalogo.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int[] posicoes = indiceTitulos.buscar(chaveTermo);
+                if (catalogo.validate(stamp)) return posicoes;
+            } catch (RuntimeException leituraInconsistente) {
+                // o índice mudou no meio da leitura; repete abaixo com o lock
+            }
+        }
+        stamp = catalogo.readLock();
+        try {
+            return indiceTitulos.buscar(chaveTermo);
+        } finally {
+            catalogo.unlockRead(stamp);
+        }
     }
 
     public List<Livro> listarLivrosDisponiveis() {
-        return livros.stream()
-                .filter(Livro::isDisponivel)
-                .toList(); // ✅ lista imutável
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return livrosNasPosicoes(disponiveis.posicoes()); // ✅ lista imutável
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_LIVROS_DISPONIVEIS, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_LIVROS_DISPONIVEIS, inicio);
+        }
+    }
+
+    // ---------- Listagens ordenadas e paginadas ----------
+    /** Ordem das listagens por título: sem diferenciar maiúsculas e acentos, depois o título exato e o id. */
+    public static final Comparator<Livro> ORDEM_TITULO = (a, b) -> {
+        int c = IndiceOrdenado.comparar(a.getTitulo(), b.getTitulo());
+        if (c == 0) c = a.getTitulo().compareTo(b.getTitulo());
+        return c != 0 ? c : Integer.compare(a.getId(), b.getId());
+    };
+
+    /**
+     * Página do catálogo em ordem de título (sem diferenciar maiúsculas e acentos).
+     * O custo é proporcional a {@code deslocamento + limite}: para páginas distantes,
+     * prefira {@link #listarLivrosPorTituloApos}.
+     */
+    public List<Livro> listarLivrosPorTitulo(int deslocamento, int limite) {
+        return paginaDeLivros(Operacao.LISTAR_LIVROS_POR_TITULO, false, null, 0, deslocamento, limite);
+    }
+
+    /**
+     * Próxima página em ordem de título depois do livro ({@code titulo}, {@code livroId}),
+     * o último da página anterior; {@code titulo} null começa do início. O(log n + limite).
+     */
+    public List<Livro> listarLivrosPorTituloApos(String titulo, int livroId, int limite) {
+        return paginaDeLivros(Operacao.LISTAR_LIVROS_POR_TITULO, false, titulo, livroId, -1, limite);
+    }
+
+    /**
+     * Como {@link #listarLivrosPorTitulo}, só com os livros disponíveis. Para achar o
+     * {@code deslocamento}-ésimo disponível a varredura começa do primeiro título e
+     * confere cada livro: custa O(deslocamento + indisponíveis até lá + limite), que numa
+     * página distante de um acervo quase todo emprestado é o catálogo inteiro. Para
+     * páginas além das primeiras, use {@link #listarLivrosDisponiveisPorTituloApos}.
+     */
+    public List<Livro> listarLivrosDisponiveisPorTitulo(int deslocamento, int limite) {
+        return paginaDeLivros(Operacao.LISTAR_LIVROS_DISPONIVEIS, true, null, 0, deslocamento, limite);
+    }
+
+    /**
+     * Como {@link #listarLivrosPorTituloApos}, só com os livros disponíveis: O(log n +
+     * limite + indisponíveis entre o primeiro e o último da página).
+     */
+    public List<Livro> listarLivrosDisponiveisPorTituloApos(String titulo, int livroId, int limite) {
+        return paginaDeLivros(Operacao.LISTAR_LIVROS_DISPONIVEIS, true, titulo, livroId, -1, limite);
+    }
+
+    // deslocamento < 0: paginação por chave, a partir de (titulo, livroId)
+    private List<Livro> paginaDeLivros(Operacao operacao, boolean soDisponiveis, String titulo, int livroId,
+                                       int deslocamento, int limite) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Predicate<Livro> filtro = soDisponiveis ? Livro::isDisponivel : null;
+            return deslocamento >= 0
+                    ? livrosPorTitulo.pagina(deslocamento, limite, filtro)
+                    : livrosPorTitulo.apos(titulo, livroId, limite, filtro);
+        } catch (RuntimeException e) {
+            metricas.falhou(operacao, e);
+            throw e;
+        } finally {
+            metricas.registrar(operacao, inicio);
+        }
+    }
+
+    /** Página dos autores em ordem de nome (sem diferenciar maiúsculas e acentos). */
+    public List<Autor> listarAutoresPorNome(int deslocamento, int limite) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return autoresPorNome.pagina(deslocamento, limite, null);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_AUTORES_POR_NOME, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_AUTORES_POR_NOME, inicio);
+        }
+    }
+
+    /** Próxima página de autores depois de ({@code nome}, {@code autorId}); {@code nome} null começa do início. */
+    public List<Autor> listarAutoresPorNomeApos(String nome, int autorId, int limite) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return autoresPorNome.apos(nome, autorId, limite, null);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_AUTORES_POR_NOME, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_AUTORES_POR_NOME, inicio);
+        }
+    }
+
+    // ---------- Livros por autor e busca de autores ----------
+    /** Livros do autor em ordem de cadastro, em tempo proporcional à quantidade deles. */
+    public List<Livro> listarLivrosDoAutor(int autorId) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return livrosNasPosicoes(posicoesDoAutor(autorExistente(autorId)));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_LIVROS_DO_AUTOR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_LIVROS_DO_AUTOR, inicio);
+        }
+    }
+
+    /**
+     * Como {@link #listarLivrosDoAutor}, só com os livros disponíveis. Percorre o lado
+     * menor: os livros do autor, conferindo cada um, ou o conjunto de disponíveis da
+     * biblioteca, conferindo o autor. Custo O(min(a, d + n / 4096)) para a livros do
+     * autor, d disponíveis e n livros; não é proporcional só à resposta quando o autor
+     * tem muitos livros e a biblioteca muitos disponíveis, mas poucos dele.
+     */
+    public List<Livro> listarLivrosDisponiveisDoAutor(int autorId) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Autor autor = autorExistente(autorId);
+            List<Livro> resultado = new ArrayList<>();
+            if (disponiveis.quantidade() < autor.quantidadeLivros()) {
+                // as duas listas estão em ordem de posição: o resultado sai na mesma ordem
+                for (int p : disponiveis.posicoes()) {
+                    Livro livro = livros.obter(p);
+                    if (livro.getAutor() == autor && livro.isDisponivel()) resultado.add(livro);
+                }
+            } else {
+                for (int p : posicoesDoAutor(autor)) {
+                    Livro livro = livros.obter(p);
+                    if (livro.isDisponivel()) resultado.add(livro);
+                }
+            }
+            return Collections.unmodifiableList(resultado);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_LIVROS_DISPONIVEIS_DO_AUTOR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_LIVROS_DISPONIVEIS_DO_AUTOR, inicio);
+        }
+    }
+
+    // leitura otimista, como em buscarPosicoesPorTitulo
+    private int[] posicoesDoAutor(Autor autor) {
+        long stamp = catalogo.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int[] posicoes = autor.posicoesLivros();
+                if (catalogo.validate(stamp)) return posicoes;
+            } catch (RuntimeException leituraInconsistente) {
+                // o autor ganhou ou perdeu um livro no meio da cópia; repete abaixo com o lock
+            }
+        }
+        stamp = catalogo.readLock();
+        try {
+            return autor.posicoesLivros();
+        } finally {
+            catalogo.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Até {@code limite} autores cujo nome começa com {@code prefixo} (sem diferenciar
+     * maiúsculas e acentos), em ordem de nome. O(log n + limite) no índice de nomes.
+     */
+    public List<Autor> buscarAutoresPorPrefixo(String prefixo, int limite) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            if (prefixo == null || prefixo.isBlank()) return autoresPorNome.pagina(0, limite, null);
+            return autoresPorNome.comPrefixo(prefixo.trim(), limite);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_AUTORES_POR_PREFIXO, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_AUTORES_POR_PREFIXO, inicio);
+        }
+    }
+
+    public int contarLivrosDisponiveis() {
+        return disponiveis.quantidade();
+    }
+
+    private List<Livro> livrosNasPosicoes(int[] posicoes) {
+        Livro[] resultado = new Livro[posicoes.length];
+        for (int i = 0; i < posicoes.length; i++) {
+            resultado[i] = livros.obter(posicoes[i]);
+        }
+        return List.of(resultado);
+    }
+
+    // chamado por Livro.setTitulo para manter o índice de títulos em dia
+    void tituloAlterado(Livro livro) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            long stamp = catalogo.writeLock();
+            try {
+                for (OuvinteBiblioteca o : ouvintes) o.aoAlterarTitulo(livro);
+                String titulo = livro.getTitulo(); // o atual: com trocas simultâneas, vale a última
+                String chave = NormalizadorTexto.chave(titulo);
+                indiceTitulos.reindexar(livro.getPosicao(), chave);
+                livrosPorTitulo.trocar(livro.tituloIndexado, titulo, livro.getId(), livro);
+                cacheBuscas.invalidar(livro.chaveTitulo, chave);
+                livro.tituloIndexado = titulo;
+                livro.chaveTitulo = chave;
+            } finally {
+                catalogo.unlockWrite(stamp);
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ALTERAR_TITULO, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ALTERAR_TITULO, inicio);
+        }
+    }
+
+    // chamado por Livro.setAutor para mover o livro no índice autor -> livros
+    void autorAlterado(Livro livro) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            long stamp = catalogo.writeLock();
+            try {
+                Autor novo = autorRegistrado(livro); // o atual: com trocas simultâneas, vale a última
+                Autor anterior = livro.autorIndexado;
+                if (novo != anterior) {
+                    for (OuvinteBiblioteca o : ouvintes) o.aoAlterarAutor(livro);
+                    anterior.removerLivro(livro.getPosicao());
+                    novo.anexarLivro(livro.getPosicao());
+                    livro.autorIndexado = novo;
+                }
+            } finally {
+                catalogo.unlockWrite(stamp);
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ALTERAR_AUTOR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ALTERAR_AUTOR, inicio);
+        }
+    }
+
+    // chamado por Autor.setNome para manter o índice de nomes em dia
+    void nomeAutorAlterado(Autor autor) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            long stamp = catalogo.writeLock();
+            try {
+                for (OuvinteBiblioteca o : ouvintes) o.aoAlterarNomeAutor(autor);
+                String nome = autor.getNome(); // o atual: com trocas simultâneas, vale a última
+                autoresPorNome.trocar(autor.nomeIndexado, nome, autor.getId(), autor);
+                autor.nomeIndexado = nome;
+            } finally {
+                catalogo.unlockWrite(stamp);
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.ALTERAR_NOME_AUTOR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.ALTERAR_NOME_AUTOR, inicio);
+        }
+    }
+
+    // chamado por Emprestimo.setNomeCliente num empréstimo registrado
+    void nomeClienteAlterado(Emprestimo e, String novoNome) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            // só o empréstimo publicado: a visão de um registro desfeito não é o empréstimo com esse id
+            if (emprestimoExistente(e.getId()).getPosicao() != e.getPosicao()) {
+                throw new NoSuchElementException("Empréstimo id=" + e.getId() + " não encontrado.");
+            }
+            // serializado com o registro de empréstimos: o diário grava a troca depois do empréstimo,
+            // e trocas simultâneas chegam aos ouvintes na ordem aplicada
+            synchronized (registroEmprestimos) {
+                String anterior = e.getNomeCliente();
+                indiceClientes.renomear(e, novoNome);
+                try {
+                    for (OuvinteBiblioteca o : ouvintes) o.aoRenomearCliente(e);
+                } catch (RuntimeException falha) {
+                    indiceClientes.renomear(e, anterior);
+                    throw falha;
+                }
+            }
+            concluirOperacao();
+        } catch (RuntimeException ex) {
+            metricas.falhou(Operacao.RENOMEAR_CLIENTE, ex);
+            throw ex;
+        } finally {
+            metricas.registrar(Operacao.RENOMEAR_CLIENTE, inicio);
+        }
+    }
+
+    // chamado quando a disponibilidade muda; repete se outra thread mudar o livro no meio,
+    // para que o conjunto sempre termine refletindo o estado atual do livro
+    void disponibilidadeAlterada(Livro livro) {
+        boolean disponivel;
+        do {
+            disponivel = livro.isDisponivel();
+            if (disponivel) {
+                disponiveis.adicionar(livro.getPosicao());
+            } else {
+                disponiveis.remover(livro.getPosicao());
+            }
+        } while (livro.isDisponivel() != disponivel);
+    }
+
+    // ---------- Empréstimos por cliente ----------
+    /**
+     * Todo o histórico de empréstimos do cliente, em ordem de empréstimo. O nome é
+     * comparado sem diferenciar maiúsculas, acentos e espaços repetidos; o custo é
+     * proporcional aos empréstimos do cliente, não ao total da biblioteca.
+     */
+    public List<Emprestimo> buscarEmprestimosPorCliente(String nomeCliente) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return emprestimosNasPosicoes(indiceClientes.historico(Objects.requireNonNull(nomeCliente, "nomeCliente é obrigatório.")),
+                    false, null);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EMPRESTIMOS_POR_CLIENTE, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EMPRESTIMOS_POR_CLIENTE, inicio);
+        }
+    }
+
+    /** Empréstimos do cliente ainda não devolvidos, em ordem de empréstimo. */
+    public List<Emprestimo> buscarEmprestimosEmAbertoPorCliente(String nomeCliente) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            // só os em aberto: devolução em andamento ainda não refletida no índice
+            return emprestimosNasPosicoes(
+                    indiceClientes.emAberto(Objects.requireNonNull(nomeCliente, "nomeCliente é obrigatório.")), true, null);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EMPRESTIMOS_EM_ABERTO_POR_CLIENTE, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EMPRESTIMOS_EM_ABERTO_POR_CLIENTE, inicio);
+        }
+    }
+
+    /** Lista imutável dos empréstimos nas posições, opcionalmente só os em aberto e reordenados. */
+    private List<Emprestimo> emprestimosNasPosicoes(int[] posicoes, boolean soEmAberto, Comparator<Emprestimo> ordem) {
+        List<Emprestimo> resultado = new ArrayList<>(posicoes.length);
+        for (int p : posicoes) {
+            Emprestimo e = emprestimos.obter(p);
+            if (!soEmAberto || !e.isDevolvido()) resultado.add(e);
+        }
+        if (ordem != null) resultado.sort(ordem);
+        return Collections.unmodifiableList(resultado);
     }
 
     // ---------- Empréstimo / Devolução ----------
-    public Emprestimo emprestarLivro(int emprestimoId, int livroId, String nomeCliente, LocalDate dataEmprestimo) {
-        if (emprestimos.stream().anyMatch(e -> e.getId() == emprestimoId)) {
-            throw new IllegalArgumentException("Já existe empréstimo com id=" + emprestimoId);
+    /** Passado a {@link #registrarEmprestimo} no lugar do id: usa o próximo da sequência. */
+    private static final int ID_DA_SEQUENCIA = 0;
+
+    /**
+     * Empréstimo com o prazo padrão e id gerado pela sequência da biblioteca, sem precisar
+     * descobrir um id livre antes. Outro nome, e não uma sobrecarga de
+     * {@link #emprestarLivro(int, int, String, LocalDate)}: lá o primeiro {@code int} é o
+     * id do empréstimo, aqui é o do livro.
+     */
+    public Emprestimo emprestarLivroComNovoId(int livroId, String nomeCliente, LocalDate dataEmprestimo) {
+        return emprestarLivroComNovoId(livroId, nomeCliente, dataEmprestimo,
+                dataEmprestimo == null ? null : dataEmprestimo.plusDays(Emprestimo.PRAZO_PADRAO_DIAS));
+    }
+
+    public Emprestimo emprestarLivroComNovoId(int livroId, String nomeCliente, LocalDate dataEmprestimo,
+                                              LocalDate dataPrevistaDevolucao) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return emprestarLote(new int[]{livroId}, nomeCliente, dataEmprestimo, dataPrevistaDevolucao).get(0);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EMPRESTAR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EMPRESTAR, inicio);
         }
+    }
 
-        Livro livro = buscarLivroPorId(livroId)
-                .orElseThrow(() -> new NoSuchElementException("Livro id=" + livroId + " não encontrado."));
+    /** {@link #emprestarLivros(int[], String, LocalDate, LocalDate)} com o prazo padrão. */
+    public List<Emprestimo> emprestarLivros(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo) {
+        return emprestarLivros(livroIds, nomeCliente, dataEmprestimo,
+                dataEmprestimo == null ? null : dataEmprestimo.plusDays(Emprestimo.PRAZO_PADRAO_DIAS));
+    }
 
-        if (!livro.isDisponivel()) {
-            throw new IllegalStateException("Livro id=" + livroId + " não está disponível para empréstimo.");
+    /**
+     * Empresta vários livros ao mesmo cliente de uma vez: ou todos, ou nenhum. O lote
+     * é validado inteiro antes de qualquer exemplar sair; os ids vêm da sequência,
+     * consecutivos, e o histórico é anexado numa única passagem (um bloqueio, um aviso
+     * aos ouvintes, uma publicação e, com o diário, um único fsync). Um livro pode
+     * aparecer mais de uma vez (um exemplar por ocorrência).
+     *
+     * @return os empréstimos, na ordem de {@code livroIds}
+     */
+    public List<Emprestimo> emprestarLivros(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo,
+                                           LocalDate dataPrevistaDevolucao) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return emprestarLote(livroIds, nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EMPRESTAR_LOTE, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EMPRESTAR_LOTE, inicio);
         }
+    }
 
-        Emprestimo emprestimo = new Emprestimo(emprestimoId, livro, nomeCliente, dataEmprestimo);
-        livro.setDisponivel(false);
-        emprestimos.add(emprestimo);
-        return emprestimo;
+    private List<Emprestimo> emprestarLote(int[] livroIds, String nomeCliente, LocalDate dataEmprestimo,
+                                           LocalDate dataPrevistaDevolucao) {
+        Objects.requireNonNull(livroIds, "livroIds é obrigatório.");
+        if (livroIds.length == 0) throw new IllegalArgumentException("O lote deve ter ao menos um livro.");
+        Emprestimo.validarDados(nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+
+        // uma passagem de validação: nenhum exemplar sai se algum item não puder ser emprestado
+        Livro[] livros = new Livro[livroIds.length];
+        for (int i = 0; i < livroIds.length; i++) {
+            Livro livro = livroExistente(livroIds[i]);
+            if (!livro.isDisponivel()) {
+                throw new IllegalStateException("Livro id=" + livroIds[i] + " não está disponível para empréstimo.");
+            }
+            FilaReservas fila = livro.reservas;
+            if (fila != null && fila.temAguardando()) {
+                throw new IllegalStateException("Livro id=" + livroIds[i] + " tem reservas na fila; reserve-o para entrar nela.");
+            }
+            livros[i] = livro;
+        }
+        // outro balcão pode levar um exemplar entre a validação e a retirada: devolve os já retirados
+        for (int i = 0; i < livros.length; i++) {
+            if (!livros[i].retirarExemplar()) {
+                devolverExemplares(livros, i);
+                throw new IllegalStateException("Livro id=" + livroIds[i] + " não está disponível para empréstimo.");
+            }
+        }
+        List<Emprestimo> lote = registrarEmprestimos(livros, nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+        concluirOperacao();
+        return lote;
+    }
+
+    private static void devolverExemplares(Livro[] livros, int quantidade) {
+        for (int i = 0; i < quantidade; i++) livros[i].devolverExemplar();
+    }
+
+    // os exemplares já foram retirados; voltam ao contador se o registro falhar
+    private List<Emprestimo> registrarEmprestimos(Livro[] livros, String nomeCliente, LocalDate dataEmprestimo,
+                                                  LocalDate dataPrevistaDevolucao) {
+        int n = livros.length;
+        Emprestimo[] preparados = new Emprestimo[n];
+        List<Emprestimo> lote = Collections.unmodifiableList(Arrays.asList(preparados));
+        int diaPrevisto = Datas.dia(dataPrevistaDevolucao);
+        synchronized (registroEmprestimos) {
+            int primeiroId;
+            try {
+                int passo = passoEmprestimoId;
+                if (proximoEmprestimoId + (long) (n - 1) * passo > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Sequência de ids de empréstimo esgotada.");
+                }
+                primeiroId = (int) proximoEmprestimoId;
+                proximoEmprestimoId += (long) n * passo; // mesmo se falhar: o diário pode já ter gravado os ids
+                IndiceClientes.Grafia cliente = indiceClientes.grafia(nomeCliente.trim());
+                int diaEmprestimo = Datas.dia(dataEmprestimo);
+                for (int i = 0; i < n; i++) {
+                    preparados[i] = emprestimos.preparar(i, primeiroId + i * passo, livros[i], cliente, diaEmprestimo, diaPrevisto);
+                }
+                for (OuvinteBiblioteca o : ouvintes) o.aoEmprestarLote(lote);
+            } catch (RuntimeException e) {
+                devolverExemplares(livros, n);
+                throw e;
+            }
+            int posicao = emprestimos.publicar(n);
+            for (int i = 0; i < n; i++) {
+                indiceClientes.registrar(preparados[i], posicao + i);
+                vencimentos.inserir(posicao + i, diaPrevisto);
+                emprestimosPorId.inserirSeAusente(preparados[i].getId(), posicao + i);
+            }
+        }
+        return lote;
+    }
+
+    /** Empréstimo com o prazo padrão de {@value Emprestimo#PRAZO_PADRAO_DIAS} dias. */
+    public Emprestimo emprestarLivro(int emprestimoId, int livroId, String nomeCliente, LocalDate dataEmprestimo) {
+        return emprestarLivro(emprestimoId, livroId, nomeCliente, dataEmprestimo,
+                dataEmprestimo == null ? null : dataEmprestimo.plusDays(Emprestimo.PRAZO_PADRAO_DIAS));
+    }
+
+    public Emprestimo emprestarLivro(int emprestimoId, int livroId, String nomeCliente, LocalDate dataEmprestimo,
+                                     LocalDate dataPrevistaDevolucao) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            if (emprestimosPorId.contem(emprestimoId)) {
+                throw new IllegalArgumentException("Já existe empréstimo com id=" + emprestimoId);
+            }
+
+            Livro livro = livroExistente(livroId);
+
+            if (!livro.isDisponivel()) {
+                throw new IllegalStateException("Livro id=" + livroId + " não está disponível para empréstimo.");
+            }
+            FilaReservas fila = livro.reservas;
+            if (fila != null && fila.temAguardando()) {
+                throw new IllegalStateException("Livro id=" + livroId + " tem reservas na fila; reserve-o para entrar nela.");
+            }
+
+            Emprestimo.validar(emprestimoId, livro, nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+
+            // compare-and-set no contador de exemplares: de dois balcões disputando o último exemplar, só um vence
+            if (!livro.retirarExemplar()) {
+                throw new IllegalStateException("Livro id=" + livroId + " não está disponível para empréstimo.");
+            }
+            Emprestimo emprestimo = registrarEmprestimo(emprestimoId, livro, nomeCliente, dataEmprestimo,
+                    dataPrevistaDevolucao, livro::devolverExemplar);
+            concluirOperacao();
+            return emprestimo;
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EMPRESTAR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EMPRESTAR, inicio);
+        }
+    }
+
+    // o exemplar já foi reservado para o empréstimo; 'desfazer' o devolve se o registro falhar.
+    // Os dados já foram validados; o empréstimo vai direto para as colunas do histórico.
+    // Ids informados por quem chama avançam a sequência, para que ela nunca gere um id já usado;
+    // os de registros desfeitos também, pois o diário pode já tê-los gravado.
+    private Emprestimo registrarEmprestimo(int emprestimoId, Livro livro, String nomeCliente, LocalDate dataEmprestimo,
+                                           LocalDate dataPrevistaDevolucao, Runnable desfazer) {
+        synchronized (registroEmprestimos) {
+            Emprestimo emprestimo;
+            try {
+                if (emprestimoId == ID_DA_SEQUENCIA) {
+                    if (proximoEmprestimoId > Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Sequência de ids de empréstimo esgotada.");
+                    }
+                    emprestimoId = (int) proximoEmprestimoId;
+                    proximoEmprestimoId += passoEmprestimoId;
+                } else if (emprestimosPorId.contem(emprestimoId)) {
+                    throw new IllegalArgumentException("Já existe empréstimo com id=" + emprestimoId);
+                } else if (emprestimoId >= proximoEmprestimoId) {
+                    // o primeiro id da sequência (mesmo resto pelo passo) maior que o informado
+                    proximoEmprestimoId = emprestimoId + 1 + Math.floorMod(proximoEmprestimoId - emprestimoId - 1, passoEmprestimoId);
+                }
+                emprestimo = emprestimos.preparar(emprestimoId, livro, indiceClientes.grafia(nomeCliente.trim()),
+                        Datas.dia(dataEmprestimo), Datas.dia(dataPrevistaDevolucao));
+                // ouvintes antes da publicação: nenhuma devolução deste empréstimo pode ser registrada antes dele
+                for (OuvinteBiblioteca o : ouvintes) o.aoEmprestar(emprestimo);
+            } catch (RuntimeException e) {
+                desfazer.run();
+                throw e;
+            }
+            // histórico e índice de clientes antes do mapa: quem acha o empréstimo pelo id (ex.: para devolver) já o acha no índice
+            int posicao = emprestimos.publicar();
+            indiceClientes.registrar(emprestimo, posicao);
+            vencimentos.inserir(posicao, emprestimo.diaPrevisto());
+            emprestimosPorId.inserirSeAusente(emprestimoId, posicao);
+            return emprestimo;
+        }
     }
 
     public void devolverLivro(int emprestimoId, LocalDate dataDevolucao) {
-        Emprestimo e = buscarEmprestimoPorId(emprestimoId)
-                .orElseThrow(() -> new NoSuchElementException("Empréstimo id=" + emprestimoId + " não encontrado."));
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Emprestimo e = emprestimoExistente(emprestimoId);
+
+            if (!e.registrarDevolucao(Objects.requireNonNull(dataDevolucao, "dataDevolucao é obrigatória."))) {
+                throw new IllegalStateException("Empréstimo id=" + emprestimoId + " já foi devolvido.");
+            }
+            // ouvintes antes de liberar o livro: um novo empréstimo dele só é registrado depois desta devolução
+            try {
+                for (OuvinteBiblioteca o : ouvintes) o.aoDevolver(e);
+            } catch (RuntimeException falha) {
+                e.desfazerDevolucao();
+                throw falha;
+            }
+            indiceClientes.devolvido(e);
+            vencimentos.remover(e.getPosicao());
+            liberarExemplar(e.getLivro(), dataDevolucao);
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.DEVOLVER, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.DEVOLVER, inicio);
+        }
+    }
 
-        if (e.isDevolvido()) {
-            throw new IllegalStateException("Empréstimo id=" + emprestimoId + " já foi devolvido.");
+    /**
+     * Devolve vários empréstimos de uma vez: ou todos, ou nenhum (se um deles não
+     * existir, já estiver devolvido ou se repetir no lote, nada muda). Os ouvintes são
+     * avisados uma vez, com o lote inteiro, antes de qualquer exemplar ser liberado.
+     */
+    public void devolverLivros(int[] emprestimoIds, LocalDate dataDevolucao) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Objects.requireNonNull(emprestimoIds, "emprestimoIds é obrigatório.");
+            Objects.requireNonNull(dataDevolucao, "dataDevolucao é obrigatória.");
+            if (emprestimoIds.length == 0) throw new IllegalArgumentException("O lote deve ter ao menos um empréstimo.");
+            int[] ordenados = emprestimoIds.clone();
+            Arrays.sort(ordenados);
+            for (int i = 1; i < ordenados.length; i++) {
+                if (ordenados[i] == ordenados[i - 1]) {
+                    throw new IllegalArgumentException("Empréstimo id=" + ordenados[i] + " repetido no lote.");
+                }
+            }
+            Emprestimo[] devolvidos = new Emprestimo[emprestimoIds.length];
+            for (int i = 0; i < devolvidos.length; i++) {
+                devolvidos[i] = emprestimoExistente(emprestimoIds[i]);
+                if (devolvidos[i].isDevolvido()) {
+                    throw new IllegalStateException("Empréstimo id=" + emprestimoIds[i] + " já foi devolvido.");
+                }
+            }
+            // compare-and-set em cada um (outro balcão pode devolver no meio); qualquer falha desfaz as anteriores
+            int registradas = 0;
+            try {
+                for (; registradas < devolvidos.length; registradas++) {
+                    if (!devolvidos[registradas].registrarDevolucao(dataDevolucao)) {
+                        throw new IllegalStateException("Empréstimo id=" + emprestimoIds[registradas] + " já foi devolvido.");
+                    }
+                }
+                List<Emprestimo> lote = Collections.unmodifiableList(Arrays.asList(devolvidos));
+                for (OuvinteBiblioteca o : ouvintes) o.aoDevolverLote(lote);
+            } catch (RuntimeException falha) {
+                for (int i = 0; i < registradas; i++) devolvidos[i].desfazerDevolucao();
+                throw falha;
+            }
+            for (Emprestimo e : devolvidos) {
+                indiceClientes.devolvido(e);
+                vencimentos.remover(e.getPosicao());
+                liberarExemplar(e.getLivro(), dataDevolucao);
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.DEVOLVER_LOTE, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.DEVOLVER_LOTE, inicio);
         }
+    }
+
+    // ---------- Reservas ----------
+    /**
+     * Entra na fila de reservas do livro. Se houver exemplar livre e ninguém na frente,
+     * ele já é separado para o cliente. Cada cliente tem no máximo uma reserva ativa por livro.
+     */
+    public Reserva reservarLivro(int livroId, String nomeCliente, LocalDate dataReserva) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Livro livro = livroExistente(livroId);
+            Reserva reserva = new Reserva(proximaReserva.incrementAndGet(), livro, nomeCliente, dataReserva);
+            FilaReservas fila = filaReservas(livro);
+            reservasPorId.put(reserva.getId(), reserva);
+            try {
+                fila.adicionar(reserva, r -> {
+                    for (OuvinteBiblioteca o : ouvintes) o.aoReservar(r);
+                });
+            } catch (RuntimeException e) {
+                reservasPorId.remove(reserva.getId());
+                throw e;
+            }
+            // uma devolução que não viu a fila pode ter acabado de liberar um exemplar
+            distribuirExemplares(livro, fila, dataReserva);
+            concluirOperacao();
+            return reserva;
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.RESERVAR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.RESERVAR, inicio);
+        }
+    }
+
+    /**
+     * Retira o exemplar separado para a reserva, registrando um empréstimo comum
+     * (com o prazo padrão) no lugar dela.
+     */
+    public Emprestimo retirarReserva(int reservaId, int emprestimoId, LocalDate dataEmprestimo) {
+        return retirar(reservaId, emprestimoId, false, dataEmprestimo);
+    }
+
+    /** Como {@link #retirarReserva(int, int, LocalDate)}, com o id do empréstimo gerado pela sequência. */
+    public Emprestimo retirarReserva(int reservaId, LocalDate dataEmprestimo) {
+        return retirar(reservaId, ID_DA_SEQUENCIA, true, dataEmprestimo);
+    }
+
+    private Emprestimo retirar(int reservaId, int emprestimoId, boolean daSequencia, LocalDate dataEmprestimo) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Reserva reserva = reservaAtiva(reservaId);
+            Livro livro = reserva.getLivro();
+            FilaReservas fila = livro.reservas;
+            LocalDate dataPrevista = dataEmprestimo == null ? null : dataEmprestimo.plusDays(Emprestimo.PRAZO_PADRAO_DIAS);
+            if (daSequencia) {
+                Emprestimo.validarDados(reserva.getNomeCliente(), dataEmprestimo, dataPrevista);
+            } else {
+                Emprestimo.validar(emprestimoId, livro, reserva.getNomeCliente(), dataEmprestimo, dataPrevista);
+                if (emprestimosPorId.contem(emprestimoId)) {
+                    throw new IllegalArgumentException("Já existe empréstimo com id=" + emprestimoId);
+                }
+            }
+            if (!fila.concluir(reserva, Reserva.Situacao.SEPARADA, Reserva.Situacao.ATENDIDA)) {
+                throw new IllegalStateException("Reserva id=" + reservaId + " não tem exemplar separado (situação: "
+                        + reserva.getSituacao() + ").");
+            }
+            // o exemplar já estava fora do contador: se o registro falhar, ele volta a ficar separado
+            Emprestimo emprestimo = registrarEmprestimo(emprestimoId, livro, reserva.getNomeCliente(), dataEmprestimo,
+                    dataPrevista, () -> {
+                fila.restaurarSeparada(reserva);
+                synchronized (reservasSeparadas) {
+                    reservasSeparadas.add(reserva); // a expiração pode ter descartado a entrada anterior
+                }
+            });
+            reservasPorId.remove(reservaId);
+            for (OuvinteBiblioteca o : ouvintes) o.aoEncerrarReserva(reserva);
+            concluirOperacao();
+            return emprestimo;
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.RETIRAR_RESERVA, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.RETIRAR_RESERVA, inicio);
+        }
+    }
+
+    /** Cancela a reserva; se ela tinha exemplar separado, ele segue para a próxima da fila. */
+    public void cancelarReserva(int reservaId, LocalDate data) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Reserva reserva = reservaAtiva(reservaId);
+            FilaReservas fila = reserva.getLivro().reservas;
+            if (fila.concluir(reserva, Reserva.Situacao.AGUARDANDO, Reserva.Situacao.CANCELADA)) {
+                reservasPorId.remove(reservaId);
+                for (OuvinteBiblioteca o : ouvintes) o.aoEncerrarReserva(reserva);
+            } else if (fila.concluir(reserva, Reserva.Situacao.SEPARADA, Reserva.Situacao.CANCELADA)) {
+                reservasPorId.remove(reservaId);
+                for (OuvinteBiblioteca o : ouvintes) o.aoEncerrarReserva(reserva);
+                liberarExemplar(reserva.getLivro(), data);
+            } else {
+                throw new IllegalStateException("Reserva id=" + reservaId + " já foi encerrada (situação: "
+                        + reserva.getSituacao() + ").");
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.CANCELAR_RESERVA, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.CANCELAR_RESERVA, inicio);
+        }
+    }
+
+    /** Reservas ativas (ainda não retiradas, canceladas ou expiradas). */
+    public Optional<Reserva> buscarReservaPorId(int id) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            return Optional.ofNullable(reservasPorId.get(id));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.BUSCAR_RESERVA_POR_ID, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.BUSCAR_RESERVA_POR_ID, inicio);
+        }
+    }
+
+    /** Reservas ativas do livro: primeiro as com exemplar separado, depois a fila em ordem de chegada. */
+    public List<Reserva> listarReservas(int livroId) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Livro livro = livroExistente(livroId);
+            FilaReservas fila = livro.reservas;
+            return fila == null ? List.of() : fila.listar();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_RESERVAS, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_RESERVAS, inicio);
+        }
+    }
+
+    /**
+     * Expira as reservas separadas cujo prazo de retirada é anterior a {@code data},
+     * passando cada exemplar para a próxima reserva da fila (ou de volta à prateleira).
+     * Custo O(k log n) para k reservas vencidas.
+     *
+     * @return quantidade de reservas expiradas
+     */
+    public int expirarReservas(LocalDate data) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Objects.requireNonNull(data, "data é obrigatória.");
+            int expiradas = 0;
+            while (true) {
+                Reserva r;
+                synchronized (reservasSeparadas) {
+                    r = reservasSeparadas.peek();
+                    if (r == null || !r.getPrazoRetirada().isBefore(data)) return expiradas;
+                    reservasSeparadas.poll();
+                }
+                // retiradas e canceladas já saíram da situação SEPARADA: só são descartadas aqui
+                if (r.getLivro().reservas.concluir(r, Reserva.Situacao.SEPARADA, Reserva.Situacao.EXPIRADA)) {
+                    reservasPorId.remove(r.getId());
+                    for (OuvinteBiblioteca o : ouvintes) o.aoEncerrarReserva(r);
+                    liberarExemplar(r.getLivro(), data);
+                    expiradas++;
+                    concluirOperacao();
+                }
+            }
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.EXPIRAR_RESERVAS, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.EXPIRAR_RESERVAS, inicio);
+        }
+    }
+
+    /**
+     * Um exemplar saiu de um empréstimo ou de uma reserva: vai direto para a primeira
+     * reserva da fila, se houver, ou volta ao contador de disponíveis.
+     */
+    private void liberarExemplar(Livro livro, LocalDate data) {
+        FilaReservas fila = livro.reservas;
+        if (fila == null) {
+            livro.devolverExemplar();
+            fila = livro.reservas; // uma reserva pode ter criado a fila enquanto isso
+            if (fila != null) distribuirExemplares(livro, fila, data);
+        } else if (!entregarExemplar(fila, data)) {
+            livro.devolverExemplar();
+            distribuirExemplares(livro, fila, data); // uma reserva pode ter entrado depois da entrega acima
+        }
+    }
+
+    // retira exemplares livres do contador enquanto houver reservas aguardando
+    private void distribuirExemplares(Livro livro, FilaReservas fila, LocalDate data) {
+        while (fila.temAguardando() && livro.retirarExemplar()) {
+            if (!entregarExemplar(fila, data)) {
+                livro.devolverExemplar(); // a fila esvaziou no meio (ex.: cancelamento)
+                return;
+            }
+        }
+    }
+
+    private boolean entregarExemplar(FilaReservas fila, LocalDate data) {
+        Reserva r = fila.entregar(data.plusDays(PRAZO_RETIRADA_RESERVA_DIAS));
+        if (r == null) return false;
+        synchronized (reservasSeparadas) {
+            reservasSeparadas.add(r);
+        }
+        // fora do monitor da fila: um encerramento simultâneo pode chegar aos ouvintes antes desta separação
+        for (OuvinteBiblioteca o : ouvintes) o.aoSepararReserva(r);
+        return true;
+    }
+
+    private static FilaReservas filaReservas(Livro livro) {
+        FilaReservas fila = livro.reservas;
+        if (fila == null) {
+            synchronized (livro) {
+                fila = livro.reservas;
+                if (fila == null) livro.reservas = fila = new FilaReservas();
+            }
+        }
+        return fila;
+    }
+
+    // ---------- Reservas: persistência ----------
+    /**
+     * Todas as reservas ativas; as de cada livro na ordem de {@link #listarReservas}.
+     * Lidas sem bloqueio (ex.: para um instantâneo): uma reserva pode mudar de situação
+     * logo depois de listada.
+     */
+    public List<Reserva> listarReservasAtivas() {
+        Set<Livro> livrosComReserva = new LinkedHashSet<>();
+        for (Reserva r : reservasPorId.values()) livrosComReserva.add(r.getLivro());
+        List<Reserva> ativas = new ArrayList<>();
+        for (Livro livro : livrosComReserva) ativas.addAll(livro.reservas.listar());
+        return ativas;
+    }
+
+    /** O maior id de reserva já gerado (0 se nenhum). */
+    public int getUltimoIdReserva() {
+        return proximaReserva.get();
+    }
+
+    /** Garante que as próximas reservas recebam ids maiores que {@code ultimoId}. */
+    public void avancarSequenciaReservas(int ultimoId) {
+        proximaReserva.accumulateAndGet(ultimoId, Math::max);
+    }
+
+    /**
+     * Reinstala uma reserva ativa lida do diário ou de um instantâneo, sem avisar os
+     * ouvintes; as de um livro devem vir na ordem da fila. Com {@code prazoRetirada},
+     * ela volta separada e leva um exemplar do contador de disponíveis (se não houver
+     * exemplar livre, porque a retirada se perdeu numa queda, ela volta a aguardar).
+     */
+    public Reserva restaurarReserva(int reservaId, int livroId, String nomeCliente, LocalDate dataReserva,
+                                    LocalDate prazoRetirada) {
+        if (reservaId <= 0) throw new IllegalArgumentException("reservaId deve ser positivo.");
+        if (reservasPorId.containsKey(reservaId)) {
+            throw new IllegalArgumentException("Já existe reserva com id=" + reservaId);
+        }
+        Livro livro = livroExistente(livroId);
+        Reserva reserva = new Reserva(reservaId, livro, nomeCliente, dataReserva);
+        LocalDate prazo = prazoRetirada != null && livro.retirarExemplar() ? prazoRetirada : null;
+        try {
+            filaReservas(livro).restaurar(reserva, prazo);
+        } catch (RuntimeException e) {
+            if (prazo != null) livro.devolverExemplar();
+            throw e;
+        }
+        reservasPorId.put(reservaId, reserva);
+        if (prazo != null) {
+            synchronized (reservasSeparadas) {
+                reservasSeparadas.add(reserva);
+            }
+        }
+        avancarSequenciaReservas(reservaId);
+        return reserva;
+    }
+
+    /**
+     * Altera a data prevista de devolução de um empréstimo em aberto (renovação).
+     * A nova data não pode ser anterior ao empréstimo.
+     */
+    public void prorrogarEmprestimo(int emprestimoId, LocalDate novaDataPrevista) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            Emprestimo e = emprestimoExistente(emprestimoId);
+            Emprestimo.validarPrazo(e.getDataEmprestimo(), novaDataPrevista);
+            // serializado com o registro de empréstimos: duas prorrogações simultâneas chegam aos ouvintes na ordem aplicada
+            synchronized (registroEmprestimos) {
+                if (e.isDevolvido()) {
+                    throw new IllegalStateException("Empréstimo id=" + emprestimoId + " já foi devolvido.");
+                }
+                LocalDate anterior = e.getDataPrevistaDevolucao();
+                e.alterarDataPrevistaDevolucao(novaDataPrevista);
+                try {
+                    for (OuvinteBiblioteca o : ouvintes) o.aoProrrogar(e);
+                } catch (RuntimeException falha) {
+                    e.alterarDataPrevistaDevolucao(anterior);
+                    throw falha;
+                }
+                vencimentos.alterar(e.getPosicao(), Datas.dia(novaDataPrevista));
+            }
+            concluirOperacao();
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.PRORROGAR, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.PRORROGAR, inicio);
+        }
+    }
+
+    // ---------- Atrasos ----------
+    /**
+     * Empréstimos em aberto cuja data prevista de devolução é anterior a {@code data},
+     * do vencimento mais antigo para o mais recente. Consulta a fila de vencimentos:
+     * o custo é O(k log k) para k atrasados, independente do histórico.
+     */
+    public List<Emprestimo> listarEmprestimosAtrasados(LocalDate data) {
+        Metricas metricas = this.metricas;
+        long inicio = metricas.iniciar();
+        try {
+            int[] posicoes = vencimentos.vencidosAntesDe((int) Objects.requireNonNull(data, "data é obrigatória.").toEpochDay());
+            // só os em aberto: devolução em andamento ainda não refletida na fila
+            return emprestimosNasPosicoes(posicoes, true,
+                    Comparator.comparingInt(Emprestimo::diaPrevisto).thenComparingInt(Emprestimo::getPosicao));
+        } catch (RuntimeException e) {
+            metricas.falhou(Operacao.LISTAR_ATRASADOS, e);
+            throw e;
+        } finally {
+            metricas.registrar(Operacao.LISTAR_ATRASADOS, inicio);
+        }
+    }
+
+    public int contarEmprestimosEmAberto() {
+        return vencimentos.tamanho();
+    }
 
-        e.setDataDevolucao(Objects.requireNonNull(dataDevolucao, "dataDevolucao é obrigatória."));
-        e.getLivro().setDisponivel(true);
+    private void concluirOperacao() {
+        for (OuvinteBiblioteca o : ouvintes) o.aposOperacao();
     }
 }
@@ -0,0 +1,163 @@
+package br.com.livraria.model;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resultados de {@link Biblioteca#buscarLivrosPorTitulo} por chave do termo
+ * ({@link NormalizadorTexto#chave}), limitados em entradas e em livros referenciados,
+ * com despejo do menos usado recentemente (LRU) e validade (TTL).
+ *
+ * Só guarda referências aos livros: disponibilidade e exemplares são lidos do próprio
+ * {@link Livro}, então empréstimos e devoluções não invalidam nada. Já o cadastro de
+ * um livro e a troca de título invalidam exatamente os termos contidos no título
+ * (novo ou anterior), os únicos cujo resultado pode mudar.
+ *
+ * Acertos não bloqueiam (um {@link ConcurrentHashMap} e a data do último acesso);
+ * inserção, despejo e invalidação são serializados pelo monitor do cache. Para um
+ * resultado calculado durante uma invalidação não entrar no cache já velho, quem
+ * calcula lê {@link #geracao()} antes e {@link #guardar} descarta o resultado se
+ * alguma invalidação aconteceu nesse meio tempo.
+ */
+final class CacheBuscas {
+
+    /** Cache que não guarda nada (capacidade zero). */
+    static final CacheBuscas DESATIVADO = new CacheBuscas(0, Duration.ZERO);
+
+    /** Livros referenciados, no total, por entrada admitida: limita a memória de termos muito genéricos. */
+    private static final int REFERENCIAS_POR_ENTRADA = 1024;
+
+    private static final class Entrada {
+        final String termo;
+        final List<Livro> livros;
+        final long assinatura;
+        final long criadaEm;
+        volatile long ultimoAcesso;
+
+        Entrada(String termo, List<Livro> livros, long agora) {
+            this.termo = termo;
+            this.livros = livros;
+            this.assinatura = assinatura(termo);
+            this.criadaEm = agora;
+            this.ultimoAcesso = agora;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final int capacidade;
+    private final long maximoReferencias;
+    private final long validadeNanos;
+    private volatile long geracao;      // alterada só com o monitor
+    private long referencias;           // idem
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder despejos = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+
+    CacheBuscas(int capacidade, Duration validade) {
+        if (capacidade < 0) throw new IllegalArgumentException("capacidade não pode ser negativa.");
+        if (validade.isNegative()) throw new IllegalArgumentException("validade não pode ser negativa.");
+        this.capacidade = capacidade;
+        this.maximoReferencias = (long) capacidade * REFERENCIAS_POR_ENTRADA;
+        this.validadeNanos = validade.toNanos();
+    }
+
+    /** O resultado guardado para o termo, ou {@code null} (falta ou expirado). */
+    List<Livro> obter(String termo) {
+        if (capacidade == 0) return null;
+        Entrada e = entradas.get(termo);
+        if (e == null) {
+            faltas.increment();
+            return null;
+        }
+        long agora = System.nanoTime();
+        if (agora - e.criadaEm > validadeNanos) {
+            synchronized (this) {
+                remover(e);
+            }
+            expiradas.increment();
+            faltas.increment();
+            return null;
+        }
+        e.ultimoAcesso = agora;
+        acertos.increment();
+        return e.livros;
+    }
+
+    long geracao() {
+        return geracao;
+    }
+
+    /** Guarda o resultado calculado a partir do estado visto em {@code geracaoLida}. */
+    void guardar(String termo, List<Livro> livros, long geracaoLida) {
+        if (capacidade == 0 || livros.size() > maximoReferencias) return;
+        synchronized (this) {
+            if (geracao != geracaoLida) return; // o catálogo mudou durante o cálculo
+            Entrada nova = new Entrada(termo, livros, System.nanoTime());
+            Entrada anterior = entradas.put(termo, nova);
+            if (anterior != null) referencias -= anterior.livros.size();
+            referencias += livros.size();
+            while (entradas.size() > capacidade || referencias > maximoReferencias) {
+                despejarMenosRecente();
+                despejos.increment();
+            }
+        }
+    }
+
+    /**
+     * Um livro foi cadastrado ({@code chaveAnterior} nula) ou trocou de título: descarta
+     * os termos contidos na chave de algum dos dois títulos. Chamado com o lock de escrita
+     * do catálogo, depois de atualizar o índice de títulos.
+     */
+    void invalidar(String chaveAnterior, String chaveNova) {
+        if (capacidade == 0) return;
+        synchronized (this) {
+            geracao++;
+            if (entradas.isEmpty()) return;
+            long assinaturaNova = assinatura(chaveNova);
+            long assinaturaAnterior = chaveAnterior == null ? 0 : assinatura(chaveAnterior);
+            for (Entrada e : entradas.values()) {
+                if (contem(chaveNova, assinaturaNova, e)
+                        || (chaveAnterior != null && contem(chaveAnterior, assinaturaAnterior, e))) {
+                    remover(e);
+                    invalidacoes.increment();
+                }
+            }
+        }
+    }
+
+    Biblioteca.EstatisticasCacheBuscas estatisticas() {
+        return new Biblioteca.EstatisticasCacheBuscas(acertos.sum(), faltas.sum(), expiradas.sum(),
+                despejos.sum(), invalidacoes.sum(), entradas.size(), capacidade);
+    }
+
+    // ---------- Internos (com o monitor) ----------
+    private void remover(Entrada e) {
+        if (entradas.remove(e.termo, e)) referencias -= e.livros.size();
+    }
+
+    // varredura O(capacidade): só no caminho de inserção, que já pagou uma busca no índice
+    private void despejarMenosRecente() {
+        Entrada menos = null;
+        for (Entrada e : entradas.values()) {
+            if (menos == null || e.ultimoAcesso - menos.ultimoAcesso < 0) menos = e;
+        }
+        remover(menos);
+    }
+
+    // a assinatura descarta de cara quase todos os termos que não podem estar no título
+    private static boolean contem(String chaveTitulo, long assinaturaTitulo, Entrada e) {
+        return (e.assinatura & ~assinaturaTitulo) == 0 && chaveTitulo.contains(e.termo);
+    }
+
+    /** Um bit (de 64) por caractere presente: se o texto contém o termo, tem todos os bits dele. */
+    private static long assinatura(String s) {
+        long bits = 0;
+        for (int i = 0; i < s.length(); i++) bits |= 1L << s.charAt(i);
+        return bits;
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.livraria.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Conjunto de posições em bitset de dois níveis, seguro para uso concorrente.
+ * O bitset é dividido em segmentos de 4096 bits; cada segmento tem um resumo de
+ * 64 bits indicando quais palavras têm algum bit ligado. Percorrer o conjunto
+ * custa O(n / 4096 + k) para k posições presentes, e a contagem é mantida a
+ * cada alteração, custando O(1).
+ *
+ * Os segmentos nunca são substituídos (só o diretório cresce), de modo que
+ * alterações concorrentes com o crescimento não se perdem.
+ */
+final class ConjuntoBits {
+
+    private static final int PALAVRAS_POR_SEGMENTO = 64;
+
+    private static final class Segmento {
+        final AtomicLongArray palavras = new AtomicLongArray(PALAVRAS_POR_SEGMENTO);
+        final AtomicLong resumo = new AtomicLong();
+    }
+
+    private volatile Segmento[] segmentos = new Segmento[0];
+    private final AtomicInteger quantidade = new AtomicInteger();
+
+    int quantidade() {
+        return quantidade.get();
+    }
+
+    boolean contem(int pos) {
+        Segmento[] s = segmentos;
+        int seg = pos >>> 12;
+        return seg < s.length && (s[seg].palavras.get((pos >>> 6) & 63) & (1L << pos)) != 0;
+    }
+
+    void adicionar(int pos) {
+        Segmento s = segmento(pos);
+        int w = (pos >>> 6) & 63;
+        long bit = 1L << pos;
+        long antes;
+        do {
+            antes = s.palavras.get(w);
+        } while ((antes & bit) == 0 && !s.palavras.compareAndSet(w, antes, antes | bit));
+        if ((antes & bit) != 0) return;
+        quantidade.incrementAndGet();
+        if (antes == 0) ajustarResumo(s, w);
+    }
+
+    void remover(int pos) {
+        Segmento[] todos = segmentos;
+        int seg = pos >>> 12;
+        if (seg >= todos.length) return;
+        Segmento s = todos[seg];
+        int w = (pos >>> 6) & 63;
+        long bit = 1L << pos;
+        long antes;
+        do {
+            antes = s.palavras.get(w);
+        } while ((antes & bit) != 0 && !s.palavras.compareAndSet(w, antes, antes & ~bit));
+        if ((antes & bit) == 0) return;
+        quantidade.decrementAndGet();
+        if (antes == bit) ajustarResumo(s, w);
+    }
+
+    /**
+     * Faz o bit de resumo refletir se a palavra está vazia. Repete enquanto a
+     * palavra mudar de estado (vazia/não vazia) durante o ajuste, para que uma
+     * escrita concorrente nunca deixe o resumo desatualizado.
+     */
+    private static void ajustarResumo(Segmento s, int w) {
+        long bit = 1L << w;
+        boolean vazia;
+        do {
+            vazia = s.palavras.get(w) == 0;
+            long r;
+            do {
+                r = s.resumo.get();
+            } while (!s.resumo.compareAndSet(r, vazia ? r & ~bit : r | bit));
+        } while ((s.palavras.get(w) == 0) != vazia);
+    }
+
+    /** Copia as posições presentes, em ordem crescente. */
+    int[] posicoes() {
+        Segmento[] todos = segmentos;
+        int[] resultado = new int[Math.max(16, quantidade.get())];
+        int n = 0;
+        for (int seg = 0; seg < todos.length; seg++) {
+            Segmento s = todos[seg];
+            long bitsResumo = s.resumo.get();
+            while (bitsResumo != 0) {
+                int w = Long.numberOfTrailingZeros(bitsResumo);
+                bitsResumo &= bitsResumo - 1;
+                long bits = s.palavras.get(w);
+                int base = (seg << 12) + (w << 6);
+                while (bits != 0) {
+                    if (n == resultado.length) resultado = Arrays.copyOf(resultado, n << 1);
+                    resultado[n++] = base + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private Segmento segmento(int pos) {
+        int seg = pos >>> 12;
+        Segmento[] s = segmentos;
+        if (seg < s.length) return s[seg];
+        synchronized (this) {
+            s = segmentos;
+            if (seg >= s.length) {
+                Segmento[] novo = Arrays.copyOf(s, Math.max(seg + 1, s.length << 1));
+                for (int i = s.length; i < novo.length; i++) novo[i] = new Segmento();
+                segmentos = novo;
+                s = novo;
+            }
+            return s[seg];
+        }
+    }
+}
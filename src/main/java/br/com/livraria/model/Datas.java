@@ -0,0 +1,59 @@
+package br.com.livraria.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Datas em primitivos, para o modelo não guardar um objeto de data por registro:
+ * dias desde a época em {@code int} ({@link LocalDate#toEpochDay()}) e data/hora
+ * local em milissegundos desde a época num {@code long}, como se o fuso fosse UTC
+ * (o mesmo relógio de parede de {@link LocalDateTime#now()}, sem o fuso junto).
+ */
+final class Datas {
+
+    /** Dia que representa "sem data" (ex.: empréstimo ainda não devolvido). */
+    static final int SEM_DATA = Integer.MIN_VALUE;
+
+    /** Deslocamento do fuso padrão, válido entre duas transições (horário de verão). */
+    private record Fuso(long de, long ate, long deslocamentoMs) { }
+
+    private static volatile Fuso fuso;
+
+    private Datas() { }
+
+    static int dia(LocalDate data) {
+        return data == null ? SEM_DATA : Math.toIntExact(data.toEpochDay());
+    }
+
+    static LocalDate data(int dia) {
+        return dia == SEM_DATA ? null : LocalDate.ofEpochDay(dia);
+    }
+
+    /** Agora, no relógio local, em milissegundos; sem alocar fora das trocas de fuso. */
+    static long agora() {
+        long ms = System.currentTimeMillis();
+        Fuso f = fuso;
+        if (f == null || ms < f.de || ms >= f.ate) fuso = f = fusoEm(ms);
+        return ms + f.deslocamentoMs;
+    }
+
+    static LocalDateTime dataHora(long msLocal) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(msLocal, 1000L),
+                (int) Math.floorMod(msLocal, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static Fuso fusoEm(long ms) {
+        ZoneRules regras = ZoneId.systemDefault().getRules();
+        Instant instante = Instant.ofEpochMilli(ms);
+        ZoneOffsetTransition anterior = regras.previousTransition(instante);
+        ZoneOffsetTransition proxima = regras.nextTransition(instante);
+        return new Fuso(anterior == null ? Long.MIN_VALUE : anterior.toEpochSecond() * 1000L,
+                proxima == null ? Long.MAX_VALUE : proxima.toEpochSecond() * 1000L,
+                regras.getOffset(instante).getTotalSeconds() * 1000L);
+    }
+}
@@ -6,56 +6,138 @@ import java.util.Objects;
 /**
  * Representa um empréstimo de livro no sistema de livraria.
  * Campos obrigatórios: id, livro, nomeCliente, dataEmprestimo.
+ * dataPrevistaDevolucao é, por padrão, {@value #PRAZO_PADRAO_DIAS} dias após o empréstimo.
  * dataDevolucao pode ser nula se o livro ainda não foi devolvido.
  */
 public class Emprestimo {
 
-    private final int id;              // Identificador único do empréstimo
-    private Livro livro;               // Livro emprestado
-    private String nomeCliente;        // Nome do cliente que pegou o livro
-    private LocalDate dataEmprestimo;  // Data do empréstimo
-    private LocalDate dataDevolucao;   // Data da devolução (pode ser nula)
+    public static final int PRAZO_PADRAO_DIAS = 14;
+
+    // Os dados ficam nas colunas do histórico da biblioteca (HistoricoEmprestimos); o objeto é
+    // só a posição deles. Um empréstimo criado fora da biblioteca tem um bloco de uma posição.
+    private final HistoricoEmprestimos.Bloco bloco;
+    private final int indice;
 
     public Emprestimo(int id, Livro livro, String nomeCliente, LocalDate dataEmprestimo) {
+        this(id, livro, nomeCliente, dataEmprestimo,
+                dataEmprestimo == null ? null : dataEmprestimo.plusDays(PRAZO_PADRAO_DIAS));
+    }
+
+    public Emprestimo(int id, Livro livro, String nomeCliente, LocalDate dataEmprestimo, LocalDate dataPrevistaDevolucao) {
+        validar(id, livro, nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+        this.bloco = new HistoricoEmprestimos.Bloco(-1, 1);
+        this.indice = 0;
+        bloco.gravar(0, id, livro, new IndiceClientes.Grafia(nomeCliente.trim(), null),
+                Datas.dia(dataEmprestimo), Datas.dia(dataPrevistaDevolucao));
+    }
+
+    /** Visão de um empréstimo registrado, na posição {@code indice} do bloco. */
+    Emprestimo(HistoricoEmprestimos.Bloco bloco, int indice) {
+        this.bloco = bloco;
+        this.indice = indice;
+    }
+
+    static void validar(int id, Livro livro, String nomeCliente, LocalDate dataEmprestimo, LocalDate dataPrevistaDevolucao) {
         if (id <= 0) throw new IllegalArgumentException("id deve ser positivo.");
         if (livro == null) throw new IllegalArgumentException("livro é obrigatório.");
+        validarDados(nomeCliente, dataEmprestimo, dataPrevistaDevolucao);
+    }
+
+    /** Cliente e datas: o que os itens de um lote ({@link Biblioteca#emprestarLivros}) têm em comum. */
+    static void validarDados(String nomeCliente, LocalDate dataEmprestimo, LocalDate dataPrevistaDevolucao) {
         if (nomeCliente == null || nomeCliente.isBlank()) throw new IllegalArgumentException("nomeCliente é obrigatório.");
         if (dataEmprestimo == null) throw new IllegalArgumentException("dataEmprestimo é obrigatória.");
+        validarPrazo(dataEmprestimo, dataPrevistaDevolucao);
+    }
+
+    static void validarPrazo(LocalDate dataEmprestimo, LocalDate dataPrevistaDevolucao) {
+        if (dataPrevistaDevolucao == null) throw new IllegalArgumentException("dataPrevistaDevolucao é obrigatória.");
+        if (dataPrevistaDevolucao.isBefore(dataEmprestimo)) {
+            throw new IllegalArgumentException("dataPrevistaDevolucao não pode ser anterior ao empréstimo.");
+        }
+    }
+
+    // ---------- Vínculo com a biblioteca ----------
+    /** Posição na lista de empréstimos da biblioteca ({@link Biblioteca#getEmprestimos()}), -1 se avulso. */
+    public int getPosicao() {
+        return bloco.inicio < 0 ? -1 : bloco.inicio + indice;
+    }
 
-        this.id = id;
-        this.livro = livro;
-        this.nomeCliente = nomeCliente.trim();
-        this.dataEmprestimo = dataEmprestimo;
-        this.dataDevolucao = null; // ainda não devolvido por padrão
+    IndiceClientes.Grafia cliente() {
+        return bloco.clientes[indice];
     }
 
-    public int getId() { return id; }
+    int diaPrevisto() {
+        return bloco.diaPrevisto(indice);
+    }
+
+    public int getId() { return bloco.ids[indice]; }
 
-    public Livro getLivro() { return livro; }
-    public void setLivro(Livro livro) {
+    public Livro getLivro() { return bloco.livros[indice]; }
+
+    // livro e datas são gravados direto nas colunas, sem passar pela biblioteca (índices,
+    // contadores de exemplares, fila de vencimentos, ouvintes): só para o próprio pacote
+    void setLivro(Livro livro) {
         if (livro == null) throw new IllegalArgumentException("livro é obrigatório.");
-        this.livro = livro;
+        bloco.livros[indice] = livro;
     }
 
-    public String getNomeCliente() { return nomeCliente; }
+    public String getNomeCliente() { return bloco.clientes[indice].nome; }
+    /**
+     * Num empréstimo registrado, a troca passa pela biblioteca: vai para o cliente do novo
+     * nome na busca por cliente e chega aos ouvintes (diário, fluxo de eventos).
+     */
     public void setNomeCliente(String nomeCliente) {
         if (nomeCliente == null || nomeCliente.isBlank()) throw new IllegalArgumentException("nomeCliente é obrigatório.");
-        this.nomeCliente = nomeCliente.trim();
+        Biblioteca biblioteca = IndiceClientes.biblioteca(cliente());
+        if (biblioteca == null) {
+            trocarCliente(new IndiceClientes.Grafia(nomeCliente.trim(), null));   // avulso: não há índice
+        } else {
+            biblioteca.nomeClienteAlterado(this, nomeCliente.trim());
+        }
     }
 
-    public LocalDate getDataEmprestimo() { return dataEmprestimo; }
-    public void setDataEmprestimo(LocalDate dataEmprestimo) {
+    void trocarCliente(IndiceClientes.Grafia cliente) {
+        bloco.clientes[indice] = cliente;
+    }
+
+    public LocalDate getDataEmprestimo() { return Datas.data(bloco.diasEmprestimo[indice]); }
+    void setDataEmprestimo(LocalDate dataEmprestimo) {
         if (dataEmprestimo == null) throw new IllegalArgumentException("dataEmprestimo é obrigatória.");
-        this.dataEmprestimo = dataEmprestimo;
+        bloco.diasEmprestimo[indice] = Datas.dia(dataEmprestimo);
+    }
+
+    public LocalDate getDataPrevistaDevolucao() { return Datas.data(bloco.diaPrevisto(indice)); }
+
+    /** Alterada só pela biblioteca (prorrogação), que mantém a fila de vencimentos. */
+    void alterarDataPrevistaDevolucao(LocalDate dataPrevistaDevolucao) {
+        bloco.alterarDiaPrevisto(indice, Datas.dia(dataPrevistaDevolucao));
+    }
+
+    /** Em aberto e com o prazo vencido na data informada. */
+    public boolean isAtrasado(LocalDate data) {
+        return !isDevolvido() && data.toEpochDay() > bloco.diaPrevisto(indice);
+    }
+
+    public LocalDate getDataDevolucao() { return Datas.data(bloco.diaDevolucao(indice)); }
+    void setDataDevolucao(LocalDate dataDevolucao) {
+        bloco.alterarDiaDevolucao(indice, Datas.dia(dataDevolucao));
+    }
+
+    /**
+     * Registra a devolução somente se o empréstimo ainda estiver em aberto (atômico).
+     * @return {@code false} se já havia sido devolvido.
+     */
+    boolean registrarDevolucao(LocalDate dataDevolucao) {
+        return bloco.devolver(indice, Datas.dia(dataDevolucao));
     }
 
-    public LocalDate getDataDevolucao() { return dataDevolucao; }
-    public void setDataDevolucao(LocalDate dataDevolucao) {
-        this.dataDevolucao = dataDevolucao;
+    void desfazerDevolucao() {
+        bloco.alterarDiaDevolucao(indice, Datas.SEM_DATA);
     }
 
     public boolean isDevolvido() {
-        return dataDevolucao != null;
+        return bloco.diaDevolucao(indice) != Datas.SEM_DATA;
     }
 
     @Override
@@ -63,22 +145,23 @@ public class Emprestimo {
         if (this == o) return true;
         if (!(o instanceof Emprestimo)) return false;
         Emprestimo that = (Emprestimo) o;
-        return id == that.id;
+        return getId() == that.getId();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hash(getId());
     }
 
     @Override
     public String toString() {
         return "Emprestimo{" +
-                "id=" + id +
-                ", livro=" + (livro != null ? livro.getTitulo() : "null") +
-                ", nomeCliente='" + nomeCliente + '\'' +
-                ", dataEmprestimo=" + dataEmprestimo +
-                ", dataDevolucao=" + (dataDevolucao != null ? dataDevolucao : "PENDENTE") +
+                "id=" + getId() +
+                ", livro=" + getLivro().getTitulo() +
+                ", nomeCliente='" + getNomeCliente() + '\'' +
+                ", dataEmprestimo=" + getDataEmprestimo() +
+                ", dataPrevistaDevolucao=" + getDataPrevistaDevolucao() +
+                ", dataDevolucao=" + (isDevolvido() ? getDataDevolucao() : "PENDENTE") +
                 '}';
     }
 }
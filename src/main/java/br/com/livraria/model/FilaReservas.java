@@ -0,0 +1,92 @@
+package br.com.livraria.model;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fila de reservas de um livro, criada só quando o livro recebe a primeira reserva
+ * (livros sem reserva não pagam nada na devolução). Guarda as reservas aguardando,
+ * em ordem de chegada, e as que já têm exemplar separado. Toda mudança de situação
+ * de uma reserva do livro acontece com o monitor da fila.
+ */
+final class FilaReservas {
+
+    private final ArrayDeque<Reserva> aguardando = new ArrayDeque<>();
+    private final List<Reserva> separadas = new ArrayList<>(2);
+
+    synchronized boolean temAguardando() {
+        return !aguardando.isEmpty();
+    }
+
+    /** {@code aoEntrar} é chamado já com a fila bloqueada: os ouvintes veem as reservas na ordem da fila. */
+    synchronized void adicionar(Reserva reserva, Consumer<Reserva> aoEntrar) {
+        verificarRepetida(reserva);
+        aoEntrar.accept(reserva); // se lançar, a reserva não entra
+        aguardando.addLast(reserva);
+    }
+
+    /**
+     * Reinstala uma reserva ativa lida do diário ou do instantâneo: no fim da fila ou,
+     * com {@code prazoRetirada}, entre as separadas.
+     */
+    synchronized void restaurar(Reserva reserva, LocalDate prazoRetirada) {
+        verificarRepetida(reserva);
+        if (prazoRetirada == null) {
+            aguardando.addLast(reserva);
+        } else {
+            reserva.separar(prazoRetirada);
+            separadas.add(reserva);
+        }
+    }
+
+    private void verificarRepetida(Reserva nova) {
+        for (Reserva r : aguardando) verificarRepetida(r, nova);
+        for (Reserva r : separadas) verificarRepetida(r, nova);
+    }
+
+    private static void verificarRepetida(Reserva existente, Reserva nova) {
+        if (existente.chaveCliente.equals(nova.chaveCliente)) {
+            throw new IllegalStateException("Cliente já tem reserva id=" + existente.getId() + " para este livro.");
+        }
+    }
+
+    /**
+     * Entrega um exemplar (já fora do contador de disponíveis) à primeira reserva
+     * aguardando, em O(1).
+     * @return a reserva que recebeu o exemplar, ou {@code null} se ninguém aguarda.
+     */
+    synchronized Reserva entregar(LocalDate prazoRetirada) {
+        Reserva r = aguardando.pollFirst();
+        if (r == null) return null;
+        r.separar(prazoRetirada);
+        separadas.add(r);
+        return r;
+    }
+
+    /** Troca a situação se a reserva ainda estiver em {@code esperada}. */
+    synchronized boolean concluir(Reserva reserva, Reserva.Situacao esperada, Reserva.Situacao nova) {
+        if (reserva.getSituacao() != esperada) return false;
+        if (esperada == Reserva.Situacao.AGUARDANDO) {
+            aguardando.remove(reserva);
+        } else if (esperada == Reserva.Situacao.SEPARADA) {
+            separadas.remove(reserva);
+        }
+        reserva.alterarSituacao(nova);
+        return true;
+    }
+
+    /** Desfaz a retirada de uma reserva separada (ex.: o registro do empréstimo falhou). */
+    synchronized void restaurarSeparada(Reserva reserva) {
+        reserva.alterarSituacao(Reserva.Situacao.SEPARADA);
+        separadas.add(reserva);
+    }
+
+    synchronized List<Reserva> listar() {
+        List<Reserva> todas = new ArrayList<>(separadas);
+        todas.addAll(aguardando);
+        return todas;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.livraria.model;
+
+import java.util.Arrays;
+
+/**
+ * Heap binário mínimo (indexado) dos empréstimos em aberto, ordenado pela data
+ * prevista de devolução (em dias desde a época) e, no empate, pela posição do
+ * empréstimo. O índice posição -> lugar no heap permite remover ou reposicionar
+ * um empréstimo em O(log n) na devolução ou na prorrogação.
+ *
+ * "Vencidos antes do dia X" percorre só o topo do heap: um nó com vencimento
+ * {@code >= X} encerra o ramo inteiro, então o custo é O(k) para k vencidos.
+ * Todas as operações são serializadas pelo monitor da fila.
+ */
+final class FilaVencimentos {
+
+    private int[] posicoes = new int[16];   // heap: posição do empréstimo
+    private int[] dias = new int[16];       // heap: vencimento (mesmo índice de posicoes)
+    private int tamanho;
+    private int[] lugar = new int[16];      // posição do empréstimo -> índice no heap + 1 (0 = ausente)
+
+    synchronized void inserir(int posicao, int dia) {
+        if (posicao >= lugar.length) lugar = Arrays.copyOf(lugar, Math.max(posicao + 1, lugar.length << 1));
+        if (lugar[posicao] != 0) throw new IllegalStateException("Empréstimo na posição " + posicao + " já está na fila.");
+        if (tamanho == posicoes.length) {
+            posicoes = Arrays.copyOf(posicoes, tamanho << 1);
+            dias = Arrays.copyOf(dias, tamanho << 1);
+        }
+        colocar(tamanho, posicao, dia);
+        subir(tamanho++);
+    }
+
+    /** Remove o empréstimo da fila; sem efeito se ele não estiver nela. */
+    synchronized void remover(int posicao) {
+        int i = indice(posicao);
+        if (i < 0) return;
+        lugar[posicao] = 0;
+        int ultimo = --tamanho;
+        if (i == ultimo) return;
+        colocar(i, posicoes[ultimo], dias[ultimo]);
+        if (!subir(i)) descer(i);
+    }
+
+    /** Troca o vencimento; sem efeito se o empréstimo não estiver na fila (ex.: já devolvido). */
+    synchronized void alterar(int posicao, int dia) {
+        int i = indice(posicao);
+        if (i < 0) return;
+        dias[i] = dia;
+        if (!subir(i)) descer(i);
+    }
+
+    synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /** Posições dos empréstimos com vencimento anterior a {@code dia} (sem ordem definida). */
+    synchronized int[] vencidosAntesDe(int dia) {
+        int[] resultado = new int[16];
+        int n = 0;
+        int[] pilha = new int[32];
+        int topo = 0;
+        if (tamanho > 0) pilha[topo++] = 0;
+        while (topo > 0) {
+            int i = pilha[--topo];
+            if (dias[i] >= dia) continue; // os filhos vencem depois: ramo descartado
+            if (n == resultado.length) resultado = Arrays.copyOf(resultado, n << 1);
+            resultado[n++] = posicoes[i];
+            if (topo + 2 > pilha.length) pilha = Arrays.copyOf(pilha, pilha.length << 1);
+            int filho = 2 * i + 1;
+            if (filho < tamanho) pilha[topo++] = filho;
+            if (filho + 1 < tamanho) pilha[topo++] = filho + 1;
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private int indice(int posicao) {
+        return posicao >= 0 && posicao < lugar.length ? lugar[posicao] - 1 : -1;
+    }
+
+    private void colocar(int i, int posicao, int dia) {
+        posicoes[i] = posicao;
+        dias[i] = dia;
+        lugar[posicao] = i + 1;
+    }
+
+    private boolean menor(int i, int j) {
+        return dias[i] < dias[j] || (dias[i] == dias[j] && posicoes[i] < posicoes[j]);
+    }
+
+    private void trocar(int i, int j) {
+        int p = posicoes[i];
+        int d = dias[i];
+        colocar(i, posicoes[j], dias[j]);
+        colocar(j, p, d);
+    }
+
+    private boolean subir(int i) {
+        int inicial = i;
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (!menor(i, pai)) break;
+            trocar(i, pai);
+            i = pai;
+        }
+        return i != inicial;
+    }
+
+    private void descer(int i) {
+        while (true) {
+            int menorFilho = 2 * i + 1;
+            if (menorFilho >= tamanho) return;
+            if (menorFilho + 1 < tamanho && menor(menorFilho + 1, menorFilho)) menorFilho++;
+            if (!menor(menorFilho, i)) return;
+            trocar(i, menorFilho);
+            i = menorFilho;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.livraria.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Histórico de empréstimos em colunas (struct-of-arrays): cada empréstimo é uma
+ * posição em arrays paralelos de primitivos e referências compartilhadas, não um
+ * objeto. São 24 bytes por empréstimo (id, livro, grafia do cliente e três datas em
+ * dias desde a época), contra um {@link Emprestimo} com três {@link java.time.LocalDate}
+ * e uma String próprios. Os {@link Emprestimo} entregues a quem consulta são visões
+ * criadas na hora sobre a posição: leem e gravam direto nas colunas.
+ *
+ * As colunas ficam em blocos de {@value #TAMANHO_BLOCO} posições que nunca mudam de
+ * lugar, então crescer não copia o histórico e uma visão guarda o próprio bloco.
+ * Anexação com um escritor por vez e leitores sem bloqueio, como em {@link ListaAnexavel}:
+ * a posição é gravada e só depois o novo tamanho é publicado.
+ */
+final class HistoricoEmprestimos {
+
+    private static final int BITS_BLOCO = 12;
+    static final int TAMANHO_BLOCO = 1 << BITS_BLOCO;
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /** Um bloco de colunas. {@code inicio} é a posição do primeiro empréstimo dele (-1 se avulso). */
+    static final class Bloco {
+        final int inicio;
+        final int[] ids;
+        final Livro[] livros;
+        final IndiceClientes.Grafia[] clientes;
+        final int[] diasEmprestimo;
+        final int[] diasPrevistos;     // lido e gravado com semântica volatile (prorrogação)
+        final int[] diasDevolucao;     // idem, com compare-and-set na devolução
+
+        Bloco(int inicio, int capacidade) {
+            this.inicio = inicio;
+            ids = new int[capacidade];
+            livros = new Livro[capacidade];
+            clientes = new IndiceClientes.Grafia[capacidade];
+            diasEmprestimo = new int[capacidade];
+            diasPrevistos = new int[capacidade];
+            diasDevolucao = new int[capacidade];
+        }
+
+        void gravar(int i, int id, Livro livro, IndiceClientes.Grafia cliente, int diaEmprestimo, int diaPrevisto) {
+            ids[i] = id;
+            livros[i] = livro;
+            clientes[i] = cliente;
+            diasEmprestimo[i] = diaEmprestimo;
+            diasPrevistos[i] = diaPrevisto;
+            diasDevolucao[i] = Datas.SEM_DATA;
+        }
+
+        int diaPrevisto(int i) {
+            return (int) INT.getVolatile(diasPrevistos, i);
+        }
+
+        void alterarDiaPrevisto(int i, int dia) {
+            INT.setVolatile(diasPrevistos, i, dia);
+        }
+
+        int diaDevolucao(int i) {
+            return (int) INT.getVolatile(diasDevolucao, i);
+        }
+
+        void alterarDiaDevolucao(int i, int dia) {
+            INT.setVolatile(diasDevolucao, i, dia);
+        }
+
+        boolean devolver(int i, int dia) {
+            return INT.compareAndSet(diasDevolucao, i, Datas.SEM_DATA, dia);
+        }
+    }
+
+    private volatile Bloco[] blocos = new Bloco[16];
+    private volatile int tamanho;
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    Emprestimo obter(int posicao) {
+        int n = tamanho;
+        if (posicao < 0 || posicao >= n) throw new IndexOutOfBoundsException("índice " + posicao + " fora de [0, " + n + ")");
+        return visao(blocos, posicao);
+    }
+
+    private static Emprestimo visao(Bloco[] blocos, int posicao) {
+        return new Emprestimo(blocos[posicao >>> BITS_BLOCO], posicao & (TAMANHO_BLOCO - 1));
+    }
+
+    /**
+     * Grava o empréstimo na próxima posição sem publicá-lo: a visão devolvida já pode
+     * ser entregue aos ouvintes, e só {@link #publicar()} o torna visível aos leitores.
+     * Uma preparação não publicada é sobrescrita pela próxima.
+     */
+    Emprestimo preparar(int id, Livro livro, IndiceClientes.Grafia cliente, int diaEmprestimo, int diaPrevisto) {
+        return preparar(0, id, livro, cliente, diaEmprestimo, diaPrevisto);
+    }
+
+    /**
+     * Como {@link #preparar(int, Livro, IndiceClientes.Grafia, int, int)}, {@code deslocamento}
+     * posições depois da próxima: um lote prepara os itens 0, 1, 2... e publica todos de uma vez.
+     */
+    Emprestimo preparar(int deslocamento, int id, Livro livro, IndiceClientes.Grafia cliente,
+                        int diaEmprestimo, int diaPrevisto) {
+        int n = Math.addExact(tamanho, deslocamento);
+        Bloco[] bs = blocos;
+        int b = n >>> BITS_BLOCO;
+        if (b >= bs.length) {
+            bs = Arrays.copyOf(bs, Math.max(b + 1, bs.length << 1));
+            blocos = bs;
+        }
+        if (bs[b] == null) bs[b] = new Bloco(b << BITS_BLOCO, TAMANHO_BLOCO);
+        int i = n & (TAMANHO_BLOCO - 1);
+        bs[b].gravar(i, id, livro, cliente, diaEmprestimo, diaPrevisto);
+        return new Emprestimo(bs[b], i);
+    }
+
+    /** Publica o empréstimo preparado e devolve a posição dele. */
+    int publicar() {
+        return publicar(1);
+    }
+
+    /** Publica os {@code quantidade} empréstimos preparados e devolve a posição do primeiro. */
+    int publicar(int quantidade) {
+        int n = tamanho;
+        tamanho = n + quantidade; // publicação: leitores que virem o novo tamanho enxergam as colunas gravadas
+        return n;
+    }
+
+    /** Percorre as colunas de {@code [de, ate)} bloco a bloco, sem criar visões. */
+    void percorrer(int de, int ate, Biblioteca.LeitorEmprestimos leitor) {
+        int n = tamanho;
+        if (de < 0 || ate > n || de > ate) throw new IndexOutOfBoundsException("trecho [" + de + ", " + ate + ") fora de [0, " + n + ")");
+        Bloco[] bs = blocos;
+        for (int p = de; p < ate; ) {
+            Bloco b = bs[p >>> BITS_BLOCO];
+            int i = p & (TAMANHO_BLOCO - 1);
+            int fim = Math.min(TAMANHO_BLOCO, i + (ate - p));
+            for (; i < fim; i++, p++) {
+                leitor.ler(p, b.livros[i], b.diasEmprestimo[i], b.diaPrevisto(i), b.diaDevolucao(i));
+            }
+        }
+    }
+
+    /** Visão somente leitura das posições publicadas até agora, em O(1). */
+    List<Emprestimo> instantaneo() {
+        int n = tamanho;
+        return new Visao(blocos, n);
+    }
+
+    private static final class Visao extends AbstractList<Emprestimo> implements RandomAccess {
+        private final Bloco[] blocos;
+        private final int tamanho;
+
+        Visao(Bloco[] blocos, int tamanho) {
+            this.blocos = blocos;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        public Emprestimo get(int index) {
+            if (index < 0 || index >= tamanho) {
+                throw new IndexOutOfBoundsException("índice " + index + " fora de [0, " + tamanho + ")");
+            }
+            return visao(blocos, index);
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+    }
+}
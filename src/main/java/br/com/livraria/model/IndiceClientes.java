@@ -0,0 +1,197 @@
+package br.com.livraria.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundário cliente -> empréstimos, pela chave normalizada do nome
+ * ({@link NormalizadorTexto#chaveNome}: minúsculas, sem acentos, espaços internos
+ * colapsados): "José  da Silva" e "jose da silva" são o mesmo cliente.
+ *
+ * Cada cliente guarda as posições (na lista de empréstimos da biblioteca) de todo o
+ * seu histórico e, à parte, as dos empréstimos em aberto, para que "o que este
+ * cliente tem em mãos" não dependa do tamanho do histórico.
+ *
+ * Também é o dicionário dos nomes: cada grafia distinta ("José da Silva") vira uma
+ * única {@link Grafia}, compartilhada por todos os empréstimos escritos assim, em vez
+ * de uma String por empréstimo.
+ *
+ * Trocar o nome de um empréstimo registrado ({@link Emprestimo#setNomeCliente}, pela
+ * biblioteca) o leva para o cliente do novo nome, no histórico e, se ainda estiver em
+ * aberto, nos em aberto.
+ *
+ * O histórico tem um escritor por vez (o monitor do índice, que serializa registro e
+ * troca de nome) e leitores sem bloqueio; os empréstimos em aberto, que também mudam
+ * na devolução, são guardados pelo monitor do cliente.
+ */
+final class IndiceClientes {
+
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Biblioteca biblioteca;
+    private final ConcurrentHashMap<String, Cliente> clientes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Grafia> grafias = new ConcurrentHashMap<>();
+
+    /** Nome do cliente como foi escrito, ligado ao cliente do índice (null fora de uma biblioteca). */
+    static final class Grafia {
+        final String nome;
+        private final Cliente cliente;
+
+        Grafia(String nome, Cliente cliente) {
+            this.nome = nome;
+            this.cliente = cliente;
+        }
+    }
+
+    IndiceClientes(Biblioteca biblioteca) {
+        this.biblioteca = biblioteca;
+    }
+
+    /** A biblioteca em que o empréstimo com esta grafia está registrado (null se avulso). */
+    static Biblioteca biblioteca(Grafia grafia) {
+        return grafia.cliente == null ? null : grafia.cliente.indice.biblioteca;
+    }
+
+    /** A grafia única de {@code nomeCliente} (já sem espaços nas pontas), criando-a na primeira vez. */
+    Grafia grafia(String nomeCliente) {
+        Grafia g = grafias.get(nomeCliente);
+        if (g != null) return g;
+        return grafias.computeIfAbsent(nomeCliente, nome -> new Grafia(nome,
+                clientes.computeIfAbsent(NormalizadorTexto.chaveNome(nome), chave -> new Cliente(this))));
+    }
+
+    /** Indexa o empréstimo publicado na posição, no cliente do nome que ele tem agora. */
+    synchronized void registrar(Emprestimo emprestimo, int posicao) {
+        Cliente cliente = emprestimo.cliente().cliente;
+        cliente.anexarHistorico(posicao);
+        cliente.abrir(posicao);
+    }
+
+    void devolvido(Emprestimo emprestimo) {
+        // uma troca de nome no meio pode ter levado a posição a outro cliente: fecha até o cliente parar de mudar
+        int posicao = emprestimo.getPosicao();
+        Cliente cliente = emprestimo.cliente().cliente;
+        while (cliente != null) {
+            cliente.fechar(posicao);
+            Cliente atual = emprestimo.cliente().cliente;
+            if (atual == cliente) return;
+            cliente = atual;
+        }
+    }
+
+    /** Troca o nome do cliente do empréstimo registrado (já sem espaços nas pontas). */
+    synchronized void renomear(Emprestimo emprestimo, String novoNome) {
+        Cliente de = emprestimo.cliente().cliente;
+        Grafia nova = grafia(novoNome);
+        Cliente para = nova.cliente;
+        // com o novo cliente bloqueado: uma devolução que já vê a nova grafia só fecha depois da mudança
+        synchronized (para) {
+            emprestimo.trocarCliente(nova);
+            int posicao = emprestimo.getPosicao();
+            // publicado e ainda não registrado: o registro já vai usar a nova grafia
+            if (de == para || !de.removerHistorico(posicao)) return;
+            para.inserirHistorico(posicao);
+            if (de.fechar(posicao)) para.abrir(posicao);
+        }
+    }
+
+    /** Posições de todo o histórico do cliente, em ordem de empréstimo (vazio se não houver). */
+    int[] historico(String nomeCliente) {
+        Cliente cliente = clientes.get(NormalizadorTexto.chaveNome(nomeCliente));
+        return cliente == null ? new int[0] : cliente.historico();
+    }
+
+    /** Posições dos empréstimos em aberto do cliente, em ordem de empréstimo. */
+    int[] emAberto(String nomeCliente) {
+        Cliente cliente = clientes.get(NormalizadorTexto.chaveNome(nomeCliente));
+        return cliente == null ? new int[0] : cliente.emAberto();
+    }
+
+    private static final class Cliente {
+        private final IndiceClientes indice;
+
+        // historico[0] é a quantidade de posições, que vêm depois, em ordem. Anexar grava a
+        // posição e só então a quantidade; remover e inserir publicam um array novo.
+        private volatile int[] historico = new int[5];
+
+        private int[] abertos = new int[2];   // guardado por this
+        private int quantidadeAbertos;
+
+        Cliente(IndiceClientes indice) {
+            this.indice = indice;
+        }
+
+        void anexarHistorico(int posicao) {
+            int[] h = historico;
+            int n = h[0];
+            if (n + 1 == h.length) {
+                h = Arrays.copyOf(h, h.length << 1);
+                h[n + 1] = posicao;
+                h[0] = n + 1;
+                historico = h;
+            } else {
+                h[n + 1] = posicao;
+                INT.setRelease(h, 0, n + 1); // quem vir n + 1 lê a posição gravada
+            }
+        }
+
+        boolean removerHistorico(int posicao) {
+            int[] h = historico;
+            int n = h[0];
+            int i = Arrays.binarySearch(h, 1, n + 1, posicao);
+            if (i < 0) return false;
+            int[] novo = new int[h.length];
+            System.arraycopy(h, 1, novo, 1, i - 1);
+            System.arraycopy(h, i + 1, novo, i, n - i);
+            novo[0] = n - 1;
+            historico = novo;
+            return true;
+        }
+
+        void inserirHistorico(int posicao) {
+            int[] h = historico;
+            int n = h[0];
+            int i = -Arrays.binarySearch(h, 1, n + 1, posicao) - 1;
+            int[] novo = new int[n + 1 == h.length ? h.length << 1 : h.length];
+            System.arraycopy(h, 1, novo, 1, i - 1);
+            novo[i] = posicao;
+            System.arraycopy(h, i, novo, i + 1, n + 1 - i);
+            novo[0] = n + 1;
+            historico = novo;
+        }
+
+        int[] historico() {
+            int[] h = historico;
+            int n = (int) INT.getAcquire(h, 0);
+            return Arrays.copyOfRange(h, 1, n + 1);
+        }
+
+        /** Em ordem de posição: no registro, a nova é sempre a maior. */
+        synchronized void abrir(int posicao) {
+            if (quantidadeAbertos == abertos.length) abertos = Arrays.copyOf(abertos, quantidadeAbertos << 1);
+            int i = quantidadeAbertos;
+            while (i > 0 && abertos[i - 1] > posicao) i--;
+            System.arraycopy(abertos, i, abertos, i + 1, quantidadeAbertos - i);
+            abertos[i] = posicao;
+            quantidadeAbertos++;
+        }
+
+        /** @return {@code false} se a posição não estava em aberto neste cliente. */
+        synchronized boolean fechar(int posicao) {
+            for (int i = 0; i < quantidadeAbertos; i++) {
+                if (abertos[i] == posicao) {
+                    System.arraycopy(abertos, i + 1, abertos, i, quantidadeAbertos - i - 1); // mantém a ordem
+                    quantidadeAbertos--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int[] emAberto() {
+            return Arrays.copyOf(abertos, quantidadeAbertos);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package br.com.livraria.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Índice ordenado por um texto (título do livro, nome do autor) para listagens
+ * paginadas sem reordenar o catálogo a cada consulta.
+ *
+ * A ordem segue a do português: primeiro o texto sem diferenciar maiúsculas e
+ * acentos ("Ábaco" junto de "abacate"), depois o texto exato e, no empate, o id.
+ *
+ * A ordem fica em arrays paralelos ordenados, publicados de uma vez (volatile).
+ * Inclusões e trocas de texto só entram num lote de pendências, em O(1); a
+ * primeira leitura depois delas ordena o lote e o intercala com a ordem atual.
+ * Assim uma carga de um milhão de livros ordena uma vez só, e cada página custa
+ * O(limite) por deslocamento ou O(log n + limite) por chave.
+ *
+ * Escritas serializadas por quem usa o índice (o lock do catálogo); leituras sem
+ * bloqueio enquanto não houver pendências.
+ */
+final class IndiceOrdenado<T> {
+
+    /** Ordem publicada: arrays imutáveis depois de montados. */
+    private static final class Ordem {
+        final String[] textos;
+        final int[] ids;
+        final Object[] valores;
+
+        Ordem(String[] textos, int[] ids, Object[] valores) {
+            this.textos = textos;
+            this.ids = ids;
+            this.valores = valores;
+        }
+    }
+
+    private volatile Ordem ordem = new Ordem(new String[0], new int[0], new Object[0]);
+    private volatile boolean pendente;
+    private final Lote inclusoes = new Lote();   // lotes guardados por this
+    private final Lote remocoes = new Lote();
+
+    // compara sem diferenciar maiúsculas e acentos
+    static int comparar(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        for (int i = 0; i < n; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca == cb) continue;
+            ca = NormalizadorTexto.dobrar(ca);
+            cb = NormalizadorTexto.dobrar(cb);
+            if (ca != cb) return ca - cb;
+        }
+        return a.length() - b.length();
+    }
+
+    private static int comparar(String textoA, int idA, String textoB, int idB) {
+        int c = comparar(textoA, textoB);
+        if (c == 0) c = textoA.compareTo(textoB);
+        return c != 0 ? c : Integer.compare(idA, idB);
+    }
+
+    synchronized void inserir(String texto, int id, T valor) {
+        inclusoes.anexar(texto, id, valor);
+        pendente = true;
+    }
+
+    /** Reposiciona a entrada depois de o texto mudar de {@code anterior} para {@code novo}. */
+    synchronized void trocar(String anterior, String novo, int id, T valor) {
+        if (anterior.equals(novo)) return;
+        remocoes.anexar(anterior, id, null);
+        inclusoes.anexar(novo, id, valor);
+        pendente = true;
+    }
+
+    int tamanho() {
+        return atual().ids.length;
+    }
+
+    /**
+     * Até {@code limite} valores a partir do {@code deslocamento}-ésimo aceito por
+     * {@code filtro} (null aceita todos). Sem filtro, O(limite); com filtro, a contagem
+     * parte do início: O(deslocamento + recusados até o fim da página + limite).
+     */
+    List<T> pagina(int deslocamento, int limite, Predicate<? super T> filtro) {
+        validar(limite);
+        if (deslocamento < 0) throw new IllegalArgumentException("deslocamento não pode ser negativo.");
+        Ordem o = atual();
+        if (filtro == null) return coletar(o, Math.min(deslocamento, o.ids.length), 0, limite, null);
+        return coletar(o, 0, deslocamento, limite, filtro);
+    }
+
+    /**
+     * Paginação por chave: até {@code limite} valores depois de ({@code texto}, {@code id}),
+     * a última entrada da página anterior. Custa O(log n + limite) em qualquer página
+     * (com filtro, mais os recusados no meio dela); {@code texto} null começa do início.
+     */
+    List<T> apos(String texto, int id, int limite, Predicate<? super T> filtro) {
+        validar(limite);
+        Ordem o = atual();
+        return coletar(o, texto == null ? 0 : posicao(o, texto, id, true), 0, limite, filtro);
+    }
+
+    /**
+     * Até {@code limite} valores cujo texto começa com {@code prefixo}, sem diferenciar
+     * maiúsculas e acentos. Na ordem do índice eles são contíguos: uma busca binária
+     * acha o primeiro e a varredura para no primeiro que não casa, O(log n + limite).
+     */
+    List<T> comPrefixo(String prefixo, int limite) {
+        validar(limite);
+        Ordem o = atual();
+        int baixo = 0;
+        int alto = o.ids.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (comparar(o.textos[meio], prefixo) < 0) baixo = meio + 1;
+            else alto = meio;
+        }
+        List<T> resultado = new ArrayList<>(Math.min(limite, 64));
+        for (int i = baixo; i < o.ids.length && resultado.size() < limite && comecaCom(o.textos[i], prefixo); i++) {
+            @SuppressWarnings("unchecked")
+            T v = (T) o.valores[i];
+            resultado.add(v);
+        }
+        return resultado;
+    }
+
+    private static boolean comecaCom(String texto, String prefixo) {
+        if (texto.length() < prefixo.length()) return false;
+        for (int i = 0; i < prefixo.length(); i++) {
+            char ct = texto.charAt(i);
+            char cp = prefixo.charAt(i);
+            if (ct != cp && NormalizadorTexto.dobrar(ct) != NormalizadorTexto.dobrar(cp)) return false;
+        }
+        return true;
+    }
+
+    // primeira posição depois de (texto, id) ou, com depois falso, a da própria entrada
+    private static int posicao(Ordem o, String texto, int id, boolean depois) {
+        int baixo = 0;
+        int alto = o.ids.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            int c = comparar(o.textos[meio], o.ids[meio], texto, id);
+            if (c < 0 || (depois && c == 0)) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> coletar(Ordem o, int inicio, int pular, int limite, Predicate<? super T> filtro) {
+        List<T> pagina = new ArrayList<>(Math.min(limite, 1024));
+        for (int i = inicio; i < o.valores.length && pagina.size() < limite; i++) {
+            T v = (T) o.valores[i];
+            if (filtro != null && !filtro.test(v)) continue;
+            if (pular > 0) {
+                pular--;
+                continue;
+            }
+            pagina.add(v);
+        }
+        return pagina;
+    }
+
+    private Ordem atual() {
+        if (!pendente) return ordem;
+        synchronized (this) {
+            if (pendente) {
+                ordem = mesclar(ordem);
+                inclusoes.limpar();
+                remocoes.limpar();
+                pendente = false;
+            }
+            return ordem;
+        }
+    }
+
+    /*
+     * Intercala a ordem atual com as pendências. Inclusões e remoções se anulam entre si
+     * (um texto trocado e destrocado antes da leitura); as remoções restantes e os pontos
+     * de inserção saem de buscas binárias na ordem atual, e o que fica entre eles é
+     * copiado em bloco. Com poucas pendências, o custo é o da cópia dos arrays.
+     */
+    private Ordem mesclar(Ordem o) {
+        int[] novas = inclusoes.ordenar();
+        int[] removidas = remocoes.ordenar();
+        boolean[] anulada = new boolean[novas.length];
+        int[] removerEm = new int[removidas.length];
+        int restantes = 0;
+        for (int r = 0, j = 0; r < removidas.length; r++) {
+            String texto = remocoes.textos[removidas[r]];
+            int id = remocoes.ids[removidas[r]];
+            while (j < novas.length && (anulada[j] || inclusoes.comparar(novas[j], texto, id) < 0)) j++;
+            if (j < novas.length && inclusoes.comparar(novas[j], texto, id) == 0) {
+                anulada[j++] = true;
+                continue;
+            }
+            int i = posicao(o, texto, id, false);
+            if (i < o.ids.length && o.ids[i] == id && o.textos[i].equals(texto)) removerEm[restantes++] = i;
+        }
+        int n = o.ids.length - restantes;
+        for (boolean a : anulada) if (!a) n++;
+        String[] textos = new String[n];
+        int[] ids = new int[n];
+        Object[] valores = new Object[n];
+        int i = 0, k = 0, r = 0;
+        for (int j = 0; j <= novas.length; j++) {
+            if (j < novas.length && anulada[j]) continue;
+            int p = j < novas.length ? novas[j] : -1;
+            int ate = p >= 0 ? posicao(o, inclusoes.textos[p], inclusoes.ids[p], true) : o.ids.length;
+            while (i < ate) {
+                int fim = r < restantes && removerEm[r] < ate ? removerEm[r] : ate;
+                System.arraycopy(o.textos, i, textos, k, fim - i);
+                System.arraycopy(o.ids, i, ids, k, fim - i);
+                System.arraycopy(o.valores, i, valores, k, fim - i);
+                k += fim - i;
+                i = fim;
+                if (r < restantes && removerEm[r] == i) {
+                    i++;
+                    r++;
+                }
+            }
+            if (p >= 0) {
+                textos[k] = inclusoes.textos[p];
+                ids[k] = inclusoes.ids[p];
+                valores[k++] = inclusoes.valores[p];
+            }
+        }
+        return new Ordem(textos, ids, valores);
+    }
+
+    private static void validar(int limite) {
+        if (limite < 0) throw new IllegalArgumentException("limite não pode ser negativo.");
+    }
+
+    /**
+     * Pendências em arrays paralelos, sem um objeto por entrada: numa carga grande o
+     * catálogo inteiro está vivo e cada objeto a mais pesa nas coletas.
+     */
+    private static final class Lote {
+        String[] textos = new String[16];
+        int[] ids = new int[16];
+        Object[] valores = new Object[16];
+        int tamanho;
+
+        void anexar(String texto, int id, Object valor) {
+            if (tamanho == ids.length) {
+                int capacidade = tamanho * 2;
+                textos = Arrays.copyOf(textos, capacidade);
+                ids = Arrays.copyOf(ids, capacidade);
+                valores = Arrays.copyOf(valores, capacidade);
+            }
+            textos[tamanho] = texto;
+            ids[tamanho] = id;
+            valores[tamanho++] = valor;
+        }
+
+        int comparar(int a, String texto, int id) {
+            return IndiceOrdenado.comparar(textos[a], ids[a], texto, id);
+        }
+
+        /**
+         * Posições do lote em ordem. Títulos se repetem muito num catálogo (edições,
+         * exemplares cadastrados um a um), então cada texto distinto é ordenado uma vez só;
+         * as posições seguem como longs (posto do texto, posição) na ordenação primitiva,
+         * sem comparar Strings por entrada, e os empates de texto se resolvem pelo id.
+         */
+        int[] ordenar() {
+            Map<String, Integer> postos = new HashMap<>();
+            for (int i = 0; i < tamanho; i++) postos.putIfAbsent(textos[i], postos.size());
+            String[] distintos = new String[postos.size()];
+            postos.forEach((texto, indice) -> distintos[indice] = texto);
+            Arrays.sort(distintos, (x, y) -> {
+                int c = IndiceOrdenado.comparar(x, y);
+                return c != 0 ? c : x.compareTo(y);
+            });
+            for (int r = 0; r < distintos.length; r++) postos.put(distintos[r], r);
+
+            long[] chaves = new long[tamanho];
+            for (int i = 0; i < tamanho; i++) chaves[i] = (long) postos.get(textos[i]) << 32 | i;
+            Arrays.sort(chaves);
+            int[] ordem = new int[tamanho];
+            for (int inicio = 0, fim; inicio < tamanho; inicio = fim) {
+                fim = inicio + 1;
+                while (fim < tamanho && chaves[fim] >>> 32 == chaves[inicio] >>> 32) fim++;
+                boolean porId = true;
+                for (int i = inicio + 1; i < fim && porId; i++) {
+                    porId = ids[(int) chaves[i - 1]] <= ids[(int) chaves[i]];
+                }
+                if (!porId) { // mesmo texto fora da ordem de id: reordena só esse trecho
+                    for (int i = inicio; i < fim; i++) {
+                        int posicao = (int) chaves[i];
+                        chaves[i] = (long) ids[posicao] << 32 | posicao;
+                    }
+                    Arrays.sort(chaves, inicio, fim);
+                }
+                for (int i = inicio; i < fim; i++) ordem[i] = (int) chaves[i];
+            }
+            return ordem;
+        }
+
+        void limpar() {
+            if (ids.length > 16) {
+                textos = new String[16];
+                ids = new int[16];
+                valores = new Object[16];
+            } else {
+                Arrays.fill(textos, 0, tamanho, null);
+                Arrays.fill(valores, 0, tamanho, null);
+            }
+            tamanho = 0;
+        }
+    }
+}
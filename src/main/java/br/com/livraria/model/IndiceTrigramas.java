@@ -0,0 +1,176 @@
+package br.com.livraria.model;
+
+import java.util.Arrays;
+
+/**
+ * Índice invertido de trigramas sobre os títulos dos livros.
+ * Cada livro é identificado pela sua posição na lista da biblioteca; as listas
+ * de postagem ficam ordenadas por posição, o que preserva a ordem de cadastro
+ * nos resultados.
+ *
+ * Indexa e compara as chaves dos títulos ({@link NormalizadorTexto#chave}, em
+ * minúsculas e sem acentos, calculadas uma vez no cadastro) e recebe o termo já
+ * normalizado: todo título cuja chave contém o termo tem todos os trigramas do
+ * termo, então o índice só descarta candidatos impossíveis, e a verificação final é
+ * um {@code String.contains} entre chaves, sem alocar nada por candidato.
+ */
+final class IndiceTrigramas {
+
+    private String[] chaves = new String[16];       // chave do título, por posição
+    private int quantidade;                          // maior posição indexada + 1
+    private final Postagens postagens = new Postagens();
+
+    private static long trigrama(String chave, int i) {
+        long a = chave.charAt(i);
+        long b = chave.charAt(i + 1);
+        long c = chave.charAt(i + 2);
+        return (1L << 48) | (a << 32) | (b << 16) | c; // bit 48 garante chave != 0
+    }
+
+    // ---------- Manutenção ----------
+    void indexar(int posicao, String chave) {
+        if (posicao >= chaves.length) {
+            chaves = Arrays.copyOf(chaves, Math.max(posicao + 1, chaves.length << 1));
+        }
+        chaves[posicao] = chave;
+        quantidade = Math.max(quantidade, posicao + 1);
+        for (int i = 0; i + 3 <= chave.length(); i++) {
+            postagens.adicionar(trigrama(chave, i), posicao);
+        }
+    }
+
+    void reindexar(int posicao, String chaveNova) {
+        String anterior = chaves[posicao];
+        for (int i = 0; i + 3 <= anterior.length(); i++) {
+            postagens.remover(trigrama(anterior, i), posicao);
+        }
+        indexar(posicao, chaveNova);
+    }
+
+    // ---------- Consulta ----------
+
+    /** Devolve, em ordem crescente, as posições cuja chave do título contém a chave {@code termo}. */
+    int[] buscar(String termo) {
+        int n = termo.length();
+        if (n < 3) {
+            return varrer(termo, null, quantidade);
+        }
+        ListaPosicoes menor = null;
+        for (int i = 0; i + 3 <= n; i++) {
+            ListaPosicoes p = postagens.buscar(trigrama(termo, i));
+            if (p == null) return new int[0];
+            if (menor == null || p.tamanho < menor.tamanho) menor = p;
+        }
+        return varrer(termo, menor.posicoes, menor.tamanho);
+    }
+
+    private int[] varrer(String termo, int[] candidatos, int total) {
+        int[] resultado = new int[Math.min(total, 16)];
+        int encontrados = 0;
+        for (int i = 0; i < total; i++) {
+            int pos = candidatos == null ? i : candidatos[i];
+            String chave = chaves[pos];
+            if (chave != null && chave.contains(termo)) {
+                if (encontrados == resultado.length) resultado = Arrays.copyOf(resultado, encontrados << 1);
+                resultado[encontrados++] = pos;
+            }
+        }
+        return Arrays.copyOf(resultado, encontrados);
+    }
+
+    // ---------- Estruturas internas ----------
+
+    /** Lista ordenada e sem repetição de posições. */
+    private static final class ListaPosicoes {
+        int[] posicoes = new int[4];
+        int tamanho;
+
+        void adicionar(int pos) {
+            if (tamanho > 0 && posicoes[tamanho - 1] < pos) { // caso comum: cadastro em ordem
+                anexar(pos);
+                return;
+            }
+            int i = Arrays.binarySearch(posicoes, 0, tamanho, pos);
+            if (i >= 0) return;
+            i = -i - 1;
+            if (tamanho == posicoes.length) posicoes = Arrays.copyOf(posicoes, tamanho << 1);
+            System.arraycopy(posicoes, i, posicoes, i + 1, tamanho - i);
+            posicoes[i] = pos;
+            tamanho++;
+        }
+
+        private void anexar(int pos) {
+            if (tamanho == posicoes.length) posicoes = Arrays.copyOf(posicoes, tamanho << 1);
+            posicoes[tamanho++] = pos;
+        }
+
+        void remover(int pos) {
+            int i = Arrays.binarySearch(posicoes, 0, tamanho, pos);
+            if (i < 0) return;
+            System.arraycopy(posicoes, i + 1, posicoes, i, tamanho - i - 1);
+            tamanho--;
+        }
+    }
+
+    /** Tabela hash de endereçamento aberto: trigrama (long) -> lista de posições. */
+    private static final class Postagens {
+        private long[] chaves = new long[1024];
+        private ListaPosicoes[] listas = new ListaPosicoes[1024];
+        private int tamanho;
+
+        private static int espalhar(long chave) {
+            long h = chave * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        ListaPosicoes buscar(long chave) {
+            int mascara = chaves.length - 1;
+            int i = espalhar(chave) & mascara;
+            long k;
+            while ((k = chaves[i]) != 0) {
+                if (k == chave) return listas[i];
+                i = (i + 1) & mascara;
+            }
+            return null;
+        }
+
+        void adicionar(long chave, int pos) {
+            int mascara = chaves.length - 1;
+            int i = espalhar(chave) & mascara;
+            long k;
+            while ((k = chaves[i]) != 0) {
+                if (k == chave) {
+                    listas[i].adicionar(pos);
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            ListaPosicoes lista = new ListaPosicoes();
+            lista.adicionar(pos);
+            listas[i] = lista;
+            chaves[i] = chave;
+            if (++tamanho > chaves.length * 3 / 4) redimensionar();
+        }
+
+        void remover(long chave, int pos) {
+            ListaPosicoes lista = buscar(chave);
+            if (lista != null) lista.remover(pos); // listas vazias ficam: o trigrama tende a reaparecer
+        }
+
+        private void redimensionar() {
+            long[] chavesAntigas = chaves;
+            ListaPosicoes[] listasAntigas = listas;
+            chaves = new long[chavesAntigas.length << 1];
+            listas = new ListaPosicoes[chavesAntigas.length << 1];
+            int mascara = chaves.length - 1;
+            for (int j = 0; j < chavesAntigas.length; j++) {
+                long k = chavesAntigas[j];
+                if (k == 0) continue;
+                int i = espalhar(k) & mascara;
+                while (chaves[i] != 0) i = (i + 1) & mascara;
+                chaves[i] = k;
+                listas[i] = listasAntigas[j];
+            }
+        }
+    }
+}
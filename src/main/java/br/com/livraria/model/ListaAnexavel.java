@@ -0,0 +1,70 @@
+package br.com.livraria.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Lista somente-anexação com um escritor por vez e leitores sem bloqueio.
+ * O escritor grava o elemento e só depois publica o novo tamanho (volatile);
+ * o leitor lê o tamanho antes do array e, por isso, sempre enxerga um prefixo
+ * completo. {@link #instantaneo()} devolve esse prefixo como lista imutável em O(1).
+ * As escritas devem ser serializadas por quem usa a lista.
+ */
+final class ListaAnexavel<T> {
+
+    private Object[] elementos = new Object[16];
+    private volatile int tamanho;
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    @SuppressWarnings("unchecked")
+    T obter(int i) {
+        int n = tamanho;
+        if (i < 0 || i >= n) throw new IndexOutOfBoundsException("índice " + i + " fora de [0, " + n + ")");
+        return (T) elementos[i];
+    }
+
+    /** Anexa o elemento e devolve a posição em que foi gravado. */
+    int anexar(T elemento) {
+        int n = tamanho;
+        if (n == elementos.length) {
+            elementos = Arrays.copyOf(elementos, n << 1);
+        }
+        elementos[n] = elemento;
+        tamanho = n + 1; // publicação: leitores que virem n + 1 enxergam o elemento
+        return n;
+    }
+
+    List<T> instantaneo() {
+        int n = tamanho;
+        return new Visao<>(elementos, n);
+    }
+
+    private static final class Visao<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] elementos;
+        private final int tamanho;
+
+        Visao(Object[] elementos, int tamanho) {
+            this.elementos = elementos;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= tamanho) {
+                throw new IndexOutOfBoundsException("índice " + index + " fora de [0, " + tamanho + ")");
+            }
+            return (T) elementos[index];
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+    }
+}
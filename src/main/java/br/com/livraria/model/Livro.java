@@ -1,62 +1,157 @@
 package br.com.livraria.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
- * Representa um livro no sistema de livraria.
+ * Representa um livro (título) no sistema de livraria, com um ou mais exemplares físicos.
  * Campos obrigatórios: id, titulo, autor.
+ * O livro está disponível enquanto houver ao menos um exemplar disponível.
  */
 public class Livro {
 
+    private static final VarHandle DISPONIVEIS;
+
+    static {
+        try {
+            DISPONIVEIS = MethodHandles.lookup().findVarHandle(Livro.class, "exemplaresDisponiveis", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final int id;                  // Identificador único (imutável após criação)
-    private String titulo;                 // Título do livro
-    private Autor autor;                   // Autor do livro (associação)
-    private boolean disponivel;            // Indica se está disponível para empréstimo
-    private final LocalDateTime dataCadastro;    // Data/hora de cadastro
-    private LocalDateTime dataAtualizacao; // Data/hora da última atualização
+    private volatile String titulo;        // Título do livro
+    private volatile Autor autor;          // Autor do livro (associação)
+    private final int exemplares;          // Quantidade de exemplares físicos
+    private volatile int exemplaresDisponiveis; // Exemplares nas prateleiras (não emprestados)
+    private final long dataCadastro;       // Data/hora de cadastro (ms locais, ver Datas)
+    private volatile long dataAtualizacao; // Data/hora da última atualização (idem)
+
+    private Biblioteca biblioteca;         // Biblioteca onde está cadastrado (null se avulso)
+    private int posicao = -1;              // Posição na lista de livros da biblioteca
+    String tituloIndexado;                 // Título no índice ordenado (guardado pelo lock do catálogo)
+    String chaveTitulo;                    // Chave do título nos índices de busca (idem, ver NormalizadorTexto)
+    Autor autorIndexado;                   // Autor no índice autor → livros (guardado pelo lock do catálogo)
+    volatile FilaReservas reservas;        // Criada na primeira reserva (null se nunca houve)
 
     public Livro(int id, String titulo, Autor autor) {
+        this(id, titulo, autor, 1);
+    }
+
+    public Livro(int id, String titulo, Autor autor, int exemplares) {
         if (id <= 0) throw new IllegalArgumentException("id deve ser positivo.");
         if (titulo == null || titulo.isBlank()) throw new IllegalArgumentException("titulo é obrigatório.");
         if (autor == null) throw new IllegalArgumentException("autor é obrigatório.");
+        if (exemplares <= 0) throw new IllegalArgumentException("exemplares deve ser positivo.");
 
         this.id = id;
         this.titulo = titulo.trim();
         this.autor = autor;
-        this.disponivel = true; // padrão: entra disponível
-        this.dataCadastro = LocalDateTime.now();
+        this.exemplares = exemplares;
+        this.exemplaresDisponiveis = exemplares; // padrão: todos os exemplares entram disponíveis
+        this.dataCadastro = Datas.agora();
         this.dataAtualizacao = this.dataCadastro;
     }
 
+    // um long, não um LocalDateTime novo: é chamado a cada empréstimo e devolução
     private void tocarAtualizacao() {
-        this.dataAtualizacao = LocalDateTime.now();
+        this.dataAtualizacao = Datas.agora();
+    }
+
+    // ---------- Vínculo com a biblioteca (mantém os índices atualizados) ----------
+    void vincular(Biblioteca biblioteca, int posicao) {
+        if (this.biblioteca != null) {
+            throw new IllegalStateException("Livro id=" + id + " já está cadastrado em uma biblioteca.");
+        }
+        this.biblioteca = biblioteca;
+        this.posicao = posicao;
     }
 
+    boolean estaVinculado() { return biblioteca != null; }
+
+    int getPosicao() { return posicao; }
+
     public int getId() { return id; }
 
     public String getTitulo() { return titulo; }
     public void setTitulo(String titulo) {
         if (titulo == null || titulo.isBlank()) throw new IllegalArgumentException("titulo é obrigatório.");
+        String anterior = this.titulo;
         this.titulo = titulo.trim();
+        if (biblioteca != null) {
+            try {
+                biblioteca.tituloAlterado(this);
+            } catch (RuntimeException e) {
+                this.titulo = anterior;
+                throw e;
+            }
+        }
         tocarAtualizacao();
     }
 
     public Autor getAutor() { return autor; }
     public void setAutor(Autor autor) {
         if (autor == null) throw new IllegalArgumentException("autor é obrigatório.");
+        Autor anterior = this.autor;
         this.autor = autor;
+        if (biblioteca != null) {
+            try {
+                biblioteca.autorAlterado(this);
+            } catch (RuntimeException e) {
+                this.autor = anterior;
+                throw e;
+            }
+        }
         tocarAtualizacao();
     }
 
-    public boolean isDisponivel() { return disponivel; }
+    public int getExemplares() { return exemplares; }
+    public int getExemplaresDisponiveis() { return exemplaresDisponiveis; }
+
+    public boolean isDisponivel() { return exemplaresDisponiveis > 0; }
+
+    /**
+     * Ajuste manual: {@code true} coloca todos os exemplares nas prateleiras e
+     * {@code false} retira todos, sem considerar empréstimos em aberto.
+     */
     public void setDisponivel(boolean disponivel) {
-        this.disponivel = disponivel;
+        int anterior = (int) DISPONIVEIS.getAndSet(this, disponivel ? exemplares : 0);
+        tocarAtualizacao();
+        if (biblioteca != null && (anterior > 0) != disponivel) biblioteca.disponibilidadeAlterada(this);
+    }
+
+    /**
+     * Reserva um exemplar de forma atômica (compare-and-set, sem lock): empréstimos
+     * simultâneos do mesmo título só disputam o contador.
+     * @return {@code false} se não havia exemplar disponível.
+     */
+    boolean retirarExemplar() {
+        int atual;
+        do {
+            atual = exemplaresDisponiveis;
+            if (atual == 0) return false;
+        } while (!DISPONIVEIS.compareAndSet(this, atual, atual - 1));
+        tocarAtualizacao();
+        if (atual == 1 && biblioteca != null) biblioteca.disponibilidadeAlterada(this); // último exemplar saiu
+        return true;
+    }
+
+    /** Devolve um exemplar às prateleiras (nunca passa do total). */
+    void devolverExemplar() {
+        int atual;
+        do {
+            atual = exemplaresDisponiveis;
+            if (atual == exemplares) return;
+        } while (!DISPONIVEIS.compareAndSet(this, atual, atual + 1));
         tocarAtualizacao();
+        if (atual == 0 && biblioteca != null) biblioteca.disponibilidadeAlterada(this); // voltou a ter exemplar
     }
 
-    public LocalDateTime getDataCadastro() { return dataCadastro; }
-    public LocalDateTime getDataAtualizacao() { return dataAtualizacao; }
+    public LocalDateTime getDataCadastro() { return Datas.dataHora(dataCadastro); }
+    public LocalDateTime getDataAtualizacao() { return Datas.dataHora(dataAtualizacao); }
 
     @Override
     public boolean equals(Object o) {
@@ -77,9 +172,9 @@ public class Livro {
                 "id=" + id +
                 ", titulo='" + titulo + '\'' +
                 ", autor=" + (autor != null ? autor.getNome() : "null") +
-                ", disponivel=" + disponivel +
-                ", dataCadastro=" + dataCadastro +
-                ", dataAtualizacao=" + dataAtualizacao +
+                ", exemplares=" + exemplaresDisponiveis + "/" + exemplares +
+                ", dataCadastro=" + getDataCadastro() +
+                ", dataAtualizacao=" + getDataAtualizacao() +
                 '}';
     }
 }
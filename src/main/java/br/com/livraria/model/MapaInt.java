@@ -0,0 +1,108 @@
+package br.com.livraria.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Tabela hash de endereçamento aberto com chaves {@code int} primitivas.
+ * Usada como índice de chave primária: evita o boxing dos ids e mantém
+ * busca e inserção em O(1). A chave 0 é reservada para "posição vazia",
+ * o que é seguro porque todos os ids do modelo são positivos.
+ *
+ * Admite um escritor por vez (serializado por quem usa o mapa) e leitores
+ * concorrentes sem bloqueio: o valor é gravado antes da chave, a chave é
+ * publicada com semântica release, e o redimensionamento monta uma tabela nova
+ * que só então é publicada.
+ */
+final class MapaInt<V> {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+    private static final float FATOR_CARGA = 0.6f;
+    private static final VarHandle CHAVE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final class Tabela {
+        final int[] chaves;
+        final Object[] valores;
+
+        Tabela(int capacidade) {
+            chaves = new int[capacidade];
+            valores = new Object[capacidade];
+        }
+    }
+
+    private volatile Tabela tabela;
+    private int tamanho;
+    private int limite;
+
+    MapaInt() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    MapaInt(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(CAPACIDADE_INICIAL, (int) (capacidadeEsperada / FATOR_CARGA)) - 1) << 1;
+        tabela = new Tabela(capacidade);
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9; // hash de Fibonacci: ids sequenciais se espalham bem
+        return h ^ (h >>> 16);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    @SuppressWarnings("unchecked")
+    V buscar(int chave) {
+        Tabela t = tabela;
+        int mascara = t.chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = (int) CHAVE.getAcquire(t.chaves, i)) != 0) {
+            if (k == chave) return (V) t.valores[i];
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    boolean contem(int chave) {
+        return buscar(chave) != null;
+    }
+
+    /**
+     * Insere o par somente se a chave ainda não existir.
+     * @return {@code true} se inseriu; {@code false} se a chave já estava presente.
+     */
+    boolean inserirSeAusente(int chave, V valor) {
+        if (chave <= 0) throw new IllegalArgumentException("chave deve ser positiva.");
+        if (valor == null) throw new IllegalArgumentException("valor é obrigatório.");
+        Tabela t = tabela;
+        int mascara = t.chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = t.chaves[i]) != 0) {
+            if (k == chave) return false;
+            i = (i + 1) & mascara;
+        }
+        t.valores[i] = valor;
+        CHAVE.setRelease(t.chaves, i, chave);
+        if (++tamanho > limite) redimensionar(t);
+        return true;
+    }
+
+    private void redimensionar(Tabela antiga) {
+        Tabela nova = new Tabela(antiga.chaves.length << 1);
+        int mascara = nova.chaves.length - 1;
+        for (int j = 0; j < antiga.chaves.length; j++) {
+            int k = antiga.chaves[j];
+            if (k == 0) continue;
+            int i = espalhar(k) & mascara;
+            while (nova.chaves[i] != 0) i = (i + 1) & mascara;
+            nova.chaves[i] = k;
+            nova.valores[i] = antiga.valores[j];
+        }
+        limite = (int) (nova.chaves.length * FATOR_CARGA);
+        tabela = nova;
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.livraria.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Como {@link MapaInt}, mas com valores {@code int}: id -> posição num armazenamento
+ * em colunas, sem um objeto por entrada. Mesmas regras: chave 0 reservada, um
+ * escritor por vez e leitores sem bloqueio (o valor é gravado antes da chave).
+ */
+final class MapaPosicoes {
+
+    static final int AUSENTE = -1;
+
+    private static final int CAPACIDADE_INICIAL = 16;
+    private static final float FATOR_CARGA = 0.6f;
+    private static final VarHandle CHAVE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final class Tabela {
+        final int[] chaves;
+        final int[] valores;
+
+        Tabela(int capacidade) {
+            chaves = new int[capacidade];
+            valores = new int[capacidade];
+        }
+    }
+
+    private volatile Tabela tabela = new Tabela(CAPACIDADE_INICIAL);
+    private int tamanho;
+    private int limite = (int) (CAPACIDADE_INICIAL * FATOR_CARGA);
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /** A posição da chave ou {@link #AUSENTE}. */
+    int buscar(int chave) {
+        Tabela t = tabela;
+        int mascara = t.chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = (int) CHAVE.getAcquire(t.chaves, i)) != 0) {
+            if (k == chave) return t.valores[i];
+            i = (i + 1) & mascara;
+        }
+        return AUSENTE;
+    }
+
+    boolean contem(int chave) {
+        return buscar(chave) != AUSENTE;
+    }
+
+    /** @return {@code false} se a chave já estava presente. */
+    boolean inserirSeAusente(int chave, int posicao) {
+        if (chave <= 0) throw new IllegalArgumentException("chave deve ser positiva.");
+        if (posicao < 0) throw new IllegalArgumentException("posição não pode ser negativa.");
+        Tabela t = tabela;
+        int mascara = t.chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        int k;
+        while ((k = t.chaves[i]) != 0) {
+            if (k == chave) return false;
+            i = (i + 1) & mascara;
+        }
+        t.valores[i] = posicao;
+        CHAVE.setRelease(t.chaves, i, chave);
+        if (++tamanho > limite) redimensionar(t);
+        return true;
+    }
+
+    private void redimensionar(Tabela antiga) {
+        Tabela nova = new Tabela(antiga.chaves.length << 1);
+        int mascara = nova.chaves.length - 1;
+        for (int j = 0; j < antiga.chaves.length; j++) {
+            int k = antiga.chaves[j];
+            if (k == 0) continue;
+            int i = espalhar(k) & mascara;
+            while (nova.chaves[i] != 0) i = (i + 1) & mascara;
+            nova.chaves[i] = k;
+            nova.valores[i] = antiga.valores[j];
+        }
+        limite = (int) (nova.chaves.length * FATOR_CARGA);
+        tabela = nova;
+    }
+}
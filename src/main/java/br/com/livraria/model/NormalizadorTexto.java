@@ -0,0 +1,104 @@
+package br.com.livraria.model;
+
+import java.text.Normalizer;
+
+/**
+ * Normalização de textos para busca e comparação: minúsculas e sem acentos
+ * ("Memórias" → "memorias"), tanto nos caracteres acentuados prontos quanto na forma
+ * decomposta (NFD, letra seguida de marcas combinantes, comum em textos colados de
+ * outros sistemas), para que "o termo está contido no texto" equivalha a "a chave do
+ * termo está contida na chave do texto". As marcas são descartadas, então a chave
+ * pode ser mais curta que o texto: posições na chave não valem no texto original.
+ *
+ * As chaves dos títulos e dos nomes de cliente são calculadas uma vez, no cadastro;
+ * na consulta, só o termo é normalizado. Um texto que já está normalizado volta como
+ * a mesma instância, e os demais são montados num buffer reaproveitado pela thread:
+ * a única alocação é a da {@code String} final.
+ */
+public final class NormalizadorTexto {
+
+    private static final int LIMITE_TABELA = 0x250;   // latim básico e estendido
+    private static final int INICIO_MARCAS = 0x300;   // a partir daqui pode haver marcas combinantes
+    private static final char[] DOBRADO = new char[LIMITE_TABELA];
+
+    static {
+        for (char c = 0; c < LIMITE_TABELA; c++) {
+            char m = Character.toLowerCase(c);
+            String decomposto = Normalizer.normalize(String.valueOf(m), Normalizer.Form.NFD);
+            char base = decomposto.charAt(0);
+            DOBRADO[c] = decomposto.length() > 1 && Character.isLetter(base) ? base : m;
+        }
+    }
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private NormalizadorTexto() { }
+
+    /**
+     * O caractere em minúsculas e sem acento. Marcas combinantes avulsas voltam como
+     * estão: só {@link #chave} e {@link #chaveNome} as removem.
+     */
+    public static char dobrar(char c) {
+        return c < LIMITE_TABELA ? DOBRADO[c] : Character.toLowerCase(c);
+    }
+
+    /** Texto sem espaços nas pontas, em minúsculas e sem acentos (títulos e termos de busca). */
+    public static String chave(String texto) {
+        return normalizar(texto, false);
+    }
+
+    /** Como {@link #chave}, juntando também espaços repetidos no meio (nomes de pessoas). */
+    public static String chaveNome(String nome) {
+        return normalizar(nome, true);
+    }
+
+    private static String normalizar(String s, boolean juntarEspacos) {
+        int inicio = 0;
+        int fim = s.length();
+        while (inicio < fim && Character.isWhitespace(s.charAt(inicio))) inicio++;
+        while (fim > inicio && Character.isWhitespace(s.charAt(fim - 1))) fim--;
+        // primeira passada só lê: o caso comum (termo digitado em minúsculas) não aloca nada
+        int i = inicio;
+        while (i < fim) {
+            char c = s.charAt(i);
+            if (c >= INICIO_MARCAS || dobrar(c) != c) break;
+            if (juntarEspacos && Character.isWhitespace(c)
+                    && (c != ' ' || Character.isWhitespace(s.charAt(i + 1)))) break;
+            i++;
+        }
+        if (i == fim) return inicio == 0 && fim == s.length() ? s : s.substring(inicio, fim);
+
+        for (int j = i; j < fim; j++) {
+            if (s.charAt(j) >= INICIO_MARCAS) {
+                // decompõe para que acentos prontos fora da tabela e marcas avulsas virem
+                // letra + marca, e a marca seja descartada abaixo (só fora do caso comum)
+                s = Normalizer.normalize(s.substring(inicio, fim), Normalizer.Form.NFD);
+                i -= inicio;
+                inicio = 0;
+                fim = s.length();
+                break;
+            }
+        }
+        char[] buffer = BUFFER.get();
+        if (buffer.length < fim - inicio) {
+            buffer = new char[Math.max(fim - inicio, buffer.length << 1)];
+            BUFFER.set(buffer);
+        }
+        s.getChars(inicio, i, buffer, 0);  // o trecho já normalizado
+        int n = i - inicio;
+        boolean espaco = false;
+        for (; i < fim; i++) {
+            char c = s.charAt(i);
+            if (juntarEspacos && Character.isWhitespace(c)) {
+                espaco = true;
+            } else if (c >= INICIO_MARCAS && Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // acento decomposto: não conta como texto nem encerra o espaço pendente
+            } else {
+                if (espaco) buffer[n++] = ' ';
+                espaco = false;
+                buffer[n++] = dobrar(c);
+            }
+        }
+        return new String(buffer, 0, n);
+    }
+}
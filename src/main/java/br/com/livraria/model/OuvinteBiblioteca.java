@@ -0,0 +1,72 @@
+package br.com.livraria.model;
+
+import java.util.List;
+
+/**
+ * Recebe as mutações da {@link Biblioteca} na ordem em que são aplicadas.
+ *
+ * Cada método é chamado depois que a operação foi validada e antes de ela ficar
+ * visível para as demais threads (ordem de escrita antecipada, como num diário de
+ * transações). Se o ouvinte lançar exceção, a operação é desfeita e a exceção
+ * chega a quem chamou a biblioteca.
+ */
+public interface OuvinteBiblioteca {
+
+    default void aoAdicionarAutor(Autor autor) { }
+
+    /** Autor renomeado (o nome novo já em {@code autor.getNome()}). */
+    default void aoAlterarNomeAutor(Autor autor) { }
+
+    default void aoAdicionarLivro(Livro livro) { }
+
+    default void aoAlterarTitulo(Livro livro) { }
+
+    /** Livro passou para outro autor cadastrado (já em {@code livro.getAutor()}). */
+    default void aoAlterarAutor(Livro livro) { }
+
+    default void aoEmprestar(Emprestimo emprestimo) { }
+
+    default void aoDevolver(Emprestimo emprestimo) { }
+
+    /**
+     * Empréstimos de um mesmo lote ({@link Biblioteca#emprestarLivros}), na ordem do lote.
+     * Por padrão, um {@link #aoEmprestar} por item.
+     */
+    default void aoEmprestarLote(List<Emprestimo> lote) {
+        for (Emprestimo e : lote) aoEmprestar(e);
+    }
+
+    /** Devoluções de um mesmo lote ({@link Biblioteca#devolverLivros}); por padrão, um {@link #aoDevolver} por item. */
+    default void aoDevolverLote(List<Emprestimo> lote) {
+        for (Emprestimo e : lote) aoDevolver(e);
+    }
+
+    /** Data prevista de devolução alterada (já aplicada em {@code emprestimo}). */
+    default void aoProrrogar(Emprestimo emprestimo) { }
+
+    /** Cliente do empréstimo renomeado (o nome novo já em {@code emprestimo.getNomeCliente()}). */
+    default void aoRenomearCliente(Emprestimo emprestimo) { }
+
+    /** Reserva criada, ainda aguardando; as de um mesmo livro chegam na ordem da fila. */
+    default void aoReservar(Reserva reserva) { }
+
+    /**
+     * Exemplar separado para a reserva (prazo já em {@code reserva.getPrazoRetirada()}).
+     * É consequência de outra operação já aplicada (devolução, reserva, cancelamento,
+     * expiração): uma exceção aqui chega a quem chamou, mas não desfaz a separação.
+     */
+    default void aoSepararReserva(Reserva reserva) { }
+
+    /**
+     * Reserva retirada, cancelada ou expirada (já em {@code reserva.getSituacao()}).
+     * Como em {@link #aoSepararReserva}, uma exceção aqui não desfaz o encerramento.
+     */
+    default void aoEncerrarReserva(Reserva reserva) { }
+
+    /**
+     * Chamado na mesma thread depois que a operação notificada foi publicada e os
+     * locks da biblioteca foram liberados (ex.: para aguardar o fsync sem segurar
+     * as demais threads).
+     */
+    default void aposOperacao() { }
+}
@@ -0,0 +1,65 @@
+package br.com.livraria.model;
+
+import java.time.LocalDate;
+
+/**
+ * Reserva de um livro por um cliente, atendida por ordem de chegada.
+ *
+ * Enquanto não há exemplar para o cliente, a reserva fica {@link Situacao#AGUARDANDO}.
+ * Quando um exemplar é devolvido, ele vai direto para a primeira reserva da fila, que
+ * passa a {@link Situacao#SEPARADA} com um prazo para retirada; ao retirar, vira um
+ * empréstimo comum ({@link Situacao#ATENDIDA}). Reservas separadas e não retiradas no
+ * prazo expiram, e o exemplar segue para a próxima da fila.
+ */
+public class Reserva {
+
+    public enum Situacao { AGUARDANDO, SEPARADA, ATENDIDA, EXPIRADA, CANCELADA }
+
+    private final int id;
+    private final Livro livro;
+    private final String nomeCliente;
+    private final LocalDate dataReserva;
+    final String chaveCliente;                  // nome normalizado, para recusar reservas repetidas
+    private volatile Situacao situacao = Situacao.AGUARDANDO; // alterada com o monitor da fila do livro
+    private volatile LocalDate prazoRetirada;   // definido ao separar o exemplar
+
+    Reserva(int id, Livro livro, String nomeCliente, LocalDate dataReserva) {
+        if (nomeCliente == null || nomeCliente.isBlank()) throw new IllegalArgumentException("nomeCliente é obrigatório.");
+        if (dataReserva == null) throw new IllegalArgumentException("dataReserva é obrigatória.");
+        this.id = id;
+        this.livro = livro;
+        this.nomeCliente = nomeCliente.trim();
+        this.dataReserva = dataReserva;
+        this.chaveCliente = NormalizadorTexto.chaveNome(this.nomeCliente);
+    }
+
+    public int getId() { return id; }
+    public Livro getLivro() { return livro; }
+    public String getNomeCliente() { return nomeCliente; }
+    public LocalDate getDataReserva() { return dataReserva; }
+    public Situacao getSituacao() { return situacao; }
+
+    /** Data limite para retirar o exemplar separado ({@code null} enquanto aguarda). */
+    public LocalDate getPrazoRetirada() { return prazoRetirada; }
+
+    void separar(LocalDate prazoRetirada) {
+        this.prazoRetirada = prazoRetirada;
+        this.situacao = Situacao.SEPARADA;
+    }
+
+    void alterarSituacao(Situacao situacao) {
+        this.situacao = situacao;
+    }
+
+    @Override
+    public String toString() {
+        return "Reserva{" +
+                "id=" + id +
+                ", livro=" + livro.getTitulo() +
+                ", nomeCliente='" + nomeCliente + '\'' +
+                ", dataReserva=" + dataReserva +
+                ", situacao=" + situacao +
+                (prazoRetirada != null ? ", prazoRetirada=" + prazoRetirada : "") +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.livraria.persistencia;
+
+import br.com.livraria.model.Biblioteca;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava instantâneos periódicos em segundo plano, para que o tempo de reinício
+ * (instantâneo + trecho final do diário) não cresça indefinidamente. Um novo
+ * instantâneo só é gravado se o diário avançou desde o anterior.
+ */
+public class AgendadorInstantaneos implements Closeable {
+
+    private final Biblioteca biblioteca;
+    private final DiarioBiblioteca diario;
+    private final Path destino;
+    private final ScheduledExecutorService executor;
+    private volatile long ultimaPosicao = -1;
+    private volatile IOException ultimaFalha;
+
+    public AgendadorInstantaneos(Biblioteca biblioteca, DiarioBiblioteca diario, Path destino, Duration intervalo) {
+        if (intervalo.isZero() || intervalo.isNegative()) {
+            throw new IllegalArgumentException("intervalo deve ser positivo.");
+        }
+        this.biblioteca = biblioteca;
+        this.diario = diario;
+        this.destino = destino;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "instantaneos");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = intervalo.toMillis();
+        executor.scheduleWithFixedDelay(this::gravarSeNecessario, ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    private void gravarSeNecessario() {
+        try {
+            long posicao = diario.posicao();
+            if (posicao == ultimaPosicao) return;
+            Instantaneo.gravar(biblioteca, diario, destino);
+            ultimaPosicao = posicao;
+            ultimaFalha = null;
+        } catch (IOException e) {
+            ultimaFalha = e; // tenta de novo no próximo ciclo
+        }
+    }
+
+    /** Erro da última tentativa de gravação, ou {@code null} se ela teve sucesso. */
+    public IOException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
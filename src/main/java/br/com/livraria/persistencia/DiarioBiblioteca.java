@@ -0,0 +1,546 @@
+package br.com.livraria.persistencia;
+
+import br.com.livraria.model.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário (write-ahead log) binário e somente-anexação das mutações da biblioteca.
+ *
+ * Formato: cabeçalho de 8 bytes (mágico "LVRJ" + versão) seguido de registros
+ * {@code [int tamanho][byte tipo][int a][int b][int c][texto UTF-8][int crc32c]},
+ * onde {@code tamanho} cobre do tipo ao fim do texto e o CRC cobre os mesmos bytes.
+ * Os três inteiros têm significado por tipo (ids, datas em dias desde a época).
+ *
+ * As gravações usam commit em grupo: os registros são acumulados num buffer direto
+ * e uma única thread (o "líder") grava e faz o fsync do lote inteiro, enquanto as
+ * demais continuam anexando no outro buffer. Em {@link Durabilidade#SINCRONA} cada
+ * operação espera o fsync do seu lote em {@link #aposOperacao()}, já fora dos locks
+ * da biblioteca; em {@link Durabilidade#LOTE} o fsync é feito periodicamente em
+ * segundo plano.
+ *
+ * As reservas também são registradas (criação, separação e encerramento), mas não são
+ * reexecutadas na reprodução: ver {@link EstadoReservas}.
+ *
+ * Uso: {@link #abrir}, {@link #reproduzir} numa biblioteca vazia e só então
+ * {@link Biblioteca#adicionarOuvinte registrar} o diário nela.
+ */
+public class DiarioBiblioteca implements OuvinteBiblioteca, Closeable {
+
+    public enum Durabilidade {
+        /** Cada operação só retorna depois que seu registro foi forçado para o disco. */
+        SINCRONA,
+        /** O fsync ocorre a cada {@value #INTERVALO_SINCRONIZACAO_MS} ms, em segundo plano. */
+        LOTE
+    }
+
+    static final int MAGICO = 0x4C56524A; // "LVRJ"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 8;
+    static final int TAMANHO_FIXO = 1 + 4 + 4 + 4; // tipo + a + b + c
+
+    static final byte AUTOR_ADICIONADO = 1;
+    static final byte LIVRO_ADICIONADO = 2;
+    static final byte TITULO_ALTERADO = 3;
+    static final byte LIVRO_EMPRESTADO = 4;
+    static final byte LIVRO_DEVOLVIDO = 5;
+    static final byte PRAZO_ALTERADO = 6;   // a = empréstimo, b = nova data prevista
+    static final byte AUTOR_ALTERADO = 7;   // a = livro, b = novo autor
+    static final byte NOME_AUTOR_ALTERADO = 8; // a = autor, texto = novo nome
+    static final byte CLIENTE_RENOMEADO = 9;   // a = empréstimo, texto = novo nome do cliente
+    static final byte RESERVA_CRIADA = 10;     // a = reserva, b = livro, c = data, texto = cliente
+    static final byte RESERVA_SEPARADA = 11;   // a = reserva, b = prazo de retirada
+    static final byte RESERVA_RETIRADA = 12;   // a = reserva (o empréstimo tem registro próprio)
+    static final byte RESERVA_CANCELADA = 13;  // a = reserva
+    static final byte RESERVA_EXPIRADA = 14;   // a = reserva
+
+    private static final int TAMANHO_BUFFER = 1 << 20;
+    private static final int TAMANHO_LEITURA = 4 << 20;
+    private static final long INTERVALO_SINCRONIZACAO_MS = 10;
+    private static final byte[] SEM_TEXTO = new byte[0];
+
+    private final FileChannel canal;
+    private final Durabilidade durabilidade;
+    private final ScheduledExecutorService sincronizador;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition mudou = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer ativo = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private ByteBuffer reserva = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    private long posicaoLogica;   // fim do último registro anexado (inclui o que está em buffer)
+    private long posicaoDuravel;  // fim do último registro já forçado para o disco
+    private boolean gravando;     // há um líder gravando um lote
+    private boolean reproduzido;
+    private boolean fechado;
+    private IOException falha;    // erro de E/S anterior: o diário deixa de aceitar registros
+
+    // fim do último registro anexado por esta thread, aguardado em aposOperacao() no modo SINCRONA
+    private final ThreadLocal<long[]> pendente = ThreadLocal.withInitial(() -> new long[1]);
+
+    private DiarioBiblioteca(FileChannel canal, Durabilidade durabilidade) {
+        this.canal = canal;
+        this.durabilidade = durabilidade;
+        if (durabilidade == Durabilidade.LOTE) {
+            sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "diario-fsync");
+                t.setDaemon(true);
+                return t;
+            });
+            sincronizador.scheduleWithFixedDelay(this::sincronizarEmSegundoPlano,
+                    INTERVALO_SINCRONIZACAO_MS, INTERVALO_SINCRONIZACAO_MS, TimeUnit.MILLISECONDS);
+        } else {
+            sincronizador = null;
+        }
+    }
+
+    /** Abre (ou cria) o diário no caminho indicado. */
+    public static DiarioBiblioteca abrir(Path arquivo, Durabilidade durabilidade) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() == 0) {
+                ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO).putInt(MAGICO).putInt(VERSAO).flip();
+                while (cabecalho.hasRemaining()) canal.write(cabecalho, cabecalho.position());
+                canal.force(true);
+            } else {
+                ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+                while (cabecalho.hasRemaining() && canal.read(cabecalho, cabecalho.position()) >= 0) { }
+                cabecalho.flip();
+                if (cabecalho.remaining() < TAMANHO_CABECALHO || cabecalho.getInt() != MAGICO) {
+                    throw new IOException("Arquivo " + arquivo + " não é um diário da livraria.");
+                }
+                int versao = cabecalho.getInt();
+                if (versao != VERSAO) {
+                    throw new IOException("Versão de diário não suportada: " + versao);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return new DiarioBiblioteca(canal, durabilidade);
+    }
+
+    // ---------- Reprodução ----------
+
+    /**
+     * Reaplica todos os registros válidos na biblioteca de destino (que deve estar
+     * vazia e ainda sem este diário como ouvinte). Um final truncado ou corrompido
+     * (ex.: queda no meio de uma gravação) é descartado.
+     *
+     * @return quantidade de registros reaplicados
+     */
+    public long reproduzir(Biblioteca destino) throws IOException {
+        return reproduzir(destino, TAMANHO_CABECALHO, new EstadoReservas());
+    }
+
+    /**
+     * Materializa o instantâneo em {@code destino} e reaplica só os registros posteriores
+     * à posição gravada nele. A reprodução é idempotente para devoluções: devolver um
+     * empréstimo que já consta como devolvido é ignorado, o que permite partir de um
+     * instantâneo gravado sem parar o movimento.
+     */
+    public long reproduzir(Biblioteca destino, Instantaneo instantaneo) throws IOException {
+        instantaneo.materializar(destino);
+        return reproduzir(destino, instantaneo.getPosicaoDiario(), instantaneo.reservas());
+    }
+
+    private long reproduzir(Biblioteca destino, long posicao, EstadoReservas reservas) throws IOException {
+        lock.lock();
+        try {
+            if (reproduzido) throw new IllegalStateException("O diário já foi reproduzido.");
+            if (posicao < TAMANHO_CABECALHO || posicao > canal.size()) {
+                throw new IOException("Posição " + posicao + " fora do diário (tamanho " + canal.size() + ").");
+            }
+            Leitor leitor = new Leitor(destino, reservas);
+            long fimValido = leitor.ler(posicao);
+            try {
+                reservas.restaurar(destino);
+            } catch (RuntimeException e) {
+                throw new IOException("Reserva inválida no diário: " + e.getMessage(), e);
+            }
+            if (fimValido < canal.size()) {
+                canal.truncate(fimValido);
+                canal.force(true);
+            }
+            canal.position(fimValido);
+            posicaoLogica = fimValido;
+            posicaoDuravel = fimValido;
+            reproduzido = true;
+            return leitor.registros;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Leitor {
+        private final Biblioteca destino;
+        private final EstadoReservas reservas;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_LEITURA);
+        private final CRC32C verificador = new CRC32C();
+        private byte[] texto = new byte[256];
+        long registros;
+
+        Leitor(Biblioteca destino, EstadoReservas reservas) {
+            this.destino = destino;
+            this.reservas = reservas;
+        }
+
+        /** Lê a partir de {@code inicio} e devolve a posição logo após o último registro válido. */
+        long ler(long inicio) throws IOException {
+            long posicaoBuffer = inicio; // posição no arquivo do byte 0 do buffer
+            long lidoAte = inicio;
+            boolean fimArquivo = false;
+            buffer.clear();
+            while (true) {
+                if (!fimArquivo) {
+                    int n = canal.read(buffer, lidoAte);
+                    if (n < 0) fimArquivo = true; else lidoAte += n;
+                }
+                buffer.flip();
+                while (buffer.remaining() >= 4) {
+                    int inicioRegistro = buffer.position();
+                    int tamanho = buffer.getInt(inicioRegistro);
+                    if (tamanho < TAMANHO_FIXO || tamanho > TAMANHO_BUFFER) {
+                        return posicaoBuffer + inicioRegistro; // lixo: fim do diário válido
+                    }
+                    if (buffer.remaining() < 4 + tamanho + 4) break;
+                    int inicioDados = inicioRegistro + 4;
+                    verificador.reset();
+                    buffer.limit(inicioDados + tamanho).position(inicioDados);
+                    verificador.update(buffer);
+                    buffer.limit(buffer.capacity());
+                    if ((int) verificador.getValue() != buffer.getInt(inicioDados + tamanho)) {
+                        return posicaoBuffer + inicioRegistro;
+                    }
+                    aplicar(inicioDados, tamanho, posicaoBuffer + inicioRegistro);
+                    registros++;
+                    buffer.position(inicioDados + tamanho + 4);
+                    buffer.limit(lidoAteNoBuffer(posicaoBuffer, lidoAte));
+                }
+                if (fimArquivo) return posicaoBuffer + buffer.position();
+                posicaoBuffer += buffer.position();
+                buffer.compact();
+            }
+        }
+
+        private int lidoAteNoBuffer(long posicaoBuffer, long lidoAte) {
+            return (int) (lidoAte - posicaoBuffer);
+        }
+
+        private void aplicar(int inicio, int tamanho, long posicaoArquivo) throws IOException {
+            byte tipo = buffer.get(inicio);
+            int a = buffer.getInt(inicio + 1);
+            int b = buffer.getInt(inicio + 5);
+            int c = buffer.getInt(inicio + 9);
+            int n = tamanho - TAMANHO_FIXO;
+            String s = null;
+            if (n > 0) {
+                if (n > texto.length) texto = new byte[Math.max(n, texto.length << 1)];
+                buffer.get(inicio + TAMANHO_FIXO, texto, 0, n);
+                s = new String(texto, 0, n, StandardCharsets.UTF_8);
+            }
+            try {
+                switch (tipo) {
+                    case AUTOR_ADICIONADO -> destino.adicionarAutor(new Autor(a, s, LocalDate.ofEpochDay(b)));
+                    case LIVRO_ADICIONADO -> destino.adicionarLivro(new Livro(a, s, destino.buscarAutorPorId(b)
+                            .orElseThrow(() -> new NoSuchElementException("Autor id=" + b + " não encontrado.")),
+                            c == 0 ? 1 : c)); // diários anteriores aos exemplares gravavam 0
+                    case TITULO_ALTERADO -> destino.buscarLivroPorId(a)
+                            .orElseThrow(() -> new NoSuchElementException("Livro id=" + a + " não encontrado."))
+                            .setTitulo(s);
+                    case AUTOR_ALTERADO -> destino.buscarLivroPorId(a)
+                            .orElseThrow(() -> new NoSuchElementException("Livro id=" + a + " não encontrado."))
+                            .setAutor(destino.buscarAutorPorId(b)
+                                    .orElseThrow(() -> new NoSuchElementException("Autor id=" + b + " não encontrado.")));
+                    case NOME_AUTOR_ALTERADO -> destino.buscarAutorPorId(a)
+                            .orElseThrow(() -> new NoSuchElementException("Autor id=" + a + " não encontrado."))
+                            .setNome(s);
+                    case CLIENTE_RENOMEADO -> destino.buscarEmprestimoPorId(a)
+                            .orElseThrow(() -> new NoSuchElementException("Empréstimo id=" + a + " não encontrado."))
+                            .setNomeCliente(s);
+                    case LIVRO_EMPRESTADO -> destino.emprestarLivro(a, b, s, LocalDate.ofEpochDay(c));
+                    case LIVRO_DEVOLVIDO -> {
+                        if (!destino.buscarEmprestimoPorId(a).map(Emprestimo::isDevolvido).orElse(false)) {
+                            destino.devolverLivro(a, LocalDate.ofEpochDay(b));
+                        }
+                    }
+                    case PRAZO_ALTERADO -> {
+                        // uma prorrogação concorrente à devolução pode ter sido registrada depois dela
+                        if (!destino.buscarEmprestimoPorId(a).map(Emprestimo::isDevolvido).orElse(false)) {
+                            destino.prorrogarEmprestimo(a, LocalDate.ofEpochDay(b));
+                        }
+                    }
+                    case RESERVA_CRIADA -> reservas.criada(a, b, s, LocalDate.ofEpochDay(c));
+                    case RESERVA_SEPARADA -> reservas.separada(a, LocalDate.ofEpochDay(b));
+                    case RESERVA_RETIRADA, RESERVA_CANCELADA, RESERVA_EXPIRADA -> reservas.encerrada(a);
+                    default -> throw new IllegalStateException("tipo de registro desconhecido: " + tipo);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Registro inválido na posição " + posicaoArquivo + " do diário: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // ---------- Registro das mutações ----------
+    @Override
+    public void aoAdicionarAutor(Autor autor) {
+        registrar(AUTOR_ADICIONADO, autor.getId(), (int) autor.getDataNascimento().toEpochDay(), 0, autor.getNome());
+    }
+
+    @Override
+    public void aoAlterarNomeAutor(Autor autor) {
+        registrar(NOME_AUTOR_ALTERADO, autor.getId(), 0, 0, autor.getNome());
+    }
+
+    @Override
+    public void aoAdicionarLivro(Livro livro) {
+        registrar(LIVRO_ADICIONADO, livro.getId(), livro.getAutor().getId(), livro.getExemplares(), livro.getTitulo());
+    }
+
+    @Override
+    public void aoAlterarTitulo(Livro livro) {
+        registrar(TITULO_ALTERADO, livro.getId(), 0, 0, livro.getTitulo());
+    }
+
+    @Override
+    public void aoAlterarAutor(Livro livro) {
+        registrar(AUTOR_ALTERADO, livro.getId(), livro.getAutor().getId(), 0, null);
+    }
+
+    @Override
+    public void aoEmprestar(Emprestimo e) {
+        registrar(LIVRO_EMPRESTADO, e.getId(), e.getLivro().getId(),
+                (int) e.getDataEmprestimo().toEpochDay(), e.getNomeCliente());
+        // o registro de empréstimo não tem campo livre para o prazo: só o que foge do padrão vai à parte
+        if (!e.getDataPrevistaDevolucao().equals(e.getDataEmprestimo().plusDays(Emprestimo.PRAZO_PADRAO_DIAS))) {
+            aoProrrogar(e);
+        }
+    }
+
+    // lotes: um registro por item, como nas operações avulsas (a reprodução não muda), mas
+    // recusados por inteiro se o diário já não aceita gravações, em vez de parar no meio
+    @Override
+    public void aoEmprestarLote(List<Emprestimo> lote) {
+        registrarLote(lote, this::aoEmprestar);
+    }
+
+    @Override
+    public void aoDevolverLote(List<Emprestimo> lote) {
+        registrarLote(lote, this::aoDevolver);
+    }
+
+    private void registrarLote(List<Emprestimo> lote, Consumer<Emprestimo> registrarItem) {
+        lock.lock();
+        try {
+            verificarDisponivel();
+            for (Emprestimo e : lote) registrarItem.accept(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no diário.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void aoProrrogar(Emprestimo e) {
+        registrar(PRAZO_ALTERADO, e.getId(), (int) e.getDataPrevistaDevolucao().toEpochDay(), 0, null);
+    }
+
+    @Override
+    public void aoRenomearCliente(Emprestimo e) {
+        registrar(CLIENTE_RENOMEADO, e.getId(), 0, 0, e.getNomeCliente());
+    }
+
+    @Override
+    public void aoDevolver(Emprestimo e) {
+        registrar(LIVRO_DEVOLVIDO, e.getId(), (int) e.getDataDevolucao().toEpochDay(), 0, null);
+    }
+
+    @Override
+    public void aoReservar(Reserva r) {
+        registrar(RESERVA_CRIADA, r.getId(), r.getLivro().getId(), (int) r.getDataReserva().toEpochDay(),
+                r.getNomeCliente());
+    }
+
+    @Override
+    public void aoSepararReserva(Reserva r) {
+        registrar(RESERVA_SEPARADA, r.getId(), (int) r.getPrazoRetirada().toEpochDay(), 0, null);
+    }
+
+    @Override
+    public void aoEncerrarReserva(Reserva r) {
+        byte tipo = switch (r.getSituacao()) {
+            case ATENDIDA -> RESERVA_RETIRADA;
+            case CANCELADA -> RESERVA_CANCELADA;
+            case EXPIRADA -> RESERVA_EXPIRADA;
+            default -> throw new IllegalStateException("Reserva id=" + r.getId() + " ainda ativa.");
+        };
+        registrar(tipo, r.getId(), 0, 0, null);
+    }
+
+    private void registrar(byte tipo, int a, int b, int c, String texto) {
+        byte[] bytes = texto == null ? SEM_TEXTO : texto.getBytes(StandardCharsets.UTF_8);
+        int tamanho = TAMANHO_FIXO + bytes.length;
+        if (4 + tamanho + 4 > TAMANHO_BUFFER) {
+            throw new IllegalArgumentException("Registro grande demais para o diário (" + tamanho + " bytes).");
+        }
+        lock.lock();
+        try {
+            verificarDisponivel();
+            while (ativo.remaining() < 4 + tamanho + 4) {
+                esvaziar(false);
+            }
+            int inicio = ativo.position();
+            ativo.putInt(tamanho).put(tipo).putInt(a).putInt(b).putInt(c).put(bytes);
+            int fimDados = ativo.position();
+            crc.reset();
+            crc.update(ativo.position(inicio + 4).limit(fimDados));
+            ativo.limit(ativo.capacity()).position(fimDados);
+            ativo.putInt((int) crc.getValue());
+            posicaoLogica += 4 + tamanho + 4;
+            if (durabilidade == Durabilidade.SINCRONA) {
+                pendente.get()[0] = posicaoLogica;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no diário.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void aposOperacao() {
+        if (durabilidade != Durabilidade.SINCRONA) return;
+        long[] alvo = pendente.get();
+        if (alvo[0] == 0) return;
+        lock.lock();
+        try {
+            aguardarDuravel(alvo[0]);
+            alvo[0] = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao sincronizar o diário.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Força para o disco tudo o que já foi registrado. */
+    public void sincronizar() throws IOException {
+        lock.lock();
+        try {
+            verificarDisponivel();
+            aguardarDuravel(posicaoLogica);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sincronizarEmSegundoPlano() {
+        lock.lock();
+        try {
+            if (!fechado && falha == null && !gravando && posicaoDuravel < posicaoLogica) {
+                esvaziar(true);
+            }
+        } catch (IOException e) {
+            // registrado em 'falha'; a próxima operação recebe o erro
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Fim lógico do diário: posição no arquivo logo após o último registro anexado. */
+    public long posicao() {
+        lock.lock();
+        try {
+            return posicaoLogica;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // chamado com o lock; quem encontra o caminho livre vira líder e grava o lote de todos
+    private void aguardarDuravel(long alvo) throws IOException {
+        while (posicaoDuravel < alvo) {
+            if (falha != null) throw falha;
+            if (gravando) {
+                mudou.awaitUninterruptibly();
+            } else {
+                esvaziar(true);
+            }
+        }
+    }
+
+    /**
+     * Grava o buffer ativo no arquivo (e faz o fsync, se pedido). Chamado com o lock;
+     * solta o lock durante a E/S para que outras threads continuem anexando no buffer reserva.
+     */
+    private void esvaziar(boolean forcar) throws IOException {
+        while (gravando) mudou.awaitUninterruptibly();
+        if (falha != null) throw falha;
+        ByteBuffer lote = ativo;
+        ativo = reserva;
+        reserva = null;
+        long alvo = posicaoLogica;
+        gravando = true;
+        lock.unlock();
+        IOException erro = null;
+        try {
+            lote.flip();
+            while (lote.hasRemaining()) canal.write(lote);
+            if (forcar) canal.force(false);
+        } catch (IOException e) {
+            erro = e;
+        } finally {
+            lock.lock();
+            lote.clear();
+            reserva = lote;
+            gravando = false;
+            if (erro != null) {
+                falha = erro;
+            } else if (forcar) {
+                posicaoDuravel = Math.max(posicaoDuravel, alvo);
+            }
+            mudou.signalAll();
+        }
+        if (erro != null) throw erro;
+    }
+
+    private void verificarDisponivel() throws IOException {
+        if (!reproduzido) throw new IllegalStateException("Reproduza o diário antes de registrar novas operações.");
+        if (fechado) throw new IllegalStateException("Diário fechado.");
+        if (falha != null) throw falha;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sincronizador != null) sincronizador.shutdown();
+        lock.lock();
+        try {
+            if (fechado) return;
+            if (reproduzido && falha == null) aguardarDuravel(posicaoLogica);
+            fechado = true;
+            canal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
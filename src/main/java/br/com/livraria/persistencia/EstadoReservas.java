@@ -0,0 +1,52 @@
+package br.com.livraria.persistencia;
+
+import br.com.livraria.model.Biblioteca;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reservas ativas acumuladas durante a reprodução (instantâneo + diário).
+ *
+ * As operações de reserva não são reexecutadas registro a registro: elas dependem do
+ * contador de exemplares no instante original, que a reprodução só reconstrói no fim.
+ * Aqui cada reserva entra ao ser criada, ganha o prazo ao ser separada e sai ao ser
+ * encerrada; no fim, {@link #restaurar} reinstala as que sobraram, na ordem das filas.
+ * Os registros repetidos entre o instantâneo e o trecho do diário posterior a ele são
+ * ignorados.
+ */
+final class EstadoReservas {
+
+    private record Pendente(int livroId, String cliente, LocalDate dataReserva, LocalDate prazoRetirada) { }
+
+    private final Map<Integer, Pendente> ativas = new LinkedHashMap<>();
+    private int ultimoId;
+
+    void criada(int id, int livroId, String cliente, LocalDate dataReserva) {
+        ativas.putIfAbsent(id, new Pendente(livroId, cliente, dataReserva, null));
+        avancar(id);
+    }
+
+    void separada(int id, LocalDate prazoRetirada) {
+        // uma separação registrada depois do encerramento da reserva (ver aoSepararReserva) é ignorada
+        ativas.computeIfPresent(id, (k, p) -> new Pendente(p.livroId(), p.cliente(), p.dataReserva(), prazoRetirada));
+    }
+
+    void encerrada(int id) {
+        ativas.remove(id);
+    }
+
+    void avancar(int id) {
+        ultimoId = Math.max(ultimoId, id);
+    }
+
+    /** Reinstala as reservas ativas em {@code destino}, já com catálogo e empréstimos reproduzidos. */
+    void restaurar(Biblioteca destino) {
+        for (Map.Entry<Integer, Pendente> e : ativas.entrySet()) {
+            Pendente p = e.getValue();
+            destino.restaurarReserva(e.getKey(), p.livroId(), p.cliente(), p.dataReserva(), p.prazoRetirada());
+        }
+        destino.avancarSequenciaReservas(ultimoId);
+    }
+}
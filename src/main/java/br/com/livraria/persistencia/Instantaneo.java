@@ -0,0 +1,407 @@
+package br.com.livraria.persistencia;
+
+import br.com.livraria.model.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Instantâneo (checkpoint) da biblioteca em layout colunar binário, carregado via
+ * {@link MappedByteBuffer}.
+ *
+ * O arquivo tem um cabeçalho fixo e quatro seções (autores, livros, empréstimos e
+ * reservas ativas). Cada seção guarda colunas de {@code int} (ids, chaves estrangeiras,
+ * datas em dias desde a época, a ordem das posições por id e o fim de cada texto)
+ * seguidas de um heap UTF-8 com os textos. {@link #buscarLivroPorId} e
+ * {@link #buscarAutorPorId} respondem por busca binária direto no mapeamento, sem
+ * {@link #materializar}.
+ *
+ * A gravação não para o movimento: {@link Biblioteca#marcar} captura os tamanhos das
+ * listas e a posição do diário em O(1), e o restante é lido sem locks. O que mudar
+ * durante a gravação é corrigido ao reproduzir o diário a partir da posição gravada.
+ * As reservas ativas são lidas depois do marco; as que mudarem depois disso também têm
+ * registro no trecho reproduzido.
+ *
+ * O que o instantâneo encurta é a leitura do diário, não o reinício inteiro: a
+ * {@code Biblioteca} precisa de todos os objetos para operar, então {@code Main}
+ * materializa o arquivo todo antes de atender (as consultas mapeadas servem a quem só
+ * inspeciona o arquivo), e {@link #materializar} refaz cada empréstimo gravado com
+ * {@code emprestarLivro}/{@code devolverLivro}, em O(empréstimos já feitos). O diário
+ * também não é truncado: continua crescendo em disco.
+ */
+public final class Instantaneo implements Closeable {
+
+    static final int MAGICO = 0x4C565253; // "LVRS"
+    static final int VERSAO = 4;
+    static final int TAMANHO_CABECALHO = 80;
+    static final int SEM_DEVOLUCAO = Integer.MIN_VALUE;
+    static final int SEM_PRAZO = Integer.MIN_VALUE;
+
+    private static final int COLUNAS_AUTORES = 4;     // id, nascimento, ordemPorId, fimNome
+    private static final int COLUNAS_LIVROS = 5;      // id, autorId, ordemPorId, fimTitulo, exemplares
+    private static final int COLUNAS_EMPRESTIMOS = 7; // id, livroId, dataEmprestimo, dataDevolucao, ordemPorId, fimCliente, dataPrevista
+    private static final int COLUNAS_RESERVAS = 5;    // id, livroId, dataReserva, prazoRetirada, fimCliente
+
+    private final FileChannel canal;
+    private final long posicaoDiario;
+    private final Secao autores;
+    private final Secao livros;
+    private final Secao emprestimos;
+    private final Secao reservas;
+    private final int ultimoIdReserva;
+
+    private Instantaneo(FileChannel canal, long posicaoDiario, Secao autores, Secao livros, Secao emprestimos,
+                        Secao reservas, int ultimoIdReserva) {
+        this.canal = canal;
+        this.posicaoDiario = posicaoDiario;
+        this.autores = autores;
+        this.livros = livros;
+        this.emprestimos = emprestimos;
+        this.reservas = reservas;
+        this.ultimoIdReserva = ultimoIdReserva;
+    }
+
+    // ---------- Gravação ----------
+
+    /**
+     * Grava o instantâneo da biblioteca (num arquivo temporário, movido atomicamente
+     * para {@code destino} ao final) junto com a posição atual do diário.
+     */
+    public static void gravar(Biblioteca biblioteca, DiarioBiblioteca diario, Path destino) throws IOException {
+        Biblioteca.Marco marco = biblioteca.marcar(diario::posicao);
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long inicioAutores = TAMANHO_CABECALHO;
+            long inicioLivros = gravarAutores(canal, inicioAutores, biblioteca.getAutores().subList(0, marco.autores()));
+            long inicioEmprestimos = gravarLivros(canal, inicioLivros, biblioteca.getLivros().subList(0, marco.livros()));
+            long inicioReservas = gravarEmprestimos(canal, inicioEmprestimos,
+                    biblioteca.getEmprestimos().subList(0, marco.emprestimos()));
+            int ultimoIdReserva = biblioteca.getUltimoIdReserva(); // antes da lista: cobre todas as listadas
+            List<Reserva> ativas = biblioteca.listarReservasAtivas();
+            long fim = gravarReservas(canal, inicioReservas, ativas);
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                    .putInt(MAGICO).putInt(VERSAO).putLong(marco.posicao())
+                    .putInt(marco.autores()).putInt(marco.livros()).putInt(marco.emprestimos()).putInt(ativas.size())
+                    .putLong(inicioAutores).putLong(inicioLivros).putLong(inicioEmprestimos).putLong(inicioReservas)
+                    .putLong(fim).putInt(ultimoIdReserva);
+            cabecalho.clear();
+            while (cabecalho.hasRemaining()) canal.write(cabecalho, cabecalho.position());
+            canal.force(true);
+        }
+        Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long gravarAutores(FileChannel canal, long inicio, List<Autor> lista) throws IOException {
+        int n = lista.size();
+        ColunaSaida ids = new ColunaSaida(canal, inicio);
+        ColunaSaida nascimentos = new ColunaSaida(canal, inicio + 4L * n);
+        ColunaSaida fins = new ColunaSaida(canal, inicio + 12L * n);
+        ColunaSaida heap = new ColunaSaida(canal, inicio + 4L * COLUNAS_AUTORES * n);
+        long[] porId = new long[n];
+        for (int i = 0; i < n; i++) {
+            Autor a = lista.get(i);
+            ids.putInt(a.getId());
+            nascimentos.putInt((int) a.getDataNascimento().toEpochDay());
+            fins.putInt(heap.putTexto(a.getNome()));
+            porId[i] = ((long) a.getId() << 32) | i;
+        }
+        gravarOrdem(canal, inicio + 8L * n, porId);
+        ids.concluir();
+        nascimentos.concluir();
+        fins.concluir();
+        return heap.concluir();
+    }
+
+    private static long gravarLivros(FileChannel canal, long inicio, List<Livro> lista) throws IOException {
+        int n = lista.size();
+        ColunaSaida ids = new ColunaSaida(canal, inicio);
+        ColunaSaida autores = new ColunaSaida(canal, inicio + 4L * n);
+        ColunaSaida fins = new ColunaSaida(canal, inicio + 12L * n);
+        ColunaSaida exemplares = new ColunaSaida(canal, inicio + 16L * n);
+        ColunaSaida heap = new ColunaSaida(canal, inicio + 4L * COLUNAS_LIVROS * n);
+        long[] porId = new long[n];
+        for (int i = 0; i < n; i++) {
+            Livro l = lista.get(i);
+            ids.putInt(l.getId());
+            autores.putInt(l.getAutor().getId());
+            fins.putInt(heap.putTexto(l.getTitulo()));
+            exemplares.putInt(l.getExemplares());
+            porId[i] = ((long) l.getId() << 32) | i;
+        }
+        gravarOrdem(canal, inicio + 8L * n, porId);
+        ids.concluir();
+        autores.concluir();
+        fins.concluir();
+        exemplares.concluir();
+        return heap.concluir();
+    }
+
+    private static long gravarEmprestimos(FileChannel canal, long inicio, List<Emprestimo> lista) throws IOException {
+        int n = lista.size();
+        ColunaSaida ids = new ColunaSaida(canal, inicio);
+        ColunaSaida livros = new ColunaSaida(canal, inicio + 4L * n);
+        ColunaSaida datas = new ColunaSaida(canal, inicio + 8L * n);
+        ColunaSaida devolucoes = new ColunaSaida(canal, inicio + 12L * n);
+        ColunaSaida fins = new ColunaSaida(canal, inicio + 20L * n);
+        ColunaSaida previstas = new ColunaSaida(canal, inicio + 24L * n);
+        ColunaSaida heap = new ColunaSaida(canal, inicio + 4L * COLUNAS_EMPRESTIMOS * n);
+        long[] porId = new long[n];
+        for (int i = 0; i < n; i++) {
+            Emprestimo e = lista.get(i);
+            LocalDate devolucao = e.getDataDevolucao();
+            ids.putInt(e.getId());
+            livros.putInt(e.getLivro().getId());
+            datas.putInt((int) e.getDataEmprestimo().toEpochDay());
+            devolucoes.putInt(devolucao == null ? SEM_DEVOLUCAO : (int) devolucao.toEpochDay());
+            fins.putInt(heap.putTexto(e.getNomeCliente()));
+            previstas.putInt((int) e.getDataPrevistaDevolucao().toEpochDay());
+            porId[i] = ((long) e.getId() << 32) | i;
+        }
+        gravarOrdem(canal, inicio + 16L * n, porId);
+        ids.concluir();
+        livros.concluir();
+        datas.concluir();
+        devolucoes.concluir();
+        fins.concluir();
+        previstas.concluir();
+        return heap.concluir();
+    }
+
+    // sem coluna de ordem: as reservas só são lidas em sequência, na ordem das filas
+    private static long gravarReservas(FileChannel canal, long inicio, List<Reserva> lista) throws IOException {
+        int n = lista.size();
+        ColunaSaida ids = new ColunaSaida(canal, inicio);
+        ColunaSaida livros = new ColunaSaida(canal, inicio + 4L * n);
+        ColunaSaida datas = new ColunaSaida(canal, inicio + 8L * n);
+        ColunaSaida prazos = new ColunaSaida(canal, inicio + 12L * n);
+        ColunaSaida fins = new ColunaSaida(canal, inicio + 16L * n);
+        ColunaSaida heap = new ColunaSaida(canal, inicio + 4L * COLUNAS_RESERVAS * n);
+        for (Reserva r : lista) {
+            // encerrada depois de listada: grava como ativa, o encerramento está no trecho reproduzido
+            LocalDate prazo = r.getPrazoRetirada();
+            ids.putInt(r.getId());
+            livros.putInt(r.getLivro().getId());
+            datas.putInt((int) r.getDataReserva().toEpochDay());
+            prazos.putInt(prazo == null ? SEM_PRAZO : (int) prazo.toEpochDay());
+            fins.putInt(heap.putTexto(r.getNomeCliente()));
+        }
+        ids.concluir();
+        livros.concluir();
+        datas.concluir();
+        prazos.concluir();
+        fins.concluir();
+        return heap.concluir();
+    }
+
+    // coluna com as posições ordenadas por id (ids são positivos: a ordenação do long segue a do id)
+    private static void gravarOrdem(FileChannel canal, long inicio, long[] idEPosicao) throws IOException {
+        Arrays.sort(idEPosicao);
+        ColunaSaida ordem = new ColunaSaida(canal, inicio);
+        for (long v : idEPosicao) ordem.putInt((int) v);
+        ordem.concluir();
+    }
+
+    /** Escrita sequencial bufferizada a partir de uma posição do arquivo. */
+    private static final class ColunaSaida {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final long inicio;
+        private long posicao;
+
+        ColunaSaida(FileChannel canal, long inicio) {
+            this.canal = canal;
+            this.inicio = inicio;
+            this.posicao = inicio;
+        }
+
+        void putInt(int v) throws IOException {
+            if (buffer.remaining() < 4) descarregar();
+            buffer.putInt(v);
+        }
+
+        /** Anexa o texto em UTF-8 e devolve o fim dele, relativo ao início da coluna. */
+        int putTexto(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            int off = 0;
+            while (off < bytes.length) {
+                if (!buffer.hasRemaining()) descarregar();
+                int n = Math.min(buffer.remaining(), bytes.length - off);
+                buffer.put(bytes, off, n);
+                off += n;
+            }
+            long fim = posicao + buffer.position() - inicio;
+            if (fim > Integer.MAX_VALUE) throw new IOException("Seção de textos do instantâneo excede 2 GB.");
+            return (int) fim;
+        }
+
+        private void descarregar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) posicao += canal.write(buffer, posicao);
+            buffer.clear();
+        }
+
+        /** Grava o que restou no buffer e devolve a posição final no arquivo. */
+        long concluir() throws IOException {
+            descarregar();
+            return posicao;
+        }
+    }
+
+    // ---------- Leitura (mapeada) ----------
+
+    /** Mapeia o instantâneo em memória; nenhum objeto do modelo é criado ainda. */
+    public static Instantaneo abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            ByteBuffer c = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANHO_CABECALHO);
+            if (c.getInt() != MAGICO) throw new IOException("Arquivo " + arquivo + " não é um instantâneo da livraria.");
+            int versao = c.getInt();
+            if (versao != VERSAO) throw new IOException("Versão de instantâneo não suportada: " + versao);
+            long posicaoDiario = c.getLong();
+            int nAutores = c.getInt();
+            int nLivros = c.getInt();
+            int nEmprestimos = c.getInt();
+            int nReservas = c.getInt();
+            long inicioAutores = c.getLong();
+            long inicioLivros = c.getLong();
+            long inicioEmprestimos = c.getLong();
+            long inicioReservas = c.getLong();
+            long fim = c.getLong();
+            int ultimoIdReserva = c.getInt();
+            if (fim != canal.size()) throw new IOException("Instantâneo " + arquivo + " incompleto.");
+            return new Instantaneo(canal, posicaoDiario,
+                    new Secao(canal, inicioAutores, inicioLivros, nAutores, COLUNAS_AUTORES),
+                    new Secao(canal, inicioLivros, inicioEmprestimos, nLivros, COLUNAS_LIVROS),
+                    new Secao(canal, inicioEmprestimos, inicioReservas, nEmprestimos, COLUNAS_EMPRESTIMOS),
+                    new Secao(canal, inicioReservas, fim, nReservas, COLUNAS_RESERVAS),
+                    ultimoIdReserva);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /** Seção mapeada: {@code colunas} colunas de int seguidas do heap de textos. */
+    private static final class Secao {
+        final MappedByteBuffer dados;
+        final int quantidade;
+        final int inicioHeap;
+
+        Secao(FileChannel canal, long inicio, long fim, int quantidade, int colunas) throws IOException {
+            if (fim - inicio > Integer.MAX_VALUE) throw new IOException("Seção do instantâneo excede 2 GB.");
+            this.dados = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio);
+            this.quantidade = quantidade;
+            this.inicioHeap = 4 * colunas * quantidade;
+        }
+
+        int coluna(int coluna, int i) {
+            return dados.getInt((coluna * quantidade + i) << 2);
+        }
+
+        String texto(int colunaFim, int i) {
+            int inicio = i == 0 ? 0 : coluna(colunaFim, i - 1);
+            int fim = coluna(colunaFim, i);
+            byte[] bytes = new byte[fim - inicio];
+            dados.get(inicioHeap + inicio, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** Busca binária pela coluna de ordem; devolve a posição ou -1. */
+        int posicaoDoId(int colunaOrdem, int id) {
+            int lo = 0;
+            int hi = quantidade - 1;
+            while (lo <= hi) {
+                int meio = (lo + hi) >>> 1;
+                int pos = coluna(colunaOrdem, meio);
+                int atual = coluna(0, pos);
+                if (atual < id) lo = meio + 1;
+                else if (atual > id) hi = meio - 1;
+                else return pos;
+            }
+            return -1;
+        }
+    }
+
+    public long getPosicaoDiario() { return posicaoDiario; }
+    public int quantidadeAutores() { return autores.quantidade; }
+    public int quantidadeLivros() { return livros.quantidade; }
+    public int quantidadeEmprestimos() { return emprestimos.quantidade; }
+    public int quantidadeReservas() { return reservas.quantidade; }
+
+    /** Consulta direto no mapeamento (cria só o autor pedido, avulso). */
+    public Optional<Autor> buscarAutorPorId(int id) {
+        int pos = autores.posicaoDoId(2, id);
+        return pos < 0 ? Optional.empty() : Optional.of(autorNaPosicao(pos));
+    }
+
+    /** Consulta direto no mapeamento (cria só o livro pedido e seu autor, avulsos). */
+    public Optional<Livro> buscarLivroPorId(int id) {
+        int pos = livros.posicaoDoId(2, id);
+        if (pos < 0) return Optional.empty();
+        int autorId = livros.coluna(1, pos);
+        Autor autor = buscarAutorPorId(autorId)
+                .orElseThrow(() -> new IllegalStateException("Autor id=" + autorId + " ausente do instantâneo."));
+        return Optional.of(new Livro(id, livros.texto(3, pos), autor, livros.coluna(4, pos)));
+    }
+
+    private Autor autorNaPosicao(int pos) {
+        return new Autor(autores.coluna(0, pos), autores.texto(3, pos), LocalDate.ofEpochDay(autores.coluna(1, pos)));
+    }
+
+    /**
+     * Cria todos os objetos na biblioteca de destino (vazia, sem ouvintes). Os
+     * exemplares disponíveis de cada livro são derivados dos empréstimos em aberto; as
+     * reservas só entram depois da reprodução do diário, em
+     * {@link DiarioBiblioteca#reproduzir(Biblioteca, Instantaneo)}.
+     */
+    public void materializar(Biblioteca destino) {
+        for (int i = 0; i < autores.quantidade; i++) {
+            destino.adicionarAutor(autorNaPosicao(i));
+        }
+        for (int i = 0; i < livros.quantidade; i++) {
+            int autorId = livros.coluna(1, i);
+            Autor autor = destino.buscarAutorPorId(autorId)
+                    .orElseThrow(() -> new IllegalStateException("Autor id=" + autorId + " ausente do instantâneo."));
+            destino.adicionarLivro(new Livro(livros.coluna(0, i), livros.texto(3, i), autor, livros.coluna(4, i)));
+        }
+        for (int i = 0; i < emprestimos.quantidade; i++) {
+            int id = emprestimos.coluna(0, i);
+            destino.emprestarLivro(id, emprestimos.coluna(1, i), emprestimos.texto(5, i),
+                    LocalDate.ofEpochDay(emprestimos.coluna(2, i)), LocalDate.ofEpochDay(emprestimos.coluna(6, i)));
+            int devolucao = emprestimos.coluna(3, i);
+            if (devolucao != SEM_DEVOLUCAO) destino.devolverLivro(id, LocalDate.ofEpochDay(devolucao));
+        }
+    }
+
+    /** As reservas ativas gravadas, como ponto de partida da reprodução do diário. */
+    EstadoReservas reservas() {
+        EstadoReservas estado = new EstadoReservas();
+        for (int i = 0; i < reservas.quantidade; i++) {
+            int id = reservas.coluna(0, i);
+            estado.criada(id, reservas.coluna(1, i), reservas.texto(4, i), LocalDate.ofEpochDay(reservas.coluna(2, i)));
+            int prazo = reservas.coluna(3, i);
+            if (prazo != SEM_PRAZO) estado.separada(id, LocalDate.ofEpochDay(prazo));
+        }
+        estado.avancar(ultimoIdReserva);
+        return estado;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}